@@ -24,6 +24,10 @@ repositories {
 dependencies {
     testImplementation(platform("org.junit:junit-bom:5.10.0"))
     testImplementation("org.junit.jupiter:junit-jupiter")
+    testImplementation("org.springframework.boot:spring-boot-starter-test")
+    testRuntimeOnly("org.junit.platform:junit-platform-launcher")
+    // Embedded database for repository and JDBC tests (MySQL compatibility mode)
+    testRuntimeOnly("com.h2database:h2")
 
     // For Spring Data JPA
     implementation("org.springframework.boot:spring-boot-starter-data-jpa")
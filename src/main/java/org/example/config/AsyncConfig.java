@@ -1,25 +1,232 @@
 package org.example.config;
 
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.aop.interceptor.AsyncUncaughtExceptionHandler;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.AsyncConfigurer;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Configuration for async operations and scheduling.
- * Enables @Async for non-blocking email sending.
+ *
+ * Named, bounded executors replace the default SimpleAsyncTaskExecutor (one new thread per task):
+ * - ioTaskExecutor: virtual threads for blocking I/O (SMTP, S3). The default for @Async.
+ * - cpuTaskExecutor: platform threads, one per core by default, for CPU-bound work such as PDF rendering.
+ * - streamTaskExecutor: virtual threads for StreamingResponseBody responses (file downloads, invoice
+ *   ZIP exports, audit archives), which can each hold a slot for many minutes. Kept apart from
+ *   ioTaskExecutor so a burst of slow downloads cannot hold up outgoing email. Endpoints that stream
+ *   call useStreamTimeout, which gives that response app.async.stream.request-timeout instead of the
+ *   default async timeout that applies to every other async request.
+ *
+ * Both have a queue limit. When the pool and queue are full the submitting thread runs the task itself,
+ * which slows the caller down instead of dropping emails or creating more threads. Queued work is allowed
+ * to finish on shutdown, up to app.async.shutdown-timeout.
+ *
+ * Spring Boot's TaskExecutorMetricsAutoConfiguration publishes executor.active, executor.queued,
+ * executor.completed and executor.pool.size for each ThreadPoolTaskExecutor bean, tagged name=io,
+ * name=cpu and name=stream. Rejections are counted separately as executor.rejected.
  */
 @Configuration
 @EnableAsync
 @EnableScheduling
-public class AsyncConfig {
-    // Uses default SimpleAsyncTaskExecutor
-    // For production, you might want to configure a custom ThreadPoolTaskExecutor
-}
+public class AsyncConfig implements AsyncConfigurer, WebMvcConfigurer {
+
+    public static final String IO_EXECUTOR = "ioTaskExecutor";
+    public static final String CPU_EXECUTOR = "cpuTaskExecutor";
+    public static final String STREAM_EXECUTOR = "streamTaskExecutor";
+
+    private static final Logger logger = LoggerFactory.getLogger(AsyncConfig.class);
+
+    private static final String STREAM_TIMEOUT_ATTRIBUTE = AsyncConfig.class.getName() + ".streamTimeout";
+
+    private final CallerRunsWithCount ioRejections = new CallerRunsWithCount("io");
+    private final CallerRunsWithCount cpuRejections = new CallerRunsWithCount("cpu");
+    private final CallerRunsWithCount streamRejections = new CallerRunsWithCount("stream");
+
+    @Value("${app.async.io.max-concurrency:64}")
+    private int ioMaxConcurrency;
+
+    @Value("${app.async.io.queue-capacity:500}")
+    private int ioQueueCapacity;
+
+    @Value("${app.async.cpu.pool-size:0}")
+    private int cpuPoolSize;
+
+    @Value("${app.async.cpu.queue-capacity:100}")
+    private int cpuQueueCapacity;
 
+    @Value("${app.async.stream.max-concurrency:32}")
+    private int streamMaxConcurrency;
 
+    @Value("${app.async.stream.queue-capacity:50}")
+    private int streamQueueCapacity;
 
+    @Value("${app.async.stream.request-timeout:30m}")
+    private Duration streamRequestTimeout;
 
+    @Value("${app.async.shutdown-timeout:30s}")
+    private Duration shutdownTimeout;
 
+    /**
+     * Virtual-thread executor for blocking I/O. Virtual threads are cheap, so the concurrency limit
+     * only protects downstream services (mail server, S3) rather than the JVM.
+     */
+    @Bean(name = IO_EXECUTOR)
+    public ThreadPoolTaskExecutor ioTaskExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("io-");
+        executor.setVirtualThreads(true);
+        executor.setCorePoolSize(ioMaxConcurrency);
+        executor.setMaxPoolSize(ioMaxConcurrency);
+        executor.setAllowCoreThreadTimeOut(true);
+        executor.setKeepAliveSeconds(30);
+        executor.setQueueCapacity(ioQueueCapacity);
+        executor.setRejectedExecutionHandler(ioRejections);
+        configureShutdown(executor);
+        return executor;
+    }
 
+    /**
+     * Bounded platform-thread pool for CPU-bound work. Sized to the core count by default so
+     * concurrent PDF renders cannot oversubscribe the machine.
+     */
+    @Bean(name = CPU_EXECUTOR)
+    public ThreadPoolTaskExecutor cpuTaskExecutor() {
+        int poolSize = cpuPoolSize > 0 ? cpuPoolSize : Runtime.getRuntime().availableProcessors();
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("cpu-");
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(cpuQueueCapacity);
+        executor.setRejectedExecutionHandler(cpuRejections);
+        configureShutdown(executor);
+        return executor;
+    }
 
+    /**
+     * Virtual-thread executor for streamed responses. The limit bounds how many downloads read from
+     * storage at once; when it and the queue are full the download is streamed on the request thread.
+     */
+    @Bean(name = STREAM_EXECUTOR)
+    public ThreadPoolTaskExecutor streamTaskExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("stream-");
+        executor.setVirtualThreads(true);
+        executor.setCorePoolSize(streamMaxConcurrency);
+        executor.setMaxPoolSize(streamMaxConcurrency);
+        executor.setAllowCoreThreadTimeOut(true);
+        executor.setKeepAliveSeconds(30);
+        executor.setQueueCapacity(streamQueueCapacity);
+        executor.setRejectedExecutionHandler(streamRejections);
+        configureShutdown(executor);
+        return executor;
+    }
 
+    @Bean
+    public MeterBinder executorRejectionMetrics() {
+        return registry -> {
+            for (CallerRunsWithCount handler : new CallerRunsWithCount[] {ioRejections, cpuRejections, streamRejections}) {
+                FunctionCounter.builder("executor.rejected", handler, CallerRunsWithCount::getCount)
+                        .description("Tasks that did not fit in the queue and ran on the submitting thread")
+                        .tag("name", handler.name)
+                        .register(registry);
+            }
+        };
+    }
+
+    /**
+     * Unqualified @Async methods run on the I/O executor.
+     */
+    @Override
+    public Executor getAsyncExecutor() {
+        return ioTaskExecutor();
+    }
+
+    @Override
+    public AsyncUncaughtExceptionHandler getAsyncUncaughtExceptionHandler() {
+        return (ex, method, params) -> logger.error("Async task {}.{} failed: {}",
+                method.getDeclaringClass().getSimpleName(), method.getName(), ex.getMessage(), ex);
+    }
+
+    /**
+     * StreamingResponseBody downloads block on I/O for their whole lifetime; run them on their own executor.
+     * Declaring our own executors disables Boot's applicationTaskExecutor, so this must be set explicitly.
+     */
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setTaskExecutor(streamTaskExecutor());
+        configurer.registerCallableInterceptors(new CallableProcessingInterceptor() {
+            @Override
+            public <T> void beforeConcurrentHandling(NativeWebRequest request, Callable<T> task) {
+                // Runs before the async request is started, the last point where its timeout can be changed
+                if (request instanceof AsyncWebRequest asyncRequest
+                        && request.getAttribute(STREAM_TIMEOUT_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) != null) {
+                    asyncRequest.setTimeout(streamRequestTimeout.toMillis());
+                }
+            }
+        });
+    }
+
+    /**
+     * Gives the StreamingResponseBody returned for this request app.async.stream.request-timeout, so slow
+     * clients can finish large downloads without raising the timeout of every other async request.
+     */
+    public static void useStreamTimeout(HttpServletRequest request) {
+        request.setAttribute(STREAM_TIMEOUT_ATTRIBUTE, Boolean.TRUE);
+    }
+
+    private void configureShutdown(ThreadPoolTaskExecutor executor) {
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationMillis(shutdownTimeout.toMillis());
+    }
+
+    /**
+     * Runs rejected tasks on the submitting thread (back-pressure) and counts how often that happens.
+     * Tasks submitted after shutdown has started are discarded, as with CallerRunsPolicy.
+     */
+    private static class CallerRunsWithCount implements RejectedExecutionHandler {
+        private final String name;
+        private final AtomicLong count = new AtomicLong();
+        private final ThreadPoolExecutor.CallerRunsPolicy delegate = new ThreadPoolExecutor.CallerRunsPolicy();
+
+        CallerRunsWithCount(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public void rejectedExecution(Runnable task, ThreadPoolExecutor executor) {
+            long rejected = count.incrementAndGet();
+            if (rejected == 1 || rejected % 100 == 0) {
+                logger.warn("{} executor saturated (active={}, queued={}); running task on caller thread ({} so far)",
+                        name, executor.getActiveCount(), executor.getQueue().size(), rejected);
+            }
+            delegate.rejectedExecution(task, executor);
+        }
+
+        double getCount() {
+            return count.get();
+        }
+    }
+}
@@ -1,42 +1,100 @@
 package org.example.config;
 
 import com.github.benmanes.caffeine.cache.Caffeine;
+import org.example.service.FinancialHealthService;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.cache.caffeine.CaffeineCacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.time.Duration;
+import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
 
 /**
  * Cache configuration for the application.
- * 
+ *
  * This enables caching for financial health dashboard data to improve
  * performance at scale when dealing with thousands of organizations.
- * 
- * Cache eviction: 5 minutes TTL
- * Cache size: Maximum 1000 entries
+ *
+ * financialHealth is invalidated per organization on every node whenever an invoice or project
+ * changes (see FinancialHealthCacheInvalidator and CacheVersionService), so its TTL only bounds
+ * memory for idle organizations. Entries that are still being read are reloaded in the background
+ * after refresh-after, which picks up changes that do not publish an event without making a user
+ * wait for the recompute.
+ *
+ * taskSummary holds each user's task inbox counters for a short time; TaskSummaryService evicts a
+ * user's entry after any task change involving them.
+ *
+ * capacityIndex holds one in-memory CapacityIndex per organization; ResourceCapacityService applies
+ * this node's assignment changes to it and checks the organization's cache version (see
+ * CacheVersionService) before every use, so assignment changes made on other nodes are seen at once.
+ * The TTL picks up membership changes.
+ *
+ * activityFeed holds one ActivityFeed (recent activity per project) per organization;
+ * ProjectActivityService appends this node's new activities and checks the organization's cache
+ * version before every use, so activities, renames and deletions from other nodes are seen at once.
+ *
+ * Cache size: Maximum 1000 entries per cache (taskSummary: 10000, one per active user)
+ * Hit/miss statistics are recorded and published by Actuator as cache.gets{cache=...}.
  */
 @Configuration
 @EnableCaching
 public class CacheConfig {
 
+    public static final String FINANCIAL_HEALTH = "financialHealth";
+    public static final String TASK_SUMMARY = "taskSummary";
+    public static final String CAPACITY_INDEX = "capacityIndex";
+    public static final String ACTIVITY_FEED = "activityFeed";
+
     @Bean
-    public CacheManager cacheManager() {
-        CaffeineCacheManager cacheManager = new CaffeineCacheManager("financialHealth");
-        
+    public CacheManager cacheManager(ObjectProvider<FinancialHealthService> financialHealthService,
+                                     @Qualifier(AsyncConfig.IO_EXECUTOR) Executor ioExecutor,
+                                     @Value("${app.cache.financial-health.ttl:6h}") Duration financialHealthTtl,
+                                     @Value("${app.cache.financial-health.refresh-after:15m}") Duration financialHealthRefresh,
+                                     @Value("${app.cache.task-summary.ttl:30s}") Duration taskSummaryTtl,
+                                     @Value("${app.cache.capacity-index.ttl:10m}") Duration capacityIndexTtl,
+                                     @Value("${app.cache.activity-feed.ttl:10m}") Duration activityFeedTtl) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+
+        // Default for any other cache
         cacheManager.setCaffeine(Caffeine.newBuilder()
                 .expireAfterWrite(5, TimeUnit.MINUTES) // Cache expires 5 minutes after write
                 .maximumSize(1000) // Maximum 1000 cache entries
                 .recordStats()); // Enable cache statistics
-        
-        return cacheManager;
-    }
-}
-
 
+        // Loading cache so entries can be refreshed ahead of expiry; the service is looked up lazily
+        // because it is itself proxied by the cache infrastructure
+        cacheManager.registerCustomCache(FINANCIAL_HEALTH, Caffeine.newBuilder()
+                .expireAfterWrite(financialHealthTtl)
+                .refreshAfterWrite(financialHealthRefresh)
+                .maximumSize(1000)
+                .recordStats()
+                .executor(ioExecutor)
+                .build(organizationId -> financialHealthService.getObject().buildFinancialHealth((Long) organizationId)));
 
+        cacheManager.registerCustomCache(TASK_SUMMARY, Caffeine.newBuilder()
+                .expireAfterWrite(taskSummaryTtl)
+                .maximumSize(10000)
+                .recordStats()
+                .build());
 
+        cacheManager.registerCustomCache(CAPACITY_INDEX, Caffeine.newBuilder()
+                .expireAfterWrite(capacityIndexTtl)
+                .maximumSize(1000)
+                .recordStats()
+                .build());
 
+        cacheManager.registerCustomCache(ACTIVITY_FEED, Caffeine.newBuilder()
+                .expireAfterWrite(activityFeedTtl)
+                .maximumSize(1000)
+                .recordStats()
+                .build());
 
+        return cacheManager;
+    }
+}
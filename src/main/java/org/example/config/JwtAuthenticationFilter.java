@@ -0,0 +1,66 @@
+package org.example.config;
+
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.example.service.AuthenticatedUser;
+import org.example.service.JwtTokenService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Authenticates requests from the "Authorization: Bearer" access token when app.auth.mode=jwt.
+ *
+ * Verification only checks the signature, issuer and expiry, so no session or database access is
+ * involved. Requests without a valid token continue unauthenticated and are rejected by the normal
+ * authorization rules; an expired token additionally gets a "WWW-Authenticate" hint so the client
+ * knows to call /api/auth/refresh.
+ *
+ * Added to the security filter chain by SecurityConfig (deliberately not a @Component, which would
+ * also register it as a plain servlet filter).
+ */
+public class JwtAuthenticationFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(JwtAuthenticationFilter.class);
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    private final JwtTokenService jwtTokenService;
+
+    public JwtAuthenticationFilter(JwtTokenService jwtTokenService) {
+        this.jwtTokenService = jwtTokenService;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (header != null && header.startsWith(BEARER_PREFIX)) {
+            try {
+                AuthenticatedUser principal = jwtTokenService.parseAccessToken(header.substring(BEARER_PREFIX.length()).trim());
+                UsernamePasswordAuthenticationToken authentication =
+                        UsernamePasswordAuthenticationToken.authenticated(principal, null, principal.getAuthorities());
+                authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+
+                SecurityContext context = SecurityContextHolder.createEmptyContext();
+                context.setAuthentication(authentication);
+                SecurityContextHolder.setContext(context);
+            } catch (ExpiredJwtException e) {
+                response.setHeader(HttpHeaders.WWW_AUTHENTICATE, "Bearer error=\"invalid_token\", error_description=\"expired\"");
+            } catch (JwtException | IllegalArgumentException e) {
+                logger.debug("Rejected bearer token for {}: {}", request.getRequestURI(), e.getMessage());
+            }
+        }
+        filterChain.doFilter(request, response);
+    }
+}
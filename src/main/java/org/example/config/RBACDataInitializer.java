@@ -4,6 +4,7 @@ import org.example.models.Permission;
 import org.example.models.Role;
 import org.example.repository.PermissionRepository;
 import org.example.repository.RoleRepository;
+import org.example.service.RolePermissionIndex;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -27,6 +28,9 @@ public class RBACDataInitializer implements CommandLineRunner {
     @Autowired
     private RoleRepository roleRepository;
 
+    @Autowired
+    private RolePermissionIndex rolePermissionIndex;
+
     @Override
     @Transactional
     public void run(String... args) throws Exception {
@@ -38,6 +42,9 @@ public class RBACDataInitializer implements CommandLineRunner {
         // Create Roles with Permissions
         createRolesIfNotExist();
 
+        // Role permissions may have changed; rebuild the lookup on next use
+        rolePermissionIndex.invalidate();
+
         logger.info("RBAC data initialization complete.");
     }
 
@@ -1,82 +1,94 @@
 package org.example.config;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.example.service.RateLimitStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.HashMap;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 
 /**
- * Simple in-memory rate limiting filter for auth endpoints.
- * For production at scale, consider using Redis-based rate limiting.
+ * Rate limiting filter for auth endpoints.
+ *
+ * Each (endpoint, client IP) pair is limited to "burst" requests in quick succession and "per-hour"
+ * requests per hour. Counting is delegated to a RateLimitStore: per-node token buckets by default,
+ * or database-backed sliding windows shared by all nodes with app.rate-limit.store=jdbc.
+ *
+ * Limits are configured per endpoint with app.rate-limit.rules as a comma-separated list of
+ * path=burst/per-hour entries. Rejections are counted as app.rate_limit.rejected{endpoint}.
  */
 @Component
 public class RateLimitingFilter extends OncePerRequestFilter {
 
-    // Rate limit settings
-    private static final int MAX_REQUESTS_PER_MINUTE = 10;
-    private static final int MAX_REQUESTS_PER_HOUR = 50;
-    
-    // Endpoints to rate limit
-    private static final String[] RATE_LIMITED_ENDPOINTS = {
-        "/api/auth/forgot-password",
-        "/api/auth/reset-password",
-        "/api/organization/register",
-        "/api/organization/resend-verification",
-        "/api/invitations/accept"
-    };
-
-    // In-memory storage (use Redis for distributed systems)
-    private final Map<String, RateLimitInfo> rateLimitMap = new ConcurrentHashMap<>();
+    private static final Logger logger = LoggerFactory.getLogger(RateLimitingFilter.class);
+
+    private static final String DEFAULT_RULES = "/api/auth/forgot-password=10/50,"
+            + "/api/auth/reset-password=10/50,"
+            + "/api/organization/register=10/50,"
+            + "/api/organization/resend-verification=10/50,"
+            + "/api/invitations/accept=10/50";
+
+    private final RateLimitStore rateLimitStore;
+    private final Map<String, RateLimitStore.Rule> rules;
+    private final Map<String, Counter> rejectedCounters = new HashMap<>();
+    private final boolean enabled;
+
+    public RateLimitingFilter(RateLimitStore rateLimitStore,
+                              MeterRegistry meterRegistry,
+                              @Value("${app.rate-limit.enabled:true}") boolean enabled,
+                              @Value("${app.rate-limit.rules:" + DEFAULT_RULES + "}") String rules) {
+        this.rateLimitStore = rateLimitStore;
+        this.enabled = enabled;
+        this.rules = parseRules(rules);
+        for (String path : this.rules.keySet()) {
+            rejectedCounters.put(path, Counter.builder("app.rate_limit.rejected")
+                    .description("Requests rejected with 429 by RateLimitingFilter")
+                    .tag("endpoint", path)
+                    .register(meterRegistry));
+        }
+        logger.info("Rate limiting {} for {} endpoint(s)", enabled ? "enabled" : "disabled", this.rules.size());
+    }
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
-        
+
         String path = request.getRequestURI();
-        
-        // Only rate limit specific endpoints
-        if (!shouldRateLimit(path)) {
+        RateLimitStore.Rule rule = enabled ? rules.get(path) : null;
+
+        // Only rate limit configured endpoints
+        if (rule == null) {
             filterChain.doFilter(request, response);
             return;
         }
 
-        String clientKey = getClientKey(request);
-        RateLimitInfo info = rateLimitMap.computeIfAbsent(clientKey, k -> new RateLimitInfo());
+        long retryAfterMillis = rateLimitStore.tryAcquire(path + "|" + getClientIp(request), rule, System.currentTimeMillis());
 
-        // Clean up old entries periodically
-        cleanupOldEntries();
-
-        // Check rate limit
-        if (info.isRateLimited()) {
+        if (retryAfterMillis > 0) {
+            rejectedCounters.get(path).increment();
+            long retryAfterSeconds = Math.max(1, TimeUnit.MILLISECONDS.toSeconds(retryAfterMillis + 999));
             response.setStatus(429);
+            response.setHeader("Retry-After", String.valueOf(retryAfterSeconds));
             response.setContentType("application/json");
-            response.getWriter().write("{\"error\":\"Too many requests. Please try again later.\",\"retryAfter\":" + info.getRetryAfterSeconds() + "}");
+            response.getWriter().write("{\"error\":\"Too many requests. Please try again later.\",\"retryAfter\":" + retryAfterSeconds + "}");
             return;
         }
 
-        // Record this request
-        info.recordRequest();
-
         filterChain.doFilter(request, response);
     }
 
-    private boolean shouldRateLimit(String path) {
-        for (String endpoint : RATE_LIMITED_ENDPOINTS) {
-            if (path.equals(endpoint)) {
-                return true;
-            }
-        }
-        return false;
-    }
-
-    private String getClientKey(HttpServletRequest request) {
+    private String getClientIp(HttpServletRequest request) {
         // Try to get real IP from proxy headers
         String ip = request.getHeader("X-Forwarded-For");
         if (ip == null || ip.isEmpty()) {
@@ -89,78 +101,27 @@ public class RateLimitingFilter extends OncePerRequestFilter {
         if (ip != null && ip.contains(",")) {
             ip = ip.split(",")[0].trim();
         }
-        return ip + ":" + request.getRequestURI();
+        return ip;
     }
 
-    private void cleanupOldEntries() {
-        long now = System.currentTimeMillis();
-        rateLimitMap.entrySet().removeIf(entry -> 
-            now - entry.getValue().getLastRequestTime() > TimeUnit.HOURS.toMillis(1)
-        );
-    }
-
-    private static class RateLimitInfo {
-        private int requestsThisMinute = 0;
-        private int requestsThisHour = 0;
-        private long minuteStart = System.currentTimeMillis();
-        private long hourStart = System.currentTimeMillis();
-        private long lastRequestTime = System.currentTimeMillis();
-
-        public synchronized void recordRequest() {
-            long now = System.currentTimeMillis();
-            lastRequestTime = now;
-
-            // Reset minute counter if minute has passed
-            if (now - minuteStart > TimeUnit.MINUTES.toMillis(1)) {
-                requestsThisMinute = 0;
-                minuteStart = now;
-            }
-
-            // Reset hour counter if hour has passed
-            if (now - hourStart > TimeUnit.HOURS.toMillis(1)) {
-                requestsThisHour = 0;
-                hourStart = now;
-            }
-
-            requestsThisMinute++;
-            requestsThisHour++;
-        }
-
-        public synchronized boolean isRateLimited() {
-            long now = System.currentTimeMillis();
-
-            // Check if counters need reset
-            if (now - minuteStart > TimeUnit.MINUTES.toMillis(1)) {
-                requestsThisMinute = 0;
-                minuteStart = now;
+    private static Map<String, RateLimitStore.Rule> parseRules(String spec) {
+        Map<String, RateLimitStore.Rule> parsed = new HashMap<>();
+        for (String entry : spec.split(",")) {
+            String trimmed = entry.trim();
+            if (trimmed.isEmpty()) {
+                continue;
             }
-            if (now - hourStart > TimeUnit.HOURS.toMillis(1)) {
-                requestsThisHour = 0;
-                hourStart = now;
+            int eq = trimmed.lastIndexOf('=');
+            int slash = trimmed.lastIndexOf('/');
+            if (eq <= 0 || slash < eq) {
+                throw new IllegalArgumentException("Invalid app.rate-limit.rules entry '" + trimmed
+                        + "', expected path=burst/per-hour");
             }
-
-            return requestsThisMinute >= MAX_REQUESTS_PER_MINUTE || 
-                   requestsThisHour >= MAX_REQUESTS_PER_HOUR;
-        }
-
-        public long getRetryAfterSeconds() {
-            long now = System.currentTimeMillis();
-            if (requestsThisMinute >= MAX_REQUESTS_PER_MINUTE) {
-                return Math.max(1, (minuteStart + TimeUnit.MINUTES.toMillis(1) - now) / 1000);
-            }
-            return Math.max(1, (hourStart + TimeUnit.HOURS.toMillis(1) - now) / 1000);
-        }
-
-        public long getLastRequestTime() {
-            return lastRequestTime;
+            String path = trimmed.substring(0, eq).trim();
+            int burst = Integer.parseInt(trimmed.substring(eq + 1, slash).trim());
+            int perHour = Integer.parseInt(trimmed.substring(slash + 1).trim());
+            parsed.put(path, new RateLimitStore.Rule(burst, perHour));
         }
+        return Map.copyOf(parsed);
     }
 }
-
-
-
-
-
-
-
-
@@ -1,6 +1,9 @@
 // src/main/java/org/example/config/SecurityConfig.java
 package org.example.config;
 
+import org.example.service.JwtTokenService;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -9,10 +12,12 @@ import org.springframework.security.config.annotation.authentication.configurati
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
+import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.security.web.header.writers.ReferrerPolicyHeaderWriter;
 import org.springframework.web.cors.CorsConfigurationSource;
 
@@ -22,9 +27,20 @@ import org.springframework.web.cors.CorsConfigurationSource;
 public class SecurityConfig {
 
     private final CorsConfig corsConfig;
+    private final ObjectProvider<JwtTokenService> jwtTokenService;
+    private final boolean statelessAuth;
 
-    public SecurityConfig(CorsConfig corsConfig) {
+    /**
+     * @param authMode "session" (default): login stores the security context in the HTTP session.
+     *                 "jwt": no sessions; requests carry a bearer access token issued by /api/auth/login
+     *                 and verified by JwtAuthenticationFilter.
+     */
+    public SecurityConfig(CorsConfig corsConfig,
+                          ObjectProvider<JwtTokenService> jwtTokenService,
+                          @Value("${app.auth.mode:session}") String authMode) {
         this.corsConfig = corsConfig;
+        this.jwtTokenService = jwtTokenService;
+        this.statelessAuth = "jwt".equalsIgnoreCase(authMode);
     }
 
     @Bean
@@ -84,19 +100,30 @@ public class SecurityConfig {
                         // Note: Frontend is served from S3 + CloudFront, so no static file paths needed
                         // All other requests should return 404 (frontend handles routing)
                         .anyRequest().denyAll()
-                )
-                // Disable anonymous authentication for better CORS handling
-                // .anonymous(anonymous -> anonymous.disable())
-                // Form login disabled (using API-based authentication)
-                // Frontend handles login UI from CloudFront
-                
-                // Session management for API authentication
-                .sessionManagement(session -> session
-                        .sessionCreationPolicy(org.springframework.security.config.http.SessionCreationPolicy.IF_REQUIRED)
-                        .maximumSessions(1)
-                        .maxSessionsPreventsLogin(false)
-                )
-                
+                );
+        // Disable anonymous authentication for better CORS handling
+        // .anonymous(anonymous -> anonymous.disable())
+        // Form login disabled (using API-based authentication)
+        // Frontend handles login UI from CloudFront
+
+        if (statelessAuth) {
+            // Token authentication: nothing is kept on the server between requests
+            http
+                    .sessionManagement(session -> session
+                            .sessionCreationPolicy(SessionCreationPolicy.STATELESS)
+                    )
+                    .addFilterBefore(new JwtAuthenticationFilter(jwtTokenService.getObject()), UsernamePasswordAuthenticationFilter.class);
+        } else {
+            // Session management for API authentication
+            http
+                    .sessionManagement(session -> session
+                            .sessionCreationPolicy(SessionCreationPolicy.IF_REQUIRED)
+                            .maximumSessions(1)
+                            .maxSessionsPreventsLogin(false)
+                    );
+        }
+
+        http
                 // Security headers
                 .headers(headers -> headers
                         .frameOptions(frameOptions -> frameOptions.deny())
@@ -9,6 +9,7 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.context.HttpSessionSecurityContextRepository;
 import org.springframework.security.web.context.SecurityContextRepository;
 import org.springframework.validation.BindingResult;
@@ -26,7 +27,10 @@ import org.slf4j.LoggerFactory;
 import org.example.dto.auth.ForgotPasswordRequest;
 import org.example.dto.auth.ResetPasswordRequest;
 import org.example.models.User;
+import io.jsonwebtoken.JwtException;
 import org.example.service.AuthService;
+import org.example.service.AuthenticatedUser;
+import org.example.service.JwtTokenService;
 import org.example.service.AuthService.PasswordResetResult;
 import org.example.service.AuthService.PasswordResetValidation;
 import org.example.service.UserService;
@@ -46,6 +50,13 @@ public class ApiAuthController {
     @Autowired
     private AuthService authService;
 
+    @Autowired
+    private UserDetailsService userDetailsService;
+
+    // Only present when app.auth.mode=jwt
+    @Autowired(required = false)
+    private JwtTokenService jwtTokenService;
+
     private final SecurityContextRepository securityContextRepository = new HttpSessionSecurityContextRepository();
 
     @PostMapping("/login")
@@ -70,7 +81,15 @@ public class ApiAuthController {
                 new UsernamePasswordAuthenticationToken(normalizedUsername, password)
             );
             
-            if (authentication.isAuthenticated()) {
+            if (authentication.isAuthenticated() && jwtTokenService != null) {
+                // Stateless mode: hand the client tokens instead of creating a session
+                response.put("success", true);
+                response.put("message", "Login successful");
+                response.put("username", username);
+                AuthenticatedUser principal = (AuthenticatedUser) authentication.getPrincipal();
+                putTokens(response, jwtTokenService.issue(principal, userService.getTokenVersion(principal.getUserId())));
+                return ResponseEntity.ok(response);
+            } else if (authentication.isAuthenticated()) {
                 // Create or get the session
                 HttpSession session = request.getSession(true);
                 System.out.println("Session created: " + session.getId());
@@ -113,6 +132,60 @@ public class ApiAuthController {
         }
     }
 
+    /**
+     * Exchanges a refresh token for a new access/refresh token pair (stateless mode only).
+     * The user is reloaded, so a disabled account or changed roles take effect here, and a token issued
+     * before the last password change, reset or logout is rejected.
+     */
+    @PostMapping("/refresh")
+    public ResponseEntity<Map<String, Object>> refresh(@RequestBody Map<String, String> refreshRequest) {
+        Map<String, Object> response = new HashMap<>();
+        if (jwtTokenService == null) {
+            response.put("success", false);
+            response.put("message", "Token refresh is not enabled");
+            return ResponseEntity.status(404).body(response);
+        }
+
+        String refreshToken = refreshRequest.get("refreshToken");
+        if (refreshToken == null || refreshToken.isBlank()) {
+            response.put("success", false);
+            response.put("message", "Refresh token is required");
+            return ResponseEntity.badRequest().body(response);
+        }
+
+        try {
+            JwtTokenService.RefreshToken token = jwtTokenService.parseRefreshToken(refreshToken);
+            AuthenticatedUser user = (AuthenticatedUser) userDetailsService.loadUserByUsername(token.username());
+            if (!user.isEnabled()) {
+                response.put("success", false);
+                response.put("message", "Account is disabled");
+                return ResponseEntity.status(401).body(response);
+            }
+            int tokenVersion = userService.getTokenVersion(user.getUserId());
+            if (token.tokenVersion() != tokenVersion) {
+                logger.debug("Revoked refresh token presented for user {}", token.username());
+                response.put("success", false);
+                response.put("message", "Invalid or expired refresh token");
+                return ResponseEntity.status(401).body(response);
+            }
+            response.put("success", true);
+            putTokens(response, jwtTokenService.issue(user, tokenVersion));
+            return ResponseEntity.ok(response);
+        } catch (JwtException | AuthenticationException e) {
+            logger.debug("Refresh token rejected: {}", e.getMessage());
+            response.put("success", false);
+            response.put("message", "Invalid or expired refresh token");
+            return ResponseEntity.status(401).body(response);
+        }
+    }
+
+    private void putTokens(Map<String, Object> response, JwtTokenService.IssuedTokens tokens) {
+        response.put("tokenType", "Bearer");
+        response.put("accessToken", tokens.accessToken());
+        response.put("expiresIn", tokens.expiresInSeconds());
+        response.put("refreshToken", tokens.refreshToken());
+    }
+
     @GetMapping("/status")
     public ResponseEntity<Map<String, Object>> getAuthStatus(Authentication authentication, HttpServletRequest request) {
         System.out.println("Status check - Authentication: " + (authentication != null ? authentication.getName() : "null"));
@@ -177,6 +250,11 @@ public class ApiAuthController {
             
             if (auth != null) {
                 logger.info("Logging out user: {}", auth.getName());
+
+                // Stateless mode: the refresh tokens are the session, revoke them
+                if (jwtTokenService != null && auth.getPrincipal() instanceof AuthenticatedUser principal) {
+                    userService.revokeTokens(principal.getUserId());
+                }
                 
                 // Invalidate the session
                 HttpSession session = request.getSession(false);
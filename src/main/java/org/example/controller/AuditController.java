@@ -1,18 +1,28 @@
 package org.example.controller;
 
+import jakarta.servlet.http.HttpServletRequest;
+import org.example.config.AsyncConfig;
 import org.example.models.AuditLog;
-import org.example.models.User;
+import org.example.models.AuditLogArchive;
+import org.example.service.AuditArchiveService;
 import org.example.service.AuditService;
-import org.example.repository.UserRepository;
+import org.example.service.CurrentUser;
+import org.example.service.CurrentUserService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
-import org.springframework.security.core.Authentication;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/audit")
@@ -20,12 +30,14 @@ import java.util.Map;
 public class AuditController {
 
     private final AuditService auditService;
-    private final UserRepository userRepository;
+    private final AuditArchiveService auditArchiveService;
+    private final CurrentUserService currentUserService;
 
     @Autowired
-    public AuditController(AuditService auditService, UserRepository userRepository) {
+    public AuditController(AuditService auditService, AuditArchiveService auditArchiveService, CurrentUserService currentUserService) {
         this.auditService = auditService;
-        this.userRepository = userRepository;
+        this.auditArchiveService = auditArchiveService;
+        this.currentUserService = currentUserService;
     }
 
     @GetMapping("/{entityType}/{entityId}")
@@ -34,16 +46,79 @@ public class AuditController {
         return ResponseEntity.ok(auditService.getAuditLogs(entityType.toUpperCase(), entityId));
     }
 
+    /**
+     * Keyset-paginated audit log of the user's organization, newest first.
+     * Pass back nextCursorTimestamp/nextCursorId from the previous response to get the next page.
+     */
     @GetMapping("/organization")
-    public ResponseEntity<List<AuditLog>> getOrganizationAuditLogs(Authentication authentication) {
-        User user = userRepository.findByUsername(authentication.getName())
-                .orElseThrow(() -> new UsernameNotFoundException("User not found"));
-        
-        if (user.getOrganization() == null) {
+    public ResponseEntity<Map<String, Object>> getOrganizationAuditLogs(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime cursorTimestamp,
+            @RequestParam(required = false) Long cursorId,
+            @RequestParam(defaultValue = "50") int size) {
+        CurrentUser user = currentUser();
+
+        if (!user.hasOrganization()) {
+            return ResponseEntity.ok(Map.of("logs", List.of(), "hasNext", false));
+        }
+
+        try {
+            return ResponseEntity.ok(auditService.getOrganizationAuditPage(user.organizationId(), cursorTimestamp, cursorId, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Monthly archives of audit rows older than the retention window, newest month first.
+     */
+    @GetMapping("/organization/archives")
+    public ResponseEntity<List<Map<String, Object>>> getOrganizationAuditArchives() {
+        CurrentUser user = currentUser();
+
+        if (!user.hasOrganization()) {
             return ResponseEntity.ok(List.of());
         }
 
-        return ResponseEntity.ok(auditService.getOrganizationAuditLogs(user.getOrganization().getId()));
+        List<Map<String, Object>> archives = auditArchiveService.listArchives(user.organizationId()).stream()
+                .map(archive -> {
+                    Map<String, Object> item = new LinkedHashMap<>();
+                    item.put("id", archive.getId());
+                    item.put("month", archive.getArchiveMonth().toString().substring(0, 7));
+                    item.put("rowCount", archive.getRowCount());
+                    item.put("compressedSize", archive.getCompressedSize());
+                    item.put("createdAt", archive.getCreatedAt());
+                    return item;
+                })
+                .toList();
+        return ResponseEntity.ok(archives);
     }
-}
 
+    /**
+     * Streams one archive as newline-delimited JSON (one audit row per line, oldest first).
+     */
+    @GetMapping(value = "/organization/archives/{archiveId}", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamOrganizationAuditArchive(@PathVariable Long archiveId,
+                                                                                HttpServletRequest request) {
+        CurrentUser user = currentUser();
+
+        Optional<AuditLogArchive> archive = user.hasOrganization()
+                ? auditArchiveService.findArchive(user.organizationId(), archiveId)
+                : Optional.empty();
+        if (archive.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+
+        String filename = "audit-" + archive.get().getArchiveMonth().toString().substring(0, 7) + "-" + archiveId + ".jsonl";
+        StreamingResponseBody body = outputStream -> auditArchiveService.streamArchive(archive.get(), outputStream);
+        AsyncConfig.useStreamTimeout(request);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+                .body(body);
+    }
+
+    private CurrentUser currentUser() {
+        return currentUserService.find()
+                .orElseThrow(() -> new UsernameNotFoundException("User not found"));
+    }
+}
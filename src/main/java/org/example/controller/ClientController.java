@@ -1,14 +1,12 @@
 package org.example.controller;
 
 import org.example.models.Client;
-import org.example.models.User;
 import org.example.service.ClientService;
-import org.example.service.UserService;
+import org.example.service.CurrentUser;
+import org.example.service.CurrentUserService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -22,13 +20,13 @@ public class ClientController {
     private ClientService clientService;
 
     @Autowired
-    private UserService userService;
+    private CurrentUserService currentUserService;
 
     @GetMapping("/search")
     @PreAuthorize("hasAuthority('clients.view')")
     public ResponseEntity<?> searchClients(@RequestParam(value = "query", required = false) String query) {
-        User currentUser = getCurrentUser();
-        List<Client> clients = clientService.searchClients(currentUser.getOrganization().getId(), query);
+        CurrentUser currentUser = getCurrentUser();
+        List<Client> clients = clientService.searchClients(currentUser.organizationId(), query);
         return ResponseEntity.ok(clients);
     }
 
@@ -38,15 +36,15 @@ public class ClientController {
             @RequestParam(value = "query", required = false) String query,
             @RequestParam(value = "page", defaultValue = "0") int page,
             @RequestParam(value = "size", defaultValue = "50") int size) {
-        User currentUser = getCurrentUser();
-        org.springframework.data.domain.Page<Client> clients = clientService.searchClientsPaginated(currentUser.getOrganization().getId(), query, page, size);
+        CurrentUser currentUser = getCurrentUser();
+        org.springframework.data.domain.Page<Client> clients = clientService.searchClientsPaginated(currentUser.organizationId(), query, page, size);
         return ResponseEntity.ok(clients);
     }
 
     @PostMapping
     @PreAuthorize("hasAuthority('clients.create')")
     public ResponseEntity<?> createClient(@RequestBody Map<String, Object> payload) {
-        User currentUser = getCurrentUser();
+        CurrentUser currentUser = getCurrentUser();
         String name = (String) payload.get("name");
         String code = (String) payload.get("code");
         String email = (String) payload.get("email");
@@ -68,7 +66,7 @@ public class ClientController {
 
         try {
             Client client = clientService.createClient(
-                currentUser.getOrganization().getId(), 
+                currentUser.organizationId(), 
                 name, 
                 code, 
                 email, 
@@ -110,7 +108,7 @@ public class ClientController {
     @PutMapping("/{clientId}")
     @PreAuthorize("hasAuthority('clients.edit')")
     public ResponseEntity<?> updateClient(@PathVariable Long clientId, @RequestBody Map<String, Object> payload) {
-        User currentUser = getCurrentUser();
+        CurrentUser currentUser = getCurrentUser();
         String email = (String) payload.get("email");
         String billingAddress = (String) payload.get("billingAddress");
         String state = (String) payload.get("state");
@@ -128,7 +126,7 @@ public class ClientController {
 
         try {
             Client client = clientService.updateClient(
-                currentUser.getOrganization().getId(),
+                currentUser.organizationId(),
                 clientId,
                 email,
                 billingAddress,
@@ -142,10 +140,7 @@ public class ClientController {
         }
     }
 
-    private User getCurrentUser() {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String username = authentication.getName();
-        return userService.findByUsername(username)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+    private CurrentUser getCurrentUser() {
+        return currentUserService.get();
     }
 }
@@ -1,5 +1,7 @@
 package org.example.controller;
 
+import org.example.config.AsyncConfig;
+import org.example.service.FileStoragePathBuilder;
 import org.example.service.FileStorageService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -7,12 +9,15 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRange;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.Arrays;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -38,50 +43,140 @@ public class FileController {
      * Serves a file from storage.
      * Handles paths like: /api/files/profile-images/2/user_4_abc123.png
      * 
+     * The file is streamed to the client rather than loaded into memory, so large
+     * drawing attachments keep heap use flat. Supports single-range HTTP Range requests
+     * (with If-Range) and conditional GETs via If-None-Match/ETag.
+     * 
      * @param request The HTTP request to extract the full path
      * @return The file content with appropriate headers
      */
     @GetMapping("/**")
-    public ResponseEntity<byte[]> serveFile(jakarta.servlet.http.HttpServletRequest request) {
+    public ResponseEntity<StreamingResponseBody> serveFile(
+            jakarta.servlet.http.HttpServletRequest request,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.RANGE, required = false) String rangeHeader,
+            @RequestHeader(value = HttpHeaders.IF_RANGE, required = false) String ifRange) {
         try {
-            // Get the full path after /api/files/
-            String fullPath = request.getRequestURI();
-            logger.info("Serving file request: {}", fullPath);
-            
             // The fileUrl is the full path including /api/files/
-            String fileUrl = fullPath;
-
-            if (!fileStorageService.fileExists(fileUrl)) {
-                logger.warn("File not found: {}", fileUrl);
+            String fileUrl = request.getRequestURI();
+            logger.info("Serving file request: {}", fileUrl);
+            if (isPrivate(fileUrl)) {
                 return ResponseEntity.notFound().build();
             }
 
-            byte[] fileBytes = fileStorageService.getFileBytes(fileUrl);
-            String contentType = fileStorageService.getContentType(fileUrl);
+            FileStorageService.FileMetadata metadata;
+            try {
+                metadata = fileStorageService.getFileMetadata(fileUrl);
+            } catch (FileStorageService.StoredFileNotFoundException e) {
+                logger.warn("File not found: {} ({})", fileUrl, e.getMessage());
+                return ResponseEntity.notFound().build();
+            } catch (FileStorageService.FileStorageException e) {
+                logger.error("Storage error reading metadata of {}: {}", fileUrl, e.getMessage(), e);
+                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+            }
 
-            logger.info("Serving file: {} ({} bytes, type: {})", fileUrl, fileBytes.length, contentType);
+            long totalLength = metadata.contentLength();
+            String eTag = metadata.eTag();
 
             HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.parseMediaType(contentType));
+            headers.setContentType(MediaType.parseMediaType(metadata.contentType()));
             headers.setCacheControl(CacheControl.maxAge(7, TimeUnit.DAYS).cachePublic());
-            headers.setContentLength(fileBytes.length);
-            
+            headers.set(HttpHeaders.ACCEPT_RANGES, "bytes");
+            if (eTag != null) {
+                headers.setETag(eTag);
+            }
+            if (metadata.lastModified() != null) {
+                headers.setLastModified(metadata.lastModified());
+            }
+
             // CORS headers for CloudFront
             headers.setAccessControlAllowOrigin("*");
             headers.setAccessControlAllowMethods(Arrays.asList(HttpMethod.GET, HttpMethod.HEAD, HttpMethod.OPTIONS));
             headers.setAccessControlMaxAge(3600L);
 
-            logger.info("Returning file: {} bytes, Content-Type: {}", fileBytes.length, contentType);
-            return new ResponseEntity<>(fileBytes, headers, HttpStatus.OK);
-        } catch (FileStorageService.FileStorageException e) {
-            logger.error("Error serving file: {}", e.getMessage());
-            return ResponseEntity.notFound().build();
+            if (eTag != null && eTagMatches(ifNoneMatch, eTag)) {
+                logger.debug("File not modified: {}", fileUrl);
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).headers(headers).build();
+            }
+
+            long offset = 0;
+            long length = totalLength;
+            HttpStatus status = HttpStatus.OK;
+
+            // Honour Range only when If-Range is absent or still matches the current representation
+            boolean rangeApplies = rangeHeader != null && (ifRange == null || ifRange.equals(eTag));
+            if (rangeApplies) {
+                try {
+                    List<HttpRange> ranges = HttpRange.parseRanges(rangeHeader);
+                    // Multipart/byteranges responses are not supported; fall back to the full file
+                    if (ranges.size() == 1) {
+                        HttpRange range = ranges.get(0);
+                        offset = range.getRangeStart(totalLength);
+                        long end = range.getRangeEnd(totalLength);
+                        length = end - offset + 1;
+                        status = HttpStatus.PARTIAL_CONTENT;
+                        headers.set(HttpHeaders.CONTENT_RANGE, "bytes " + offset + "-" + end + "/" + totalLength);
+                    }
+                } catch (IllegalArgumentException e) {
+                    logger.warn("Unsatisfiable range '{}' for file {} ({} bytes)", rangeHeader, fileUrl, totalLength);
+                    return ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE)
+                            .header(HttpHeaders.CONTENT_RANGE, "bytes */" + totalLength)
+                            .build();
+                }
+            }
+
+            headers.setContentLength(length);
+            AsyncConfig.useStreamTimeout(request);
+
+            final long start = offset;
+            final long count = length;
+            StreamingResponseBody body = outputStream -> {
+                if (count > 0) {
+                    fileStorageService.transferTo(fileUrl, start, count, outputStream);
+                }
+            };
+
+            logger.info("Streaming file: {} (bytes {}-{} of {}, type: {})",
+                    fileUrl, start, start + count - 1, totalLength, metadata.contentType());
+            return new ResponseEntity<>(body, headers, status);
         } catch (Exception e) {
             logger.error("Unexpected error serving file", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
 
+    /**
+     * Checks an If-None-Match header value (which may be "*" or a list of possibly weak tags)
+     * against the current entity tag using weak comparison.
+     */
+    private boolean eTagMatches(String ifNoneMatch, String eTag) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+            return false;
+        }
+        String current = stripWeakPrefix(eTag);
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*") || stripWeakPrefix(tag).equals(current)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private String stripWeakPrefix(String tag) {
+        return tag.startsWith("W/") ? tag.substring(2) : tag;
+    }
+
+    /**
+     * Audit archives live in the same storage (under any URL form the backends accept) but are
+     * only readable through AuditController, which checks the organization.
+     */
+    private boolean isPrivate(String fileUrl) {
+        String path = java.net.URLDecoder.decode(fileUrl, java.nio.charset.StandardCharsets.UTF_8);
+        String prefix = FileStoragePathBuilder.AUDIT_ARCHIVES + "/";
+        return path.startsWith(prefix) || path.contains("/" + prefix);
+    }
+
     /**
      * Generates a presigned URL for uploading a file directly to storage.
      */
@@ -109,6 +204,9 @@ public class FileController {
     public ResponseEntity<?> getPresignedDownloadUrl(@RequestParam("fileUrl") String fileUrl) {
         try {
             logger.info("Generating presigned download URL for: {}", fileUrl);
+            if (isPrivate(fileUrl)) {
+                return ResponseEntity.notFound().build();
+            }
             String downloadUrl = fileStorageService.generatePresignedDownloadUrl(fileUrl);
             return ResponseEntity.ok(java.util.Map.of("downloadUrl", downloadUrl));
         } catch (UnsupportedOperationException e) {
@@ -1,9 +1,9 @@
 package org.example.controller;
 
 import org.example.dto.FinancialHealthDto;
-import org.example.models.User;
+import org.example.service.CurrentUser;
+import org.example.service.CurrentUserService;
 import org.example.service.FinancialHealthService;
-import org.example.service.UserService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -23,12 +23,12 @@ public class FinancialHealthController {
     private static final Logger logger = LoggerFactory.getLogger(FinancialHealthController.class);
 
     private final FinancialHealthService financialHealthService;
-    private final UserService userService;
+    private final CurrentUserService currentUserService;
 
     @Autowired
-    public FinancialHealthController(FinancialHealthService financialHealthService, UserService userService) {
+    public FinancialHealthController(FinancialHealthService financialHealthService, CurrentUserService currentUserService) {
         this.financialHealthService = financialHealthService;
-        this.userService = userService;
+        this.currentUserService = currentUserService;
     }
 
     /**
@@ -43,18 +43,16 @@ public class FinancialHealthController {
     public ResponseEntity<?> getFinancialHealthDashboard(Authentication authentication) {
         try {
             // Get the current user to determine their organization
-            String username = authentication.getName();
-            User user = userService.findByUsername(username)
-                    .orElseThrow(() -> new IllegalArgumentException("User not found: " + username));
+            CurrentUser user = currentUserService.get();
             
-            if (user.getOrganization() == null) {
+            if (!user.hasOrganization()) {
                 return ResponseEntity.badRequest().body(Map.of(
                     "success", false,
                     "error", "User must belong to an organization"
                 ));
             }
             
-            Long organizationId = user.getOrganization().getId();
+            Long organizationId = user.organizationId();
             FinancialHealthDto dashboardData = financialHealthService.getFinancialHealth(organizationId);
             
             return ResponseEntity.ok(Map.of(
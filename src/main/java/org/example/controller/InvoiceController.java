@@ -1,16 +1,18 @@
 package org.example.controller;
 
+import org.example.config.AsyncConfig;
 import org.example.models.Invoice;
 import org.example.models.InvoiceItem;
-import org.example.models.User;
 import org.example.models.enums.InvoiceStatus;
 import org.example.models.enums.InvoiceItemType;
 import org.example.dto.InvoiceResponseDto;
 import org.example.service.EmailService;
+import org.example.service.InvoiceBatchPdfService;
+import org.example.service.CurrentUser;
+import org.example.service.CurrentUserService;
 import org.example.service.InvoiceService;
 import org.example.service.InvoiceTemplateService;
 import org.example.service.PdfService;
-import org.example.service.UserService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -22,9 +24,8 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.math.BigDecimal;
 import java.text.NumberFormat;
@@ -45,17 +46,20 @@ public class InvoiceController {
     private final InvoiceService invoiceService;
     private final InvoiceTemplateService templateService;
     private final PdfService pdfService;
-    private final UserService userService;
+    private final CurrentUserService currentUserService;
     private final EmailService emailService;
+    private final InvoiceBatchPdfService invoiceBatchPdfService;
 
     @Autowired
     public InvoiceController(InvoiceService invoiceService, InvoiceTemplateService templateService, 
-                           PdfService pdfService, UserService userService, EmailService emailService) {
+                           PdfService pdfService, CurrentUserService currentUserService, EmailService emailService,
+                           InvoiceBatchPdfService invoiceBatchPdfService) {
         this.invoiceService = invoiceService;
         this.templateService = templateService;
         this.pdfService = pdfService;
-        this.userService = userService;
+        this.currentUserService = currentUserService;
         this.emailService = emailService;
+        this.invoiceBatchPdfService = invoiceBatchPdfService;
     }
 
     // Get all invoices for the user's organization
@@ -70,8 +74,8 @@ public class InvoiceController {
             @RequestParam(required = false) String search) {
         
         try {
-            User currentUser = getCurrentUser();
-            Long organizationId = currentUser.getOrganization().getId();
+            CurrentUser currentUser = getCurrentUser();
+            Long organizationId = currentUser.organizationId();
 
             Pageable pageable = PageRequest.of(page, size);
             Page<Invoice> invoicePage = invoiceService.getInvoicesByOrganizationWithFilters(
@@ -121,8 +125,8 @@ public class InvoiceController {
     @PreAuthorize("hasAuthority('invoices.view')")
     public ResponseEntity<InvoiceResponseDto> getInvoiceById(@PathVariable Long id) {
         try {
-            User currentUser = getCurrentUser();
-            Long organizationId = currentUser.getOrganization().getId();
+            CurrentUser currentUser = getCurrentUser();
+            Long organizationId = currentUser.organizationId();
 
             Invoice invoice = invoiceService.findInvoiceByIdAndOrganization(id, organizationId);
             InvoiceResponseDto dto = InvoiceResponseDto.fromEntity(invoice);
@@ -143,9 +147,9 @@ public class InvoiceController {
         Map<String, Object> response = new HashMap<>();
         
         try {
-            User currentUser = getCurrentUser();
-            Long organizationId = currentUser.getOrganization().getId();
-            Long createdById = currentUser.getId();
+            CurrentUser currentUser = getCurrentUser();
+            Long organizationId = currentUser.organizationId();
+            Long createdById = currentUser.userId();
 
             // Extract project ID from request if provided
             Long projectId = null;
@@ -201,8 +205,8 @@ public class InvoiceController {
         Map<String, Object> response = new HashMap<>();
         
         try {
-            User currentUser = getCurrentUser();
-            Long organizationId = currentUser.getOrganization().getId();
+            CurrentUser currentUser = getCurrentUser();
+            Long organizationId = currentUser.organizationId();
 
             // Extract project ID from request if provided
             Long projectId = null;
@@ -246,8 +250,8 @@ public class InvoiceController {
         Map<String, Object> response = new HashMap<>();
         
         try {
-            User currentUser = getCurrentUser();
-            Long organizationId = currentUser.getOrganization().getId();
+            CurrentUser currentUser = getCurrentUser();
+            Long organizationId = currentUser.organizationId();
 
             Invoice updatedInvoice = invoiceService.updateInvoiceStatus(id, organizationId, status);
             
@@ -276,8 +280,8 @@ public class InvoiceController {
         Map<String, Object> response = new HashMap<>();
         
         try {
-            User currentUser = getCurrentUser();
-            Long organizationId = currentUser.getOrganization().getId();
+            CurrentUser currentUser = getCurrentUser();
+            Long organizationId = currentUser.organizationId();
 
             Invoice invoice = invoiceService.findInvoiceByIdAndOrganization(id, organizationId);
             
@@ -336,8 +340,8 @@ public class InvoiceController {
         Map<String, Object> response = new HashMap<>();
         
         try {
-            User currentUser = getCurrentUser();
-            Long organizationId = currentUser.getOrganization().getId();
+            CurrentUser currentUser = getCurrentUser();
+            Long organizationId = currentUser.organizationId();
 
             LocalDate date = paymentDate != null ? LocalDate.parse(paymentDate) : LocalDate.now();
             Invoice updatedInvoice = invoiceService.recordPayment(id, organizationId, amount, date);
@@ -367,8 +371,8 @@ public class InvoiceController {
         Map<String, Object> response = new HashMap<>();
         
         try {
-            User currentUser = getCurrentUser();
-            Long organizationId = currentUser.getOrganization().getId();
+            CurrentUser currentUser = getCurrentUser();
+            Long organizationId = currentUser.organizationId();
 
             invoiceService.deleteInvoice(id, organizationId);
             
@@ -399,8 +403,8 @@ public class InvoiceController {
     @PreAuthorize("hasAuthority('invoices.view')")
     public ResponseEntity<byte[]> generateInvoicePdf(@PathVariable Long id) {
         try {
-            User currentUser = getCurrentUser();
-            Long organizationId = currentUser.getOrganization().getId();
+            CurrentUser currentUser = getCurrentUser();
+            Long organizationId = currentUser.organizationId();
 
             Invoice invoice = invoiceService.findInvoiceByIdAndOrganization(id, organizationId);
             byte[] pdfBytes = pdfService.generateInvoicePdf(invoice);
@@ -422,6 +426,54 @@ public class InvoiceController {
         }
     }
 
+    /**
+     * Download the PDFs of every invoice matching the filters as one ZIP archive.
+     * PDFs are rendered in parallel and streamed into the archive as they finish,
+     * so the batch is never held in memory.
+     */
+    @GetMapping("/pdf/batch")
+    @PreAuthorize("hasAuthority('invoices.view')")
+    public ResponseEntity<?> downloadInvoicePdfBatch(
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) @org.springframework.format.annotation.DateTimeFormat(iso = org.springframework.format.annotation.DateTimeFormat.ISO.DATE) LocalDate fromDate,
+            @RequestParam(required = false) @org.springframework.format.annotation.DateTimeFormat(iso = org.springframework.format.annotation.DateTimeFormat.ISO.DATE) LocalDate toDate,
+            jakarta.servlet.http.HttpServletRequest request) {
+        try {
+            CurrentUser currentUser = getCurrentUser();
+            Long organizationId = currentUser.organizationId();
+
+            InvoiceStatus statusFilter = null;
+            if (status != null && !status.trim().isEmpty()) {
+                statusFilter = InvoiceStatus.valueOf(status.trim().toUpperCase());
+            }
+
+            // Resolve the batch up front so filter errors still produce a normal JSON response
+            List<Long> invoiceIds = invoiceBatchPdfService.findInvoiceIdsForExport(organizationId, statusFilter, fromDate, toDate);
+            if (invoiceIds.isEmpty()) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", "No invoices match the given filters"));
+            }
+
+            String filename = "invoices"
+                    + (fromDate != null ? "_" + fromDate : "")
+                    + (toDate != null ? "_" + toDate : "")
+                    + ".zip";
+            StreamingResponseBody body = outputStream -> invoiceBatchPdfService.writeInvoicePdfZip(invoiceIds, outputStream);
+            AsyncConfig.useStreamTimeout(request);
+
+            logger.info("Starting batch PDF export of {} invoices for organization {}", invoiceIds.size(), organizationId);
+            return ResponseEntity.ok()
+                    .contentType(MediaType.parseMediaType("application/zip"))
+                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+                    .body(body);
+        } catch (IllegalArgumentException e) {
+            logger.warn("Invalid batch PDF export request: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            logger.error("Error starting batch PDF export", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of("error", "Failed to export invoices"));
+        }
+    }
+
     /**
      * @deprecated Use GET /api/invoices?status={status} instead
      */
@@ -430,8 +482,8 @@ public class InvoiceController {
     @PreAuthorize("hasAuthority('invoices.view')")
     public ResponseEntity<List<Invoice>> getInvoicesByStatus(@PathVariable InvoiceStatus status) {
         try {
-            User currentUser = getCurrentUser();
-            Long organizationId = currentUser.getOrganization().getId();
+            CurrentUser currentUser = getCurrentUser();
+            Long organizationId = currentUser.organizationId();
 
             List<Invoice> invoices = invoiceService.getInvoicesByOrganizationAndStatus(organizationId, status);
             return ResponseEntity.ok(invoices);
@@ -449,8 +501,8 @@ public class InvoiceController {
     @PreAuthorize("hasAuthority('invoices.view')")
     public ResponseEntity<List<Invoice>> getInvoicesByProject(@PathVariable Long projectId) {
         try {
-            User currentUser = getCurrentUser();
-            Long organizationId = currentUser.getOrganization().getId();
+            CurrentUser currentUser = getCurrentUser();
+            Long organizationId = currentUser.organizationId();
 
             List<Invoice> invoices = invoiceService.getInvoicesByOrganizationAndProject(organizationId, projectId);
             return ResponseEntity.ok(invoices);
@@ -468,8 +520,8 @@ public class InvoiceController {
     @PreAuthorize("hasAuthority('invoices.view')")
     public ResponseEntity<List<Invoice>> getOverdueInvoices() {
         try {
-            User currentUser = getCurrentUser();
-            Long organizationId = currentUser.getOrganization().getId();
+            CurrentUser currentUser = getCurrentUser();
+            Long organizationId = currentUser.organizationId();
 
             List<Invoice> invoices = invoiceService.getOverdueInvoices(organizationId);
             return ResponseEntity.ok(invoices);
@@ -484,8 +536,8 @@ public class InvoiceController {
     @PreAuthorize("hasAuthority('invoices.view')")
     public ResponseEntity<InvoiceService.InvoiceStatistics> getInvoiceStatistics() {
         try {
-            User currentUser = getCurrentUser();
-            Long organizationId = currentUser.getOrganization().getId();
+            CurrentUser currentUser = getCurrentUser();
+            Long organizationId = currentUser.organizationId();
 
             InvoiceService.InvoiceStatistics stats = invoiceService.getInvoiceStatistics(organizationId);
             return ResponseEntity.ok(stats);
@@ -496,12 +548,8 @@ public class InvoiceController {
     }
 
     // Helper method to get current user
-    private User getCurrentUser() {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String username = authentication.getName();
-        
-        return userService.findByUsernameWithOrganization(username)
-                .orElseThrow(() -> new RuntimeException("Current user not found: " + username));
+    private CurrentUser getCurrentUser() {
+        return currentUserService.get();
     }
 
     // Helper method to create Invoice object from request data
@@ -5,6 +5,7 @@ import org.example.models.User;
 import org.example.repository.OrganizationRepository;
 import org.example.service.FileStoragePathBuilder;
 import org.example.service.FileStorageService;
+import org.example.service.PdfImageCache;
 import org.example.service.UserService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -35,6 +36,9 @@ public class OrganizationController {
     @Autowired
     private FileStorageService fileStorageService;
 
+    @Autowired
+    private PdfImageCache pdfImageCache;
+
     @Value("${app.storage.allowed-image-types:image/jpeg,image/png,image/gif,image/webp}")
     private String allowedImageTypes;
 
@@ -183,6 +187,7 @@ public class OrganizationController {
 
             // Delete old logo image if exists
             if (organization.getLogoUrl() != null && !organization.getLogoUrl().isEmpty()) {
+                pdfImageCache.evictLogo(organization.getLogoUrl());
                 try {
                     fileStorageService.deleteFile(organization.getLogoUrl());
                     logger.info("Deleted old logo image for organization: {}", organization.getId());
@@ -262,6 +267,7 @@ public class OrganizationController {
             }
 
             // Delete the file
+            pdfImageCache.evictLogo(organization.getLogoUrl());
             try {
                 fileStorageService.deleteFile(organization.getLogoUrl());
             } catch (Exception e) {
@@ -27,6 +27,19 @@ public class ProjectActivityController {
         return ResponseEntity.ok(activities);
     }
 
+    /**
+     * Cross-project timeline for the user's organization, newest first.
+     */
+    @GetMapping("/activity-feed")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<?> getOrganizationActivityFeed(@RequestParam(defaultValue = "20") int limit) {
+        try {
+            return ResponseEntity.ok(projectActivityService.getOrganizationFeed(limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
     @PostMapping("/{projectId}/activities")
     @PreAuthorize("isAuthenticated()")
     public ResponseEntity<?> createActivity(@PathVariable Long projectId, @RequestBody Map<String, String> payload, Authentication authentication) {
@@ -5,8 +5,7 @@ import org.example.dto.ProjectCreateDto;
 import org.example.dto.ProjectResponseDto;
 import org.example.dto.ProjectUpdateDto;
 import org.example.dto.TaskCreateDto;
-import org.example.repository.UserRepository;
-import org.example.service.PermissionService;
+import org.example.service.CurrentUserService;
 import org.example.models.Client;
 import org.example.models.Project;
 import org.example.models.Task;
@@ -43,21 +42,18 @@ public class ProjectController {
     private final TaskService taskService;
     private final org.example.service.PhaseService phaseService;
     private final org.example.service.ResourceAssignmentService resourceAssignmentService;
-    private final UserRepository userRepository;
-    private final PermissionService permissionService;
+    private final CurrentUserService currentUserService;
 
     @Autowired
     public ProjectController(ProjectService projectService, TaskService taskService, 
                             org.example.service.PhaseService phaseService,
                             org.example.service.ResourceAssignmentService resourceAssignmentService,
-                            UserRepository userRepository,
-                            PermissionService permissionService) {
+                            CurrentUserService currentUserService) {
         this.projectService = projectService;
         this.taskService = taskService;
         this.phaseService = phaseService;
         this.resourceAssignmentService = resourceAssignmentService;
-        this.userRepository = userRepository;
-        this.permissionService = permissionService;
+        this.currentUserService = currentUserService;
     }
 
     @GetMapping("/health")
@@ -142,6 +138,37 @@ public class ProjectController {
         }
     }
 
+    /**
+     * Keyset-paginated project list for the user's organization, ordered by most recently updated.
+     * Pass back nextCursorUpdatedAt/nextCursorId from the previous response to get the next page.
+     */
+    @GetMapping("/scroll")
+    public ResponseEntity<Map<String, Object>> listProjectsKeyset(
+            @RequestParam(required = false)
+            @org.springframework.format.annotation.DateTimeFormat(iso = org.springframework.format.annotation.DateTimeFormat.ISO.DATE_TIME)
+            java.time.LocalDateTime cursorUpdatedAt,
+            @RequestParam(required = false) Long cursorId,
+            @RequestParam(defaultValue = "50") int size,
+            Authentication authentication) {
+        if (authentication == null || !authentication.isAuthenticated()) {
+            logger.warn("Unauthenticated request to scroll projects");
+            return ResponseEntity.status(401).build();
+        }
+
+        String username = authentication.getName();
+        try {
+            Map<String, Object> response = projectService.findProjectsByOrganizationKeyset(
+                username, cursorUpdatedAt, cursorId, size);
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            logger.warn("Invalid keyset pagination parameters for user {}: {}", username, e.getMessage());
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            logger.error("Error scrolling projects: {}", e.getMessage(), e);
+            return ResponseEntity.status(500).body(Map.of("error", "Failed to retrieve projects"));
+        }
+    }
+
     @GetMapping("/new")
     @PreAuthorize("hasAuthority('projects.create')")
     public ResponseEntity<Map<String, Object>> showCreateProjectForm() {
@@ -212,15 +239,9 @@ public class ProjectController {
         }
         Project project = projectOptional.get();
 
-        // Determine if current user is admin - admins can see financial data
-        boolean includeFinancials = false;
-        if (authentication != null && authentication.isAuthenticated()) {
-            String username = authentication.getName();
-            User currentUser = userRepository.findByUsername(username).orElse(null);
-            if (currentUser != null) {
-                includeFinancials = permissionService.isAdmin(currentUser);
-            }
-        }
+        // Determine if current user is admin - admins can see financial data. Read the roles
+        // rather than the login snapshot, so revoking admin hides financials immediately
+        boolean includeFinancials = currentUserService.hasRole("ROLE_ADMIN");
         logger.debug("User financial access for project {}: {}", projectId, includeFinancials);
 
         // Fetch and add tasks for this project with detailed information
@@ -290,9 +311,7 @@ public class ProjectController {
         projectUpdateDto.setProjectStage(project.getProjectStage());
         projectUpdateDto.setDescription(project.getDescription());
         projectUpdateDto.setBudget(project.getBudget());
-        projectUpdateDto.setActualCost(project.getActualCost());
         projectUpdateDto.setBudget(project.getBudget());
-        projectUpdateDto.setActualCost(project.getActualCost());
         projectUpdateDto.setPriority(project.getPriority());
         projectUpdateDto.setLifecycleStages(project.getLifecycleStages());
         projectUpdateDto.setTotalFee(project.getTotalFee());
@@ -1,8 +1,10 @@
 package org.example.controller;
 
+import org.example.dto.TaskListRow;
 import org.example.models.Task;
 import org.example.models.enums.TaskStatus;
 import org.example.service.TaskService;
+import org.example.service.TaskSummaryService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -120,6 +122,30 @@ public class TaskController {
         }
     }
 
+    /**
+     * Task counts per status for the current user's inboxes, for the home screen badges.
+     * One grouped query, cached per user for a short time and evicted when their tasks change.
+     */
+    @GetMapping("/summary")
+    @PreAuthorize("hasAuthority('tasks.view')")
+    public ResponseEntity<Map<String, Object>> getTaskSummary() {
+        try {
+            TaskSummaryService.TaskSummary summary = taskService.getTaskSummaryForCurrentUser();
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("assigned", Map.of("byStatus", summary.assigned(), "open", summary.openAssigned()));
+            response.put("reported", Map.of("byStatus", summary.reported(), "open", summary.openReported()));
+            response.put("toCheck", Map.of("byStatus", summary.toCheck(), "pending", summary.pendingChecks()));
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            logger.error("Error retrieving task summary: {}", e.getMessage(), e);
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("success", false);
+            errorResponse.put("message", "Failed to retrieve task summary: " + e.getMessage());
+            return ResponseEntity.status(500).body(errorResponse);
+        }
+    }
+
     /**
      * @deprecated Use GET /api/tasks with pagination params instead
      */
@@ -161,10 +187,10 @@ public class TaskController {
             
             // Convert tasks to include assignee and checkedBy information
             @SuppressWarnings("unchecked")
-            List<Task> tasks = (List<Task>) response.get("tasks");
+            List<TaskListRow> tasks = (List<TaskListRow>) response.get("tasks");
             List<Map<String, Object>> taskResponses = new ArrayList<>();
             
-            for (Task task : tasks) {
+            for (TaskListRow task : tasks) {
                 Map<String, Object> taskResponse = buildTaskResponse(task);
                 taskResponses.add(taskResponse);
             }
@@ -223,10 +249,10 @@ public class TaskController {
                     "assigned", null, status, priority, projectId, page, size);
 
             @SuppressWarnings("unchecked")
-            List<Task> tasks = (List<Task>) response.get("tasks");
+            List<TaskListRow> tasks = (List<TaskListRow>) response.get("tasks");
             List<Map<String, Object>> taskResponses = new ArrayList<>();
 
-            for (Task task : tasks) {
+            for (TaskListRow task : tasks) {
                 Map<String, Object> taskResponse = buildTaskResponse(task);
                 taskResponses.add(taskResponse);
             }
@@ -260,10 +286,10 @@ public class TaskController {
             Map<String, Object> response = taskService.getTasksReportedByCurrentUserPaginated(page, size);
 
             @SuppressWarnings("unchecked")
-            List<Task> tasks = (List<Task>) response.get("tasks");
+            List<TaskListRow> tasks = (List<TaskListRow>) response.get("tasks");
             List<Map<String, Object>> taskResponses = new ArrayList<>();
 
-            for (Task task : tasks) {
+            for (TaskListRow task : tasks) {
                 Map<String, Object> taskResponse = buildTaskResponse(task);
                 taskResponses.add(taskResponse);
             }
@@ -297,10 +323,10 @@ public class TaskController {
             Map<String, Object> response = taskService.getTasksToCheckByCurrentUserPaginated(page, size);
 
             @SuppressWarnings("unchecked")
-            List<Task> tasks = (List<Task>) response.get("tasks");
+            List<TaskListRow> tasks = (List<TaskListRow>) response.get("tasks");
             List<Map<String, Object>> taskResponses = new ArrayList<>();
 
-            for (Task task : tasks) {
+            for (TaskListRow task : tasks) {
                 Map<String, Object> taskResponse = buildTaskResponse(task);
                 taskResponses.add(taskResponse);
             }
@@ -639,6 +665,83 @@ public class TaskController {
         }
     }
 
+    // --- Bulk task mutations ---
+    // Body: {"taskIds": [1, 2, ...], ...action fields}. All tasks must belong to the caller's organization;
+    // otherwise nothing is changed and 400 is returned. At most TaskService.MAX_BULK_TASKS tasks per request.
+
+    @PostMapping("/bulk/status")
+    @PreAuthorize("hasAuthority('tasks.edit')")
+    public ResponseEntity<?> bulkUpdateTaskStatus(@RequestBody Map<String, Object> request) {
+        return bulkUpdate("status", request, taskIds -> {
+            Object status = request.get("status");
+            if (status == null || status.toString().trim().isEmpty()) {
+                throw new IllegalArgumentException("Status is required");
+            }
+            return taskService.bulkUpdateStatus(taskIds, TaskStatus.valueOf(status.toString().trim().toUpperCase()));
+        });
+    }
+
+    @PostMapping("/bulk/assignee")
+    @PreAuthorize("hasAuthority('tasks.edit')")
+    public ResponseEntity<?> bulkReassignTasks(@RequestBody Map<String, Object> request) {
+        // "assigneeId": null (or absent) unassigns the tasks
+        return bulkUpdate("assignee", request, taskIds -> taskService.bulkReassign(taskIds, toLong(request.get("assigneeId"))));
+    }
+
+    @PostMapping("/bulk/phase")
+    @PreAuthorize("hasAuthority('tasks.edit')")
+    public ResponseEntity<?> bulkMoveTasksToPhase(@RequestBody Map<String, Object> request) {
+        return bulkUpdate("phase", request, taskIds -> taskService.bulkMovePhase(taskIds, toLong(request.get("phaseId"))));
+    }
+
+    @PostMapping("/bulk/mark-checked")
+    @PreAuthorize("hasAuthority('tasks.approve')")
+    public ResponseEntity<?> bulkMarkTasksAsChecked(@RequestBody Map<String, Object> request) {
+        return bulkUpdate("mark-checked", request, taskService::bulkMarkChecked);
+    }
+
+    private ResponseEntity<?> bulkUpdate(String operation, Map<String, Object> request,
+                                         java.util.function.Function<List<Long>, Integer> update) {
+        try {
+            List<Long> taskIds = new ArrayList<>();
+            if (request.get("taskIds") instanceof List<?> ids) {
+                for (Object id : ids) {
+                    taskIds.add(toLong(id));
+                }
+            }
+            int updated = update.apply(taskIds);
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("requested", taskIds.size());
+            response.put("updated", updated);
+            logger.info("Bulk {} update: {} of {} tasks changed", operation, updated, taskIds.size());
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            logger.warn("Rejected bulk {} update: {}", operation, e.getMessage());
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("success", false);
+            errorResponse.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(errorResponse);
+        } catch (Exception e) {
+            logger.error("Error in bulk {} update: {}", operation, e.getMessage(), e);
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("success", false);
+            errorResponse.put("message", "Failed to update tasks");
+            return ResponseEntity.status(500).body(errorResponse);
+        }
+    }
+
+    private static Long toLong(Object value) {
+        if (value == null) {
+            return null;
+        }
+        if (value instanceof Number number) {
+            return number.longValue();
+        }
+        return Long.parseLong(value.toString().trim());
+    }
+
     @DeleteMapping("/{taskId}")
     @PreAuthorize("hasAuthority('tasks.delete')")
     public ResponseEntity<?> deleteTask(@PathVariable Long taskId) {
@@ -737,69 +840,56 @@ public class TaskController {
     }
     
     /**
-     * Helper method to build a task response with all related information
+     * Helper method to build a task response with all related information from a list-view row
      */
-    private Map<String, Object> buildTaskResponse(Task task) {
+    private Map<String, Object> buildTaskResponse(TaskListRow task) {
         Map<String, Object> taskResponse = new HashMap<>();
-        taskResponse.put("id", task.getId());
-        taskResponse.put("name", task.getName());
-        taskResponse.put("description", task.getDescription());
-        taskResponse.put("status", task.getStatus());
-        taskResponse.put("projectStage", task.getProjectStage());
-        taskResponse.put("priority", task.getPriority());
-        taskResponse.put("dueDate", task.getDueDate());
-        taskResponse.put("createdAt", task.getCreatedAt());
-        taskResponse.put("updatedAt", task.getUpdatedAt());
-        
-        // Add project information
-        if (task.getProject() != null) {
+        taskResponse.put("id", task.id());
+        taskResponse.put("name", task.name());
+        taskResponse.put("description", task.description());
+        taskResponse.put("status", task.status());
+        taskResponse.put("projectStage", task.projectStage());
+        taskResponse.put("priority", task.priority());
+        taskResponse.put("dueDate", task.dueDate());
+        taskResponse.put("createdAt", task.createdAt());
+        taskResponse.put("updatedAt", task.updatedAt());
+
+        if (task.projectId() != null) {
             Map<String, Object> projectInfo = new HashMap<>();
-            projectInfo.put("id", task.getProject().getId());
-            projectInfo.put("name", task.getProject().getName());
-            projectInfo.put("clientName", task.getProject().getClient().getName());
+            projectInfo.put("id", task.projectId());
+            projectInfo.put("name", task.projectName());
+            projectInfo.put("clientName", task.clientName());
             taskResponse.put("project", projectInfo);
         }
-        
-        // Add assignee information
-        if (task.getAssignee() != null) {
-            Map<String, Object> assigneeInfo = new HashMap<>();
-            assigneeInfo.put("id", task.getAssignee().getId());
-            assigneeInfo.put("username", task.getAssignee().getUsername());
-            assigneeInfo.put("name", task.getAssignee().getName());
-            assigneeInfo.put("email", task.getAssignee().getEmail());
-            taskResponse.put("assignee", assigneeInfo);
+
+        if (task.assigneeId() != null) {
+            taskResponse.put("assignee", buildUserInfo(task.assigneeId(), task.assigneeUsername(), task.assigneeName(), task.assigneeEmail()));
         }
-        
-        // Add reporter information
-        if (task.getReporter() != null) {
-            Map<String, Object> reporterInfo = new HashMap<>();
-            reporterInfo.put("id", task.getReporter().getId());
-            reporterInfo.put("username", task.getReporter().getUsername());
-            reporterInfo.put("name", task.getReporter().getName());
-            reporterInfo.put("email", task.getReporter().getEmail());
-            taskResponse.put("reporter", reporterInfo);
+        if (task.reporterId() != null) {
+            taskResponse.put("reporter", buildUserInfo(task.reporterId(), task.reporterUsername(), task.reporterName(), task.reporterEmail()));
         }
-        
-        // Add checked by information
-        if (task.getCheckedBy() != null) {
-            Map<String, Object> checkedByInfo = new HashMap<>();
-            checkedByInfo.put("id", task.getCheckedBy().getId());
-            checkedByInfo.put("username", task.getCheckedBy().getUsername());
-            checkedByInfo.put("name", task.getCheckedBy().getName());
-            checkedByInfo.put("email", task.getCheckedBy().getEmail());
-            taskResponse.put("checkedBy", checkedByInfo);
+        if (task.checkedById() != null) {
+            taskResponse.put("checkedBy", buildUserInfo(task.checkedById(), task.checkedByUsername(), task.checkedByName(), task.checkedByEmail()));
         }
 
-        // Add phase information
-        if (task.getPhase() != null) {
+        if (task.phaseId() != null) {
             Map<String, Object> phaseInfo = new HashMap<>();
-            phaseInfo.put("id", task.getPhase().getId());
-            phaseInfo.put("name", task.getPhase().getName());
-            phaseInfo.put("phaseNumber", task.getPhase().getPhaseNumber());
+            phaseInfo.put("id", task.phaseId());
+            phaseInfo.put("name", task.phaseName());
+            phaseInfo.put("phaseNumber", task.phaseNumber());
             taskResponse.put("phase", phaseInfo);
         }
-        
+
         return taskResponse;
     }
 
+    private Map<String, Object> buildUserInfo(Long id, String username, String name, String email) {
+        Map<String, Object> userInfo = new HashMap<>();
+        userInfo.put("id", id);
+        userInfo.put("username", username);
+        userInfo.put("name", name);
+        userInfo.put("email", email);
+        return userInfo;
+    }
+
 }
@@ -0,0 +1,75 @@
+package org.example.controller;
+
+import org.example.dto.TimeLogDto;
+import org.example.service.TimeLogService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Weekly timesheet API: read a week of hours grouped by task and day, and submit many time log
+ * entries in one request.
+ */
+@RestController
+@RequestMapping("/api/timesheets")
+public class TimesheetController {
+
+    private static final Logger logger = LoggerFactory.getLogger(TimesheetController.class);
+
+    private final TimeLogService timeLogService;
+
+    @Autowired
+    public TimesheetController(TimeLogService timeLogService) {
+        this.timeLogService = timeLogService;
+    }
+
+    /**
+     * Example: GET /api/timesheets/week?weekOf=2025-03-12 (any day of the week; defaults to the current week)
+     */
+    @GetMapping("/week")
+    @PreAuthorize("hasAuthority('timeentries.view')")
+    public ResponseEntity<?> getWeeklyTimesheet(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate weekOf,
+            @RequestParam(required = false) Long userId) {
+        try {
+            return ResponseEntity.ok(timeLogService.getWeeklyTimesheet(userId, weekOf));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(Map.of("success", false, "message", e.getMessage()));
+        } catch (Exception e) {
+            logger.error("Error retrieving weekly timesheet: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("success", false, "message", "Failed to retrieve timesheet"));
+        }
+    }
+
+    /**
+     * Logs all entries for the current user in one transaction; any invalid entry rejects the whole batch.
+     */
+    @PostMapping("/entries")
+    @PreAuthorize("hasAuthority('timeentries.create')")
+    public ResponseEntity<?> submitEntries(@RequestBody List<TimeLogDto> entries) {
+        try {
+            int created = timeLogService.logTimeBatch(entries);
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("created", created);
+            return ResponseEntity.status(HttpStatus.CREATED).body(response);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("success", false, "message", e.getMessage()));
+        } catch (Exception e) {
+            logger.error("Error submitting time log entries: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("success", false, "message", "Failed to submit time log entries"));
+        }
+    }
+}
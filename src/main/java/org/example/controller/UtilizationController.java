@@ -0,0 +1,102 @@
+package org.example.controller;
+
+import org.example.service.ResourceAssignmentService;
+import org.example.service.ResourceCapacityService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Organization-wide resource utilization: planned hours per user and week across all projects, and
+ * allocation checks for the planning board (answered from the in-memory capacity index).
+ */
+@RestController
+@RequestMapping("/api/utilization")
+public class UtilizationController {
+
+    private static final Logger logger = LoggerFactory.getLogger(UtilizationController.class);
+
+    private final ResourceAssignmentService resourceAssignmentService;
+    private final ResourceCapacityService resourceCapacityService;
+
+    @Autowired
+    public UtilizationController(ResourceAssignmentService resourceAssignmentService,
+                                 ResourceCapacityService resourceCapacityService) {
+        this.resourceAssignmentService = resourceAssignmentService;
+        this.resourceCapacityService = resourceCapacityService;
+    }
+
+    /**
+     * Example: GET /api/utilization/heatmap?from=2025-01-06&to=2025-06-30 (defaults to the next 26 weeks)
+     */
+    @GetMapping("/heatmap")
+    @PreAuthorize("hasAuthority('phases.view')")
+    public ResponseEntity<?> getHeatmap(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        try {
+            LocalDate start = from != null ? from : LocalDate.now();
+            LocalDate end = to != null ? to : start.plusWeeks(26).minusDays(1);
+            return ResponseEntity.ok(resourceAssignmentService.getUtilizationHeatmap(start, end));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("success", false, "message", e.getMessage()));
+        } catch (Exception e) {
+            logger.error("Error building utilization heatmap: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("success", false, "message", "Failed to build utilization heatmap"));
+        }
+    }
+
+    /**
+     * Example: GET /api/utilization/conflicts?userId=7&from=2025-03-03&to=2025-04-25&percentage=50
+     */
+    @GetMapping("/conflicts")
+    @PreAuthorize("hasAuthority('phases.view')")
+    public ResponseEntity<?> getConflicts(
+            @RequestParam Long userId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) BigDecimal percentage,
+            @RequestParam(required = false) Long excludeAssignmentId) {
+        try {
+            return ResponseEntity.ok(resourceCapacityService.findConflicts(userId, from, to, percentage, excludeAssignmentId));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("success", false, "message", e.getMessage()));
+        } catch (Exception e) {
+            logger.error("Error checking allocation conflicts: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("success", false, "message", "Failed to check allocation conflicts"));
+        }
+    }
+
+    /**
+     * Example: GET /api/utilization/free?from=2025-03-03&to=2025-04-25&percentage=50
+     */
+    @GetMapping("/free")
+    @PreAuthorize("hasAuthority('phases.view')")
+    public ResponseEntity<?> getFreeUsers(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam BigDecimal percentage) {
+        try {
+            List<Map<String, Object>> users = resourceCapacityService.findFreeUsers(from, to, percentage);
+            return ResponseEntity.ok(Map.of("success", true, "users", users));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("success", false, "message", e.getMessage()));
+        } catch (Exception e) {
+            logger.error("Error finding free users: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("success", false, "message", "Failed to find free users"));
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package org.example.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * One audit row as returned by the organization audit endpoints, selected directly in JPQL
+ * (AuditLogRepository) so paging the audit log does not hydrate AuditLog entities and their
+ * user and organization. Archived audit rows are stored in the same shape, one JSON object per line.
+ */
+public record AuditLogEntry(
+        Long id,
+        LocalDateTime timestamp,
+        String entityType,
+        Long entityId,
+        String action,
+        String fieldChanged,
+        String oldValue,
+        String newValue,
+        Long userId,
+        String username) {
+}
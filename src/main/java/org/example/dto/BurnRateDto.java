@@ -13,6 +13,8 @@ public class BurnRateDto {
     private BigDecimal targetProfitMargin;
     private BigDecimal productionBudget;  // totalFee * (1 - profitMargin)
     private BigDecimal currentBurn;       // Sum of (hours * burnRate) for all assignments
+    private BigDecimal actualHours;       // Hours logged so far (cost ledger)
+    private BigDecimal actualCost;        // Cost of the logged hours (cost ledger)
     private BigDecimal burnPercentage;
     private boolean isOverBudget;
     private String status;  // "healthy", "warning", "critical"
@@ -83,6 +85,22 @@ public class BurnRateDto {
         calculateStatusFields();
     }
 
+    public BigDecimal getActualHours() {
+        return actualHours;
+    }
+
+    public void setActualHours(BigDecimal actualHours) {
+        this.actualHours = actualHours;
+    }
+
+    public BigDecimal getActualCost() {
+        return actualCost;
+    }
+
+    public void setActualCost(BigDecimal actualCost) {
+        this.actualCost = actualCost;
+    }
+
     public BigDecimal getBurnPercentage() {
         return burnPercentage;
     }
@@ -124,6 +142,8 @@ public class BurnRateDto {
         private BigDecimal phaseBudget;
         private BigDecimal phaseBurn;
         private BigDecimal burnPercentage;
+        private BigDecimal actualHours;
+        private BigDecimal actualCost;
 
         public PhaseBurnDto() {}
 
@@ -150,5 +170,9 @@ public class BurnRateDto {
         public void setPhaseBurn(BigDecimal phaseBurn) { this.phaseBurn = phaseBurn; }
         public BigDecimal getBurnPercentage() { return burnPercentage; }
         public void setBurnPercentage(BigDecimal burnPercentage) { this.burnPercentage = burnPercentage; }
+        public BigDecimal getActualHours() { return actualHours; }
+        public void setActualHours(BigDecimal actualHours) { this.actualHours = actualHours; }
+        public BigDecimal getActualCost() { return actualCost; }
+        public void setActualCost(BigDecimal actualCost) { this.actualCost = actualCost; }
     }
 }
@@ -21,7 +21,6 @@ public class ProjectCreateDto {
     
     // --- NEW CRITICAL FIELDS ---
     private BigDecimal budget;
-    private BigDecimal actualCost;
     private BigDecimal totalFee;
     private BigDecimal targetProfitMargin;
     private ProjectPriority priority;
@@ -35,7 +34,7 @@ public class ProjectCreateDto {
     public ProjectCreateDto(String name, String projectNumber, Long clientId, LocalDate startDate, LocalDate estimatedEndDate, 
                           String location, ProjectChargeType chargeType, ProjectStatus status, 
                           ProjectStage projectStage, String description, BigDecimal budget, 
-                          BigDecimal actualCost, ProjectPriority priority) {
+                          ProjectPriority priority) {
         this.name = name;
         this.projectNumber = projectNumber;
         this.clientId = clientId;
@@ -47,7 +46,6 @@ public class ProjectCreateDto {
         this.projectStage = projectStage;
         this.description = description;
         this.budget = budget;
-        this.actualCost = actualCost;
         this.priority = priority;
     }
 
@@ -61,14 +59,6 @@ public class ProjectCreateDto {
         this.budget = budget;
     }
 
-    public BigDecimal getActualCost() {
-        return actualCost;
-    }
-
-    public void setActualCost(BigDecimal actualCost) {
-        this.actualCost = actualCost;
-    }
-
     public BigDecimal getTotalFee() {
         return totalFee;
     }
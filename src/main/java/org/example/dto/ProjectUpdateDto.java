@@ -20,7 +20,6 @@ public class ProjectUpdateDto {
     
     // --- NEW CRITICAL FIELDS ---
     private BigDecimal budget;
-    private BigDecimal actualCost;
     private BigDecimal totalFee;
     private BigDecimal targetProfitMargin;
     private ProjectPriority priority;
@@ -34,7 +33,7 @@ public class ProjectUpdateDto {
     public ProjectUpdateDto(String name, Long clientId, LocalDate startDate, LocalDate estimatedEndDate, 
                           String location, ProjectChargeType chargeType, ProjectStatus status, 
                           ProjectStage projectStage, String description, BigDecimal budget, 
-                          BigDecimal actualCost, ProjectPriority priority) {
+                          ProjectPriority priority) {
         this.name = name;
         this.clientId = clientId;
         this.startDate = startDate;
@@ -45,7 +44,6 @@ public class ProjectUpdateDto {
         this.projectStage = projectStage;
         this.description = description;
         this.budget = budget;
-        this.actualCost = actualCost;
         this.priority = priority;
     }
 
@@ -59,14 +57,6 @@ public class ProjectUpdateDto {
         this.budget = budget;
     }
 
-    public BigDecimal getActualCost() {
-        return actualCost;
-    }
-
-    public void setActualCost(BigDecimal actualCost) {
-        this.actualCost = actualCost;
-    }
-
     public BigDecimal getTotalFee() {
         return totalFee;
     }
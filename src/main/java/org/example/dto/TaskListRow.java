@@ -0,0 +1,43 @@
+package org.example.dto;
+
+import org.example.models.enums.ProjectStage;
+import org.example.models.enums.TaskPriority;
+import org.example.models.enums.TaskStatus;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * One row of the task list views, selected directly in JPQL (TaskRepository.findListRowsByIdIn)
+ * so listing tasks does not hydrate Task entities and their five associations.
+ * Association columns are null when the association is not set.
+ */
+public record TaskListRow(
+        Long id,
+        String name,
+        String description,
+        TaskStatus status,
+        ProjectStage projectStage,
+        TaskPriority priority,
+        LocalDate dueDate,
+        LocalDateTime createdAt,
+        LocalDateTime updatedAt,
+        Long projectId,
+        String projectName,
+        String clientName,
+        Long assigneeId,
+        String assigneeUsername,
+        String assigneeName,
+        String assigneeEmail,
+        Long reporterId,
+        String reporterUsername,
+        String reporterName,
+        String reporterEmail,
+        Long checkedById,
+        String checkedByUsername,
+        String checkedByName,
+        String checkedByEmail,
+        Long phaseId,
+        String phaseName,
+        String phaseNumber) {
+}
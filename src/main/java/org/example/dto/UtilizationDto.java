@@ -9,13 +9,15 @@ import java.util.List;
  * Checks if a resource is over-utilized (>40 hrs/week across all projects).
  */
 public class UtilizationDto {
+
+    public static final int MAX_HOURS_PER_WEEK = 40;
     
     private Long userId;
     private String userName;
     private LocalDate weekStart;
     private LocalDate weekEnd;
     private Integer totalHoursPlanned;
-    private Integer maxHoursPerWeek = 40;
+    private Integer maxHoursPerWeek = MAX_HOURS_PER_WEEK;
     private boolean isOverUtilized;
     private Integer hoursOverLimit;
     private List<ProjectAllocationDto> projectAllocations;
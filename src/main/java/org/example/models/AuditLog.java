@@ -4,7 +4,10 @@ import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "audit_logs")
+// The organization index serves keyset pagination over (timestamp, id) and the monthly archive job
+@Table(name = "audit_logs", indexes = {
+    @Index(name = "idx_audit_logs_org_timestamp", columnList = "organization_id, timestamp, id")
+})
 public class AuditLog {
 
     @Id
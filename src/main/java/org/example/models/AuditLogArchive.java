@@ -0,0 +1,67 @@
+package org.example.models;
+
+import jakarta.persistence.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * A gzip-compressed JSON-lines file holding audit rows of one organization and month that were
+ * moved out of audit_logs (see AuditArchiveService). A month normally has one archive; audit rows
+ * written late (replayed from the audit fallback file) can add another part for the same month.
+ */
+@Entity
+@Table(name = "audit_log_archives", indexes = {
+    @Index(name = "idx_audit_log_archives_org_month", columnList = "organization_id, archive_month")
+})
+public class AuditLogArchive {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "organization_id", nullable = false)
+    private Long organizationId;
+
+    // First day of the archived month
+    @Column(name = "archive_month", nullable = false)
+    private LocalDate archiveMonth;
+
+    @Column(name = "file_url", nullable = false, length = 500)
+    private String fileUrl;
+
+    @Column(name = "row_count", nullable = false)
+    private int rowCount;
+
+    @Column(name = "compressed_size", nullable = false)
+    private long compressedSize;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    public AuditLogArchive() {}
+
+    public AuditLogArchive(Long organizationId, LocalDate archiveMonth, String fileUrl, int rowCount, long compressedSize) {
+        this.organizationId = organizationId;
+        this.archiveMonth = archiveMonth;
+        this.fileUrl = fileUrl;
+        this.rowCount = rowCount;
+        this.compressedSize = compressedSize;
+        this.createdAt = LocalDateTime.now();
+    }
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    public Long getOrganizationId() { return organizationId; }
+    public void setOrganizationId(Long organizationId) { this.organizationId = organizationId; }
+    public LocalDate getArchiveMonth() { return archiveMonth; }
+    public void setArchiveMonth(LocalDate archiveMonth) { this.archiveMonth = archiveMonth; }
+    public String getFileUrl() { return fileUrl; }
+    public void setFileUrl(String fileUrl) { this.fileUrl = fileUrl; }
+    public int getRowCount() { return rowCount; }
+    public void setRowCount(int rowCount) { this.rowCount = rowCount; }
+    public long getCompressedSize() { return compressedSize; }
+    public void setCompressedSize(long compressedSize) { this.compressedSize = compressedSize; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+}
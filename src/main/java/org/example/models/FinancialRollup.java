@@ -0,0 +1,146 @@
+package org.example.models;
+
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+
+/**
+ * Pre-aggregated invoice totals for the financial health dashboard.
+ *
+ * One row per organization and combination of project charge type, project stage, invoice status
+ * and project activity. Rows are adjusted with deltas whenever an invoice or a project's charge
+ * type/stage/status changes (see FinancialRollupService), so the dashboard reads a handful of rows
+ * instead of aggregating every invoice. Charge type and stage are empty strings, never NULL, for
+ * invoices without a project so the unique key also covers those rows.
+ */
+@Entity
+@Table(name = "financial_rollups",
+       uniqueConstraints = @UniqueConstraint(name = "uk_financial_rollup_group",
+               columnNames = {"organization_id", "charge_type", "project_stage", "invoice_status", "has_project", "project_active"}))
+public class FinancialRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "organization_id", nullable = false)
+    private Long organizationId;
+
+    @Column(name = "charge_type", nullable = false, length = 50)
+    private String chargeType = "";
+
+    @Column(name = "project_stage", nullable = false, length = 50)
+    private String projectStage = "";
+
+    @Column(name = "invoice_status", nullable = false, length = 50)
+    private String invoiceStatus;
+
+    @Column(name = "has_project", nullable = false)
+    private boolean hasProject;
+
+    @Column(name = "project_active", nullable = false)
+    private boolean projectActive;
+
+    @Column(name = "invoice_count", nullable = false)
+    private long invoiceCount;
+
+    @Column(name = "total_amount", precision = 15, scale = 2, nullable = false)
+    private BigDecimal totalAmount = BigDecimal.ZERO;
+
+    @Column(name = "paid_amount", precision = 15, scale = 2, nullable = false)
+    private BigDecimal paidAmount = BigDecimal.ZERO;
+
+    @Column(name = "balance_amount", precision = 15, scale = 2, nullable = false)
+    private BigDecimal balanceAmount = BigDecimal.ZERO;
+
+    public FinancialRollup() {}
+
+    // Getters and Setters
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getOrganizationId() {
+        return organizationId;
+    }
+
+    public void setOrganizationId(Long organizationId) {
+        this.organizationId = organizationId;
+    }
+
+    public String getChargeType() {
+        return chargeType;
+    }
+
+    public void setChargeType(String chargeType) {
+        this.chargeType = chargeType;
+    }
+
+    public String getProjectStage() {
+        return projectStage;
+    }
+
+    public void setProjectStage(String projectStage) {
+        this.projectStage = projectStage;
+    }
+
+    public String getInvoiceStatus() {
+        return invoiceStatus;
+    }
+
+    public void setInvoiceStatus(String invoiceStatus) {
+        this.invoiceStatus = invoiceStatus;
+    }
+
+    public boolean isHasProject() {
+        return hasProject;
+    }
+
+    public void setHasProject(boolean hasProject) {
+        this.hasProject = hasProject;
+    }
+
+    public boolean isProjectActive() {
+        return projectActive;
+    }
+
+    public void setProjectActive(boolean projectActive) {
+        this.projectActive = projectActive;
+    }
+
+    public long getInvoiceCount() {
+        return invoiceCount;
+    }
+
+    public void setInvoiceCount(long invoiceCount) {
+        this.invoiceCount = invoiceCount;
+    }
+
+    public BigDecimal getTotalAmount() {
+        return totalAmount;
+    }
+
+    public void setTotalAmount(BigDecimal totalAmount) {
+        this.totalAmount = totalAmount;
+    }
+
+    public BigDecimal getPaidAmount() {
+        return paidAmount;
+    }
+
+    public void setPaidAmount(BigDecimal paidAmount) {
+        this.paidAmount = paidAmount;
+    }
+
+    public BigDecimal getBalanceAmount() {
+        return balanceAmount;
+    }
+
+    public void setBalanceAmount(BigDecimal balanceAmount) {
+        this.balanceAmount = balanceAmount;
+    }
+}
@@ -20,7 +20,8 @@ import java.util.ArrayList;
     @Index(name = "idx_project_status", columnList = "status_value"),
     @Index(name = "idx_project_client_id", columnList = "client_id"),
     @Index(name = "idx_project_start_date", columnList = "start_date"),
-    @Index(name = "idx_project_organization_id", columnList = "organization_id")
+    @Index(name = "idx_project_organization_id", columnList = "organization_id"),
+    @Index(name = "idx_project_org_updated_at", columnList = "organization_id, updated_at, id")
 })
 public class Project {
 
@@ -75,7 +76,8 @@ public class Project {
     @Column(precision = 15, scale = 2)
     private BigDecimal budget; // Project budget in currency units
     
-    @Column(name = "actual_cost", precision = 15, scale = 2)
+    // Maintained from logged time by ProjectCostLedgerService, so entity updates never write it
+    @Column(name = "actual_cost", precision = 15, scale = 2, updatable = false)
     private BigDecimal actualCost; // Actual cost incurred so far
     
     // --- Financial Resource Planning fields ---
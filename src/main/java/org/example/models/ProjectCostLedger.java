@@ -0,0 +1,93 @@
+package org.example.models;
+
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+
+/**
+ * Logged hours and their cost per project phase, kept up to date from the time logs.
+ *
+ * One row per project and phase; time logged on tasks without a phase goes to phase_id 0 so the
+ * unique key also covers those rows. Rows are adjusted with deltas whenever a time log is created,
+ * changed or deleted, or a task with logged time moves or is deleted (see ProjectCostLedgerService),
+ * so burn rate and budget-vs-actual read one row per phase instead of summing every time log.
+ * Cost is kept at full precision (hours x hourly cost x overhead multiplier is exact at six decimals),
+ * so the deltas and a rebuild from the time logs always produce the same totals.
+ */
+@Entity
+@Table(name = "project_cost_ledger",
+       uniqueConstraints = @UniqueConstraint(name = "uk_project_cost_ledger_phase", columnNames = {"project_id", "phase_id"}))
+public class ProjectCostLedger {
+
+    public static final long NO_PHASE = 0L;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "organization_id", nullable = false)
+    private Long organizationId;
+
+    @Column(name = "project_id", nullable = false)
+    private Long projectId;
+
+    @Column(name = "phase_id", nullable = false)
+    private Long phaseId = NO_PHASE;
+
+    @Column(name = "hours_logged", precision = 12, scale = 2, nullable = false)
+    private BigDecimal hoursLogged = BigDecimal.ZERO;
+
+    @Column(name = "cost", precision = 21, scale = 6, nullable = false)
+    private BigDecimal cost = BigDecimal.ZERO;
+
+    public ProjectCostLedger() {}
+
+    // Getters and Setters
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getOrganizationId() {
+        return organizationId;
+    }
+
+    public void setOrganizationId(Long organizationId) {
+        this.organizationId = organizationId;
+    }
+
+    public Long getProjectId() {
+        return projectId;
+    }
+
+    public void setProjectId(Long projectId) {
+        this.projectId = projectId;
+    }
+
+    public Long getPhaseId() {
+        return phaseId;
+    }
+
+    public void setPhaseId(Long phaseId) {
+        this.phaseId = phaseId;
+    }
+
+    public BigDecimal getHoursLogged() {
+        return hoursLogged;
+    }
+
+    public void setHoursLogged(BigDecimal hoursLogged) {
+        this.hoursLogged = hoursLogged;
+    }
+
+    public BigDecimal getCost() {
+        return cost;
+    }
+
+    public void setCost(BigDecimal cost) {
+        this.cost = cost;
+    }
+}
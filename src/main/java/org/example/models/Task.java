@@ -19,7 +19,12 @@ import java.util.Objects;
     @Index(name = "idx_task_priority", columnList = "priority"),
     @Index(name = "idx_task_due_date", columnList = "due_date"),
     @Index(name = "idx_task_project_id", columnList = "project_id"),
-    @Index(name = "idx_task_assignee_id", columnList = "assignee_id")
+    @Index(name = "idx_task_project_updated_at", columnList = "project_id, updated_at"),
+    // Filtered task lists (see TaskSpecifications); the organization is checked through the project join
+    @Index(name = "idx_task_assignee_status", columnList = "assignee_id, status, updated_at"),
+    @Index(name = "idx_task_checked_by_status", columnList = "checked_by_id, status, updated_at"),
+    @Index(name = "idx_task_reporter_status", columnList = "reporter_id, status"),
+    @Index(name = "idx_task_project_status", columnList = "project_id, status, updated_at")
 })
 public class Task {
 
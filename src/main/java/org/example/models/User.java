@@ -67,6 +67,11 @@ public class User {
     @Column(name = "created_at", updatable = false)
     private LocalDateTime createdAt;
 
+    // Written into refresh tokens; bumping it revokes every refresh token issued before
+    @Column(name = "token_version", nullable = false)
+    @JsonIgnore
+    private int tokenVersion;
+
     // Salary-related fields
     @Column(name = "daily_salary", precision = 15, scale = 2)
     private java.math.BigDecimal dailySalary; // Daily salary rate
@@ -343,4 +348,15 @@ public class User {
     public void setCreatedAt(LocalDateTime createdAt) {
         this.createdAt = createdAt;
     }
+
+    public int getTokenVersion() {
+        return tokenVersion;
+    }
+
+    /**
+     * Revokes all refresh tokens issued to this user so far (password change, reset or logout).
+     */
+    public void revokeTokens() {
+        this.tokenVersion++;
+    }
 }
\ No newline at end of file
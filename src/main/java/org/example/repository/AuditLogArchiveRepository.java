@@ -0,0 +1,16 @@
+package org.example.repository;
+
+import org.example.models.AuditLogArchive;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface AuditLogArchiveRepository extends JpaRepository<AuditLogArchive, Long> {
+
+    List<AuditLogArchive> findByOrganizationIdOrderByArchiveMonthDescIdDesc(Long organizationId);
+
+    Optional<AuditLogArchive> findByIdAndOrganizationId(Long id, Long organizationId);
+}
@@ -1,14 +1,62 @@
 package org.example.repository;
 
+import org.example.dto.AuditLogEntry;
 import org.example.models.AuditLog;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface AuditLogRepository extends JpaRepository<AuditLog, Long> {
     List<AuditLog> findByEntityTypeAndEntityIdOrderByTimestampDesc(String entityType, Long entityId);
-    List<AuditLog> findByOrganizationIdOrderByTimestampDesc(Long organizationId);
-}
 
+    // Keyset (seek) pagination over (timestamp DESC, id DESC) on idx_audit_logs_org_timestamp - first page.
+    // Pass an unsorted PageRequest.of(0, size) so only the LIMIT is applied.
+    @Query("SELECT new org.example.dto.AuditLogEntry(a.id, a.timestamp, a.entityType, a.entityId, a.action, " +
+           "a.fieldChanged, a.oldValue, a.newValue, u.id, u.username) " +
+           "FROM AuditLog a LEFT JOIN a.performedBy u WHERE a.organization.id = :organizationId " +
+           "ORDER BY a.timestamp DESC, a.id DESC")
+    List<AuditLogEntry> findFirstPageByOrganization(@Param("organizationId") Long organizationId, Pageable pageable);
+
+    // Keyset (seek) pagination - rows strictly after the (timestamp, id) cursor of the previous page
+    @Query("SELECT new org.example.dto.AuditLogEntry(a.id, a.timestamp, a.entityType, a.entityId, a.action, " +
+           "a.fieldChanged, a.oldValue, a.newValue, u.id, u.username) " +
+           "FROM AuditLog a LEFT JOIN a.performedBy u WHERE a.organization.id = :organizationId " +
+           "AND (a.timestamp < :cursorTimestamp OR (a.timestamp = :cursorTimestamp AND a.id < :cursorId)) " +
+           "ORDER BY a.timestamp DESC, a.id DESC")
+    List<AuditLogEntry> findPageByOrganizationAfter(@Param("organizationId") Long organizationId,
+                                                    @Param("cursorTimestamp") LocalDateTime cursorTimestamp,
+                                                    @Param("cursorId") Long cursorId,
+                                                    Pageable pageable);
+
+    // Archive job: organizations with rows older than the retention cutoff
+    @Query("SELECT DISTINCT a.organization.id FROM AuditLog a WHERE a.timestamp < :before AND a.organization IS NOT NULL")
+    List<Long> findOrganizationIdsWithLogsBefore(@Param("before") LocalDateTime before);
 
+    @Query("SELECT MIN(a.timestamp) FROM AuditLog a WHERE a.organization.id = :organizationId AND a.timestamp < :before")
+    LocalDateTime findOldestTimestamp(@Param("organizationId") Long organizationId, @Param("before") LocalDateTime before);
+
+    // Archive job: one chunk of a month in ascending (timestamp, id) order, after the last row of the previous chunk
+    @Query("SELECT new org.example.dto.AuditLogEntry(a.id, a.timestamp, a.entityType, a.entityId, a.action, " +
+           "a.fieldChanged, a.oldValue, a.newValue, u.id, u.username) " +
+           "FROM AuditLog a LEFT JOIN a.performedBy u WHERE a.organization.id = :organizationId " +
+           "AND a.timestamp < :to " +
+           "AND (a.timestamp > :afterTimestamp OR (a.timestamp = :afterTimestamp AND a.id > :afterId)) " +
+           "ORDER BY a.timestamp ASC, a.id ASC")
+    List<AuditLogEntry> findArchiveChunk(@Param("organizationId") Long organizationId,
+                                         @Param("afterTimestamp") LocalDateTime afterTimestamp,
+                                         @Param("afterId") Long afterId,
+                                         @Param("to") LocalDateTime to,
+                                         Pageable pageable);
+
+    @Modifying
+    @Query("DELETE FROM AuditLog a WHERE a.id IN :ids")
+    int deleteByIds(@Param("ids") Collection<Long> ids);
+}
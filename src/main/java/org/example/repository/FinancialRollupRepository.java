@@ -0,0 +1,64 @@
+package org.example.repository;
+
+import jakarta.persistence.LockModeType;
+import org.example.models.FinancialRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Repository
+public interface FinancialRollupRepository extends JpaRepository<FinancialRollup, Long> {
+
+    List<FinancialRollup> findByOrganizationId(Long organizationId);
+
+    // Exclusive lock on the organization row, taken by a rebuild before it reads anything. Unlike the
+    // rollup row locks it also holds when the organization has no rollup rows yet
+    @Query(value = "SELECT id FROM organizations WHERE id = :organizationId FOR UPDATE", nativeQuery = true)
+    Long lockOrganization(@Param("organizationId") Long organizationId);
+
+    // Shared lock on the organization row, taken before applying deltas: writers do not block each
+    // other, but wait for a rebuild in progress and are waited for by one that starts
+    @Query(value = "SELECT id FROM organizations WHERE id = :organizationId FOR SHARE", nativeQuery = true)
+    Long lockOrganizationShared(@Param("organizationId") Long organizationId);
+
+    // Locks the organization's rollup rows (and the index gap, so no new group can be inserted)
+    // while a rebuild recomputes them
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM FinancialRollup r WHERE r.organizationId = :organizationId")
+    List<FinancialRollup> findByOrganizationIdForUpdate(@Param("organizationId") Long organizationId);
+
+    // Atomically adds a delta to one rollup group, creating the row on first use
+    @Modifying
+    @Query(value = "INSERT INTO financial_rollups (organization_id, charge_type, project_stage, invoice_status, " +
+                   "has_project, project_active, invoice_count, total_amount, paid_amount, balance_amount) " +
+                   "VALUES (:organizationId, :chargeType, :projectStage, :invoiceStatus, :hasProject, :projectActive, " +
+                   ":invoiceCount, :totalAmount, :paidAmount, :balanceAmount) " +
+                   "ON DUPLICATE KEY UPDATE invoice_count = invoice_count + VALUES(invoice_count), " +
+                   "total_amount = total_amount + VALUES(total_amount), " +
+                   "paid_amount = paid_amount + VALUES(paid_amount), " +
+                   "balance_amount = balance_amount + VALUES(balance_amount)",
+           nativeQuery = true)
+    int applyDelta(@Param("organizationId") Long organizationId,
+                   @Param("chargeType") String chargeType,
+                   @Param("projectStage") String projectStage,
+                   @Param("invoiceStatus") String invoiceStatus,
+                   @Param("hasProject") boolean hasProject,
+                   @Param("projectActive") boolean projectActive,
+                   @Param("invoiceCount") long invoiceCount,
+                   @Param("totalAmount") BigDecimal totalAmount,
+                   @Param("paidAmount") BigDecimal paidAmount,
+                   @Param("balanceAmount") BigDecimal balanceAmount);
+
+    @Query("SELECT DISTINCT r.organizationId FROM FinancialRollup r")
+    List<Long> findDistinctOrganizationIds();
+
+    @Query("SELECT DISTINCT i.organization.id FROM Invoice i " +
+           "WHERE NOT EXISTS (SELECT r.id FROM FinancialRollup r WHERE r.organizationId = i.organization.id)")
+    List<Long> findOrganizationIdsWithoutRollups();
+}
@@ -11,6 +11,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -69,6 +70,22 @@ public interface InvoiceRepository extends JpaRepository<Invoice, Long> {
             @Param("search") String search,
             Pageable pageable);
 
+    // Batch PDF export: IDs of the invoices matching the filters, oldest first
+    @Query("SELECT i.id FROM Invoice i WHERE i.organization.id = :organizationId " +
+           "AND (:status IS NULL OR i.status = :status) " +
+           "AND (:fromDate IS NULL OR i.issueDate >= :fromDate) " +
+           "AND (:toDate IS NULL OR i.issueDate <= :toDate) " +
+           "ORDER BY i.issueDate ASC, i.id ASC")
+    List<Long> findIdsForBatchExport(@Param("organizationId") Long organizationId,
+                                     @Param("status") InvoiceStatus status,
+                                     @Param("fromDate") LocalDate fromDate,
+                                     @Param("toDate") LocalDate toDate);
+
+    // Batch PDF export: load a chunk of invoices with everything the PDF renderer touches
+    @Query("SELECT DISTINCT i FROM Invoice i LEFT JOIN FETCH i.items LEFT JOIN FETCH i.organization " +
+           "LEFT JOIN FETCH i.project p LEFT JOIN FETCH p.client WHERE i.id IN :ids")
+    List<Invoice> findByIdInWithPdfDetails(@Param("ids") Collection<Long> ids);
+
     // Get next invoice sequence number for organization and year
     @Query("SELECT COALESCE(MAX(CAST(SUBSTRING(i.invoiceNumber, LENGTH(:prefix) + 1) AS int)), 0) FROM Invoice i WHERE i.organization = :organization AND i.invoiceNumber LIKE :prefix%")
     Integer findMaxSequenceByOrganizationAndPrefix(@Param("organization") Organization organization, @Param("prefix") String prefix);
@@ -131,4 +148,22 @@ public interface InvoiceRepository extends JpaRepository<Invoice, Long> {
            "FROM Invoice i WHERE i.organization.id = :organizationId")
     Object[] getAllInvoiceStats(@Param("organizationId") Long organizationId);
 
+    // Financial rollup maintenance (see FinancialRollupService)
+
+    // Invoice totals for one organization grouped by every rollup dimension; used to rebuild and verify rollups
+    @Query("SELECT p.chargeType, p.projectStage, p.status, i.status, COUNT(i), COALESCE(SUM(i.totalAmount), 0), COALESCE(SUM(i.paidAmount), 0), COALESCE(SUM(i.balanceAmount), 0) " +
+           "FROM Invoice i LEFT JOIN i.project p " +
+           "WHERE i.organization.id = :organizationId " +
+           "GROUP BY p.chargeType, p.projectStage, p.status, i.status")
+    List<Object[]> getRollupStatsByOrganization(@Param("organizationId") Long organizationId);
+
+    // Invoice totals for one project grouped by status; used to move a project's invoices between rollup groups
+    @Query("SELECT i.status, COUNT(i), COALESCE(SUM(i.totalAmount), 0), COALESCE(SUM(i.paidAmount), 0), COALESCE(SUM(i.balanceAmount), 0) " +
+           "FROM Invoice i WHERE i.project.id = :projectId " +
+           "GROUP BY i.status")
+    List<Object[]> getInvoiceStatsByStatusForProject(@Param("projectId") Long projectId);
+
+    @Query("SELECT DISTINCT i.organization.id FROM Invoice i")
+    List<Long> findDistinctOrganizationIds();
+
 }
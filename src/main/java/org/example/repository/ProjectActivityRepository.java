@@ -1,14 +1,38 @@
 package org.example.repository;
 
+import org.example.dto.ProjectActivityDto;
 import org.example.models.ProjectActivity;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.util.List;
 
 @Repository
 public interface ProjectActivityRepository extends JpaRepository<ProjectActivity, Long> {
     List<ProjectActivity> findByProjectIdOrderByActivityDateDesc(Long projectId);
-    
-    // Get last 10 activities (latest first)
-    List<ProjectActivity> findTop10ByProjectIdOrderByActivityDateDesc(Long projectId);
+
+    // Latest activities of a project straight into the DTO (loggedBy = name, or username when no name is set)
+    @Query("SELECT new org.example.dto.ProjectActivityDto(a.id, a.type, a.description, " +
+           "CASE WHEN u.name IS NULL OR u.name = '' THEN u.username ELSE u.name END, a.activityDate) " +
+           "FROM ProjectActivity a JOIN a.user u WHERE a.project.id = :projectId " +
+           "ORDER BY a.activityDate DESC, a.id DESC")
+    List<ProjectActivityDto> findRecentDtosByProjectId(@Param("projectId") Long projectId, Pageable pageable);
+
+    // Activity feed warm-up: the latest :perProject activities of every project in the organization as
+    // [id, project_id, type, description, activity_date, logged_by], oldest first within each project
+    @Query(value = "SELECT r.id, r.project_id, r.type, r.description, r.activity_date, r.logged_by FROM (" +
+                   "SELECT pa.id, pa.project_id, pa.type, pa.description, pa.activity_date, " +
+                   "CASE WHEN u.name IS NULL OR u.name = '' THEN u.username ELSE u.name END AS logged_by, " +
+                   "ROW_NUMBER() OVER (PARTITION BY pa.project_id ORDER BY pa.activity_date DESC, pa.id DESC) AS rn " +
+                   "FROM project_activities pa " +
+                   "JOIN projects p ON p.id = pa.project_id " +
+                   "JOIN users u ON u.id = pa.user_id " +
+                   "WHERE p.organization_id = :organizationId) r " +
+                   "WHERE r.rn <= :perProject " +
+                   "ORDER BY r.project_id, r.activity_date, r.id",
+           nativeQuery = true)
+    List<Object[]> findLatestPerProjectInOrganization(@Param("organizationId") Long organizationId,
+                                                      @Param("perProject") int perProject);
 }
@@ -0,0 +1,62 @@
+package org.example.repository;
+
+import jakarta.persistence.LockModeType;
+import org.example.models.ProjectCostLedger;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Repository
+public interface ProjectCostLedgerRepository extends JpaRepository<ProjectCostLedger, Long> {
+
+    List<ProjectCostLedger> findByProjectId(Long projectId);
+
+    // Locks the project's ledger rows (and the index gap, so no new phase row can be inserted)
+    // while a rebuild recomputes them
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT l FROM ProjectCostLedger l WHERE l.projectId = :projectId")
+    List<ProjectCostLedger> findByProjectIdForUpdate(@Param("projectId") Long projectId);
+
+    // Atomically adds a delta to one phase row, creating the row on first use
+    @Modifying
+    @Query(value = "INSERT INTO project_cost_ledger (organization_id, project_id, phase_id, hours_logged, cost) " +
+                   "VALUES (:organizationId, :projectId, :phaseId, :hours, :cost) " +
+                   "ON DUPLICATE KEY UPDATE hours_logged = hours_logged + VALUES(hours_logged), " +
+                   "cost = cost + VALUES(cost)",
+           nativeQuery = true)
+    int applyDelta(@Param("organizationId") Long organizationId,
+                   @Param("projectId") Long projectId,
+                   @Param("phaseId") Long phaseId,
+                   @Param("hours") BigDecimal hours,
+                   @Param("cost") BigDecimal cost);
+
+    // Copies the ledger total into projects.actual_cost, which the project views and the
+    // financial health dashboard read
+    @Modifying
+    @Query(value = "UPDATE projects SET actual_cost = " +
+                   "(SELECT ROUND(COALESCE(SUM(l.cost), 0), 2) FROM project_cost_ledger l WHERE l.project_id = :projectId) " +
+                   "WHERE id = :projectId",
+           nativeQuery = true)
+    int refreshProjectActualCost(@Param("projectId") Long projectId);
+
+    @Modifying
+    @Query("DELETE FROM ProjectCostLedger l WHERE l.projectId = :projectId AND l.phaseId = :phaseId")
+    int deletePhase(@Param("projectId") Long projectId, @Param("phaseId") Long phaseId);
+
+    @Modifying
+    @Query("DELETE FROM ProjectCostLedger l WHERE l.projectId = :projectId")
+    int deleteProject(@Param("projectId") Long projectId);
+
+    @Query("SELECT DISTINCT l.projectId FROM ProjectCostLedger l")
+    List<Long> findDistinctProjectIds();
+
+    @Query("SELECT DISTINCT t.project.id FROM TimeLog tl JOIN tl.task t " +
+           "WHERE NOT EXISTS (SELECT l.id FROM ProjectCostLedger l WHERE l.projectId = t.project.id)")
+    List<Long> findProjectIdsWithoutLedger();
+}
@@ -13,6 +13,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -35,6 +36,27 @@ public interface ProjectRepository extends JpaRepository<Project, Long> {
     
     // Pagination and filtering methods
     Page<Project> findByOrganization_Id(Long organizationId, Pageable pageable);
+
+    // Organization-scoped listing with client fetched in the same query
+    @Query("SELECT p FROM Project p LEFT JOIN FETCH p.client WHERE p.organization.id = :organizationId " +
+           "ORDER BY p.updatedAt DESC, p.id DESC")
+    List<Project> findByOrganizationIdWithClient(@Param("organizationId") Long organizationId);
+
+    // Keyset (seek) pagination over (updatedAt DESC, id DESC) - first page.
+    // Pass an unsorted PageRequest.of(0, size) so only the LIMIT is applied.
+    @Query("SELECT p FROM Project p LEFT JOIN FETCH p.client WHERE p.organization.id = :organizationId " +
+           "ORDER BY p.updatedAt DESC, p.id DESC")
+    List<Project> findFirstKeysetPageByOrganization(@Param("organizationId") Long organizationId,
+                                                    Pageable pageable);
+
+    // Keyset (seek) pagination - rows strictly after the (updatedAt, id) cursor of the previous page
+    @Query("SELECT p FROM Project p LEFT JOIN FETCH p.client WHERE p.organization.id = :organizationId " +
+           "AND (p.updatedAt < :cursorUpdatedAt OR (p.updatedAt = :cursorUpdatedAt AND p.id < :cursorId)) " +
+           "ORDER BY p.updatedAt DESC, p.id DESC")
+    List<Project> findKeysetPageByOrganizationAfter(@Param("organizationId") Long organizationId,
+                                                    @Param("cursorUpdatedAt") LocalDateTime cursorUpdatedAt,
+                                                    @Param("cursorId") Long cursorId,
+                                                    Pageable pageable);
     
     @Query(value = "SELECT p FROM Project p LEFT JOIN FETCH p.client WHERE p.organization.id = :organizationId " +
            "AND (:chargeType IS NULL OR p.chargeType = :chargeType) " +
@@ -62,6 +84,10 @@ public interface ProjectRepository extends JpaRepository<Project, Long> {
     // Method to find the latest project number starting with a given prefix (for auto-generation)
     Optional<Project> findTopByOrganization_IdAndProjectNumberStartingWithOrderByProjectNumberDesc(Long organizationId, String prefix);
     
+    // [id, name] of every project in the organization (activity feed)
+    @Query("SELECT p.id, p.name FROM Project p WHERE p.organization.id = :organizationId")
+    List<Object[]> findIdAndNameByOrganization(@Param("organizationId") Long organizationId);
+
     // Financial Health Dashboard Queries
     
     // Get project count by charge type for active projects
@@ -5,6 +5,7 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
 
@@ -16,7 +17,40 @@ public interface ResourceAssignmentRepository extends JpaRepository<ResourceAssi
     
     @Query("SELECT ra FROM ResourceAssignment ra JOIN FETCH ra.phase LEFT JOIN FETCH ra.user WHERE ra.phase.project.id = :projectId")
     List<ResourceAssignment> findByProjectId(@Param("projectId") Long projectId);
+
+    // Planned burn (billing rate x planned hours) per phase of a project [phaseId, plannedBurn]
+    @Query("SELECT ra.phase.id, SUM(ra.billingRate * ra.plannedHours) FROM ResourceAssignment ra " +
+           "WHERE ra.phase.project.id = :projectId GROUP BY ra.phase.id")
+    List<Object[]> sumPlannedBurnByPhase(@Param("projectId") Long projectId);
     
+    // A user's assignments that overlap a date range, with phase and project for the allocation breakdown.
+    // An assignment without a start (or end) date is open-ended on that side.
+    @Query("SELECT ra FROM ResourceAssignment ra JOIN FETCH ra.phase ph JOIN FETCH ph.project " +
+           "WHERE ra.user.id = :userId " +
+           "AND (ra.startDate IS NULL OR ra.startDate <= :rangeEnd) " +
+           "AND (ra.endDate IS NULL OR ra.endDate >= :rangeStart)")
+    List<ResourceAssignment> findByUserOverlapping(@Param("userId") Long userId,
+                                                   @Param("rangeStart") LocalDate rangeStart,
+                                                   @Param("rangeEnd") LocalDate rangeEnd);
+
+    // Planned assignments of an organization's users that overlap a date range (utilization heatmap).
+    // NULL dates sort first in idx_resource_assignment_dates, so the start_date condition is one range scan.
+    // [userId, startDate, endDate, plannedHours]
+    @Query("SELECT ra.user.id, ra.startDate, ra.endDate, ra.plannedHours FROM ResourceAssignment ra " +
+           "WHERE ra.user.organization.id = :organizationId AND ra.plannedHours IS NOT NULL " +
+           "AND (ra.startDate IS NULL OR ra.startDate <= :rangeEnd) " +
+           "AND (ra.endDate IS NULL OR ra.endDate >= :rangeStart)")
+    List<Object[]> findPlannedIntervalsInOrganization(@Param("organizationId") Long organizationId,
+                                                      @Param("rangeStart") LocalDate rangeStart,
+                                                      @Param("rangeEnd") LocalDate rangeEnd);
+
+    // Every assignment of an organization for the capacity index
+    // [id, userId, phaseId, projectId, startDate, endDate, allocatedPercentage, plannedHours, billingRate]
+    @Query("SELECT ra.id, ra.user.id, ph.id, ph.project.id, ra.startDate, ra.endDate, ra.allocatedPercentage, " +
+           "ra.plannedHours, ra.billingRate FROM ResourceAssignment ra JOIN ra.phase ph " +
+           "WHERE ph.project.organization.id = :organizationId")
+    List<Object[]> findCapacityRowsByOrganization(@Param("organizationId") Long organizationId);
+
     Optional<ResourceAssignment> findByPhase_IdAndUser_Id(Long phaseId, Long userId);
     boolean existsByPhase_IdAndUser_Id(Long phaseId, Long userId);
 }
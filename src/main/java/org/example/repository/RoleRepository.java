@@ -3,11 +3,17 @@ package org.example.repository;
 
 import org.example.models.Role;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface RoleRepository extends JpaRepository<Role, Long> {
     Optional<Role> findByName(String name);
+
+    // One (role name, permission name) row per grant; permission name is null for a role without permissions
+    @Query("SELECT r.name, p.name FROM Role r LEFT JOIN r.permissions p")
+    List<Object[]> findRolePermissionNames();
 }
@@ -13,7 +13,7 @@ import org.springframework.stereotype.Repository;
 import java.util.List;
 
 @Repository
-public interface TaskRepository extends JpaRepository<Task, Long> {
+public interface TaskRepository extends JpaRepository<Task, Long>, TaskRepositoryCustom {
     List<Task> findByProject(Project project);
     List<Task> findByPhase(Phase phase); // New method
     List<Task> findByAssignee(User assignee);
@@ -40,6 +40,92 @@ public interface TaskRepository extends JpaRepository<Task, Long> {
         "WHERE t.project.id = :projectId")
     List<Task> findByProjectIdWithDetails(@org.springframework.data.repository.query.Param("projectId") Long projectId);
     
+    // Two-phase pagination, step 1: page only the IDs in SQL (backed by idx_task_project_updated_at)
+    @org.springframework.data.jpa.repository.Query(value = "SELECT t.id FROM Task t " +
+        "WHERE t.project.id = :projectId " +
+        "ORDER BY t.updatedAt DESC, t.id DESC",
+        countQuery = "SELECT COUNT(t) FROM Task t WHERE t.project.id = :projectId")
+    Page<Long> findIdsByProjectIdOrderByUpdatedAtDesc(@org.springframework.data.repository.query.Param("projectId") Long projectId, Pageable pageable);
+
+    // Two-phase pagination, step 2: fetch-join the details for just the IDs of the current page
+    @org.springframework.data.jpa.repository.Query("SELECT DISTINCT t FROM Task t " +
+        "LEFT JOIN FETCH t.project p " +
+        "LEFT JOIN FETCH p.client " +
+        "LEFT JOIN FETCH t.assignee " +
+        "LEFT JOIN FETCH t.reporter " +
+        "LEFT JOIN FETCH t.checkedBy " +
+        "LEFT JOIN FETCH t.phase " +
+        "WHERE t.id IN :ids")
+    List<Task> findByIdInWithDetails(@org.springframework.data.repository.query.Param("ids") java.util.Collection<Long> ids);
+    
+    // Two-phase pagination, step 2 for the task list views: select the list columns of the page's IDs
+    // straight into TaskListRow, without hydrating (or snapshotting) any entity
+    @org.springframework.data.jpa.repository.Query("SELECT new org.example.dto.TaskListRow(" +
+        "t.id, t.name, t.description, t.status, t.projectStage, t.priority, t.dueDate, t.createdAt, t.updatedAt, " +
+        "p.id, p.name, c.name, " +
+        "a.id, a.username, a.name, a.email, " +
+        "r.id, r.username, r.name, r.email, " +
+        "cb.id, cb.username, cb.name, cb.email, " +
+        "ph.id, ph.name, ph.phaseNumber) " +
+        "FROM Task t " +
+        "LEFT JOIN t.project p " +
+        "LEFT JOIN p.client c " +
+        "LEFT JOIN t.assignee a " +
+        "LEFT JOIN t.reporter r " +
+        "LEFT JOIN t.checkedBy cb " +
+        "LEFT JOIN t.phase ph " +
+        "WHERE t.id IN :ids")
+    List<org.example.dto.TaskListRow> findListRowsByIdIn(@org.springframework.data.repository.query.Param("ids") java.util.Collection<Long> ids);
+
+    // Task inbox counters: per status, how many of the user's tasks they are assigned to, reported
+    // and have to check, in one grouped pass (index merge over the assignee/reporter/checker indexes)
+    @org.springframework.data.jpa.repository.Query("SELECT t.status, " +
+        "SUM(CASE WHEN t.assignee.id = :userId THEN 1 ELSE 0 END), " +
+        "SUM(CASE WHEN t.reporter.id = :userId THEN 1 ELSE 0 END), " +
+        "SUM(CASE WHEN t.checkedBy.id = :userId THEN 1 ELSE 0 END) " +
+        "FROM Task t " +
+        "WHERE t.assignee.id = :userId OR t.reporter.id = :userId OR t.checkedBy.id = :userId " +
+        "GROUP BY t.status")
+    List<Object[]> countInboxByStatus(@org.springframework.data.repository.query.Param("userId") Long userId);
+
+    // Bulk task mutations: one query checks organization ownership and returns the current values
+    // [id, status, assigneeId, phaseId, checkedById, reporterId] of the requested tasks (missing/foreign IDs are absent)
+    @org.springframework.data.jpa.repository.Query("SELECT t.id, t.status, a.id, ph.id, cb.id, r.id FROM Task t " +
+        "LEFT JOIN t.assignee a " +
+        "LEFT JOIN t.reporter r " +
+        "LEFT JOIN t.phase ph " +
+        "LEFT JOIN t.checkedBy cb " +
+        "WHERE t.id IN :ids AND t.project.organization.id = :organizationId")
+    List<Object[]> findBulkTargets(@org.springframework.data.repository.query.Param("ids") java.util.Collection<Long> ids,
+                                   @org.springframework.data.repository.query.Param("organizationId") Long organizationId);
+
+    // The subset of the given task IDs that belong to the organization, with their project and phase
+    // (batch time log validation and cost ledger) [taskId, projectId, phaseId]
+    @org.springframework.data.jpa.repository.Query("SELECT t.id, t.project.id, ph.id FROM Task t LEFT JOIN t.phase ph " +
+           "WHERE t.id IN :ids AND t.project.organization.id = :organizationId")
+    List<Object[]> findLocationsInOrganization(@org.springframework.data.repository.query.Param("ids") java.util.Collection<Long> ids,
+                                               @org.springframework.data.repository.query.Param("organizationId") Long organizationId);
+
+    // Set-based bulk updates; they bypass @PreUpdate, so updatedAt is passed in
+    @org.springframework.data.jpa.repository.Modifying
+    @org.springframework.data.jpa.repository.Query("UPDATE Task t SET t.status = :status, t.updatedAt = :updatedAt WHERE t.id IN :ids")
+    int bulkUpdateStatus(@org.springframework.data.repository.query.Param("ids") java.util.Collection<Long> ids,
+                         @org.springframework.data.repository.query.Param("status") TaskStatus status,
+                         @org.springframework.data.repository.query.Param("updatedAt") java.time.LocalDateTime updatedAt);
+
+    @org.springframework.data.jpa.repository.Modifying
+    @org.springframework.data.jpa.repository.Query("UPDATE Task t SET t.assignee = :assignee, t.updatedAt = :updatedAt WHERE t.id IN :ids")
+    int bulkUpdateAssignee(@org.springframework.data.repository.query.Param("ids") java.util.Collection<Long> ids,
+                           @org.springframework.data.repository.query.Param("assignee") User assignee,
+                           @org.springframework.data.repository.query.Param("updatedAt") java.time.LocalDateTime updatedAt);
+
+    @org.springframework.data.jpa.repository.Modifying
+    @org.springframework.data.jpa.repository.Query("UPDATE Task t SET t.phase = :phase, t.project = :project, t.updatedAt = :updatedAt WHERE t.id IN :ids")
+    int bulkUpdatePhase(@org.springframework.data.repository.query.Param("ids") java.util.Collection<Long> ids,
+                        @org.springframework.data.repository.query.Param("phase") Phase phase,
+                        @org.springframework.data.repository.query.Param("project") Project project,
+                        @org.springframework.data.repository.query.Param("updatedAt") java.time.LocalDateTime updatedAt);
+
     boolean existsByProjectId(Long projectId);
     
     // Organization-based queries
@@ -50,34 +136,6 @@ public interface TaskRepository extends JpaRepository<Task, Long> {
     @org.springframework.data.jpa.repository.Query("SELECT COALESCE(MAX(CAST(SUBSTRING(t.taskNumber, LENGTH(:prefix) + 1) AS int)), 0) FROM Task t WHERE t.project = :project AND t.taskNumber LIKE :prefix%")
     Integer findMaxTaskSequenceByProjectAndPrefix(@org.springframework.data.repository.query.Param("project") Project project, @org.springframework.data.repository.query.Param("prefix") String prefix);
     
-    // Unified query for filtered tasks with organization, assignee, reporter, and checkedBy filters
-    // Properly handles NULL entity relationships and empty lists
-    // Uses LEFT JOIN FETCH for eager loading to prevent LazyInitializationException
-    @org.springframework.data.jpa.repository.Query("SELECT DISTINCT t FROM Task t " +
-        "LEFT JOIN FETCH t.project p " +
-        "LEFT JOIN FETCH p.client " +
-        "LEFT JOIN FETCH t.assignee " +
-        "LEFT JOIN FETCH t.reporter " +
-        "LEFT JOIN FETCH t.checkedBy " +
-        "LEFT JOIN FETCH t.phase " +
-        "WHERE p.organization.id = :organizationId AND " +
-        "(:assigneeId IS NULL OR (t.assignee IS NOT NULL AND t.assignee.id = :assigneeId)) AND " +
-        "(:reporterId IS NULL OR (t.reporter IS NOT NULL AND t.reporter.id = :reporterId)) AND " +
-        "(:checkedById IS NULL OR (t.checkedBy IS NOT NULL AND t.checkedBy.id = :checkedById)) AND " +
-        "(:statusList IS NULL OR t.status IN :statusList) AND " +
-        "(:priorityList IS NULL OR t.priority IN :priorityList) AND " +
-        "(:projectId IS NULL OR t.project.id = :projectId)")
-    Page<Task> findTasksWithFilters(
-        @org.springframework.data.repository.query.Param("organizationId") Long organizationId,
-        @org.springframework.data.repository.query.Param("assigneeId") Long assigneeId,
-        @org.springframework.data.repository.query.Param("reporterId") Long reporterId,
-        @org.springframework.data.repository.query.Param("checkedById") Long checkedById,
-        @org.springframework.data.repository.query.Param("statusList") java.util.List<TaskStatus> statusList,
-        @org.springframework.data.repository.query.Param("priorityList") java.util.List<org.example.models.enums.TaskPriority> priorityList,
-        @org.springframework.data.repository.query.Param("projectId") Long projectId,
-        Pageable pageable
-    );
-
     // Find task by ID with all related entities eagerly loaded
     @org.springframework.data.jpa.repository.Query("SELECT t FROM Task t " +
         "LEFT JOIN FETCH t.project p " +
@@ -0,0 +1,18 @@
+package org.example.repository;
+
+import org.example.models.Task;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Criteria queries on tasks that Spring Data cannot derive, implemented in TaskRepositoryCustomImpl.
+ */
+public interface TaskRepositoryCustom {
+
+    /**
+     * Pages only the IDs of the tasks matching the specification (step 1 of two-phase pagination).
+     * Unlike JpaSpecificationExecutor.findAll this does not hydrate Task entities.
+     */
+    Page<Long> findIds(Specification<Task> specification, Pageable pageable);
+}
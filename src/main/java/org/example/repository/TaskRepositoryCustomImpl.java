@@ -0,0 +1,48 @@
+package org.example.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
+import org.example.models.Task;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import java.util.List;
+
+public class TaskRepositoryCustomImpl implements TaskRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Page<Long> findIds(Specification<Task> specification, Pageable pageable) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+
+        CriteriaQuery<Long> idQuery = cb.createQuery(Long.class);
+        Root<Task> root = idQuery.from(Task.class);
+        idQuery.select(root.get("id"))
+                .where(specification.toPredicate(root, idQuery, cb))
+                .orderBy(QueryUtils.toOrders(pageable.getSort(), root, cb));
+        TypedQuery<Long> query = entityManager.createQuery(idQuery);
+        if (pageable.isPaged()) {
+            query.setFirstResult((int) pageable.getOffset());
+            query.setMaxResults(pageable.getPageSize());
+        }
+        List<Long> ids = query.getResultList();
+
+        // The count query only runs when the page alone cannot tell the total
+        return PageableExecutionUtils.getPage(ids, pageable, () -> {
+            CriteriaQuery<Long> countQuery = cb.createQuery(Long.class);
+            Root<Task> countRoot = countQuery.from(Task.class);
+            countQuery.select(cb.count(countRoot))
+                    .where(specification.toPredicate(countRoot, countQuery, cb));
+            return entityManager.createQuery(countQuery).getSingleResult();
+        });
+    }
+}
@@ -0,0 +1,93 @@
+package org.example.repository;
+
+import org.example.models.Task;
+import org.example.models.enums.TaskPriority;
+import org.example.models.enums.TaskStatus;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Specification building blocks for the filtered task list.
+ *
+ * withFilters only emits predicates for filters that were actually supplied, so each filter
+ * combination becomes its own plain WHERE clause (e.g. assignee_id = ? AND status IN (...)) that MySQL
+ * can match to idx_task_assignee_status, idx_task_checked_by_status or idx_task_project_status, instead
+ * of one "(? IS NULL OR ...)" query that can only scan the organization's tasks.
+ *
+ * Associations are compared by id (t.assignee.id), which Hibernate resolves to the foreign key column
+ * without joining the users table. The only join is the one to projects for the organization check.
+ */
+public final class TaskSpecifications {
+
+    private TaskSpecifications() {
+    }
+
+    public static Specification<Task> withFilters(Long organizationId,
+                                                  Long assigneeId,
+                                                  Long reporterId,
+                                                  Long checkedById,
+                                                  Collection<TaskStatus> statuses,
+                                                  Collection<TaskPriority> priorities,
+                                                  Long projectId) {
+        List<Specification<Task>> specifications = new ArrayList<>();
+        specifications.add(inOrganization(organizationId));
+        if (assigneeId != null) {
+            specifications.add(assignedTo(assigneeId));
+        }
+        if (reporterId != null) {
+            specifications.add(reportedBy(reporterId));
+        }
+        if (checkedById != null) {
+            specifications.add(checkedBy(checkedById));
+        }
+        if (statuses != null && !statuses.isEmpty()) {
+            specifications.add(statusIn(statuses));
+        }
+        if (priorities != null && !priorities.isEmpty()) {
+            specifications.add(priorityIn(priorities));
+        }
+        if (projectId != null) {
+            specifications.add(inProject(projectId));
+        }
+        return Specification.allOf(specifications);
+    }
+
+    public static Specification<Task> inOrganization(Long organizationId) {
+        return (root, query, cb) -> cb.equal(root.get("project").get("organization").get("id"), organizationId);
+    }
+
+    public static Specification<Task> assignedTo(Long assigneeId) {
+        return (root, query, cb) -> cb.equal(root.get("assignee").get("id"), assigneeId);
+    }
+
+    public static Specification<Task> reportedBy(Long reporterId) {
+        return (root, query, cb) -> cb.equal(root.get("reporter").get("id"), reporterId);
+    }
+
+    public static Specification<Task> checkedBy(Long checkedById) {
+        return (root, query, cb) -> cb.equal(root.get("checkedBy").get("id"), checkedById);
+    }
+
+    public static Specification<Task> statusIn(Collection<TaskStatus> statuses) {
+        return (root, query, cb) -> statuses.size() == 1
+                ? cb.equal(root.get("status"), statuses.iterator().next())
+                : root.get("status").in(statuses);
+    }
+
+    public static Specification<Task> statusNotIn(Collection<TaskStatus> statuses) {
+        return (root, query, cb) -> cb.not(root.get("status").in(statuses));
+    }
+
+    public static Specification<Task> priorityIn(Collection<TaskPriority> priorities) {
+        return (root, query, cb) -> priorities.size() == 1
+                ? cb.equal(root.get("priority"), priorities.iterator().next())
+                : root.get("priority").in(priorities);
+    }
+
+    public static Specification<Task> inProject(Long projectId) {
+        return (root, query, cb) -> cb.equal(root.get("project").get("id"), projectId);
+    }
+}
@@ -4,9 +4,12 @@ import org.example.models.Task;
 import org.example.models.TimeLog;
 import org.example.models.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -17,4 +20,32 @@ public interface TimeLogRepository extends JpaRepository<TimeLog, Long> {
     List<TimeLog> findByUser_Id(Long userId);
     List<TimeLog> findByTaskAndDateLogged(Task task, LocalDate dateLogged);
     List<TimeLog> findByUserAndDateLoggedBetween(User user, LocalDate startDate, LocalDate endDate);
-}
\ No newline at end of file
+
+    // Weekly timesheet: hours per task and day for one user in one grouped query (backed by idx_timelog_user_date)
+    // [taskId, taskNumber, taskName, projectId, projectName, dateLogged, hours]
+    @Query("SELECT t.id, t.taskNumber, t.name, p.id, p.name, tl.dateLogged, SUM(tl.hoursLogged) " +
+           "FROM TimeLog tl JOIN tl.task t LEFT JOIN t.project p " +
+           "WHERE tl.user.id = :userId AND tl.dateLogged BETWEEN :startDate AND :endDate " +
+           "GROUP BY t.id, t.taskNumber, t.name, p.id, p.name, tl.dateLogged " +
+           "ORDER BY p.name, t.taskNumber, tl.dateLogged")
+    List<Object[]> sumHoursByTaskAndDay(@Param("userId") Long userId,
+                                        @Param("startDate") LocalDate startDate,
+                                        @Param("endDate") LocalDate endDate);
+
+    // Cost ledger basis: hours per phase and user with the user's cost fields, for one project (rebuild)
+    // or for a set of tasks (moving or deleting tasks that have logged time). Tasks without a phase have a null phase id.
+    // [organizationId, projectId, phaseId, userId, monthlySalary, typicalHoursPerMonth, overheadMultiplier, hours]
+    @Query("SELECT p.organization.id, p.id, ph.id, u.id, u.monthlySalary, u.typicalHoursPerMonth, u.overheadMultiplier, " +
+           "SUM(tl.hoursLogged) " +
+           "FROM TimeLog tl JOIN tl.task t JOIN t.project p LEFT JOIN t.phase ph JOIN tl.user u " +
+           "WHERE p.id = :projectId " +
+           "GROUP BY p.organization.id, p.id, ph.id, u.id, u.monthlySalary, u.typicalHoursPerMonth, u.overheadMultiplier")
+    List<Object[]> sumCostBasisByProject(@Param("projectId") Long projectId);
+
+    @Query("SELECT p.organization.id, p.id, ph.id, u.id, u.monthlySalary, u.typicalHoursPerMonth, u.overheadMultiplier, " +
+           "SUM(tl.hoursLogged) " +
+           "FROM TimeLog tl JOIN tl.task t JOIN t.project p LEFT JOIN t.phase ph JOIN tl.user u " +
+           "WHERE t.id IN :taskIds " +
+           "GROUP BY p.organization.id, p.id, ph.id, u.id, u.monthlySalary, u.typicalHoursPerMonth, u.overheadMultiplier")
+    List<Object[]> sumCostBasisByTasks(@Param("taskIds") Collection<Long> taskIds);
+}
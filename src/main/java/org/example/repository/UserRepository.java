@@ -28,4 +28,24 @@ public interface UserRepository extends JpaRepository<User, Long> {
 
     @Query("SELECT u FROM User u WHERE u.organization.id = :organizationId AND (LOWER(u.name) LIKE LOWER(CONCAT('%', :query, '%')) OR LOWER(u.username) LIKE LOWER(CONCAT('%', :query, '%')) OR LOWER(u.email) LIKE LOWER(CONCAT('%', :query, '%')))")
     Page<User> searchUsersPaginated(@Param("organizationId") Long organizationId, @Param("query") String query, Pageable pageable);
+
+    // Enabled members of an organization without loading the entities (and their EAGER roles): [id, name, username]
+    @Query("SELECT u.id, u.name, u.username FROM User u " +
+           "WHERE u.organization.id = :organizationId AND u.enabled = true ORDER BY u.name, u.username")
+    List<Object[]> findEnabledNamesByOrganization(@Param("organizationId") Long organizationId);
+
+    // Identity of a user without loading the entity (and its EAGER roles/permissions): [id, organizationId]
+    @Query("SELECT u.id, o.id FROM User u LEFT JOIN u.organization o WHERE u.username = :username")
+    List<Object[]> findIdentityByUsername(@Param("username") String username);
+
+    @Query("SELECT u.id, o.id FROM User u LEFT JOIN u.organization o WHERE u.id = :id")
+    List<Object[]> findIdentityById(@Param("id") Long id);
+
+    // Roles a user holds now; the session authorities are a snapshot taken at login
+    @Query("SELECT r.name FROM User u JOIN u.roles r WHERE u.id = :id")
+    List<String> findRoleNamesById(@Param("id") Long id);
+
+    // Current refresh token version (see User.revokeTokens)
+    @Query("SELECT u.tokenVersion FROM User u WHERE u.id = :id")
+    Optional<Integer> findTokenVersionById(@Param("id") Long id);
 }
\ No newline at end of file
@@ -0,0 +1,158 @@
+package org.example.service;
+
+import org.example.dto.ProjectActivityDto;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory recent activity of one organization's projects (see ProjectActivityService): a ring
+ * buffer holding the latest activities of each project, and a merged cross-project timeline.
+ *
+ * Every project known when the feed was built has a buffer, possibly empty, so an empty buffer
+ * means "no activity" rather than "not loaded". Appending to a full buffer overwrites its oldest
+ * entry. Since each buffer holds a project's latest activities, the newest n activities of the
+ * whole organization are exactly the newest n of the merged buffers for any n up to the capacity.
+ */
+public final class ActivityFeed {
+
+    /**
+     * Newest first; activities created in the same instant are ordered by id.
+     */
+    static final Comparator<ProjectActivityDto> NEWEST_FIRST = Comparator
+            .comparing(ProjectActivityDto::getTime, Comparator.nullsLast(Comparator.reverseOrder()))
+            .thenComparing(ProjectActivityDto::getId, Comparator.reverseOrder());
+
+    /**
+     * Record to hold one activity of the merged feed together with its project.
+     */
+    public record Item(Long projectId, String projectName, ProjectActivityDto activity) {}
+
+    private final int capacity;
+    private final Map<Long, ProjectBuffer> projects = new ConcurrentHashMap<>();
+
+    /**
+     * @param projectNames every project of the organization by id
+     * @param latest the latest activities of each project, oldest first within each project
+     */
+    public ActivityFeed(int capacity, Map<Long, String> projectNames, Map<Long, List<ProjectActivityDto>> latest) {
+        this.capacity = capacity;
+        projectNames.forEach((projectId, name) -> {
+            ProjectBuffer buffer = new ProjectBuffer(projectId, name, capacity);
+            latest.getOrDefault(projectId, List.of()).forEach(buffer::add);
+            projects.put(projectId, buffer);
+        });
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    public boolean containsProject(Long projectId) {
+        return projects.containsKey(projectId);
+    }
+
+    /**
+     * The project's latest activities, newest first, or null if the project is not in this feed.
+     */
+    public List<ProjectActivityDto> recent(Long projectId, int limit) {
+        ProjectBuffer buffer = projects.get(projectId);
+        if (buffer == null) {
+            return null;
+        }
+        ProjectActivityDto[] snapshot = buffer.snapshot();
+        return List.of(Arrays.copyOf(snapshot, Math.min(limit, snapshot.length)));
+    }
+
+    /**
+     * Adds a newly created activity; a project created after the feed was built gets its buffer here.
+     * Adding an activity that is already in the buffer has no effect.
+     */
+    public void append(Long projectId, String projectName, ProjectActivityDto activity) {
+        projects.computeIfAbsent(projectId, id -> new ProjectBuffer(id, projectName, capacity)).add(activity);
+    }
+
+    /**
+     * The newest activities across all projects, newest first: a k-way merge of the per-project
+     * buffers that only looks at as many entries as it returns (plus one per project).
+     */
+    public List<Item> merged(int limit) {
+        PriorityQueue<Cursor> heads = new PriorityQueue<>(
+                Comparator.comparing((Cursor cursor) -> cursor.current(), NEWEST_FIRST));
+        for (ProjectBuffer buffer : projects.values()) {
+            ProjectActivityDto[] snapshot = buffer.snapshot();
+            if (snapshot.length > 0) {
+                heads.add(new Cursor(buffer, snapshot));
+            }
+        }
+
+        List<Item> items = new ArrayList<>(Math.min(limit, capacity));
+        while (items.size() < limit && !heads.isEmpty()) {
+            Cursor cursor = heads.poll();
+            items.add(new Item(cursor.buffer.projectId, cursor.buffer.projectName, cursor.current()));
+            if (++cursor.index < cursor.snapshot.length) {
+                heads.add(cursor);
+            }
+        }
+        return items;
+    }
+
+    private static final class Cursor {
+        private final ProjectBuffer buffer;
+        private final ProjectActivityDto[] snapshot;
+        private int index;
+
+        Cursor(ProjectBuffer buffer, ProjectActivityDto[] snapshot) {
+            this.buffer = buffer;
+            this.snapshot = snapshot;
+        }
+
+        ProjectActivityDto current() {
+            return snapshot[index];
+        }
+    }
+
+    /**
+     * Fixed-size ring of a project's latest activities. Writes are guarded by the buffer; readers get
+     * a sorted copy, which is rebuilt only after a write.
+     */
+    private static final class ProjectBuffer {
+        private final Long projectId;
+        private final String projectName;
+        private final ProjectActivityDto[] ring;
+        private int next;
+        private int size;
+        private volatile ProjectActivityDto[] sorted = new ProjectActivityDto[0];
+
+        ProjectBuffer(Long projectId, String projectName, int capacity) {
+            this.projectId = projectId;
+            this.projectName = projectName;
+            this.ring = new ProjectActivityDto[capacity];
+        }
+
+        synchronized void add(ProjectActivityDto activity) {
+            for (int i = 0; i < size; i++) {
+                if (ring[i].getId().equals(activity.getId())) {
+                    return;
+                }
+            }
+            ring[next] = activity;
+            next = (next + 1) % ring.length;
+            size = Math.min(size + 1, ring.length);
+
+            ProjectActivityDto[] copy = Arrays.copyOf(ring, size);
+            // Activities committed concurrently can arrive slightly out of time order
+            Arrays.sort(copy, NEWEST_FIRST);
+            sorted = copy;
+        }
+
+        ProjectActivityDto[] snapshot() {
+            return sorted;
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package org.example.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.dto.AuditLogEntry;
+import org.example.models.AuditLogArchive;
+import org.example.repository.AuditLogArchiveRepository;
+import org.example.repository.AuditLogRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Keeps audit_logs small by moving rows older than the retention window into compressed archive
+ * files, one or more per organization and month, stored through FileStorageService under
+ * audit-archives/ (which FileController does not serve).
+ *
+ * A nightly job archives every whole month older than app.audit.archive.retention-months. Rows are
+ * read in (timestamp, id) order with the same index as the audit log pages, written as gzip JSON
+ * lines to a temporary file and uploaded. The archive record is then saved and the archived rows
+ * deleted in one transaction; if any of them were already deleted (another node archiving the same
+ * month) the transaction rolls back and the uploaded file is removed, so every row ends up in exactly
+ * one archive.
+ *
+ * Archives are read back on demand with streamArchive, which decompresses while copying to the
+ * response, so no archive is held in memory.
+ */
+@Service
+public class AuditArchiveService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuditArchiveService.class);
+
+    private static final int READ_CHUNK_SIZE = 1000;
+    private static final int DELETE_CHUNK_SIZE = 1000;
+    private static final String CONTENT_TYPE = "application/gzip";
+
+    private final AuditLogRepository auditLogRepository;
+    private final AuditLogArchiveRepository auditLogArchiveRepository;
+    private final FileStorageService fileStorageService;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.audit.archive.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.audit.archive.retention-months:12}")
+    private int retentionMonths;
+
+    @Value("${app.audit.archive.max-rows-per-file:200000}")
+    private int maxRowsPerFile;
+
+    public AuditArchiveService(AuditLogRepository auditLogRepository,
+                               AuditLogArchiveRepository auditLogArchiveRepository,
+                               FileStorageService fileStorageService,
+                               ObjectMapper objectMapper,
+                               PlatformTransactionManager transactionManager) {
+        this.auditLogRepository = auditLogRepository;
+        this.auditLogArchiveRepository = auditLogArchiveRepository;
+        this.fileStorageService = fileStorageService;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Archives, per organization, every audit row in a month that lies entirely outside the retention window.
+     */
+    @Scheduled(cron = "${app.audit.archive.cron:0 15 3 * * *}")
+    public void archiveExpiredLogs() {
+        if (!enabled) {
+            return;
+        }
+        LocalDateTime cutoff = YearMonth.now().minusMonths(retentionMonths).atDay(1).atStartOfDay();
+        for (Long organizationId : auditLogRepository.findOrganizationIdsWithLogsBefore(cutoff)) {
+            try {
+                archiveOrganization(organizationId, cutoff);
+            } catch (Exception e) {
+                logger.error("Failed to archive audit logs of organization {}: {}", organizationId, e.getMessage(), e);
+            }
+        }
+    }
+
+    public List<AuditLogArchive> listArchives(Long organizationId) {
+        return auditLogArchiveRepository.findByOrganizationIdOrderByArchiveMonthDescIdDesc(organizationId);
+    }
+
+    public Optional<AuditLogArchive> findArchive(Long organizationId, Long archiveId) {
+        return auditLogArchiveRepository.findByIdAndOrganizationId(archiveId, organizationId);
+    }
+
+    /**
+     * Writes the archive's rows to out as JSON lines, oldest first, decompressing as it goes.
+     */
+    public void streamArchive(AuditLogArchive archive, OutputStream out) throws IOException {
+        try (InputStream in = new GZIPInputStream(
+                fileStorageService.openStream(archive.getFileUrl(), 0, archive.getCompressedSize()), 64 * 1024)) {
+            in.transferTo(out);
+        }
+    }
+
+    private void archiveOrganization(Long organizationId, LocalDateTime cutoff) throws IOException {
+        LocalDateTime oldest;
+        while ((oldest = auditLogRepository.findOldestTimestamp(organizationId, cutoff)) != null) {
+            YearMonth month = YearMonth.from(oldest);
+            if (archivePart(organizationId, month) == 0) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * Archives up to maxRowsPerFile of the oldest rows of the month into one file.
+     *
+     * @return the number of rows archived
+     */
+    private int archivePart(Long organizationId, YearMonth month) throws IOException {
+        LocalDateTime monthEnd = month.plusMonths(1).atDay(1).atStartOfDay();
+        Path tempFile = Files.createTempFile("audit-archive-", ".jsonl.gz");
+        try {
+            List<Long> ids = new ArrayList<>();
+            try (Writer writer = new OutputStreamWriter(
+                    new GZIPOutputStream(new BufferedOutputStream(Files.newOutputStream(tempFile))), StandardCharsets.UTF_8)) {
+                // Start just before the month; ids are never Long.MAX_VALUE, so the tie-break never matches
+                LocalDateTime afterTimestamp = month.atDay(1).atStartOfDay().minusNanos(1000);
+                Long afterId = Long.MAX_VALUE;
+                List<AuditLogEntry> chunk;
+                int limit;
+                do {
+                    limit = Math.min(READ_CHUNK_SIZE, maxRowsPerFile - ids.size());
+                    chunk = auditLogRepository.findArchiveChunk(organizationId, afterTimestamp, afterId, monthEnd,
+                            PageRequest.of(0, limit));
+                    for (AuditLogEntry entry : chunk) {
+                        writer.write(objectMapper.writeValueAsString(entry));
+                        writer.write('\n');
+                        ids.add(entry.id());
+                    }
+                    if (!chunk.isEmpty()) {
+                        AuditLogEntry last = chunk.get(chunk.size() - 1);
+                        afterTimestamp = last.timestamp();
+                        afterId = last.id();
+                    }
+                } while (chunk.size() == limit && ids.size() < maxRowsPerFile);
+            }
+            if (ids.isEmpty()) {
+                return 0;
+            }
+
+            long compressedSize = Files.size(tempFile);
+            String storagePath = FileStoragePathBuilder.buildAuditArchivePath(organizationId, month, UUID.randomUUID().toString());
+            String fileUrl;
+            try (InputStream in = Files.newInputStream(tempFile)) {
+                fileUrl = fileStorageService.storeContent(in, compressedSize, storagePath, CONTENT_TYPE);
+            }
+
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    int deleted = 0;
+                    for (int from = 0; from < ids.size(); from += DELETE_CHUNK_SIZE) {
+                        deleted += auditLogRepository.deleteByIds(ids.subList(from, Math.min(from + DELETE_CHUNK_SIZE, ids.size())));
+                    }
+                    if (deleted != ids.size()) {
+                        throw new IllegalStateException("Only " + deleted + " of " + ids.size()
+                                + " audit rows were still present; the month is being archived elsewhere");
+                    }
+                    auditLogArchiveRepository.save(new AuditLogArchive(organizationId, month.atDay(1), fileUrl,
+                            ids.size(), compressedSize));
+                });
+            } catch (RuntimeException e) {
+                try {
+                    fileStorageService.deleteFile(fileUrl);
+                } catch (Exception cleanup) {
+                    logger.warn("Could not remove unused audit archive {}: {}", fileUrl, cleanup.getMessage());
+                }
+                throw e;
+            }
+
+            logger.info("Archived {} audit rows of organization {} for {} ({} bytes)",
+                    ids.size(), organizationId, month, compressedSize);
+            return ids.size();
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+}
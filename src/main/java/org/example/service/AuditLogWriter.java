@@ -0,0 +1,413 @@
+package org.example.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.SQLNonTransientConnectionException;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTransientException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Background writer for audit rows (see AuditService).
+ *
+ * Committed audit records are put on a bounded queue and a single writer thread inserts them in
+ * JDBC batches of up to app.audit.batch-size, each batch in its own transaction. Under load the
+ * batches grow on their own, since the writer takes everything that queued while the previous batch
+ * was being written.
+ *
+ * When the queue is full the committing thread waits up to app.audit.enqueue-timeout for space, which
+ * slows writers down to the rate the database accepts. Records that still do not fit, and records that
+ * could not be written because of a connection or other transient error, are appended (and fsynced)
+ * to app.audit.fallback-file as JSON lines. The file is replayed into audit_logs on startup and every
+ * app.audit.fallback-replay-interval once the database accepts writes again. Replay is at-least-once:
+ * a restart in the middle of a replay can insert the batches already replayed a second time.
+ *
+ * A batch that fails for any other reason (a constraint or data error) is written again one row at a
+ * time, so a single bad row does not hold back the rest. Rows the database rejects on their own will
+ * never succeed; they go to app.audit.dead-letter-file, which is not replayed and needs to be looked at
+ * by hand.
+ *
+ * The queue is drained on shutdown. Records still queued when the JVM dies are lost, which is the
+ * price of not writing them inside the business transaction.
+ *
+ * Metrics: audit.queue.size (gauge), audit.fallback.records (records written to the fallback file) and
+ * audit.deadletter.records (records written to the dead-letter file).
+ */
+@Component
+public class AuditLogWriter {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuditLogWriter.class);
+
+    private static final String INSERT_AUDIT_LOG = "INSERT INTO audit_logs " +
+            "(entity_type, entity_id, action, field_changed, old_value, new_value, user_id, organization_id, timestamp) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final long POLL_MILLIS = 500;
+
+    /**
+     * Record to hold one audit row waiting to be written.
+     */
+    public record AuditRecord(String entityType, Long entityId, String action, String fieldChanged,
+                              String oldValue, String newValue, Long userId, Long organizationId,
+                              LocalDateTime timestamp) {}
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final BlockingQueue<AuditRecord> queue;
+    private final int batchSize;
+    private final Duration enqueueTimeout;
+    private final Duration shutdownTimeout;
+    private final Path fallbackFile;
+    private final Path deadLetterFile;
+    private final Object fallbackLock = new Object();
+    private final AtomicLong fallbackRecords = new AtomicLong();
+    private final AtomicLong deadLetterRecords = new AtomicLong();
+
+    private volatile boolean running;
+    private Thread writerThread;
+
+    public AuditLogWriter(JdbcTemplate jdbcTemplate,
+                          PlatformTransactionManager transactionManager,
+                          ObjectMapper objectMapper,
+                          MeterRegistry meterRegistry,
+                          @Value("${app.audit.queue-capacity:10000}") int queueCapacity,
+                          @Value("${app.audit.batch-size:500}") int batchSize,
+                          @Value("${app.audit.enqueue-timeout:2s}") Duration enqueueTimeout,
+                          @Value("${app.audit.shutdown-timeout:30s}") Duration shutdownTimeout,
+                          @Value("${app.audit.fallback-file:audit-fallback.jsonl}") String fallbackFile,
+                          @Value("${app.audit.dead-letter-file:audit-dead-letter.jsonl}") String deadLetterFile) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.enqueueTimeout = enqueueTimeout;
+        this.shutdownTimeout = shutdownTimeout;
+        this.fallbackFile = Paths.get(fallbackFile).toAbsolutePath().normalize();
+        this.deadLetterFile = Paths.get(deadLetterFile).toAbsolutePath().normalize();
+
+        Gauge.builder("audit.queue.size", queue, BlockingQueue::size)
+                .description("Committed audit records waiting to be written")
+                .register(meterRegistry);
+        FunctionCounter.builder("audit.fallback.records", fallbackRecords, AtomicLong::get)
+                .description("Audit records written to the fallback file instead of the database")
+                .register(meterRegistry);
+        FunctionCounter.builder("audit.deadletter.records", deadLetterRecords, AtomicLong::get)
+                .description("Audit records the database rejected, written to the dead-letter file")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        replayFallbackFile();
+        running = true;
+        writerThread = Thread.ofPlatform().name("audit-writer").daemon(true).start(this::run);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        writerThread.join(shutdownTimeout.toMillis());
+        List<AuditRecord> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        if (!remaining.isEmpty()) {
+            logger.warn("Audit writer did not drain in time; saving {} records to {}", remaining.size(), fallbackFile);
+            appendToFallback(remaining);
+        }
+    }
+
+    /**
+     * Queues committed records for writing, waiting for space if the queue is full. Records that
+     * cannot be queued go to the fallback file.
+     */
+    public void enqueue(Collection<AuditRecord> records) {
+        List<AuditRecord> overflow = null;
+        long deadline = System.nanoTime() + enqueueTimeout.toNanos();
+        for (AuditRecord record : records) {
+            boolean queued = false;
+            if (running) {
+                try {
+                    queued = queue.offer(record, Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            if (!queued) {
+                if (overflow == null) {
+                    overflow = new ArrayList<>();
+                }
+                overflow.add(record);
+            }
+        }
+        if (overflow != null) {
+            if (running) {
+                logger.warn("Audit queue full (capacity {}); saving {} records to {}",
+                        queue.size() + queue.remainingCapacity(), overflow.size(), fallbackFile);
+            }
+            appendToFallback(overflow);
+        }
+    }
+
+    /**
+     * Loads records saved to the fallback file back into audit_logs. The file is moved aside first,
+     * so records that fail again with a transient error are appended to a fresh file for the next
+     * attempt. Every batch is tried, whatever happened to the ones before it.
+     */
+    @Scheduled(fixedDelayString = "${app.audit.fallback-replay-interval:60000}", initialDelayString = "${app.audit.fallback-replay-interval:60000}")
+    public void replayFallbackFile() {
+        Path replaying = fallbackFile.resolveSibling(fallbackFile.getFileName() + ".replaying");
+        synchronized (fallbackLock) {
+            try {
+                if (Files.exists(replaying)) {
+                    // Left over from a replay that was cut short; finish it before taking new records
+                    appendFile(replaying, fallbackFile);
+                    Files.delete(replaying);
+                }
+                if (!Files.exists(fallbackFile)) {
+                    return;
+                }
+                Files.move(fallbackFile, replaying, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                logger.error("Could not prepare audit fallback file {} for replay: {}", fallbackFile, e.getMessage());
+                return;
+            }
+        }
+
+        int replayed = 0;
+        List<AuditRecord> batch = new ArrayList<>(batchSize);
+        List<AuditRecord> failed = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(replaying, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    batch.add(objectMapper.readValue(line, AuditRecord.class));
+                } catch (IOException e) {
+                    logger.error("Skipping unreadable audit fallback record: {}", line);
+                    continue;
+                }
+                if (batch.size() == batchSize) {
+                    replayed += replayBatch(batch, failed);
+                    batch = new ArrayList<>(batchSize);
+                }
+            }
+            replayed += replayBatch(batch, failed);
+        } catch (IOException e) {
+            logger.error("Could not read audit fallback file {}: {}", replaying, e.getMessage());
+            return;
+        }
+
+        if (!failed.isEmpty()) {
+            appendToFallback(failed);
+        }
+        try {
+            Files.delete(replaying);
+        } catch (IOException e) {
+            logger.error("Could not delete replayed audit fallback file {}: {}", replaying, e.getMessage());
+        }
+        if (replayed > 0) {
+            logger.info("Replayed {} audit records from {}", replayed, fallbackFile);
+        }
+    }
+
+    private void run() {
+        List<AuditRecord> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                AuditRecord first = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                write(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void write(List<AuditRecord> batch) {
+        List<AuditRecord> retry = new ArrayList<>();
+        writeBatch(batch, retry);
+        if (!retry.isEmpty()) {
+            logger.warn("Could not write {} audit records, saving them to {}", retry.size(), fallbackFile);
+            appendToFallback(retry);
+        }
+    }
+
+    private int replayBatch(List<AuditRecord> batch, List<AuditRecord> failed) {
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        int failedBefore = failed.size();
+        int written = writeBatch(batch, failed);
+        if (failed.size() > failedBefore) {
+            logger.warn("Audit fallback replay could not write {} records, will retry", failed.size() - failedBefore);
+        }
+        return written;
+    }
+
+    /**
+     * Writes the batch, falling back to one row at a time if the database rejects it. Rows that fail
+     * with a transient error are added to retry; rows rejected on their own go to the dead-letter file.
+     *
+     * @return the number of rows written
+     */
+    private int writeBatch(List<AuditRecord> batch, List<AuditRecord> retry) {
+        try {
+            insert(batch);
+            return batch.size();
+        } catch (Exception e) {
+            if (isTransient(e)) {
+                logger.warn("Could not write {} audit records: {}", batch.size(), e.getMessage());
+                retry.addAll(batch);
+                return 0;
+            }
+            logger.warn("Database rejected a batch of {} audit records, writing them one at a time: {}",
+                    batch.size(), e.getMessage());
+        }
+
+        int written = 0;
+        List<AuditRecord> rejected = new ArrayList<>();
+        for (int i = 0; i < batch.size(); i++) {
+            AuditRecord record = batch.get(i);
+            try {
+                insert(List.of(record));
+                written++;
+            } catch (Exception e) {
+                if (isTransient(e)) {
+                    // Lost the connection part way through; the rest waits for the next replay
+                    retry.addAll(batch.subList(i, batch.size()));
+                    break;
+                }
+                logger.error("Database rejected audit record, saving it to {}: {} ({})", deadLetterFile, record, e.getMessage());
+                rejected.add(record);
+            }
+        }
+        appendTo(deadLetterFile, rejected, deadLetterRecords);
+        return written;
+    }
+
+    // Connection problems, timeouts and lock conflicts may go away on their own; constraint and data errors will not
+    private static boolean isTransient(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof TransientDataAccessException
+                    || cause instanceof RecoverableDataAccessException
+                    || cause instanceof DataAccessResourceFailureException
+                    || cause instanceof TransactionException
+                    || cause instanceof SQLTransientException
+                    || cause instanceof SQLRecoverableException
+                    || cause instanceof SQLNonTransientConnectionException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // One transaction per batch, so a failed batch leaves nothing behind and can be retried without duplicates
+    private void insert(List<AuditRecord> batch) {
+        transactionTemplate.executeWithoutResult(status ->
+                jdbcTemplate.batchUpdate(INSERT_AUDIT_LOG, batch, batch.size(), (ps, record) -> {
+                    ps.setString(1, record.entityType());
+                    ps.setLong(2, record.entityId());
+                    ps.setString(3, record.action());
+                    ps.setString(4, record.fieldChanged());
+                    ps.setString(5, record.oldValue());
+                    ps.setString(6, record.newValue());
+                    ps.setObject(7, record.userId());
+                    ps.setObject(8, record.organizationId());
+                    ps.setTimestamp(9, Timestamp.valueOf(record.timestamp()));
+                }));
+    }
+
+    private void appendToFallback(List<AuditRecord> records) {
+        appendTo(fallbackFile, records, fallbackRecords);
+    }
+
+    private void appendTo(Path file, List<AuditRecord> records, AtomicLong counter) {
+        if (records.isEmpty()) {
+            return;
+        }
+        StringBuilder lines = new StringBuilder();
+        try {
+            for (AuditRecord record : records) {
+                lines.append(objectMapper.writeValueAsString(record)).append('\n');
+            }
+            synchronized (fallbackLock) {
+                Path parent = file.getParent();
+                if (parent != null) {
+                    Files.createDirectories(parent);
+                }
+                try (FileChannel channel = FileChannel.open(file,
+                        StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+                    ByteBuffer buffer = ByteBuffer.wrap(lines.toString().getBytes(StandardCharsets.UTF_8));
+                    while (buffer.hasRemaining()) {
+                        channel.write(buffer);
+                    }
+                    channel.force(false);
+                }
+            }
+            counter.addAndGet(records.size());
+        } catch (IOException e) {
+            // Last resort: keep the records in the application log so they can be recovered by hand
+            logger.error("Could not write audit file {}: {}", file, e.getMessage());
+            records.forEach(record -> logger.error("Lost audit record: {}", record));
+        }
+    }
+
+    private void appendFile(Path source, Path target) throws IOException {
+        try (FileChannel in = FileChannel.open(source, StandardOpenOption.READ);
+             FileChannel out = FileChannel.open(target,
+                     StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            long position = 0;
+            long size = in.size();
+            while (position < size) {
+                position += in.transferTo(position, size - position, out);
+            }
+            out.force(false);
+        }
+    }
+}
@@ -1,39 +1,156 @@
 package org.example.service;
 
+import org.example.dto.AuditLogEntry;
 import org.example.models.AuditLog;
-import org.example.models.Organization;
 import org.example.models.User;
 import org.example.repository.AuditLogRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
+/**
+ * Records who changed what. Audit rows are not inserted inside the caller's transaction: they are
+ * handed to AuditLogWriter when the transaction commits (and dropped if it rolls back), and written
+ * in batches in the background. Calls outside a transaction are queued immediately.
+ *
+ * The read methods therefore may not yet see changes committed in the last few milliseconds.
+ */
 @Service
 public class AuditService {
 
+    // Matches the audit_logs.old_value / new_value columns
+    private static final int MAX_VALUE_LENGTH = 2000;
+
+    /**
+     * One audit row for logChanges; the user and organization are shared by the whole batch.
+     */
+    public record AuditEntry(String entityType, Long entityId, String action, String fieldChanged, String oldValue, String newValue) {}
+
     private final AuditLogRepository auditLogRepository;
+    private final AuditLogWriter auditLogWriter;
+    private final CurrentUserService currentUserService;
 
     @Autowired
-    public AuditService(AuditLogRepository auditLogRepository) {
+    public AuditService(AuditLogRepository auditLogRepository, AuditLogWriter auditLogWriter, CurrentUserService currentUserService) {
         this.auditLogRepository = auditLogRepository;
+        this.auditLogWriter = auditLogWriter;
+        this.currentUserService = currentUserService;
     }
 
-    @Transactional
     public void logChange(User user, String entityType, Long entityId, String action, String fieldChanged, String oldValue, String newValue) {
-        Organization org = user != null ? user.getOrganization() : null;
-        AuditLog log = new AuditLog(entityType, entityId, action, fieldChanged, oldValue, newValue, user, org);
-        auditLogRepository.save(log);
+        Long userId = user != null ? user.getId() : null;
+        submit(List.of(record(entityType, entityId, action, fieldChanged, oldValue, newValue,
+                userId, organizationIdOf(user), LocalDateTime.now())));
+    }
+
+    /**
+     * Records many audit rows at once (used by bulk operations); they are written together with the
+     * rest of the pending audit rows.
+     */
+    public void logChanges(Long userId, Long organizationId, List<AuditEntry> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        LocalDateTime timestamp = LocalDateTime.now();
+        List<AuditLogWriter.AuditRecord> records = new ArrayList<>(entries.size());
+        for (AuditEntry entry : entries) {
+            records.add(record(entry.entityType(), entry.entityId(), entry.action(), entry.fieldChanged(),
+                    entry.oldValue(), entry.newValue(), userId, organizationId, timestamp));
+        }
+        submit(records);
     }
 
     public List<AuditLog> getAuditLogs(String entityType, Long entityId) {
         return auditLogRepository.findByEntityTypeAndEntityIdOrderByTimestampDesc(entityType, entityId);
     }
-    
-    public List<AuditLog> getOrganizationAuditLogs(Long organizationId) {
-        return auditLogRepository.findByOrganizationIdOrderByTimestampDesc(organizationId);
+
+    /**
+     * One page of the organization's audit log, newest first, using keyset (seek) pagination over
+     * (timestamp DESC, id DESC). Each page is an index range scan of idx_audit_logs_org_timestamp, so
+     * its cost depends on the page size only. Rows older than the retention window are in the
+     * monthly archives (see AuditArchiveService).
+     *
+     * @param cursorTimestamp timestamp of the last row on the previous page, or null for the first page
+     * @param cursorId id of the last row on the previous page, or null for the first page
+     * @return A map containing the rows and the cursor for the next page
+     */
+    public Map<String, Object> getOrganizationAuditPage(Long organizationId, LocalDateTime cursorTimestamp,
+                                                        Long cursorId, int size) {
+        if (size < 1 || size > 200) {
+            throw new IllegalArgumentException("Page size must be between 1 and 200.");
+        }
+        if ((cursorTimestamp == null) != (cursorId == null)) {
+            throw new IllegalArgumentException("cursorTimestamp and cursorId must be provided together.");
+        }
+
+        // Fetch one extra row to know whether another page exists without a COUNT query
+        Pageable limit = PageRequest.of(0, size + 1);
+        List<AuditLogEntry> logs = cursorId == null
+                ? auditLogRepository.findFirstPageByOrganization(organizationId, limit)
+                : auditLogRepository.findPageByOrganizationAfter(organizationId, cursorTimestamp, cursorId, limit);
+
+        boolean hasNext = logs.size() > size;
+        if (hasNext) {
+            logs = new ArrayList<>(logs.subList(0, size));
+        }
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("logs", logs);
+        response.put("hasNext", hasNext);
+        if (hasNext) {
+            AuditLogEntry last = logs.get(logs.size() - 1);
+            response.put("nextCursorTimestamp", last.timestamp());
+            response.put("nextCursorId", last.id());
+        }
+        return response;
+    }
+
+    private void submit(List<AuditLogWriter.AuditRecord> records) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            auditLogWriter.enqueue(records);
+            return;
+        }
+        // Registered per call rather than per transaction, so rows logged inside a REQUIRES_NEW
+        // transaction follow that transaction's outcome
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                auditLogWriter.enqueue(records);
+            }
+        });
+    }
+
+    // The current user's organization comes from the session; other users are looked up
+    private Long organizationIdOf(User user) {
+        if (user == null) {
+            return null;
+        }
+        Optional<CurrentUser> currentUser = currentUserService.find();
+        if (currentUser.isPresent() && currentUser.get().userId().equals(user.getId())) {
+            return currentUser.get().organizationId();
+        }
+        return user.getOrganization() != null ? user.getOrganization().getId() : null;
     }
-}
 
+    private static AuditLogWriter.AuditRecord record(String entityType, Long entityId, String action, String fieldChanged,
+                                                     String oldValue, String newValue, Long userId, Long organizationId,
+                                                     LocalDateTime timestamp) {
+        return new AuditLogWriter.AuditRecord(entityType, entityId, action, fieldChanged,
+                truncate(oldValue), truncate(newValue), userId, organizationId, timestamp);
+    }
 
+    // An over-long value would fail the whole batch it is written with
+    private static String truncate(String value) {
+        return value != null && value.length() > MAX_VALUE_LENGTH ? value.substring(0, MAX_VALUE_LENGTH) : value;
+    }
+}
@@ -516,6 +516,8 @@ public class AuthService {
         // Update password
         User user = resetToken.getUser();
         user.setPassword(passwordEncoder.encode(newPassword));
+        // Sessions on other devices must not survive a reset through their refresh tokens
+        user.revokeTokens();
         userRepository.save(user);
         logger.info("Password reset successful for user: {}", user.getUsername());
 
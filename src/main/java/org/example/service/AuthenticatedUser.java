@@ -0,0 +1,38 @@
+package org.example.service;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+
+import java.util.Collection;
+
+/**
+ * Spring Security principal that also carries the user's database id and organization id.
+ *
+ * Built once at login by UserDetailsServiceImpl and stored in the session with the rest of the
+ * security context, so CurrentUserService can answer "who is calling and for which organization"
+ * without another users lookup. A user's organization never changes after the account is created.
+ */
+public class AuthenticatedUser extends User {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Long userId;
+    private final Long organizationId;
+
+    public AuthenticatedUser(Long userId, Long organizationId, String username, String password, boolean enabled,
+                             Collection<? extends GrantedAuthority> authorities) {
+        super(username, password, enabled, true, true, true, authorities);
+        this.userId = userId;
+        this.organizationId = organizationId;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public Long getOrganizationId() {
+        return organizationId;
+    }
+
+    // equals/hashCode stay username-based (inherited), which the session registry relies on
+}
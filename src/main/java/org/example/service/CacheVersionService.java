@@ -0,0 +1,108 @@
+package org.example.service;
+
+import org.springframework.cache.Cache;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cross-node invalidation for the per-organization caches (see CacheConfig).
+ *
+ * Each cache has one version row per organization in cache_versions. A change bumps the row just
+ * before its transaction commits, so the new version commits or rolls back with the change. Before a
+ * node uses a cached entry it reads the current version with one primary-key lookup, and evicts the
+ * entry if the version differs from the one it last saw. A change made on any node is therefore seen
+ * on the next read everywhere, and the cache TTLs only bound memory.
+ *
+ * The node that made the change can update its entry in place instead of rebuilding it: after commit
+ * the update runs, and the new version is recorded as seen, only if this node was exactly one version
+ * behind, i.e. no other node's change is missing from the entry. Otherwise the entry is evicted.
+ *
+ * The table is created by V8__create_cache_versions.sql.
+ */
+@Service
+public class CacheVersionService {
+
+    private static final String BUMP = "INSERT INTO cache_versions (cache_name, organization_id, version) VALUES (?, ?, 1) "
+            + "ON DUPLICATE KEY UPDATE version = version + 1";
+    private static final String SELECT_VERSION = "SELECT version FROM cache_versions WHERE cache_name = ? AND organization_id = ?";
+
+    private record Key(String cacheName, Long organizationId) {}
+
+    private final JdbcTemplate jdbcTemplate;
+    // Version each organization's entry was last checked against or brought up to, per cache
+    private final Map<Key, Long> seen = new ConcurrentHashMap<>();
+
+    public CacheVersionService(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Records a change to the organization's entry in the cache. Call inside the changing transaction;
+     * the version row is written at commit, which keeps its lock short.
+     *
+     * @param updateInPlace brings this node's entry up to date after commit (or evicts it itself if it
+     *                      cannot); runs only if no change from another node is pending
+     */
+    public void bump(Cache cache, Long organizationId, Runnable updateInPlace) {
+        Key key = new Key(cache.getName(), organizationId);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            afterCommit(cache, key, increment(key), updateInPlace);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            private long version;
+
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                version = increment(key);
+            }
+
+            @Override
+            public void afterCommit() {
+                CacheVersionService.this.afterCommit(cache, key, version, updateInPlace);
+            }
+        });
+    }
+
+    /**
+     * Evicts the organization's entry if it changed on any node since this node last checked it.
+     * The version is read before the entry is rebuilt, so a change committed during the rebuild is
+     * caught by the next check.
+     */
+    public void evictIfStale(Cache cache, Long organizationId) {
+        Key key = new Key(cache.getName(), organizationId);
+        long current = read(key);
+        Long previous = seen.put(key, current);
+        if (previous == null || previous != current) {
+            cache.evict(organizationId);
+        }
+    }
+
+    // Runs in the changing transaction; the row lock orders concurrent bumps, so this is our own version
+    private long increment(Key key) {
+        jdbcTemplate.update(BUMP, key.cacheName(), key.organizationId());
+        return read(key);
+    }
+
+    private long read(Key key) {
+        List<Long> rows = jdbcTemplate.queryForList(SELECT_VERSION, Long.class, key.cacheName(), key.organizationId());
+        return rows.isEmpty() ? 0 : rows.get(0);
+    }
+
+    private void afterCommit(Cache cache, Key key, long version, Runnable updateInPlace) {
+        Long previous = version - 1;
+        if (previous.equals(seen.get(key))) {
+            updateInPlace.run();
+            if (seen.replace(key, previous, version)) {
+                return;
+            }
+        }
+        cache.evict(key.organizationId());
+    }
+}
@@ -0,0 +1,251 @@
+package org.example.service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * In-memory view of one organization's resource assignments for capacity questions (see
+ * ResourceCapacityService): who is allocated when, and the planned burn and hours that
+ * getAssignmentAvailability reports.
+ *
+ * Each user's allocations are held in an immutable interval tree, so overlap queries cost
+ * O(log n + k) for a user with n allocations of which k overlap. A change replaces the user's tree
+ * with a rebuilt copy (users have tens of allocations, not thousands), which lets readers run
+ * without locks. The phase and project aggregates are updated with the same change.
+ *
+ * Assignments without a start (or end) date are open-ended on that side; assignments without an
+ * allocated percentage count as 0%, as on the planning board.
+ */
+public final class CapacityIndex {
+
+    private static final BigDecimal FULL_ALLOCATION = new BigDecimal("100");
+
+    /**
+     * Record to hold one resource assignment as the index sees it. Days are epoch days.
+     */
+    public record Allocation(Long assignmentId, Long userId, Long phaseId, Long projectId,
+                             long startDay, long endDay, BigDecimal percentage, int plannedHours, BigDecimal plannedBurn) {
+
+        public static Allocation of(Long assignmentId, Long userId, Long phaseId, Long projectId,
+                                    LocalDate startDate, LocalDate endDate, BigDecimal percentage,
+                                    Integer plannedHours, BigDecimal billingRate) {
+            int hours = plannedHours != null ? plannedHours : 0;
+            BigDecimal burn = billingRate != null ? billingRate.multiply(new BigDecimal(hours)) : BigDecimal.ZERO;
+            return new Allocation(assignmentId, userId, phaseId, projectId,
+                    startDate != null ? startDate.toEpochDay() : Long.MIN_VALUE,
+                    endDate != null ? endDate.toEpochDay() : Long.MAX_VALUE,
+                    percentage != null ? percentage : BigDecimal.ZERO,
+                    hours, burn);
+        }
+
+        public LocalDate startDate() {
+            return startDay != Long.MIN_VALUE ? LocalDate.ofEpochDay(startDay) : null;
+        }
+
+        public LocalDate endDate() {
+            return endDay != Long.MAX_VALUE ? LocalDate.ofEpochDay(endDay) : null;
+        }
+    }
+
+    /**
+     * Record to hold an enabled member of the organization.
+     */
+    public record Member(Long userId, String name) {}
+
+    private final Map<Long, Member> members;
+    // Guarded by this; readers use the trees and aggregates below
+    private final Map<Long, Allocation> allocations = new HashMap<>();
+    private final Map<Long, IntervalTree> trees = new ConcurrentHashMap<>();
+    private final Map<Long, BigDecimal> phaseBurn = new ConcurrentHashMap<>();
+    private final Map<ProjectUser, Integer> projectUserHours = new ConcurrentHashMap<>();
+
+    public CapacityIndex(List<Member> members, List<Allocation> allocations) {
+        Map<Long, Member> byId = new LinkedHashMap<>();
+        members.forEach(member -> byId.put(member.userId(), member));
+        this.members = byId;
+
+        Map<Long, List<Allocation>> byUser = new HashMap<>();
+        for (Allocation allocation : allocations) {
+            this.allocations.put(allocation.assignmentId(), allocation);
+            byUser.computeIfAbsent(allocation.userId(), id -> new ArrayList<>()).add(allocation);
+            addAggregates(allocation);
+        }
+        byUser.forEach((userId, list) -> trees.put(userId, new IntervalTree(list.toArray(Allocation[]::new))));
+    }
+
+    /**
+     * Applies an assignment create (before == null), update, or delete (after == null). Replaying a
+     * change that is already in the index leaves it unchanged.
+     */
+    public synchronized void apply(Allocation before, Allocation after) {
+        Long assignmentId = after != null ? after.assignmentId() : before.assignmentId();
+        Allocation current = allocations.remove(assignmentId);
+        if (current != null) {
+            trees.computeIfPresent(current.userId(), (userId, tree) -> tree.without(assignmentId));
+            removeAggregates(current);
+        }
+        if (after != null) {
+            allocations.put(assignmentId, after);
+            trees.merge(after.userId(), new IntervalTree(new Allocation[] {after}), (tree, single) -> tree.with(after));
+            addAggregates(after);
+        }
+    }
+
+    public boolean isMember(Long userId) {
+        return members.containsKey(userId);
+    }
+
+    public List<Member> members() {
+        return List.copyOf(members.values());
+    }
+
+    /**
+     * The user's allocations that overlap [from, to], ordered by start date.
+     */
+    public List<Allocation> overlapping(Long userId, LocalDate from, LocalDate to) {
+        List<Allocation> result = new ArrayList<>();
+        IntervalTree tree = trees.get(userId);
+        if (tree != null) {
+            tree.forEachOverlapping(from.toEpochDay(), to.toEpochDay(), result::add);
+        }
+        return result;
+    }
+
+    /**
+     * Highest combined allocation percentage of the user on any day in [from, to].
+     *
+     * @param excludeAssignmentId an assignment to leave out (the one being edited), or null
+     */
+    public BigDecimal peakPercentage(Long userId, LocalDate from, LocalDate to, Long excludeAssignmentId) {
+        long fromDay = from.toEpochDay();
+        long toDay = to.toEpochDay();
+        List<Boundary> boundaries = new ArrayList<>();
+        for (Allocation allocation : overlapping(userId, from, to)) {
+            if (allocation.assignmentId().equals(excludeAssignmentId) || allocation.percentage().signum() == 0) {
+                continue;
+            }
+            boundaries.add(new Boundary(Math.max(allocation.startDay(), fromDay), allocation.percentage()));
+            boundaries.add(new Boundary(Math.min(allocation.endDay(), toDay) + 1, allocation.percentage().negate()));
+        }
+        // Ends sort before starts on the same day: an allocation ending the day before another starts does not overlap it
+        boundaries.sort(Comparator.comparingLong(Boundary::day).thenComparingInt(boundary -> boundary.delta().signum()));
+
+        BigDecimal running = BigDecimal.ZERO;
+        BigDecimal peak = BigDecimal.ZERO;
+        for (Boundary boundary : boundaries) {
+            running = running.add(boundary.delta());
+            peak = peak.max(running);
+        }
+        return peak;
+    }
+
+    /**
+     * Percentage still unallocated for the user throughout [from, to].
+     */
+    public BigDecimal freePercentage(Long userId, LocalDate from, LocalDate to, Long excludeAssignmentId) {
+        return FULL_ALLOCATION.subtract(peakPercentage(userId, from, to, excludeAssignmentId)).max(BigDecimal.ZERO);
+    }
+
+    /**
+     * Planned burn (billing rate x planned hours) of all assignments on a phase.
+     */
+    public BigDecimal plannedBurn(Long phaseId) {
+        return phaseBurn.getOrDefault(phaseId, BigDecimal.ZERO);
+    }
+
+    /**
+     * Planned hours of a user across all phases of a project.
+     */
+    public int plannedHours(Long projectId, Long userId) {
+        return projectUserHours.getOrDefault(new ProjectUser(projectId, userId), 0);
+    }
+
+    private void addAggregates(Allocation allocation) {
+        phaseBurn.merge(allocation.phaseId(), allocation.plannedBurn(), BigDecimal::add);
+        projectUserHours.merge(new ProjectUser(allocation.projectId(), allocation.userId()), allocation.plannedHours(), Integer::sum);
+    }
+
+    private void removeAggregates(Allocation allocation) {
+        phaseBurn.merge(allocation.phaseId(), allocation.plannedBurn().negate(), BigDecimal::add);
+        projectUserHours.merge(new ProjectUser(allocation.projectId(), allocation.userId()), -allocation.plannedHours(), Integer::sum);
+    }
+
+    private record ProjectUser(Long projectId, Long userId) {}
+
+    private record Boundary(long day, BigDecimal delta) {}
+
+    /**
+     * Immutable interval tree over allocations: an implicit balanced search tree on the array sorted by
+     * start day, where each node also stores the latest end day in its subtree. An overlap query skips
+     * every subtree that ends before the range and everything right of a node that starts after it.
+     */
+    static final class IntervalTree {
+
+        private static final Comparator<Allocation> BY_START =
+                Comparator.comparingLong(Allocation::startDay).thenComparing(Allocation::assignmentId);
+
+        private final Allocation[] byStart;
+        private final long[] maxEnd;
+
+        IntervalTree(Allocation[] allocations) {
+            this.byStart = allocations;
+            Arrays.sort(byStart, BY_START);
+            this.maxEnd = new long[byStart.length];
+            build(0, byStart.length - 1);
+        }
+
+        IntervalTree with(Allocation allocation) {
+            Allocation[] copy = Arrays.copyOf(byStart, byStart.length + 1);
+            copy[byStart.length] = allocation;
+            return new IntervalTree(copy);
+        }
+
+        IntervalTree without(Long assignmentId) {
+            return new IntervalTree(Arrays.stream(byStart)
+                    .filter(allocation -> !allocation.assignmentId().equals(assignmentId))
+                    .toArray(Allocation[]::new));
+        }
+
+        void forEachOverlapping(long fromDay, long toDay, Consumer<Allocation> action) {
+            visit(0, byStart.length - 1, fromDay, toDay, action);
+        }
+
+        private long build(int lo, int hi) {
+            if (lo > hi) {
+                return Long.MIN_VALUE;
+            }
+            int mid = (lo + hi) >>> 1;
+            long end = Math.max(byStart[mid].endDay(), Math.max(build(lo, mid - 1), build(mid + 1, hi)));
+            maxEnd[mid] = end;
+            return end;
+        }
+
+        private void visit(int lo, int hi, long fromDay, long toDay, Consumer<Allocation> action) {
+            if (lo > hi) {
+                return;
+            }
+            int mid = (lo + hi) >>> 1;
+            if (maxEnd[mid] < fromDay) {
+                return;
+            }
+            visit(lo, mid - 1, fromDay, toDay, action);
+            Allocation allocation = byStart[mid];
+            if (allocation.startDay() > toDay) {
+                return;
+            }
+            if (allocation.endDay() >= fromDay) {
+                action.accept(allocation);
+            }
+            visit(mid + 1, hi, fromDay, toDay, action);
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package org.example.service;
+
+import java.util.Set;
+
+/**
+ * Identity of the authenticated caller: user id, organization id and the authorities granted at login.
+ * Obtained from CurrentUserService; organizationId is null for users without an organization.
+ */
+public record CurrentUser(Long userId, String username, Long organizationId, Set<String> authorities) {
+
+    public boolean hasOrganization() {
+        return organizationId != null;
+    }
+
+    public boolean hasAuthority(String authority) {
+        return authorities.contains(authority);
+    }
+
+    /**
+     * ROLE_ADMIN as granted at login; see CurrentUserService.hasRole for a check that follows revocation.
+     */
+    public boolean isAdmin() {
+        return hasAuthority("ROLE_ADMIN");
+    }
+}
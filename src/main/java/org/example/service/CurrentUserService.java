@@ -0,0 +1,106 @@
+package org.example.service;
+
+import org.example.models.User;
+import org.example.repository.UserRepository;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Resolves the authenticated caller without re-reading the users table on every service call.
+ *
+ * Logins since AuthenticatedUser was introduced carry the user and organization ids in the session
+ * principal, so no query is needed. Older sessions (or other principal types) are resolved with a
+ * single scalar query and the result is kept for the rest of the request.
+ *
+ * Use userReference() where a User entity is only needed as an association, query parameter or
+ * audit entry inside a transaction; it returns a proxy that does not hit the database unless a
+ * non-id field is read. loadUser() returns a fully loaded entity for results that leave the service.
+ */
+@Service
+public class CurrentUserService {
+
+    private static final String REQUEST_ATTRIBUTE = CurrentUserService.class.getName() + ".CURRENT_USER";
+
+    private final UserRepository userRepository;
+
+    public CurrentUserService(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    /**
+     * @throws IllegalStateException if nobody is authenticated or the user no longer exists
+     */
+    public CurrentUser get() {
+        return find().orElseThrow(() -> new IllegalStateException("No authenticated user found."));
+    }
+
+    public Optional<CurrentUser> find() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated() || "anonymousUser".equals(authentication.getPrincipal())) {
+            return Optional.empty();
+        }
+        Set<String> authorities = authentication.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .collect(Collectors.toUnmodifiableSet());
+
+        Object principal = authentication.getPrincipal();
+        if (principal instanceof AuthenticatedUser authenticatedUser) {
+            return Optional.of(new CurrentUser(authenticatedUser.getUserId(), authenticatedUser.getUsername(),
+                    authenticatedUser.getOrganizationId(), authorities));
+        }
+
+        String username = principal instanceof UserDetails userDetails ? userDetails.getUsername() : principal.toString();
+        RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+        if (requestAttributes != null
+                && requestAttributes.getAttribute(REQUEST_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) instanceof CurrentUser cached
+                && cached.username().equals(username)) {
+            return Optional.of(cached);
+        }
+
+        List<Object[]> rows = userRepository.findIdentityByUsername(username);
+        if (rows.isEmpty()) {
+            return Optional.empty();
+        }
+        CurrentUser currentUser = new CurrentUser((Long) rows.get(0)[0], username, (Long) rows.get(0)[1], authorities);
+        if (requestAttributes != null) {
+            requestAttributes.setAttribute(REQUEST_ATTRIBUTE, currentUser, RequestAttributes.SCOPE_REQUEST);
+        }
+        return Optional.of(currentUser);
+    }
+
+    /**
+     * Whether the current user holds the role right now. CurrentUser.authorities is fixed at login,
+     * so checks that must stop working as soon as a role is revoked use this instead (one scalar query).
+     */
+    public boolean hasRole(String roleName) {
+        return find()
+                .map(currentUser -> userRepository.findRoleNamesById(currentUser.userId()).contains(roleName))
+                .orElse(false);
+    }
+
+    /**
+     * The current user as an uninitialized entity reference (no query until a non-id field is read).
+     */
+    public User userReference() {
+        return userRepository.getReferenceById(get().userId());
+    }
+
+    /**
+     * The current user loaded by primary key, for callers that hand the entity (or entities pointing at it) back to controllers.
+     */
+    public User loadUser() {
+        Long userId = get().userId();
+        return userRepository.findById(userId)
+                .orElseThrow(() -> new IllegalStateException("Authenticated user with ID " + userId + " not found in database."));
+    }
+}
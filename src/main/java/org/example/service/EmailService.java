@@ -1,5 +1,6 @@
 package org.example.service;
 
+import org.example.config.AsyncConfig;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -72,7 +73,7 @@ public class EmailService {
     /**
      * Send organization verification email
      */
-    @Async
+    @Async(AsyncConfig.IO_EXECUTOR)
     public void sendVerificationEmail(String toEmail, String organizationName, String adminName, String verificationToken) {
         String subject = "Verify Your " + appName + " Account";
         String verificationLink = frontendUrl + "/verify-email?token=" + verificationToken;
@@ -103,7 +104,7 @@ public class EmailService {
     /**
      * Send employee invitation email
      */
-    @Async
+    @Async(AsyncConfig.IO_EXECUTOR)
     public void sendInvitationEmail(String toEmail, String organizationName, String inviterName, String invitationToken, String roleName) {
         String subject = "You're Invited to Join " + organizationName + " on " + appName;
         String invitationLink = frontendUrl + "/join?token=" + invitationToken;
@@ -131,7 +132,7 @@ public class EmailService {
     /**
      * Send password reset email
      */
-    @Async
+    @Async(AsyncConfig.IO_EXECUTOR)
     public void sendPasswordResetEmail(String toEmail, String userName, String resetToken) {
         String subject = "Reset Your " + appName + " Password";
         String resetLink = frontendUrl + "/reset-password?token=" + resetToken;
@@ -156,7 +157,7 @@ public class EmailService {
     /**
      * Send welcome email after successful verification
      */
-    @Async
+    @Async(AsyncConfig.IO_EXECUTOR)
     public void sendWelcomeEmail(String toEmail, String userName, String organizationName) {
         String subject = "Welcome to " + appName + "!";
         String loginLink = frontendUrl + "/login";
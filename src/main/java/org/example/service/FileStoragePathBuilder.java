@@ -27,6 +27,8 @@ public class FileStoragePathBuilder {
     public static final String PROJECT_FILES = "project-files";
     public static final String TEMP_UPLOADS = "temp-uploads";
     public static final String ORGANIZATION_LOGOS = "organization-logos";
+    // Not served by FileController; read through the audit archive endpoints only
+    public static final String AUDIT_ARCHIVES = "audit-archives";
 
     /**
      * Build path for profile image.
@@ -66,6 +68,15 @@ public class FileStoragePathBuilder {
             TEMP_UPLOADS, organizationId, uuid, extension);
     }
 
+    /**
+     * Build path for an audit log archive.
+     * Format: audit-archives/{orgId}/{yyyy-MM}/{uuid}.jsonl.gz
+     */
+    public static String buildAuditArchivePath(Long organizationId, java.time.YearMonth month, String uuid) {
+        return String.format("%s/%d/%s/%s.jsonl.gz",
+            AUDIT_ARCHIVES, organizationId, month, uuid);
+    }
+
     /**
      * Extract file type from a storage path.
      * Example: "profile-images/2/user_4_abc.png" -> "profile-images"
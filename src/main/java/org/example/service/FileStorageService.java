@@ -2,6 +2,11 @@ package org.example.service;
 
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.Instant;
+
 /**
  * Interface for file storage operations.
  * This abstraction allows for easy switching between different storage backends:
@@ -25,6 +30,19 @@ public interface FileStorageService {
      */
     String storeFile(MultipartFile file, String directory, String filename) throws FileStorageException;
 
+    /**
+     * Stores content generated by the application (exports, archives) at an exact storage path.
+     * Unlike storeFile, no unique suffix is added; the caller chooses a path that is not in use.
+     * 
+     * @param content The content to store (not closed by this method)
+     * @param contentLength The number of bytes in content
+     * @param storagePath The path within storage (see FileStoragePathBuilder)
+     * @param contentType The MIME type of the content
+     * @return The URL/path to access the stored file
+     * @throws FileStorageException if the content cannot be stored
+     */
+    String storeContent(InputStream content, long contentLength, String storagePath, String contentType) throws FileStorageException;
+
     /**
      * Deletes a file from storage.
      * 
@@ -51,6 +69,48 @@ public interface FileStorageService {
      */
     byte[] getFileBytes(String fileUrl) throws FileStorageException;
 
+    /**
+     * Record to hold the metadata needed to serve a file without reading its content.
+     * The eTag is a quoted entity tag suitable for the HTTP ETag header.
+     */
+    record FileMetadata(long contentLength, String contentType, String eTag, Instant lastModified) {}
+
+    /**
+     * Gets the metadata of a stored file (size, content type, ETag) without reading its content.
+     * 
+     * @param fileUrl The URL/path of the file
+     * @return The file metadata
+     * @throws FileStorageException if the file does not exist or cannot be inspected
+     */
+    FileMetadata getFileMetadata(String fileUrl) throws FileStorageException;
+
+    /**
+     * Opens a stream over a byte range of a stored file. The caller must close the stream.
+     * 
+     * @param fileUrl The URL/path of the file
+     * @param offset The first byte to read (0-based)
+     * @param length The number of bytes to read
+     * @return A stream positioned at offset that ends after length bytes
+     * @throws FileStorageException if the file cannot be opened
+     */
+    InputStream openStream(String fileUrl, long offset, long length) throws FileStorageException;
+
+    /**
+     * Copies a byte range of a stored file to the given output stream without buffering
+     * the whole range on the heap. Backends may override this with a zero-copy transfer.
+     * 
+     * @param fileUrl The URL/path of the file
+     * @param offset The first byte to copy (0-based)
+     * @param length The number of bytes to copy
+     * @param out The destination stream (not closed by this method)
+     * @throws IOException if writing to the destination fails
+     */
+    default void transferTo(String fileUrl, long offset, long length, OutputStream out) throws IOException {
+        try (InputStream in = openStream(fileUrl, offset, length)) {
+            in.transferTo(out);
+        }
+    }
+
     /**
      * Gets the content type of a stored file.
      * 
@@ -110,6 +170,16 @@ public interface FileStorageService {
             super(message, cause);
         }
     }
+
+    /**
+     * Thrown when the requested file does not exist (or the URL cannot point to a stored file),
+     * as opposed to a storage backend failure.
+     */
+    class StoredFileNotFoundException extends FileStorageException {
+        public StoredFileNotFoundException(String message) {
+            super(message);
+        }
+    }
 }
 
 
@@ -0,0 +1,10 @@
+package org.example.service;
+
+/**
+ * Published when something shown on an organization's financial health dashboard changes
+ * (an invoice, or a project's status, stage, charge type or budget).
+ * Listeners that react after commit see the new data; see FinancialHealthCacheInvalidator.
+ *
+ * @param organizationId The organization whose financial data changed
+ */
+public record FinancialDataChangedEvent(Long organizationId) {}
@@ -0,0 +1,62 @@
+package org.example.service;
+
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import org.example.config.CacheConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps the financialHealth cache in step with invoice and project changes on every node.
+ *
+ * Each change bumps the organization's financialHealth version with the changing transaction (see
+ * CacheVersionService), so other nodes rebuild the dashboard on their next read. On this node the
+ * entry is refreshed after commit, so a reload always sees the new data. An organization whose
+ * dashboard is currently cached (someone has been looking at it) is reloaded in the background
+ * straight away; other organizations are only evicted and recomputed on their next visit. Caffeine
+ * discards a reload that was overtaken by a later invalidation, so bursts of changes cannot leave an
+ * older result in the cache.
+ */
+@Component
+public class FinancialHealthCacheInvalidator {
+
+    private static final Logger logger = LoggerFactory.getLogger(FinancialHealthCacheInvalidator.class);
+
+    private final CacheManager cacheManager;
+    private final CacheVersionService cacheVersions;
+
+    public FinancialHealthCacheInvalidator(CacheManager cacheManager, CacheVersionService cacheVersions) {
+        this.cacheManager = cacheManager;
+        this.cacheVersions = cacheVersions;
+    }
+
+    // Runs in the publishing transaction, so the version bump commits with the change
+    @EventListener
+    public void onFinancialDataChanged(FinancialDataChangedEvent event) {
+        Cache cache = cacheManager.getCache(CacheConfig.FINANCIAL_HEALTH);
+        if (cache == null || event.organizationId() == null) {
+            return;
+        }
+        Long organizationId = event.organizationId();
+        cacheVersions.bump(cache, organizationId, () -> reload(cache, organizationId));
+    }
+
+    private void reload(Cache cache, Long organizationId) {
+        if (cache.getNativeCache() instanceof LoadingCache<?, ?> nativeCache) {
+            @SuppressWarnings("unchecked")
+            LoadingCache<Object, Object> loadingCache = (LoadingCache<Object, Object>) nativeCache;
+            // asMap() does not count as a cache hit, so the check does not skew the hit ratio
+            boolean hot = loadingCache.asMap().containsKey(organizationId);
+            loadingCache.invalidate(organizationId);
+            if (hot) {
+                loadingCache.refresh(organizationId);
+            }
+            logger.debug("Invalidated financial health cache for organization {} (reload: {})", organizationId, hot);
+        } else {
+            cache.evict(organizationId);
+        }
+    }
+}
@@ -1,17 +1,19 @@
 package org.example.service;
 
+import org.example.config.CacheConfig;
 import org.example.dto.FinancialHealthDto;
+import org.example.models.FinancialRollup;
 import org.example.models.enums.InvoiceStatus;
 import org.example.models.enums.ProjectChargeType;
 import org.example.models.enums.ProjectStage;
 import org.example.models.enums.ProjectStatus;
-import org.example.repository.InvoiceRepository;
 import org.example.repository.ProjectRepository;
 import org.example.repository.OrganizationRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -19,8 +21,11 @@ import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 @Service
@@ -29,51 +34,81 @@ public class FinancialHealthService {
 
     private static final Logger logger = LoggerFactory.getLogger(FinancialHealthService.class);
 
-    private final InvoiceRepository invoiceRepository;
     private final ProjectRepository projectRepository;
     private final OrganizationRepository organizationRepository;
+    private final FinancialRollupService financialRollupService;
+    private final CacheManager cacheManager;
+    private final CacheVersionService cacheVersions;
 
     @Autowired
-    public FinancialHealthService(InvoiceRepository invoiceRepository,
-                                  ProjectRepository projectRepository,
-                                  OrganizationRepository organizationRepository) {
-        this.invoiceRepository = invoiceRepository;
+    public FinancialHealthService(ProjectRepository projectRepository,
+                                  OrganizationRepository organizationRepository,
+                                  FinancialRollupService financialRollupService,
+                                  CacheManager cacheManager,
+                                  CacheVersionService cacheVersions) {
         this.projectRepository = projectRepository;
         this.organizationRepository = organizationRepository;
+        this.financialRollupService = financialRollupService;
+        this.cacheManager = cacheManager;
+        this.cacheVersions = cacheVersions;
     }
 
     /**
      * Get comprehensive financial health dashboard data for an organization.
      * This method aggregates data from active projects and their invoices.
-     * Results are cached for 5 minutes to improve performance at scale.
+     * Invoice totals come from the pre-aggregated financial_rollups rows (see FinancialRollupService),
+     * so the cost is proportional to the number of groups, not the number of invoices.
+     * Results are cached per organization and invalidated on every node whenever one of its invoices
+     * or projects changes (see FinancialHealthCacheInvalidator and CacheVersionService).
      * 
      * @param organizationId The organization ID
      * @return FinancialHealthDto containing all metrics
      */
-    @Cacheable(value = "financialHealth", key = "#organizationId", unless = "#result == null")
     public FinancialHealthDto getFinancialHealth(Long organizationId) {
+        Cache cache = cacheManager.getCache(CacheConfig.FINANCIAL_HEALTH);
+        if (cache == null) {
+            return buildFinancialHealth(organizationId);
+        }
+        cacheVersions.evictIfStale(cache, organizationId);
+        // financialHealth is a loading cache (see CacheConfig): a miss is built by buildFinancialHealth
+        Cache.ValueWrapper cached = cache.get(organizationId);
+        if (cached != null && cached.get() instanceof FinancialHealthDto dashboard) {
+            return dashboard;
+        }
+        FinancialHealthDto dashboard = buildFinancialHealth(organizationId);
+        cache.put(organizationId, dashboard);
+        return dashboard;
+    }
+
+    /**
+     * Compute the dashboard without going through the cache.
+     * Used as the loader of the financialHealth cache, which also calls it to refresh hot entries in the background.
+     */
+    public FinancialHealthDto buildFinancialHealth(Long organizationId) {
         logger.info("Generating financial health dashboard for organization: {}", organizationId);
         
         // Verify organization exists
         organizationRepository.findById(organizationId)
                 .orElseThrow(() -> new IllegalArgumentException("Organization not found: " + organizationId));
 
+        List<FinancialRollup> rollups = financialRollupService.getRollups(organizationId);
+
         // Get overall metrics
-        FinancialHealthDto.OverallMetrics overall = calculateOverallMetrics(organizationId);
+        FinancialHealthDto.OverallMetrics overall = calculateOverallMetrics(organizationId, rollups);
         
         // Get metrics by charge type
-        List<FinancialHealthDto.ChargeTypeMetrics> byChargeType = calculateChargeTypeMetrics(organizationId);
+        List<FinancialHealthDto.ChargeTypeMetrics> byChargeType = calculateChargeTypeMetrics(organizationId, rollups);
         
         // Get metrics by project stage
-        List<FinancialHealthDto.ProjectStageMetrics> byProjectStage = calculateProjectStageMetrics(organizationId);
+        List<FinancialHealthDto.ProjectStageMetrics> byProjectStage = calculateProjectStageMetrics(organizationId, rollups);
         
         // Get metrics by invoice status
-        List<FinancialHealthDto.InvoiceStatusMetrics> byInvoiceStatus = calculateInvoiceStatusMetrics(organizationId);
+        List<FinancialHealthDto.InvoiceStatusMetrics> byInvoiceStatus = calculateInvoiceStatusMetrics(rollups);
         
         return new FinancialHealthDto(overall, byChargeType, byProjectStage, byInvoiceStatus);
     }
 
-    private FinancialHealthDto.OverallMetrics calculateOverallMetrics(Long organizationId) {
+    private FinancialHealthDto.OverallMetrics calculateOverallMetrics(Long organizationId, List<FinancialRollup> rollups) {
         FinancialHealthDto.OverallMetrics metrics = new FinancialHealthDto.OverallMetrics();
         
         // Initialize with zeros to avoid null issues
@@ -89,7 +124,10 @@ public class FinancialHealthService {
         // Get overall invoice stats - use ALL invoices for overall view, not just active projects
         // This gives a complete picture of the organization's financial health
         try {
-            Object[] invoiceStats = invoiceRepository.getAllInvoiceStats(organizationId);
+            Object[] invoiceStats = groupRollups(rollups, r -> true, r -> "ALL").stream()
+                    .findFirst()
+                    .map(row -> new Object[] {row[1], row[2], row[3], row[4]})
+                    .orElse(null);
             if (invoiceStats != null && invoiceStats.length >= 4) {
                 // Handle different possible return types from database
                 Object countObj = invoiceStats[0];
@@ -147,7 +185,7 @@ public class FinancialHealthService {
         return metrics;
     }
 
-    private List<FinancialHealthDto.ChargeTypeMetrics> calculateChargeTypeMetrics(Long organizationId) {
+    private List<FinancialHealthDto.ChargeTypeMetrics> calculateChargeTypeMetrics(Long organizationId, List<FinancialRollup> rollups) {
         // Get project counts by charge type
         List<Object[]> projectCounts = projectRepository.getActiveProjectCountByChargeType(organizationId);
         Map<String, Long> projectCountMap = new HashMap<>();
@@ -158,7 +196,8 @@ public class FinancialHealthService {
         }
         
         // Get invoice stats by charge type
-        List<Object[]> invoiceStats = invoiceRepository.getInvoiceStatsByChargeType(organizationId);
+        List<Object[]> invoiceStats = groupRollups(rollups, FinancialRollup::isProjectActive,
+                r -> r.getChargeType().isEmpty() ? null : ProjectChargeType.valueOf(r.getChargeType()).toString());
         List<FinancialHealthDto.ChargeTypeMetrics> metricsList = new ArrayList<>();
         
         // Create a map to aggregate data
@@ -214,7 +253,7 @@ public class FinancialHealthService {
         return metricsList;
     }
 
-    private List<FinancialHealthDto.ProjectStageMetrics> calculateProjectStageMetrics(Long organizationId) {
+    private List<FinancialHealthDto.ProjectStageMetrics> calculateProjectStageMetrics(Long organizationId, List<FinancialRollup> rollups) {
         // Get project counts by stage
         List<Object[]> projectCounts = projectRepository.getActiveProjectCountByStage(organizationId);
         Map<String, Long> projectCountMap = new HashMap<>();
@@ -225,7 +264,8 @@ public class FinancialHealthService {
         }
         
         // Get invoice stats by project stage
-        List<Object[]> invoiceStats = invoiceRepository.getInvoiceStatsByProjectStage(organizationId);
+        List<Object[]> invoiceStats = groupRollups(rollups, FinancialRollup::isProjectActive,
+                r -> r.getProjectStage().isEmpty() ? null : ProjectStage.valueOf(r.getProjectStage()).toString());
         Map<String, FinancialHealthDto.ProjectStageMetrics> metricsMap = new HashMap<>();
         
         for (Object[] stat : invoiceStats) {
@@ -279,8 +319,10 @@ public class FinancialHealthService {
         return metricsList;
     }
 
-    private List<FinancialHealthDto.InvoiceStatusMetrics> calculateInvoiceStatusMetrics(Long organizationId) {
-        List<Object[]> invoiceStats = invoiceRepository.getInvoiceStatsByStatusForActiveProjects(organizationId);
+    private List<FinancialHealthDto.InvoiceStatusMetrics> calculateInvoiceStatusMetrics(List<FinancialRollup> rollups) {
+        // Invoices of active projects, plus invoices without a project
+        List<Object[]> invoiceStats = groupRollups(rollups, r -> !r.isHasProject() || r.isProjectActive(),
+                FinancialRollup::getInvoiceStatus);
         List<FinancialHealthDto.InvoiceStatusMetrics> metricsList = new ArrayList<>();
         
         for (Object[] stat : invoiceStats) {
@@ -302,6 +344,28 @@ public class FinancialHealthService {
     }
 
 
+    /**
+     * Sums rollup rows into the same {key, count, totalInvoiced, totalPaid, totalOutstanding} rows the
+     * per-invoice aggregate queries used to return. Keys are rendered the way those queries rendered
+     * the enums (charge type and stage as display names) so the response is unchanged.
+     */
+    private List<Object[]> groupRollups(List<FinancialRollup> rollups, Predicate<FinancialRollup> filter,
+                                        Function<FinancialRollup, String> classifier) {
+        Map<String, Object[]> groups = new LinkedHashMap<>();
+        for (FinancialRollup rollup : rollups) {
+            if (rollup.getInvoiceCount() <= 0 || !filter.test(rollup)) {
+                continue;
+            }
+            Object[] row = groups.computeIfAbsent(classifier.apply(rollup),
+                    key -> new Object[] {key, 0L, BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO});
+            row[1] = (Long) row[1] + rollup.getInvoiceCount();
+            row[2] = ((BigDecimal) row[2]).add(rollup.getTotalAmount());
+            row[3] = ((BigDecimal) row[3]).add(rollup.getPaidAmount());
+            row[4] = ((BigDecimal) row[4]).add(rollup.getBalanceAmount());
+        }
+        return new ArrayList<>(groups.values());
+    }
+
     // Helper methods for display names
     private String getChargeTypeDisplay(String chargeType) {
         try {
@@ -0,0 +1,312 @@
+package org.example.service;
+
+import org.example.models.FinancialRollup;
+import org.example.models.Invoice;
+import org.example.models.Project;
+import org.example.models.enums.InvoiceStatus;
+import org.example.models.enums.ProjectStatus;
+import org.example.repository.FinancialRollupRepository;
+import org.example.repository.InvoiceRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeSet;
+
+/**
+ * Maintains the financial_rollups table behind the financial health dashboard.
+ *
+ * Invoice and project mutations call in here inside their own transaction. Each change is applied
+ * as a delta (subtract the old contribution, add the new one) with an atomic upsert, so the rollup
+ * commits or rolls back together with the change that caused it and concurrent writers never lose
+ * updates. Writers hold a shared lock on the organization row and a rebuild an exclusive one, so a
+ * rebuild never runs alongside uncommitted deltas of the same organization. A nightly job recomputes every organization from the invoices, logs any drift it finds
+ * and replaces the rows; the same rebuild populates organizations that have no rollups yet.
+ */
+@Service
+public class FinancialRollupService {
+
+    private static final Logger logger = LoggerFactory.getLogger(FinancialRollupService.class);
+
+    private final FinancialRollupRepository rollupRepository;
+    private final InvoiceRepository invoiceRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public FinancialRollupService(FinancialRollupRepository rollupRepository,
+                                  InvoiceRepository invoiceRepository,
+                                  PlatformTransactionManager transactionManager,
+                                  ApplicationEventPublisher eventPublisher) {
+        this.rollupRepository = rollupRepository;
+        this.invoiceRepository = invoiceRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * Record to hold the project attributes an invoice is grouped by.
+     */
+    public record ProjectDimensions(String chargeType, String projectStage, boolean hasProject, boolean projectActive) {
+        static final ProjectDimensions NO_PROJECT = new ProjectDimensions("", "", false, false);
+    }
+
+    /**
+     * Record to hold what one invoice contributes to the rollups.
+     */
+    public record InvoiceSnapshot(Long organizationId, ProjectDimensions dimensions, String status,
+                                  BigDecimal totalAmount, BigDecimal paidAmount, BigDecimal balanceAmount) {}
+
+    public ProjectDimensions dimensionsOf(Project project) {
+        if (project == null) {
+            return ProjectDimensions.NO_PROJECT;
+        }
+        return new ProjectDimensions(
+                project.getChargeType() != null ? project.getChargeType().name() : "",
+                project.getProjectStage() != null ? project.getProjectStage().name() : "",
+                true,
+                isActive(project.getStatus()));
+    }
+
+    /**
+     * Captures an invoice's current contribution. Take one before mutating an invoice and one
+     * after saving it, then pass both to {@link #applyInvoiceChange}.
+     */
+    public InvoiceSnapshot snapshot(Invoice invoice) {
+        return new InvoiceSnapshot(
+                invoice.getOrganization().getId(),
+                dimensionsOf(invoice.getProject()),
+                invoice.getStatus() != null ? invoice.getStatus().name() : InvoiceStatus.DRAFT.name(),
+                money(invoice.getTotalAmount()),
+                money(invoice.getPaidAmount()),
+                money(invoice.getBalanceAmount()));
+    }
+
+    /**
+     * Applies an invoice create (before == null), update, or delete (after == null).
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void applyInvoiceChange(InvoiceSnapshot before, InvoiceSnapshot after) {
+        if (Objects.equals(before, after)) {
+            return;
+        }
+        rollupRepository.lockOrganizationShared(after != null ? after.organizationId() : before.organizationId());
+        if (before != null) {
+            applyDelta(before.organizationId(), before.dimensions(), before.status(), -1,
+                    before.totalAmount().negate(), before.paidAmount().negate(), before.balanceAmount().negate());
+        }
+        if (after != null) {
+            applyDelta(after.organizationId(), after.dimensions(), after.status(), 1,
+                    after.totalAmount(), after.paidAmount(), after.balanceAmount());
+        }
+        eventPublisher.publishEvent(new FinancialDataChangedEvent(
+                after != null ? after.organizationId() : before.organizationId()));
+    }
+
+    /**
+     * Moves a project's invoices to a new rollup group after its charge type, stage or status changed.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void applyProjectChange(Long organizationId, Long projectId, ProjectDimensions before, ProjectDimensions after) {
+        if (before.equals(after)) {
+            return;
+        }
+        rollupRepository.lockOrganizationShared(organizationId);
+        for (Object[] row : invoiceRepository.getInvoiceStatsByStatusForProject(projectId)) {
+            String status = ((Enum<?>) row[0]).name();
+            long count = ((Number) row[1]).longValue();
+            BigDecimal total = toBigDecimal(row[2]);
+            BigDecimal paid = toBigDecimal(row[3]);
+            BigDecimal balance = toBigDecimal(row[4]);
+            applyDelta(organizationId, before, status, -count, total.negate(), paid.negate(), balance.negate());
+            applyDelta(organizationId, after, status, count, total, paid, balance);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public List<FinancialRollup> getRollups(Long organizationId) {
+        return rollupRepository.findByOrganizationId(organizationId);
+    }
+
+    /**
+     * Populates rollups for organizations that have invoices but no rollup rows yet (first start
+     * after this table was introduced, or a manually truncated table).
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void initializeMissingRollups() {
+        try {
+            List<Long> organizationIds = rollupRepository.findOrganizationIdsWithoutRollups();
+            for (Long organizationId : organizationIds) {
+                rebuild(organizationId);
+            }
+            if (!organizationIds.isEmpty()) {
+                logger.info("Initialized financial rollups for {} organizations", organizationIds.size());
+            }
+        } catch (Exception e) {
+            logger.error("Failed to initialize financial rollups: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Recomputes every organization's rollups from the invoices and corrects any drift.
+     * Runs nightly by default.
+     */
+    @Scheduled(cron = "${app.financial-rollups.verify-cron:0 30 2 * * *}")
+    public void verifyAllRollups() {
+        long start = System.currentTimeMillis();
+        TreeSet<Long> organizationIds = new TreeSet<>(invoiceRepository.findDistinctOrganizationIds());
+        organizationIds.addAll(rollupRepository.findDistinctOrganizationIds());
+
+        int corrected = 0;
+        for (Long organizationId : organizationIds) {
+            try {
+                if (rebuild(organizationId)) {
+                    corrected++;
+                }
+            } catch (Exception e) {
+                logger.error("Failed to verify financial rollups for organization {}: {}", organizationId, e.getMessage(), e);
+            }
+        }
+        logger.info("Verified financial rollups for {} organizations in {} ms; {} corrected",
+                organizationIds.size(), System.currentTimeMillis() - start, corrected);
+    }
+
+    /**
+     * Recomputes one organization's rollups in its own transaction.
+     *
+     * The organization row is locked before the invoices are read, so an invoice change either commits
+     * before the rebuild reads (and is included) or waits and applies its delta on top of the result.
+     * This also covers the first build of an organization, which has no rollup rows to lock.
+     *
+     * @return true if the stored rollups differed from the invoices and were corrected
+     */
+    public boolean rebuild(Long organizationId) {
+        Boolean corrected = transactionTemplate.execute(status -> {
+            rollupRepository.lockOrganization(organizationId);
+            List<FinancialRollup> stored = rollupRepository.findByOrganizationIdForUpdate(organizationId);
+            Map<GroupKey, FinancialRollup> expected = computeRollups(organizationId);
+
+            Map<GroupKey, FinancialRollup> actual = new HashMap<>();
+            for (FinancialRollup row : stored) {
+                if (row.getInvoiceCount() != 0) {
+                    actual.put(GroupKey.of(row), row);
+                }
+            }
+            boolean drifted = !sameTotals(expected, actual);
+            // Groups whose invoices all moved elsewhere are left at zero by the deltas
+            boolean hasEmptyGroups = actual.size() != stored.size();
+            if (!drifted && !hasEmptyGroups) {
+                return false;
+            }
+
+            if (drifted && !stored.isEmpty()) {
+                logger.warn("Financial rollups for organization {} drifted from invoices ({} stored groups, {} expected); rebuilding",
+                        organizationId, actual.size(), expected.size());
+            }
+            rollupRepository.deleteAllInBatch(stored);
+            rollupRepository.saveAll(expected.values());
+            return drifted;
+        });
+        if (Boolean.TRUE.equals(corrected)) {
+            eventPublisher.publishEvent(new FinancialDataChangedEvent(organizationId));
+        }
+        return Boolean.TRUE.equals(corrected);
+    }
+
+    private Map<GroupKey, FinancialRollup> computeRollups(Long organizationId) {
+        Map<GroupKey, FinancialRollup> rollups = new HashMap<>();
+        for (Object[] row : invoiceRepository.getRollupStatsByOrganization(organizationId)) {
+            ProjectStatus projectStatus = (ProjectStatus) row[2];
+            // Project status is mandatory, so a null status means the invoice has no project
+            ProjectDimensions dimensions = projectStatus == null
+                    ? ProjectDimensions.NO_PROJECT
+                    : new ProjectDimensions(row[0] != null ? ((Enum<?>) row[0]).name() : "",
+                                            row[1] != null ? ((Enum<?>) row[1]).name() : "",
+                                            true, isActive(projectStatus));
+            String invoiceStatus = ((Enum<?>) row[3]).name();
+
+            GroupKey key = new GroupKey(dimensions, invoiceStatus);
+            FinancialRollup rollup = rollups.computeIfAbsent(key, k -> newRollup(organizationId, dimensions, invoiceStatus));
+            rollup.setInvoiceCount(rollup.getInvoiceCount() + ((Number) row[4]).longValue());
+            rollup.setTotalAmount(rollup.getTotalAmount().add(toBigDecimal(row[5])));
+            rollup.setPaidAmount(rollup.getPaidAmount().add(toBigDecimal(row[6])));
+            rollup.setBalanceAmount(rollup.getBalanceAmount().add(toBigDecimal(row[7])));
+        }
+        return rollups;
+    }
+
+    private boolean sameTotals(Map<GroupKey, FinancialRollup> expected, Map<GroupKey, FinancialRollup> actual) {
+        if (expected.size() != actual.size()) {
+            return false;
+        }
+        for (Map.Entry<GroupKey, FinancialRollup> entry : expected.entrySet()) {
+            FinancialRollup a = actual.get(entry.getKey());
+            FinancialRollup e = entry.getValue();
+            if (a == null
+                    || a.getInvoiceCount() != e.getInvoiceCount()
+                    || a.getTotalAmount().compareTo(e.getTotalAmount()) != 0
+                    || a.getPaidAmount().compareTo(e.getPaidAmount()) != 0
+                    || a.getBalanceAmount().compareTo(e.getBalanceAmount()) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void applyDelta(Long organizationId, ProjectDimensions dimensions, String invoiceStatus, long count,
+                            BigDecimal total, BigDecimal paid, BigDecimal balance) {
+        rollupRepository.applyDelta(organizationId, dimensions.chargeType(), dimensions.projectStage(), invoiceStatus,
+                dimensions.hasProject(), dimensions.projectActive(), count, total, paid, balance);
+    }
+
+    private FinancialRollup newRollup(Long organizationId, ProjectDimensions dimensions, String invoiceStatus) {
+        FinancialRollup rollup = new FinancialRollup();
+        rollup.setOrganizationId(organizationId);
+        rollup.setChargeType(dimensions.chargeType());
+        rollup.setProjectStage(dimensions.projectStage());
+        rollup.setInvoiceStatus(invoiceStatus);
+        rollup.setHasProject(dimensions.hasProject());
+        rollup.setProjectActive(dimensions.projectActive());
+        return rollup;
+    }
+
+    // Matches the dashboard's definition of an active project
+    private boolean isActive(ProjectStatus status) {
+        return status == ProjectStatus.ACTIVE || status == ProjectStatus.PROGRESS;
+    }
+
+    // Rounded the way the DECIMAL(15,2) invoice columns store it, so deltas match what the rebuild sums
+    private BigDecimal money(BigDecimal value) {
+        return value != null ? value.setScale(2, RoundingMode.HALF_UP) : BigDecimal.ZERO.setScale(2);
+    }
+
+    private BigDecimal toBigDecimal(Object value) {
+        if (value == null) {
+            return BigDecimal.ZERO;
+        }
+        if (value instanceof BigDecimal) {
+            return (BigDecimal) value;
+        }
+        return new BigDecimal(value.toString());
+    }
+
+    private record GroupKey(ProjectDimensions dimensions, String invoiceStatus) {
+        static GroupKey of(FinancialRollup row) {
+            return new GroupKey(new ProjectDimensions(row.getChargeType(), row.getProjectStage(),
+                    row.isHasProject(), row.isProjectActive()), row.getInvoiceStatus());
+        }
+    }
+}
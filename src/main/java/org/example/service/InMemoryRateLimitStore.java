@@ -0,0 +1,112 @@
+package org.example.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-node rate limit store backed by lock-free token buckets.
+ *
+ * Each key gets a bucket that holds up to "burst" tokens and gains "per-hour" tokens per hour.
+ * Buckets live in a bounded Caffeine cache that expires idle clients, so eviction is amortised
+ * per request instead of a scan over every tracked IP, and acquiring a token is a single CAS.
+ *
+ * Limits apply per node; use JdbcRateLimitStore when running more than one instance.
+ */
+@Service
+public class InMemoryRateLimitStore implements RateLimitStore {
+
+    private final Cache<String, TokenBucket> buckets;
+
+    public InMemoryRateLimitStore(MeterRegistry meterRegistry,
+                                  @Value("${app.rate-limit.max-tracked-clients:100000}") long maxTrackedClients,
+                                  @Value("${app.rate-limit.idle-expiry:1h}") Duration idleExpiry) {
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxTrackedClients)
+                .expireAfterAccess(idleExpiry)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, buckets, "rateLimitBuckets");
+    }
+
+    @Override
+    public long tryAcquire(String key, Rule rule, long nowMillis) {
+        return buckets.get(key, k -> new TokenBucket(rule, nowMillis)).tryAcquire(nowMillis);
+    }
+
+    /**
+     * Lock-free token bucket. The whole state lives in one long so a refill-and-take is a single CAS:
+     * the high 40 bits are the last refill time (ms since the bucket was created) and the low 24 bits
+     * are the available tokens in thousandths (enough for Rule.MAX_BURST), which keeps slow refill
+     * rates exact without floats.
+     */
+    private static class TokenBucket {
+        private static final int TOKEN_BITS = 24;
+        private static final long TOKEN_MASK = (1L << TOKEN_BITS) - 1;
+        private static final long ONE_TOKEN = 1000;
+        private static final long HOUR_MILLIS = TimeUnit.HOURS.toMillis(1);
+
+        private final long createdAt;
+        private final long capacity;
+        private final long refillPerHour;
+        private final long fullRefillMillis;
+        private final AtomicLong state;
+
+        TokenBucket(Rule rule, long nowMillis) {
+            this.createdAt = nowMillis;
+            this.capacity = rule.burst() * ONE_TOKEN;
+            this.refillPerHour = rule.perHour() * ONE_TOKEN;
+            this.fullRefillMillis = (capacity * HOUR_MILLIS + refillPerHour - 1) / refillPerHour;
+            this.state = new AtomicLong(pack(0, capacity));
+        }
+
+        /**
+         * Takes one token if available.
+         *
+         * @return 0 if the request is allowed, otherwise the milliseconds until a token is available
+         */
+        long tryAcquire(long nowMillis) {
+            long now = Math.max(0, nowMillis - createdAt);
+            while (true) {
+                long current = state.get();
+                long lastRefill = current >>> TOKEN_BITS;
+                long tokens = current & TOKEN_MASK;
+
+                long elapsed = now - lastRefill;
+                if (elapsed >= fullRefillMillis) {
+                    tokens = capacity;
+                    lastRefill = now;
+                } else if (elapsed > 0) {
+                    long added = elapsed * refillPerHour / HOUR_MILLIS;
+                    if (tokens + added >= capacity) {
+                        tokens = capacity;
+                        lastRefill = now;
+                    } else if (added > 0) {
+                        tokens += added;
+                        // Advance only by the time actually converted into tokens so remainders are not lost
+                        lastRefill += added * HOUR_MILLIS / refillPerHour;
+                    }
+                }
+
+                if (tokens < ONE_TOKEN) {
+                    long missing = ONE_TOKEN - tokens;
+                    return Math.max(1, missing * HOUR_MILLIS / refillPerHour - (now - lastRefill));
+                }
+                if (state.compareAndSet(current, pack(lastRefill, tokens - ONE_TOKEN))) {
+                    return 0;
+                }
+            }
+        }
+
+        private static long pack(long lastRefill, long tokens) {
+            return (lastRefill << TOKEN_BITS) | tokens;
+        }
+    }
+}
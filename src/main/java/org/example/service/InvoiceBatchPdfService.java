@@ -0,0 +1,205 @@
+package org.example.service;
+
+import org.example.config.AsyncConfig;
+import org.example.models.Invoice;
+import org.example.models.enums.InvoiceStatus;
+import org.example.repository.InvoiceRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Renders many invoice PDFs in parallel and streams them into a ZIP archive.
+ *
+ * Invoices are loaded in small chunks with everything the renderer needs fetched up front,
+ * rendered on the shared CPU executor (see AsyncConfig), and each finished PDF is written to the ZIP as soon as
+ * it completes. At most a fixed window of PDFs is in flight, so memory use is bounded by
+ * the window size rather than by the number of invoices in the batch. Decoded logos are
+ * shared across documents through PdfImageCache.
+ */
+@Service
+public class InvoiceBatchPdfService {
+
+    private static final Logger logger = LoggerFactory.getLogger(InvoiceBatchPdfService.class);
+    private static final int LOAD_CHUNK_SIZE = 50;
+
+    private final InvoiceRepository invoiceRepository;
+    private final PdfService pdfService;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ThreadPoolTaskExecutor renderExecutor;
+    private final int maxInFlight;
+    private final int maxInvoices;
+
+    public InvoiceBatchPdfService(InvoiceRepository invoiceRepository,
+                                  PdfService pdfService,
+                                  PlatformTransactionManager transactionManager,
+                                  @Qualifier(AsyncConfig.CPU_EXECUTOR) ThreadPoolTaskExecutor renderExecutor,
+                                  @Value("${app.invoices.batch-pdf.max-invoices:5000}") int maxInvoices) {
+        this.invoiceRepository = invoiceRepository;
+        this.pdfService = pdfService;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.renderExecutor = renderExecutor;
+        // Keep every render thread busy while the next chunk is written, without buffering the whole batch
+        this.maxInFlight = renderExecutor.getMaxPoolSize() * 2;
+        this.maxInvoices = maxInvoices;
+    }
+
+    /**
+     * Resolves the invoices to export for an organization.
+     *
+     * @param organizationId The organization whose invoices are exported
+     * @param status Optional status filter
+     * @param fromDate Optional inclusive lower bound on issue date
+     * @param toDate Optional inclusive upper bound on issue date
+     * @return The matching invoice IDs, oldest first
+     * @throws IllegalArgumentException if the range is invalid or the batch is too large
+     */
+    @Transactional(readOnly = true)
+    public List<Long> findInvoiceIdsForExport(Long organizationId, InvoiceStatus status,
+                                              LocalDate fromDate, LocalDate toDate) {
+        if (fromDate != null && toDate != null && fromDate.isAfter(toDate)) {
+            throw new IllegalArgumentException("fromDate must not be after toDate");
+        }
+        List<Long> ids = invoiceRepository.findIdsForBatchExport(organizationId, status, fromDate, toDate);
+        if (ids.size() > maxInvoices) {
+            throw new IllegalArgumentException("Batch contains " + ids.size() + " invoices; the maximum is "
+                    + maxInvoices + ". Narrow the date range or status filter.");
+        }
+        return ids;
+    }
+
+    /**
+     * Renders the given invoices and writes them to a ZIP archive on the output stream.
+     * Invoices that fail to render are listed in an errors.txt entry instead of aborting the batch.
+     * The output stream is finished but not closed.
+     *
+     * @param invoiceIds The invoices to render (already scoped to the caller's organization)
+     * @param out The destination stream, typically the HTTP response body
+     * @throws IOException if writing to the destination fails
+     */
+    public void writeInvoicePdfZip(List<Long> invoiceIds, OutputStream out) throws IOException {
+        long start = System.currentTimeMillis();
+        ZipOutputStream zip = new ZipOutputStream(out);
+        // PDF content streams are already compressed; favour speed over ratio
+        zip.setLevel(Deflater.BEST_SPEED);
+
+        CompletionService<RenderedPdf> completionService = new ExecutorCompletionService<>(renderExecutor);
+        // Futures still owned by this batch; finished ones are dropped so their bytes can be collected
+        Set<Future<RenderedPdf>> pending = new HashSet<>();
+        Set<String> entryNames = new HashSet<>();
+        List<String> failures = new ArrayList<>();
+        int inFlight = 0;
+        int written = 0;
+
+        try {
+            for (int from = 0; from < invoiceIds.size(); from += LOAD_CHUNK_SIZE) {
+                List<Long> chunk = invoiceIds.subList(from, Math.min(from + LOAD_CHUNK_SIZE, invoiceIds.size()));
+                List<Invoice> invoices = readOnlyTransaction.execute(status -> invoiceRepository.findByIdInWithPdfDetails(chunk));
+
+                for (Invoice invoice : invoices) {
+                    if (inFlight >= maxInFlight) {
+                        written += writeNext(completionService, pending, zip, entryNames, failures);
+                        inFlight--;
+                    }
+                    pending.add(completionService.submit(() -> render(invoice)));
+                    inFlight++;
+                }
+            }
+
+            while (inFlight > 0) {
+                written += writeNext(completionService, pending, zip, entryNames, failures);
+                inFlight--;
+            }
+
+            if (!failures.isEmpty()) {
+                zip.putNextEntry(new ZipEntry("errors.txt"));
+                zip.write(String.join(System.lineSeparator(), failures).getBytes(StandardCharsets.UTF_8));
+                zip.closeEntry();
+            }
+            zip.finish();
+            zip.flush();
+
+            logger.info("Batch invoice PDF export finished: {} written, {} failed in {} ms",
+                    written, failures.size(), System.currentTimeMillis() - start);
+        } catch (IOException | RuntimeException e) {
+            // Client disconnected or loading failed: stop rendering work nobody will read
+            pending.forEach(future -> future.cancel(true));
+            throw e;
+        }
+    }
+
+    private int writeNext(CompletionService<RenderedPdf> completionService, Set<Future<RenderedPdf>> pending,
+                          ZipOutputStream zip, Set<String> entryNames, List<String> failures) throws IOException {
+        RenderedPdf pdf;
+        try {
+            Future<RenderedPdf> done = completionService.take();
+            pending.remove(done);
+            pdf = done.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for PDF rendering");
+        } catch (ExecutionException e) {
+            // render() never throws, but be defensive
+            failures.add("unknown invoice: " + e.getCause().getMessage());
+            return 0;
+        }
+
+        if (pdf.content() == null) {
+            failures.add(pdf.invoiceNumber() + ": " + pdf.error());
+            return 0;
+        }
+
+        zip.putNextEntry(new ZipEntry(uniqueEntryName(pdf.invoiceNumber(), entryNames)));
+        zip.write(pdf.content());
+        zip.closeEntry();
+        return 1;
+    }
+
+    private RenderedPdf render(Invoice invoice) {
+        String invoiceNumber = invoice.getInvoiceNumber() != null ? invoice.getInvoiceNumber() : "invoice-" + invoice.getId();
+        try (ByteArrayOutputStream buffer = new ByteArrayOutputStream(64 * 1024)) {
+            pdfService.writeInvoicePdf(invoice, buffer);
+            return new RenderedPdf(invoiceNumber, buffer.toByteArray(), null);
+        } catch (Exception e) {
+            logger.warn("Failed to render invoice {} in batch export: {}", invoiceNumber, e.getMessage());
+            return new RenderedPdf(invoiceNumber, null, e.getMessage());
+        }
+    }
+
+    private String uniqueEntryName(String invoiceNumber, Set<String> entryNames) {
+        String base = invoiceNumber.replaceAll("[^A-Za-z0-9._-]", "_");
+        String name = base + ".pdf";
+        int suffix = 2;
+        while (!entryNames.add(name)) {
+            name = base + "-" + suffix++ + ".pdf";
+        }
+        return name;
+    }
+
+    private record RenderedPdf(String invoiceNumber, byte[] content, String error) {}
+}
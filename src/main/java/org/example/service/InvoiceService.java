@@ -33,6 +33,8 @@ public class InvoiceService {
     private final OrganizationRepository organizationRepository;
     private final ProjectRepository projectRepository;
     private final UserRepository userRepository;
+    private final FinancialRollupService financialRollupService;
+    private final SequenceService sequenceService;
 
     @Autowired
     public InvoiceService(InvoiceRepository invoiceRepository,
@@ -40,13 +42,17 @@ public class InvoiceService {
                          InvoiceTemplateRepository templateRepository,
                          OrganizationRepository organizationRepository,
                          ProjectRepository projectRepository,
-                         UserRepository userRepository) {
+                         UserRepository userRepository,
+                         FinancialRollupService financialRollupService,
+                         SequenceService sequenceService) {
         this.invoiceRepository = invoiceRepository;
         this.invoiceItemRepository = invoiceItemRepository;
         this.templateRepository = templateRepository;
         this.organizationRepository = organizationRepository;
         this.projectRepository = projectRepository;
         this.userRepository = userRepository;
+        this.financialRollupService = financialRollupService;
+        this.sequenceService = sequenceService;
     }
 
     // Create new invoice
@@ -118,6 +124,7 @@ public class InvoiceService {
         }
 
         Invoice savedInvoice = invoiceRepository.save(invoice);
+        updateRollups(null, savedInvoice);
         logger.info("Invoice created successfully with ID: {} and number: {}", 
                    savedInvoice.getId(), savedInvoice.getInvoiceNumber());
 
@@ -129,6 +136,7 @@ public class InvoiceService {
         logger.info("Updating invoice ID: {}", invoiceId);
 
         Invoice existingInvoice = findInvoiceByIdAndOrganization(invoiceId, organizationId);
+        FinancialRollupService.InvoiceSnapshot before = financialRollupService.snapshot(existingInvoice);
 
         // Update basic fields
         existingInvoice.setClientName(updatedInvoice.getClientName());
@@ -159,6 +167,7 @@ public class InvoiceService {
         }
 
         Invoice savedInvoice = invoiceRepository.save(existingInvoice);
+        updateRollups(before, savedInvoice);
         logger.info("Invoice updated successfully: {}", savedInvoice.getInvoiceNumber());
 
         return savedInvoice;
@@ -169,6 +178,7 @@ public class InvoiceService {
         logger.info("Updating invoice ID: {} with project handling", invoiceId);
 
         Invoice existingInvoice = findInvoiceByIdAndOrganization(invoiceId, organizationId);
+        FinancialRollupService.InvoiceSnapshot before = financialRollupService.snapshot(existingInvoice);
 
         // Update basic fields
         existingInvoice.setClientName(updatedInvoice.getClientName());
@@ -208,6 +218,7 @@ public class InvoiceService {
         }
 
         Invoice savedInvoice = invoiceRepository.save(existingInvoice);
+        updateRollups(before, savedInvoice);
         logger.info("Invoice updated successfully with project: {}", savedInvoice.getInvoiceNumber());
 
         return savedInvoice;
@@ -316,9 +327,11 @@ public class InvoiceService {
     // Update invoice status
     public Invoice updateInvoiceStatus(Long invoiceId, Long organizationId, InvoiceStatus status) {
         Invoice invoice = findInvoiceByIdAndOrganization(invoiceId, organizationId);
+        FinancialRollupService.InvoiceSnapshot before = financialRollupService.snapshot(invoice);
         invoice.setStatus(status);
 
         Invoice savedInvoice = invoiceRepository.save(invoice);
+        updateRollups(before, savedInvoice);
         logger.info("Invoice {} status updated to: {}", savedInvoice.getInvoiceNumber(), status);
 
         return savedInvoice;
@@ -339,11 +352,13 @@ public class InvoiceService {
             throw new IllegalStateException("Invoice is already paid");
         }
 
+        FinancialRollupService.InvoiceSnapshot before = financialRollupService.snapshot(invoice);
         invoice.setPaidAmount(paymentAmount);
         invoice.setLastPaymentDate(paymentDate);
         invoice.setStatus(InvoiceStatus.PAID);
 
         Invoice savedInvoice = invoiceRepository.save(invoice);
+        updateRollups(before, savedInvoice);
         logger.info("Full payment of {} recorded for invoice {}", paymentAmount, savedInvoice.getInvoiceNumber());
 
         return savedInvoice;
@@ -358,18 +373,29 @@ public class InvoiceService {
             throw new IllegalStateException("Only draft invoices can be deleted");
         }
 
+        FinancialRollupService.InvoiceSnapshot before = financialRollupService.snapshot(invoice);
         invoiceRepository.delete(invoice);
+        financialRollupService.applyInvoiceChange(before, null);
         logger.info("Invoice deleted: {}", invoice.getInvoiceNumber());
     }
 
+    // Apply an invoice's change to the financial health rollups in the same transaction
+    private void updateRollups(FinancialRollupService.InvoiceSnapshot before, Invoice savedInvoice) {
+        // Totals are otherwise only recalculated on flush (@PreUpdate)
+        savedInvoice.calculateAmounts();
+        financialRollupService.applyInvoiceChange(before, financialRollupService.snapshot(savedInvoice));
+    }
+
     // Generate invoice number
     private String generateInvoiceNumber(Organization organization) {
         String orgCode = generateOrgCode(organization.getName());
         int currentYear = LocalDate.now().getYear();
         String prefix = orgCode + "-" + currentYear + "-";
 
-        Integer maxSequence = invoiceRepository.findMaxSequenceByOrganizationAndPrefix(organization, prefix);
-        int nextSequence = (maxSequence != null ? maxSequence : 0) + 1;
+        long nextSequence = sequenceService.next(SequenceService.INVOICE, organization.getId() + ":" + prefix, () -> {
+            Integer maxSequence = invoiceRepository.findMaxSequenceByOrganizationAndPrefix(organization, prefix);
+            return maxSequence != null ? maxSequence : 0;
+        });
 
         return prefix + String.format("%03d", nextSequence);
     }
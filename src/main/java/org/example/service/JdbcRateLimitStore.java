@@ -0,0 +1,344 @@
+package org.example.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cluster-wide rate limit store using sliding-window counters in the application database.
+ *
+ * Every key has two windows: burst requests per minute and per-hour requests per hour. Each window
+ * is estimated the usual sliding-window way, previous fixed window weighted by how much of it still
+ * overlaps plus the current fixed window, so there is no burst at window boundaries.
+ *
+ * Decisions are made from a local view: the counts last read from the database plus hits taken on
+ * this node since. A flush every app.rate-limit.jdbc.flush-interval writes all local hits with one batched upsert
+ * (INSERT ... ON DUPLICATE KEY UPDATE hits = hits + VALUES(hits)) and reads back the merged totals of
+ * every key checked since the previous flush, whether or not it was hit here, so no request waits on a
+ * write and a client limited by its traffic on other nodes is limited here too. A key seen for the first
+ * time is loaded from the database once. Limits therefore hold cluster-wide to within one flush
+ * interval of traffic. The flush runs on its own thread rather than the shared @Scheduled pool, so a
+ * long nightly job cannot hold it up and let the local views drift apart.
+ *
+ * The rate_limit_counters table is created by V7__create_rate_limit_counters.sql. The SQL is MySQL
+ * syntax that H2 also accepts in MySQL mode. If the database is unreachable the store fails open and
+ * relies on the local counts.
+ */
+@Service
+@Primary
+@ConditionalOnProperty(name = "app.rate-limit.store", havingValue = "jdbc")
+public class JdbcRateLimitStore implements RateLimitStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(JdbcRateLimitStore.class);
+
+    private static final long MINUTE_MILLIS = TimeUnit.MINUTES.toMillis(1);
+    private static final long HOUR_MILLIS = TimeUnit.HOURS.toMillis(1);
+    private static final int READ_CHUNK_SIZE = 500;
+
+    private static final String UPSERT = "INSERT INTO rate_limit_counters (counter_key, window_start, hits, expires_at) "
+            + "VALUES (?, ?, ?, ?) ON DUPLICATE KEY UPDATE hits = hits + VALUES(hits)";
+    private static final String SELECT_WINDOWS = "SELECT counter_key, window_start, hits FROM rate_limit_counters "
+            + "WHERE window_start >= ? AND counter_key IN (%s)";
+    private static final String DELETE_EXPIRED = "DELETE FROM rate_limit_counters WHERE expires_at < ? LIMIT 5000";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final long flushIntervalMillis;
+    private final Cache<String, KeyWindows> keys;
+    // Windows with hits not yet written; the flush drains this instead of scanning every tracked key
+    private final Set<SlidingWindow> dirty = ConcurrentHashMap.newKeySet();
+    // Windows checked since the last flush; their totals are read back even without local hits
+    private final Set<SlidingWindow> read = ConcurrentHashMap.newKeySet();
+    private ScheduledExecutorService flusher;
+
+    public JdbcRateLimitStore(JdbcTemplate jdbcTemplate,
+                              @Value("${app.rate-limit.jdbc.flush-interval:1000}") long flushIntervalMillis,
+                              @Value("${app.rate-limit.max-tracked-clients:100000}") long maxTrackedClients,
+                              @Value("${app.rate-limit.idle-expiry:1h}") Duration idleExpiry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.keys = Caffeine.newBuilder()
+                .maximumSize(maxTrackedClients)
+                .expireAfterAccess(idleExpiry)
+                .build();
+    }
+
+    @PostConstruct
+    public void start() {
+        logger.info("Using database-backed rate limit store (rate_limit_counters)");
+        flusher = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("rate-limit-flush").daemon(true).factory());
+        flusher.scheduleWithFixedDelay(() -> {
+            try {
+                flush();
+            } catch (RuntimeException e) {
+                // An exception would cancel the schedule
+                logger.error("Rate limit flush failed: {}", e.getMessage(), e);
+            }
+        }, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        flusher.shutdown();
+        flusher.awaitTermination(5, TimeUnit.SECONDS);
+        // Hand this node's last hits to the other nodes
+        flush();
+    }
+
+    @Override
+    public long tryAcquire(String key, Rule rule, long nowMillis) {
+        KeyWindows windows = keys.get(key, k -> load(k, nowMillis));
+        read.add(windows.perMinute);
+        read.add(windows.perHour);
+
+        long minuteRetry = windows.perMinute.retryAfter(rule.burst(), nowMillis);
+        long hourRetry = windows.perHour.retryAfter(rule.perHour(), nowMillis);
+        long retryAfter = Math.max(minuteRetry, hourRetry);
+        if (retryAfter > 0) {
+            return retryAfter;
+        }
+
+        if (windows.perMinute.hit(nowMillis)) {
+            dirty.add(windows.perMinute);
+        }
+        if (windows.perHour.hit(nowMillis)) {
+            dirty.add(windows.perHour);
+        }
+        return 0;
+    }
+
+    /**
+     * Writes local hits to the database in one batch and refreshes the local view of every key
+     * checked since the last flush with the totals from all nodes.
+     */
+    public void flush() {
+        List<SlidingWindow> checked = new ArrayList<>(read);
+        read.removeAll(checked);
+        List<SlidingWindow> windows = new ArrayList<>(dirty);
+        dirty.removeAll(windows);
+
+        if (!write(windows)) {
+            read.addAll(checked);
+            return;
+        }
+        // A check between draining the two sets can leave a window dirty but not in checked
+        Set<SlidingWindow> refreshed = new HashSet<>(checked);
+        refreshed.addAll(windows);
+        if (refreshed.isEmpty()) {
+            return;
+        }
+        try {
+            refresh(new ArrayList<>(refreshed), System.currentTimeMillis());
+        } catch (Exception e) {
+            logger.warn("Failed to read back rate limit counters: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * @return false if the write failed; the hits are then pending again for the next flush
+     */
+    private boolean write(List<SlidingWindow> windows) {
+        List<Object[]> batch = new ArrayList<>(windows.size());
+        List<FlushedDelta> flushed = new ArrayList<>(windows.size());
+        for (SlidingWindow window : windows) {
+            for (FlushedDelta delta : window.drainPending()) {
+                flushed.add(delta);
+                batch.add(new Object[] {window.counterKey, delta.windowStart(), delta.hits(),
+                        delta.windowStart() + 2 * window.length});
+            }
+        }
+        if (batch.isEmpty()) {
+            return true;
+        }
+
+        try {
+            jdbcTemplate.batchUpdate(UPSERT, batch);
+            return true;
+        } catch (Exception e) {
+            logger.warn("Failed to flush {} rate limit counters, retrying next interval: {}", batch.size(), e.getMessage());
+            for (FlushedDelta delta : flushed) {
+                delta.window().restorePending(delta);
+                dirty.add(delta.window());
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Removes windows that can no longer affect a decision.
+     */
+    @Scheduled(fixedDelayString = "${app.rate-limit.jdbc.cleanup-interval:300000}")
+    public void deleteExpiredCounters() {
+        try {
+            int deleted;
+            do {
+                deleted = jdbcTemplate.update(DELETE_EXPIRED, System.currentTimeMillis());
+            } while (deleted == 5000);
+        } catch (Exception e) {
+            logger.warn("Failed to delete expired rate limit counters: {}", e.getMessage());
+        }
+    }
+
+    private KeyWindows load(String key, long nowMillis) {
+        KeyWindows windows = new KeyWindows(key);
+        try {
+            refresh(List.of(windows.perMinute, windows.perHour), nowMillis);
+        } catch (Exception e) {
+            logger.warn("Could not load rate limit counters for {}, using local counts: {}", key, e.getMessage());
+        }
+        return windows;
+    }
+
+    private void refresh(List<SlidingWindow> windows, long nowMillis) {
+        Map<String, SlidingWindow> byCounterKey = new HashMap<>();
+        for (SlidingWindow window : windows) {
+            byCounterKey.put(window.counterKey, window);
+        }
+        List<String> counterKeys = new ArrayList<>(byCounterKey.keySet());
+        long since = nowMillis - 2 * HOUR_MILLIS;
+
+        for (int from = 0; from < counterKeys.size(); from += READ_CHUNK_SIZE) {
+            List<String> chunk = counterKeys.subList(from, Math.min(from + READ_CHUNK_SIZE, counterKeys.size()));
+            String sql = String.format(SELECT_WINDOWS, String.join(",", Collections.nCopies(chunk.size(), "?")));
+            Object[] params = new Object[chunk.size() + 1];
+            params[0] = since;
+            for (int i = 0; i < chunk.size(); i++) {
+                params[i + 1] = chunk.get(i);
+            }
+            Map<String, Map<Long, Integer>> totals = new HashMap<>();
+            jdbcTemplate.query(sql, rs -> {
+                totals.computeIfAbsent(rs.getString("counter_key"), k -> new HashMap<>())
+                        .put(rs.getLong("window_start"), rs.getInt("hits"));
+            }, params);
+            for (String counterKey : chunk) {
+                byCounterKey.get(counterKey).applyTotals(totals.getOrDefault(counterKey, Map.of()), nowMillis);
+            }
+        }
+    }
+
+    private static class KeyWindows {
+        final SlidingWindow perMinute;
+        final SlidingWindow perHour;
+
+        KeyWindows(String key) {
+            this.perMinute = new SlidingWindow(key + "|m", MINUTE_MILLIS);
+            this.perHour = new SlidingWindow(key + "|h", HOUR_MILLIS);
+        }
+    }
+
+    private record FlushedDelta(SlidingWindow window, long windowStart, int hits) {}
+
+    /**
+     * Local view of one key's counts for the current and previous fixed window. Access is
+     * synchronized per window; contention is limited to requests from the same client and endpoint.
+     */
+    private static class SlidingWindow {
+        final String counterKey;
+        final long length;
+
+        private long currentStart = -1;
+        // Hits in the current window as last read from the database (includes flushed local hits)
+        private int currentSynced;
+        // Hits taken on this node in the current window that are not yet flushed
+        private int currentPending;
+        private int previousTotal;
+        // Unflushed hits of windows that ended before the last flush, by window start
+        private final Map<Long, Integer> carried = new HashMap<>(2);
+
+        SlidingWindow(String counterKey, long length) {
+            this.counterKey = counterKey;
+            this.length = length;
+        }
+
+        synchronized long retryAfter(int limit, long nowMillis) {
+            roll(nowMillis);
+            long intoWindow = nowMillis - currentStart;
+            int current = currentSynced + currentPending;
+            if (current >= limit) {
+                return Math.max(1, length - intoWindow);
+            }
+            double previousWeight = (double) (length - intoWindow) / length;
+            double estimate = previousTotal * previousWeight + current;
+            if (estimate + 1 <= limit) {
+                return 0;
+            }
+            // Time until the previous window has decayed enough to admit one more request
+            double allowedPrevious = limit - 1 - current;
+            long decayedAt = (long) Math.ceil(length * (1 - allowedPrevious / previousTotal));
+            return Math.max(1, decayedAt - intoWindow);
+        }
+
+        /**
+         * @return true if this window had no pending hits before, i.e. it just became dirty
+         */
+        synchronized boolean hit(long nowMillis) {
+            roll(nowMillis);
+            return currentPending++ == 0;
+        }
+
+        synchronized List<FlushedDelta> drainPending() {
+            List<FlushedDelta> deltas = new ArrayList<>(carried.size() + 1);
+            carried.forEach((start, hits) -> deltas.add(new FlushedDelta(this, start, hits)));
+            carried.clear();
+            if (currentPending > 0) {
+                deltas.add(new FlushedDelta(this, currentStart, currentPending));
+                currentSynced += currentPending;
+                currentPending = 0;
+            }
+            return deltas;
+        }
+
+        synchronized void restorePending(FlushedDelta delta) {
+            if (delta.windowStart() == currentStart) {
+                currentSynced -= delta.hits();
+                currentPending += delta.hits();
+            } else {
+                carried.merge(delta.windowStart(), delta.hits(), Integer::sum);
+            }
+        }
+
+        synchronized void applyTotals(Map<Long, Integer> totals, long nowMillis) {
+            roll(nowMillis);
+            currentSynced = totals.getOrDefault(currentStart, 0);
+            int previousFromDb = totals.getOrDefault(currentStart - length, 0);
+            previousTotal = Math.max(previousTotal, previousFromDb);
+        }
+
+        private void roll(long nowMillis) {
+            long start = nowMillis - Math.floorMod(nowMillis, length);
+            if (start == currentStart) {
+                return;
+            }
+            previousTotal = start - currentStart == length ? currentSynced + currentPending : 0;
+            if (currentPending > 0) {
+                // Added to, not replacing, hits carried from an earlier window that were not flushed yet
+                carried.merge(currentStart, currentPending, Integer::sum);
+            }
+            currentStart = start;
+            currentSynced = 0;
+            currentPending = 0;
+        }
+    }
+}
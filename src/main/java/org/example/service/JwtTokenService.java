@@ -0,0 +1,160 @@
+package org.example.service;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.SecretKey;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Issues and verifies the signed tokens used when app.auth.mode=jwt.
+ *
+ * Access tokens are short-lived and carry everything a request needs (user id, organization id and
+ * authorities), so JwtAuthenticationFilter can authenticate a request without a session or a
+ * database lookup and any node can serve it. Refresh tokens carry the username and the user's token
+ * version; exchanging one reloads the user, so disabled accounts and role changes take effect at the
+ * next refresh, and a password change, reset or logout (which bump the version) revokes it.
+ *
+ * Tokens are HS256-signed with app.jwt.secret (base64, at least 256 bits), shared by all nodes.
+ */
+@Service
+@ConditionalOnProperty(name = "app.auth.mode", havingValue = "jwt")
+public class JwtTokenService {
+
+    private static final String CLAIM_TYPE = "typ";
+    private static final String CLAIM_USER_ID = "uid";
+    private static final String CLAIM_ORGANIZATION_ID = "org";
+    private static final String CLAIM_AUTHORITIES = "auth";
+    private static final String CLAIM_TOKEN_VERSION = "ver";
+    private static final String TYPE_ACCESS = "access";
+    private static final String TYPE_REFRESH = "refresh";
+
+    /**
+     * Record to hold a freshly issued token pair.
+     */
+    public record IssuedTokens(String accessToken, String refreshToken, long expiresInSeconds) {}
+
+    /**
+     * Record to hold the verified contents of a refresh token.
+     */
+    public record RefreshToken(String username, int tokenVersion) {}
+
+    private final SecretKey key;
+    private final String issuer;
+    private final Duration accessTokenTtl;
+    private final Duration refreshTokenTtl;
+
+    public JwtTokenService(@Value("${app.jwt.secret}") String secret,
+                           @Value("${app.jwt.issuer:vimadimension}") String issuer,
+                           @Value("${app.jwt.access-token-ttl:15m}") Duration accessTokenTtl,
+                           @Value("${app.jwt.refresh-token-ttl:14d}") Duration refreshTokenTtl) {
+        if (secret == null || secret.isBlank()) {
+            throw new IllegalStateException("app.jwt.secret must be set when app.auth.mode=jwt");
+        }
+        this.key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(secret));
+        this.issuer = issuer;
+        this.accessTokenTtl = accessTokenTtl;
+        this.refreshTokenTtl = refreshTokenTtl;
+    }
+
+    /**
+     * @param tokenVersion the user's current token version (see User.revokeTokens)
+     */
+    public IssuedTokens issue(AuthenticatedUser user, int tokenVersion) {
+        Instant now = Instant.now();
+        List<String> authorities = user.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .toList();
+
+        String accessToken = Jwts.builder()
+                .issuer(issuer)
+                .subject(user.getUsername())
+                .issuedAt(Date.from(now))
+                .expiration(Date.from(now.plus(accessTokenTtl)))
+                .claim(CLAIM_TYPE, TYPE_ACCESS)
+                .claim(CLAIM_USER_ID, user.getUserId())
+                .claim(CLAIM_ORGANIZATION_ID, user.getOrganizationId())
+                .claim(CLAIM_AUTHORITIES, authorities)
+                .signWith(key)
+                .compact();
+
+        String refreshToken = Jwts.builder()
+                .issuer(issuer)
+                .subject(user.getUsername())
+                .id(UUID.randomUUID().toString())
+                .issuedAt(Date.from(now))
+                .expiration(Date.from(now.plus(refreshTokenTtl)))
+                .claim(CLAIM_TYPE, TYPE_REFRESH)
+                .claim(CLAIM_TOKEN_VERSION, tokenVersion)
+                .signWith(key)
+                .compact();
+
+        return new IssuedTokens(accessToken, refreshToken, accessTokenTtl.toSeconds());
+    }
+
+    /**
+     * Verifies an access token and rebuilds the principal it was issued for.
+     *
+     * @throws JwtException if the token is malformed, expired, not signed by us or not an access token
+     */
+    public AuthenticatedUser parseAccessToken(String token) {
+        Claims claims = parse(token, TYPE_ACCESS);
+        List<?> authorityClaim = claims.get(CLAIM_AUTHORITIES, List.class);
+        List<SimpleGrantedAuthority> authorities = authorityClaim == null ? List.of() : authorityClaim.stream()
+                .map(authority -> new SimpleGrantedAuthority(String.valueOf(authority)))
+                .toList();
+        // Credentials are never part of a token; the principal only has to be non-null
+        return new AuthenticatedUser(
+                toLong(claims.get(CLAIM_USER_ID)),
+                toLong(claims.get(CLAIM_ORGANIZATION_ID)),
+                claims.getSubject(),
+                "",
+                true,
+                authorities);
+    }
+
+    /**
+     * Verifies a refresh token.
+     *
+     * @return the username and token version the token was issued with
+     * @throws JwtException if the token is malformed, expired, not signed by us, not a refresh token
+     *                      or has no token version
+     */
+    public RefreshToken parseRefreshToken(String token) {
+        Claims claims = parse(token, TYPE_REFRESH);
+        Long tokenVersion = toLong(claims.get(CLAIM_TOKEN_VERSION));
+        if (tokenVersion == null) {
+            throw new JwtException("Refresh token has no token version");
+        }
+        return new RefreshToken(claims.getSubject(), tokenVersion.intValue());
+    }
+
+    private Claims parse(String token, String expectedType) {
+        Claims claims = Jwts.parser()
+                .verifyWith(key)
+                .requireIssuer(issuer)
+                .build()
+                .parseSignedClaims(token)
+                .getPayload();
+        if (!expectedType.equals(claims.get(CLAIM_TYPE, String.class))) {
+            throw new JwtException("Expected a " + expectedType + " token");
+        }
+        return claims;
+    }
+
+    private static Long toLong(Object value) {
+        return value instanceof Number number ? number.longValue() : null;
+    }
+}
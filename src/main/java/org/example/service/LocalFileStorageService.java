@@ -7,11 +7,19 @@ import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import jakarta.annotation.PostConstruct;
+import java.io.FilterInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.util.Arrays;
 import java.util.UUID;
 
@@ -89,6 +97,31 @@ public class LocalFileStorageService implements FileStorageService {
         }
     }
 
+    @Override
+    public String storeContent(InputStream content, long contentLength, String storagePath, String contentType) throws FileStorageException {
+        try {
+            Path destinationFile = rootLocation.resolve(storagePath).normalize();
+            if (!destinationFile.startsWith(rootLocation)) {
+                throw new FileStorageException("Cannot store file outside of upload directory");
+            }
+            Files.createDirectories(destinationFile.getParent());
+
+            // Write next to the destination and move into place, so readers never see a partial file
+            Path tempFile = Files.createTempFile(destinationFile.getParent(), ".upload-", ".tmp");
+            try {
+                Files.copy(content, tempFile, StandardCopyOption.REPLACE_EXISTING);
+                Files.move(tempFile, destinationFile, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(tempFile);
+            }
+
+            logger.info("Stored file: {} ({} bytes)", storagePath, contentLength);
+            return baseUrl + "/" + storagePath;
+        } catch (IOException e) {
+            throw new FileStorageException("Failed to store file: " + e.getMessage(), e);
+        }
+    }
+
     @Override
     public boolean deleteFile(String fileUrl) throws FileStorageException {
         try {
@@ -160,6 +193,127 @@ public class LocalFileStorageService implements FileStorageService {
         }
     }
 
+    @Override
+    public FileMetadata getFileMetadata(String fileUrl) throws FileStorageException {
+        Path filePath = resolveExistingFile(fileUrl);
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(filePath, BasicFileAttributes.class);
+            long size = attributes.size();
+            long lastModified = attributes.lastModifiedTime().toMillis();
+            // Size + mtime is enough to detect changes since stored files are never rewritten in place
+            String eTag = String.format("\"%x-%x\"", size, lastModified);
+            return new FileMetadata(size, getContentType(fileUrl), eTag, attributes.lastModifiedTime().toInstant());
+        } catch (IOException e) {
+            throw new FileStorageException("Failed to read file attributes: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public InputStream openStream(String fileUrl, long offset, long length) throws FileStorageException {
+        Path filePath = resolveExistingFile(fileUrl);
+        try {
+            FileChannel channel = FileChannel.open(filePath, StandardOpenOption.READ);
+            channel.position(offset);
+            return new RangeInputStream(Channels.newInputStream(channel), length);
+        } catch (IOException e) {
+            throw new FileStorageException("Failed to open file: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Uses FileChannel.transferTo so the kernel copies the range directly where the
+     * target allows it, and never materializes the file on the heap.
+     */
+    @Override
+    public void transferTo(String fileUrl, long offset, long length, OutputStream out) throws IOException {
+        Path filePath = resolveExistingFile(fileUrl);
+        try (FileChannel channel = FileChannel.open(filePath, StandardOpenOption.READ)) {
+            WritableByteChannel target = Channels.newChannel(out);
+            long position = offset;
+            long remaining = length;
+            while (remaining > 0) {
+                long transferred = channel.transferTo(position, remaining, target);
+                if (transferred <= 0) {
+                    break; // Reached end of file
+                }
+                position += transferred;
+                remaining -= transferred;
+            }
+        }
+    }
+
+    /**
+     * Resolves a file URL to a path inside the upload directory and checks that it exists.
+     */
+    private Path resolveExistingFile(String fileUrl) throws FileStorageException {
+        if (fileUrl == null || fileUrl.isEmpty()) {
+            throw new FileStorageException("File URL cannot be null or empty");
+        }
+
+        String relativePath = fileUrl.replace(baseUrl + "/", "");
+        // URL decode to handle spaces and special characters
+        relativePath = java.net.URLDecoder.decode(relativePath, java.nio.charset.StandardCharsets.UTF_8);
+        Path filePath = rootLocation.resolve(relativePath).normalize();
+
+        // Security check
+        if (!filePath.startsWith(rootLocation)) {
+            throw new StoredFileNotFoundException("Cannot access file outside of upload directory");
+        }
+
+        if (!Files.isRegularFile(filePath)) {
+            throw new StoredFileNotFoundException("File not found: " + fileUrl);
+        }
+        return filePath;
+    }
+
+    /**
+     * Input stream that stops after a fixed number of bytes, used to serve byte ranges.
+     */
+    private static class RangeInputStream extends FilterInputStream {
+        private long remaining;
+
+        RangeInputStream(InputStream in, long length) {
+            super(in);
+            this.remaining = length;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int b = super.read();
+            if (b >= 0) {
+                remaining--;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int off, int len) throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int read = super.read(buffer, off, (int) Math.min(len, remaining));
+            if (read > 0) {
+                remaining -= read;
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(Math.min(n, remaining));
+            remaining -= skipped;
+            return skipped;
+        }
+
+        @Override
+        public int available() throws IOException {
+            return (int) Math.min(super.available(), remaining);
+        }
+    }
+
     @Override
     public String getContentType(String fileUrl) {
         if (fileUrl == null) {
@@ -0,0 +1,153 @@
+package org.example.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.itextpdf.io.image.ImageData;
+import com.itextpdf.io.image.ImageDataFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URLConnection;
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Bounded cache of decoded images (organization logos and classpath assets) used by PdfService.
+ *
+ * Without this, every invoice PDF fetched the logo over the network and decoded it again,
+ * which dominated render time for bulk month-end runs. Decoded ImageData is immutable once
+ * created, so one instance can be shared by every document that embeds it.
+ *
+ * Cache key: the logo URL. Uploaded logos are stored under a fresh UUID-suffixed name, so a
+ * new upload always produces a new key; upload-logo and delete-logo also evict the old key.
+ * Failed loads are cached briefly so a broken logo does not stall every PDF on a timeout.
+ *
+ * Hit/miss statistics are published to Micrometer as cache.gets{cache="pdfImages"}.
+ */
+@Component
+public class PdfImageCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(PdfImageCache.class);
+    private static final String FILE_API_PREFIX = "/api/files/";
+    private static final String CLASSPATH_PREFIX = "classpath:";
+
+    private final FileStorageService fileStorageService;
+    private final Cache<String, Optional<ImageData>> cache;
+    private final int fetchTimeoutMillis;
+
+    public PdfImageCache(FileStorageService fileStorageService,
+                         MeterRegistry meterRegistry,
+                         @Value("${app.pdf.image-cache.max-size:500}") long maxSize,
+                         @Value("${app.pdf.image-cache.ttl:6h}") Duration ttl,
+                         @Value("${app.pdf.image-cache.failure-ttl:1m}") Duration failureTtl,
+                         @Value("${app.pdf.image-cache.fetch-timeout:3s}") Duration fetchTimeout) {
+        this.fileStorageService = fileStorageService;
+        this.fetchTimeoutMillis = (int) fetchTimeout.toMillis();
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new Expiry<String, Optional<ImageData>>() {
+                    @Override
+                    public long expireAfterCreate(String key, Optional<ImageData> value, long currentTime) {
+                        return value.isPresent() ? ttl.toNanos() : failureTtl.toNanos();
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, Optional<ImageData> value, long currentTime, long currentDuration) {
+                        return expireAfterCreate(key, value, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, Optional<ImageData> value, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "pdfImages");
+    }
+
+    /**
+     * Returns the decoded image for a logo URL, loading it at most once per TTL.
+     * Accepts stored-file URLs (/api/files/...) and absolute http(s) URLs.
+     *
+     * @param logoUrl The organization logo URL
+     * @return The decoded image, or empty if it could not be loaded
+     */
+    public Optional<ImageData> getLogo(String logoUrl) {
+        if (logoUrl == null || logoUrl.isBlank()) {
+            return Optional.empty();
+        }
+        return cache.get(logoUrl.trim(), this::loadLogo);
+    }
+
+    /**
+     * Returns the decoded image for a classpath resource such as the default firm logo.
+     *
+     * @param path The classpath location of the image
+     * @return The decoded image, or empty if the resource does not exist
+     */
+    public Optional<ImageData> getClasspathImage(String path) {
+        return cache.get(CLASSPATH_PREFIX + path, key -> loadClasspathImage(path));
+    }
+
+    /**
+     * Evicts a logo so the next PDF picks up the current file. Called when a logo is
+     * uploaded or deleted.
+     *
+     * @param logoUrl The logo URL to evict (ignored if null)
+     */
+    public void evictLogo(String logoUrl) {
+        if (logoUrl != null && !logoUrl.isBlank()) {
+            cache.invalidate(logoUrl.trim());
+            logger.debug("Evicted cached PDF logo: {}", logoUrl);
+        }
+    }
+
+    private Optional<ImageData> loadLogo(String logoUrl) {
+        long start = System.nanoTime();
+        try {
+            byte[] bytes;
+            if (logoUrl.startsWith(FILE_API_PREFIX)) {
+                // Stored logos are read through the storage backend rather than over HTTP
+                bytes = fileStorageService.getFileBytes(logoUrl);
+            } else {
+                URLConnection connection = URI.create(logoUrl).toURL().openConnection();
+                connection.setConnectTimeout(fetchTimeoutMillis);
+                connection.setReadTimeout(fetchTimeoutMillis);
+                try (InputStream in = connection.getInputStream()) {
+                    bytes = in.readAllBytes();
+                }
+            }
+            ImageData imageData = ImageDataFactory.create(bytes);
+            logger.debug("Loaded PDF logo {} ({} bytes) in {} ms", logoUrl, bytes.length,
+                    (System.nanoTime() - start) / 1_000_000);
+            return Optional.of(imageData);
+        } catch (Exception e) {
+            logger.warn("Could not load logo from URL {}: {}", logoUrl, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    private Optional<ImageData> loadClasspathImage(String path) {
+        ClassPathResource resource = new ClassPathResource(path);
+        if (!resource.exists()) {
+            logger.warn("Logo file not found at path: {}", path);
+            return Optional.empty();
+        }
+        try (InputStream in = resource.getInputStream()) {
+            return Optional.of(ImageDataFactory.create(in.readAllBytes()));
+        } catch (IOException e) {
+            logger.warn("Error reading logo file: {}", e.getMessage());
+            return Optional.empty();
+        }
+    }
+}
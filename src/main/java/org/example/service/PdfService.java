@@ -2,7 +2,6 @@ package org.example.service;
 
 import com.itextpdf.html2pdf.HtmlConverter;
 import com.itextpdf.io.image.ImageData;
-import com.itextpdf.io.image.ImageDataFactory;
 import com.itextpdf.kernel.pdf.PdfDocument;
 import com.itextpdf.kernel.pdf.PdfWriter;
 import com.itextpdf.layout.Document;
@@ -19,12 +18,10 @@ import org.example.models.Organization;
 import org.example.models.Payslip;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.core.io.ClassPathResource;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.io.ByteArrayOutputStream;
-import java.io.IOException;
-import java.io.InputStream;
 import java.math.BigDecimal;
 import java.text.NumberFormat;
 import java.time.format.DateTimeFormatter;
@@ -38,11 +35,32 @@ public class PdfService {
     private static final NumberFormat CURRENCY_FORMATTER = NumberFormat.getCurrencyInstance(new Locale("en", "IN"));
     private static final String DEFAULT_LOGO_PATH = "static/images/firm-logo.jpg";
 
+    private final PdfImageCache pdfImageCache;
+
+    @Autowired
+    public PdfService(PdfImageCache pdfImageCache) {
+        this.pdfImageCache = pdfImageCache;
+    }
+
     public byte[] generateInvoicePdf(Invoice invoice) {
+        try (ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
+            writeInvoicePdf(invoice, baos);
+            return baos.toByteArray();
+        } catch (java.io.IOException e) {
+            throw new RuntimeException("Failed to generate PDF", e);
+        }
+    }
+
+    /**
+     * Renders an invoice PDF into the given stream. The stream is closed when the document is closed.
+     * Safe to call concurrently for different invoices; the invoice's organization, project, client
+     * and items must already be initialized.
+     */
+    public void writeInvoicePdf(Invoice invoice, java.io.OutputStream out) {
         logger.info("Generating PDF for invoice: {}", invoice.getInvoiceNumber());
 
-        try (ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
-            PdfDocument pdfDoc = new PdfDocument(new PdfWriter(baos));
+        try {
+            PdfDocument pdfDoc = new PdfDocument(new PdfWriter(out));
             Document document = new Document(pdfDoc);
 
             // Add header
@@ -66,7 +84,6 @@ public class PdfService {
             document.close();
             
             logger.info("PDF generated successfully for invoice: {}", invoice.getInvoiceNumber());
-            return baos.toByteArray();
 
         } catch (Exception e) {
             logger.error("Failed to generate PDF for invoice: {}", invoice.getInvoiceNumber(), e);
@@ -85,22 +102,17 @@ public class PdfService {
         Cell leftCell = new Cell().setBorder(null);
         
         // Add logo (from organization logo URL if available)
-        if (org.getLogoUrl() != null && !org.getLogoUrl().trim().isEmpty()) {
-            try {
-                java.net.URL logoUrl = new java.net.URL(org.getLogoUrl());
-                ImageData logoImageData = ImageDataFactory.create(logoUrl);
-                Image logo = new Image(logoImageData);
-                logo.setWidth(100);
-                logo.setHeight(60);
-                logo.setHorizontalAlignment(HorizontalAlignment.LEFT);
-                leftCell.add(logo);
-                leftCell.add(new Paragraph("\n").setFontSize(6));
-            } catch (Exception e) {
-                logger.warn("Could not load logo from URL: {}", e.getMessage());
-                addLogoToCell(leftCell); // Fall back to default logo
-            }
+        // Decoded logo comes from PdfImageCache, so bulk runs fetch and decode it once
+        java.util.Optional<ImageData> orgLogo = pdfImageCache.getLogo(org.getLogoUrl());
+        if (orgLogo.isPresent()) {
+            Image logo = new Image(orgLogo.get());
+            logo.setWidth(100);
+            logo.setHeight(60);
+            logo.setHorizontalAlignment(HorizontalAlignment.LEFT);
+            leftCell.add(logo);
+            leftCell.add(new Paragraph("\n").setFontSize(6));
         } else {
-            addLogoToCell(leftCell);
+            addLogoToCell(leftCell); // Fall back to default logo
         }
 
         // Organization name
@@ -398,27 +410,19 @@ public class PdfService {
 
     private void addLogoToCell(Cell cell) {
         try {
-            ClassPathResource logoResource = new ClassPathResource(DEFAULT_LOGO_PATH);
-            if (logoResource.exists()) {
-                try (InputStream logoStream = logoResource.getInputStream()) {
-                    byte[] logoBytes = logoStream.readAllBytes();
-                    ImageData logoImageData = ImageDataFactory.create(logoBytes);
-                    Image logo = new Image(logoImageData);
-                    
-                    // Scale logo to appropriate size for invoice header
-                    logo.setWidth(100);
-                    logo.setHeight(60);
-                    logo.setHorizontalAlignment(HorizontalAlignment.LEFT);
-                    
-                    cell.add(logo);
-                    cell.add(new Paragraph("\n").setFontSize(6)); // Small spacing after logo
-                    
-                    logger.debug("Successfully added logo to PDF");
-                } catch (IOException e) {
-                    logger.warn("Error reading logo file: {}", e.getMessage());
-                }
-            } else {
-                logger.warn("Logo file not found at path: {}", DEFAULT_LOGO_PATH);
+            java.util.Optional<ImageData> defaultLogo = pdfImageCache.getClasspathImage(DEFAULT_LOGO_PATH);
+            if (defaultLogo.isPresent()) {
+                Image logo = new Image(defaultLogo.get());
+                
+                // Scale logo to appropriate size for invoice header
+                logo.setWidth(100);
+                logo.setHeight(60);
+                logo.setHorizontalAlignment(HorizontalAlignment.LEFT);
+                
+                cell.add(logo);
+                cell.add(new Paragraph("\n").setFontSize(6)); // Small spacing after logo
+                
+                logger.debug("Successfully added logo to PDF");
             }
         } catch (Exception e) {
             logger.warn("Could not load logo image: {}", e.getMessage());
@@ -1,6 +1,5 @@
 package org.example.service;
 
-import org.example.models.Permission;
 import org.example.models.Role;
 import org.example.models.User;
 import org.springframework.stereotype.Service;
@@ -9,9 +8,20 @@ import java.util.HashSet;
 import java.util.Set;
 import java.util.stream.Collectors;
 
+/**
+ * Permission checks for a user's roles.
+ * Role permissions are resolved through RolePermissionIndex, so a check does not walk the
+ * Role -> Permission entity graph.
+ */
 @Service
 public class PermissionService {
 
+    private final RolePermissionIndex rolePermissionIndex;
+
+    public PermissionService(RolePermissionIndex rolePermissionIndex) {
+        this.rolePermissionIndex = rolePermissionIndex;
+    }
+
     /**
      * Check if a user has a specific permission
      * @param user The user to check
@@ -23,7 +33,7 @@ public class PermissionService {
             return false;
         }
 
-        return getUserPermissions(user).contains(permissionName);
+        return rolePermissionIndex.grants(user.getRoles(), permissionName);
     }
 
     /**
@@ -37,9 +47,8 @@ public class PermissionService {
             return false;
         }
 
-        Set<String> userPermissions = getUserPermissions(user);
         for (String permissionName : permissionNames) {
-            if (userPermissions.contains(permissionName)) {
+            if (rolePermissionIndex.grants(user.getRoles(), permissionName)) {
                 return true;
             }
         }
@@ -57,9 +66,8 @@ public class PermissionService {
             return false;
         }
 
-        Set<String> userPermissions = getUserPermissions(user);
         for (String permissionName : permissionNames) {
-            if (!userPermissions.contains(permissionName)) {
+            if (!rolePermissionIndex.grants(user.getRoles(), permissionName)) {
                 return false;
             }
         }
@@ -91,10 +99,7 @@ public class PermissionService {
             return new HashSet<>();
         }
 
-        return user.getRoles().stream()
-                .flatMap(role -> role.getPermissions().stream())
-                .map(Permission::getName)
-                .collect(Collectors.toSet());
+        return rolePermissionIndex.permissionNames(user.getRoles());
     }
 
     /**
@@ -2,17 +2,16 @@ package org.example.service;
 
 import org.example.models.Phase;
 import org.example.models.Project;
+import org.example.models.ResourceAssignment;
 import org.example.models.User;
 import org.example.models.enums.PhaseStatus;
 import org.example.repository.PhaseRepository;
 import org.example.repository.ProjectRepository;
-import org.example.repository.UserRepository;
+import org.example.repository.ResourceAssignmentRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -29,16 +28,24 @@ public class PhaseService {
 
     private final PhaseRepository phaseRepository;
     private final ProjectRepository projectRepository;
-    private final UserRepository userRepository;
+    private final CurrentUserService currentUserService;
     private final AuditService auditService;
+    private final ProjectCostLedgerService costLedgerService;
+    private final ResourceAssignmentRepository resourceAssignmentRepository;
+    private final ApplicationEventPublisher eventPublisher;
     private PhaseSubstageService substageService;
 
     @Autowired
-    public PhaseService(PhaseRepository phaseRepository, ProjectRepository projectRepository, UserRepository userRepository, AuditService auditService) {
+    public PhaseService(PhaseRepository phaseRepository, ProjectRepository projectRepository, CurrentUserService currentUserService, AuditService auditService,
+                        ProjectCostLedgerService costLedgerService, ResourceAssignmentRepository resourceAssignmentRepository,
+                        ApplicationEventPublisher eventPublisher) {
         this.phaseRepository = phaseRepository;
         this.projectRepository = projectRepository;
-        this.userRepository = userRepository;
+        this.currentUserService = currentUserService;
         this.auditService = auditService;
+        this.costLedgerService = costLedgerService;
+        this.resourceAssignmentRepository = resourceAssignmentRepository;
+        this.eventPublisher = eventPublisher;
     }
 
     // Setter injection with @Lazy to avoid circular dependency
@@ -48,20 +55,13 @@ public class PhaseService {
         this.substageService = substageService;
     }
 
+    /**
+     * Helper method to get the currently authenticated user as an entity reference (see CurrentUserService).
+     * @return A lazy reference to the authenticated User.
+     * @throws IllegalStateException if no user is authenticated.
+     */
     private User getCurrentAuthenticatedUser() {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        if (authentication == null || !authentication.isAuthenticated() || authentication.getPrincipal().equals("anonymousUser")) {
-            throw new IllegalStateException("No authenticated user found.");
-        }
-        String username;
-        Object principal = authentication.getPrincipal();
-        if (principal instanceof UserDetails) {
-            username = ((UserDetails) principal).getUsername();
-        } else {
-            username = principal.toString();
-        }
-        return userRepository.findByUsername(username)
-                .orElseThrow(() -> new IllegalStateException("Authenticated user '" + username + "' not found in database."));
+        return currentUserService.userReference();
     }
 
     @Transactional
@@ -180,13 +180,22 @@ public class PhaseService {
 
     @Transactional
     public boolean deletePhase(Long phaseId) {
-        if (!phaseRepository.existsById(phaseId)) {
+        Phase phase = phaseRepository.findById(phaseId).orElse(null);
+        if (phase == null) {
             return false;
         }
         // Check for tasks? Cascade delete handles it but maybe we want to prevent if tasks exist?
         // For now, let's assume cascade delete is fine or handled by database constraints if strict.
         // But Phase entity has CascadeType.ALL for tasks, so tasks will be deleted.
         
+        Project project = phase.getProject();
+        Long organizationId = project.getOrganization().getId();
+        costLedgerService.applyPhaseRemoval(organizationId, project.getId(), phaseId);
+        // The phase's resource assignments go with it; take them out of the capacity index after commit
+        for (ResourceAssignment assignment : resourceAssignmentRepository.findByPhase_Id(phaseId)) {
+            eventPublisher.publishEvent(new ResourceAssignmentChangedEvent(organizationId,
+                    ResourceCapacityService.allocationOf(assignment), null));
+        }
         phaseRepository.deleteById(phaseId);
         return true;
     }
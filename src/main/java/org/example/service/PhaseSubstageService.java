@@ -6,13 +6,9 @@ import org.example.models.User;
 import org.example.models.enums.ProjectStage;
 import org.example.repository.PhaseSubstageRepository;
 import org.example.repository.PhaseRepository;
-import org.example.repository.UserRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -29,7 +25,7 @@ public class PhaseSubstageService {
 
     private final PhaseSubstageRepository substageRepository;
     private final PhaseRepository phaseRepository;
-    private final UserRepository userRepository;
+    private final CurrentUserService currentUserService;
 
     // Predefined substages for each project stage type
     private static final Map<String, List<String>> PREDEFINED_SUBSTAGES = new LinkedHashMap<>();
@@ -108,25 +104,17 @@ public class PhaseSubstageService {
     @Autowired
     public PhaseSubstageService(PhaseSubstageRepository substageRepository,
                                  PhaseRepository phaseRepository,
-                                 UserRepository userRepository) {
+                                 CurrentUserService currentUserService) {
         this.substageRepository = substageRepository;
         this.phaseRepository = phaseRepository;
-        this.userRepository = userRepository;
+        this.currentUserService = currentUserService;
     }
 
+    /**
+     * Helper method to get the currently authenticated user, or null when nobody is authenticated.
+     */
     private User getCurrentAuthenticatedUser() {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        if (authentication == null || !authentication.isAuthenticated() || authentication.getPrincipal().equals("anonymousUser")) {
-            return null;
-        }
-        String username;
-        Object principal = authentication.getPrincipal();
-        if (principal instanceof UserDetails) {
-            username = ((UserDetails) principal).getUsername();
-        } else {
-            username = principal.toString();
-        }
-        return userRepository.findByUsername(username).orElse(null);
+        return currentUserService.find().isPresent() ? currentUserService.loadUser() : null;
     }
 
     /**
@@ -0,0 +1,15 @@
+package org.example.service;
+
+import org.example.dto.ProjectActivityDto;
+
+/**
+ * Published when a project activity is created.
+ * ProjectActivityService appends it to this node's cached activity feed after commit; other nodes
+ * rebuild theirs.
+ *
+ * @param organizationId The organization the project belongs to
+ * @param projectId      The project the activity was logged on
+ * @param projectName    The project's name, shown in the organization feed
+ * @param activity       The new activity
+ */
+public record ProjectActivityCreatedEvent(Long organizationId, Long projectId, String projectName, ProjectActivityDto activity) {}
@@ -1,5 +1,7 @@
 package org.example.service;
 
+import org.example.config.CacheConfig;
+import jakarta.annotation.PostConstruct;
 import org.example.dto.ProjectActivityDto;
 import org.example.models.Project;
 import org.example.models.ProjectActivity;
@@ -9,15 +11,47 @@ import org.example.repository.ProjectActivityRepository;
 import org.example.repository.ProjectRepository;
 import org.example.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.Optional;
 
+/**
+ * Project activity log.
+ *
+ * Recent activity is served from an in-memory ActivityFeed per organization, cached in activityFeed
+ * (see CacheConfig): two queries on first use fill a ring buffer with the latest
+ * app.activity-feed.buffer-size activities of every project, new activities are appended after
+ * commit, and the organization timeline is a merge of the buffers. Project pages and the timeline
+ * therefore read no rows once the feed is warm. Projects created after the feed was built are read
+ * from the database until they get their first activity.
+ *
+ * New activities, project renames and project deletions bump the organization's activityFeed version
+ * with the changing transaction (see CacheVersionService), and every read checks that version first,
+ * so a feed cached on another node is rebuilt on its next use. On this node a new activity is appended
+ * to the cached feed after commit; an activity committed while the feed is being built, a rename and a
+ * deletion evict the feed instead. The buffer size must be at least the project page size, since
+ * project pages are served from the buffers.
+ */
 @Service
 public class ProjectActivityService {
 
+    // Activities shown on the project page
+    private static final int PROJECT_PAGE_SIZE = 10;
+
     @Autowired
     private ProjectActivityRepository projectActivityRepository;
 
@@ -27,17 +61,73 @@ public class ProjectActivityService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private CurrentUserService currentUserService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private CacheVersionService cacheVersions;
+
+    @Value("${app.activity-feed.buffer-size:50}")
+    private int bufferSize;
+
+    @PostConstruct
+    void validateBufferSize() {
+        if (bufferSize < PROJECT_PAGE_SIZE) {
+            throw new IllegalStateException("app.activity-feed.buffer-size must be at least " + PROJECT_PAGE_SIZE
+                    + " (the activities shown on a project page), but is " + bufferSize);
+        }
+    }
+
     @Transactional(readOnly = true)
     public List<ProjectActivity> getActivitiesByProjectId(Long projectId) {
         return projectActivityRepository.findByProjectIdOrderByActivityDateDesc(projectId);
     }
 
-    @Transactional(readOnly = true)
     public List<ProjectActivityDto> getRecentActivitiesByProjectId(Long projectId) {
-        List<ProjectActivity> activities = projectActivityRepository.findTop10ByProjectIdOrderByActivityDateDesc(projectId);
-        return activities.stream()
-                .map(ProjectActivityDto::fromEntity)
-                .collect(Collectors.toList());
+        Optional<CurrentUser> currentUser = currentUserService.find();
+        if (currentUser.isPresent() && currentUser.get().hasOrganization()) {
+            List<ProjectActivityDto> recent = feed(currentUser.get().organizationId()).recent(projectId, PROJECT_PAGE_SIZE);
+            if (recent != null) {
+                return recent;
+            }
+        }
+        return projectActivityRepository.findRecentDtosByProjectId(projectId, PageRequest.of(0, PROJECT_PAGE_SIZE));
+    }
+
+    /**
+     * The newest activities across all projects of the current user's organization, newest first.
+     *
+     * @param limit Number of activities, at most app.activity-feed.buffer-size
+     */
+    public List<Map<String, Object>> getOrganizationFeed(int limit) {
+        if (limit < 1 || limit > bufferSize) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + bufferSize + ".");
+        }
+        CurrentUser currentUser = currentUserService.get();
+        if (!currentUser.hasOrganization()) {
+            return List.of();
+        }
+
+        List<Map<String, Object>> items = new ArrayList<>();
+        for (ActivityFeed.Item item : feed(currentUser.organizationId()).merged(limit)) {
+            ProjectActivityDto activity = item.activity();
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("id", activity.getId());
+            entry.put("projectId", item.projectId());
+            entry.put("projectName", item.projectName());
+            entry.put("type", activity.getType());
+            entry.put("description", activity.getDescription());
+            entry.put("loggedBy", activity.getLoggedBy());
+            entry.put("time", activity.getTime());
+            items.add(entry);
+        }
+        return items;
     }
 
     @Transactional
@@ -49,6 +139,75 @@ public class ProjectActivityService {
                 .orElseThrow(() -> new IllegalArgumentException("User not found"));
 
         ProjectActivity activity = new ProjectActivity(type, description, project, user);
-        return projectActivityRepository.save(activity);
+        ProjectActivity saved = projectActivityRepository.save(activity);
+        if (project.getOrganization() != null) {
+            eventPublisher.publishEvent(new ProjectActivityCreatedEvent(project.getOrganization().getId(),
+                    projectId, project.getName(), ProjectActivityDto.fromEntity(saved)));
+        }
+        return saved;
+    }
+
+    // The listeners run in the publishing transaction, so the version bump commits with the change
+    @EventListener
+    public void onActivityCreated(ProjectActivityCreatedEvent event) {
+        Cache cache = feedCache();
+        cacheVersions.bump(cache, event.organizationId(), () -> {
+            Cache.ValueWrapper cached = cache.get(event.organizationId());
+            if (cached != null && cached.get() instanceof ActivityFeed feed) {
+                feed.append(event.projectId(), event.projectName(), event.activity());
+            } else {
+                // Not cached, or still loading: evicting waits for a load in progress and drops its result
+                cache.evict(event.organizationId());
+            }
+        });
+    }
+
+    @EventListener
+    public void onProjectRenamed(ProjectRenamedEvent event) {
+        Cache cache = feedCache();
+        cacheVersions.bump(cache, event.organizationId(), () -> cache.evict(event.organizationId()));
+    }
+
+    @EventListener
+    public void onProjectDeleted(ProjectDeletedEvent event) {
+        Cache cache = feedCache();
+        cacheVersions.bump(cache, event.organizationId(), () -> cache.evict(event.organizationId()));
+    }
+
+    private ActivityFeed feed(Long organizationId) {
+        Cache cache = feedCache();
+        cacheVersions.evictIfStale(cache, organizationId);
+        return cache.get(organizationId, () -> load(organizationId));
+    }
+
+    private ActivityFeed load(Long organizationId) {
+        Map<Long, String> projectNames = new HashMap<>();
+        for (Object[] row : projectRepository.findIdAndNameByOrganization(organizationId)) {
+            projectNames.put((Long) row[0], (String) row[1]);
+        }
+        Map<Long, List<ProjectActivityDto>> latest = new HashMap<>();
+        for (Object[] row : projectActivityRepository.findLatestPerProjectInOrganization(organizationId, bufferSize)) {
+            Long projectId = ((Number) row[1]).longValue();
+            latest.computeIfAbsent(projectId, id -> new ArrayList<>()).add(new ProjectActivityDto(
+                    ((Number) row[0]).longValue(),
+                    ActivityType.valueOf((String) row[2]),
+                    (String) row[3],
+                    (String) row[5],
+                    toLocalDateTime(row[4])));
+        }
+        return new ActivityFeed(bufferSize, projectNames, latest);
+    }
+
+    // Native queries return DATETIME columns as Timestamp or LocalDateTime depending on the driver settings
+    private static LocalDateTime toLocalDateTime(Object value) {
+        return value instanceof Timestamp timestamp ? timestamp.toLocalDateTime() : (LocalDateTime) value;
+    }
+
+    private Cache feedCache() {
+        Cache cache = cacheManager.getCache(CacheConfig.ACTIVITY_FEED);
+        if (cache == null) {
+            throw new IllegalStateException("Cache " + CacheConfig.ACTIVITY_FEED + " is not configured");
+        }
+        return cache;
     }
 }
@@ -0,0 +1,370 @@
+package org.example.service;
+
+import org.example.models.Project;
+import org.example.models.ProjectCostLedger;
+import org.example.models.Task;
+import org.example.models.TimeLog;
+import org.example.models.User;
+import org.example.repository.ProjectCostLedgerRepository;
+import org.example.repository.TimeLogRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Maintains the project_cost_ledger table: logged hours and their cost per project phase.
+ *
+ * Time log and task mutations call in here inside their own transaction. Each change is applied as a
+ * delta with an atomic upsert, and the project's actual_cost is refreshed from its ledger rows, so the
+ * ledger commits or rolls back together with the change that caused it. Logged hours are priced at
+ * the user's cost rate: monthly salary / typical hours per month, times the overhead multiplier.
+ *
+ * Hours are priced at the rate the user has when the change is applied. A nightly job recomputes every
+ * project from the time logs at the current rates, which also reprices history after a salary or
+ * overhead change, logs any drift it finds and replaces the rows; the same rebuild backfills projects
+ * that have time logs but no ledger rows yet.
+ */
+@Service
+public class ProjectCostLedgerService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProjectCostLedgerService.class);
+
+    private final ProjectCostLedgerRepository ledgerRepository;
+    private final TimeLogRepository timeLogRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public ProjectCostLedgerService(ProjectCostLedgerRepository ledgerRepository,
+                                    TimeLogRepository timeLogRepository,
+                                    PlatformTransactionManager transactionManager,
+                                    ApplicationEventPublisher eventPublisher) {
+        this.ledgerRepository = ledgerRepository;
+        this.timeLogRepository = timeLogRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * Record to hold what some logged time contributes to one ledger row.
+     */
+    public record CostEntry(Long organizationId, Long projectId, Long phaseId, BigDecimal hours, BigDecimal cost) {
+        CostEntry negate() {
+            return new CostEntry(organizationId, projectId, phaseId, hours.negate(), cost.negate());
+        }
+    }
+
+    /**
+     * Hourly cost of a user including overhead; zero when the user has no salary set.
+     */
+    public static BigDecimal costRate(User user) {
+        return costRate(user.getMonthlySalary(), user.getTypicalHoursPerMonth(), user.getOverheadMultiplier());
+    }
+
+    public static BigDecimal costRate(BigDecimal monthlySalary, Integer typicalHoursPerMonth, BigDecimal overheadMultiplier) {
+        if (monthlySalary == null || typicalHoursPerMonth == null || typicalHoursPerMonth == 0) {
+            return BigDecimal.ZERO;
+        }
+        BigDecimal hourlyCost = monthlySalary.divide(new BigDecimal(typicalHoursPerMonth), 2, RoundingMode.HALF_UP);
+        return overheadMultiplier != null ? hourlyCost.multiply(overheadMultiplier) : hourlyCost;
+    }
+
+    /**
+     * Captures a time log's current contribution, or null if its task has no project. Take one before
+     * changing a time log and one after saving it, then pass both to {@link #applyTimeLogChange}.
+     */
+    public CostEntry snapshot(TimeLog timeLog) {
+        Task task = timeLog.getTask();
+        Project project = task != null ? task.getProject() : null;
+        if (project == null) {
+            return null;
+        }
+        BigDecimal hours = timeLog.getHoursLogged();
+        return new CostEntry(
+                project.getOrganization().getId(),
+                project.getId(),
+                task.getPhase() != null ? task.getPhase().getId() : ProjectCostLedger.NO_PHASE,
+                hours,
+                hours.multiply(costRate(timeLog.getUser())));
+    }
+
+    public CostEntry entry(Long organizationId, Long projectId, Long phaseId, BigDecimal hours, User user) {
+        return new CostEntry(organizationId, projectId, phaseId != null ? phaseId : ProjectCostLedger.NO_PHASE,
+                hours, hours.multiply(costRate(user)));
+    }
+
+    /**
+     * Applies a time log create (before == null), update, or delete (after == null).
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void applyTimeLogChange(CostEntry before, CostEntry after) {
+        if (Objects.equals(before, after)) {
+            return;
+        }
+        Map<LedgerKey, CostEntry> deltas = new LinkedHashMap<>();
+        if (before != null) {
+            accumulate(deltas, before.negate());
+        }
+        if (after != null) {
+            accumulate(deltas, after);
+        }
+        applyDeltas(deltas);
+    }
+
+    /**
+     * Applies newly created time logs, e.g. a submitted timesheet.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void applyTimeLogs(Collection<CostEntry> entries) {
+        Map<LedgerKey, CostEntry> deltas = new LinkedHashMap<>();
+        entries.forEach(entry -> accumulate(deltas, entry));
+        applyDeltas(deltas);
+    }
+
+    /**
+     * Moves the time logged on tasks to another project phase. Call before the tasks are changed,
+     * since it reads their current phase from the database.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void applyTaskMove(Collection<Long> taskIds, Long organizationId, Long projectId, Long phaseId) {
+        if (taskIds.isEmpty()) {
+            return;
+        }
+        Map<LedgerKey, CostEntry> deltas = new LinkedHashMap<>();
+        for (CostEntry entry : toEntries(timeLogRepository.sumCostBasisByTasks(taskIds))) {
+            accumulate(deltas, entry.negate());
+            accumulate(deltas, new CostEntry(organizationId, projectId,
+                    phaseId != null ? phaseId : ProjectCostLedger.NO_PHASE, entry.hours(), entry.cost()));
+        }
+        applyDeltas(deltas);
+    }
+
+    /**
+     * Removes the time logged on tasks that are about to be deleted (their time logs are deleted with them).
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void applyTaskRemoval(Collection<Long> taskIds) {
+        if (taskIds.isEmpty()) {
+            return;
+        }
+        Map<LedgerKey, CostEntry> deltas = new LinkedHashMap<>();
+        toEntries(timeLogRepository.sumCostBasisByTasks(taskIds)).forEach(entry -> accumulate(deltas, entry.negate()));
+        applyDeltas(deltas);
+    }
+
+    /**
+     * Drops the ledger row of a phase that is being deleted together with its tasks and time logs.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void applyPhaseRemoval(Long organizationId, Long projectId, Long phaseId) {
+        if (ledgerRepository.deletePhase(projectId, phaseId) > 0) {
+            ledgerRepository.refreshProjectActualCost(projectId);
+            eventPublisher.publishEvent(new FinancialDataChangedEvent(organizationId));
+        }
+    }
+
+    /**
+     * Drops the ledger rows of a project that is being deleted; the caller publishes the financial change.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void applyProjectRemoval(Long projectId) {
+        ledgerRepository.deleteProject(projectId);
+    }
+
+    /**
+     * Ledger totals of a project keyed by phase id ({@link ProjectCostLedger#NO_PHASE} for tasks without a phase).
+     */
+    @Transactional(readOnly = true)
+    public Map<Long, ProjectCostLedger> getLedger(Long projectId) {
+        Map<Long, ProjectCostLedger> ledger = new HashMap<>();
+        for (ProjectCostLedger row : ledgerRepository.findByProjectId(projectId)) {
+            ledger.put(row.getPhaseId(), row);
+        }
+        return ledger;
+    }
+
+    /**
+     * Backfills projects that have time logs but no ledger rows yet (first start after this table
+     * was introduced, or a manually truncated table).
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void initializeMissingLedgers() {
+        try {
+            List<Long> projectIds = ledgerRepository.findProjectIdsWithoutLedger();
+            for (Long projectId : projectIds) {
+                rebuild(projectId);
+            }
+            if (!projectIds.isEmpty()) {
+                logger.info("Initialized cost ledgers for {} projects", projectIds.size());
+            }
+        } catch (Exception e) {
+            logger.error("Failed to initialize cost ledgers: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Recomputes every project's ledger from the time logs and corrects any drift.
+     * Runs nightly by default.
+     */
+    @Scheduled(cron = "${app.cost-ledger.verify-cron:0 45 2 * * *}")
+    public void verifyAllLedgers() {
+        long start = System.currentTimeMillis();
+        TreeSet<Long> projectIds = new TreeSet<>(ledgerRepository.findDistinctProjectIds());
+        projectIds.addAll(ledgerRepository.findProjectIdsWithoutLedger());
+
+        int corrected = 0;
+        for (Long projectId : projectIds) {
+            try {
+                if (rebuild(projectId)) {
+                    corrected++;
+                }
+            } catch (Exception e) {
+                logger.error("Failed to verify cost ledger for project {}: {}", projectId, e.getMessage(), e);
+            }
+        }
+        logger.info("Verified cost ledgers for {} projects in {} ms; {} corrected",
+                projectIds.size(), System.currentTimeMillis() - start, corrected);
+    }
+
+    /**
+     * Recomputes one project's ledger in its own transaction.
+     *
+     * The ledger rows are locked before the time logs are read, so a time log change either commits
+     * before the rebuild reads (and is included) or waits and applies its delta on top of the result.
+     *
+     * @return true if the stored ledger differed from the time logs and was corrected
+     */
+    public boolean rebuild(Long projectId) {
+        Boolean corrected = transactionTemplate.execute(status -> {
+            List<ProjectCostLedger> stored = ledgerRepository.findByProjectIdForUpdate(projectId);
+            Map<Long, ProjectCostLedger> expected = new HashMap<>();
+            for (CostEntry entry : toEntries(timeLogRepository.sumCostBasisByProject(projectId))) {
+                ProjectCostLedger row = expected.computeIfAbsent(entry.phaseId(), phaseId -> newRow(entry));
+                row.setHoursLogged(row.getHoursLogged().add(entry.hours()));
+                row.setCost(row.getCost().add(entry.cost()));
+            }
+
+            Map<Long, ProjectCostLedger> actual = new HashMap<>();
+            for (ProjectCostLedger row : stored) {
+                if (row.getHoursLogged().signum() != 0 || row.getCost().signum() != 0) {
+                    actual.put(row.getPhaseId(), row);
+                }
+            }
+            boolean drifted = !sameTotals(expected, actual);
+            // Phases whose tasks all moved elsewhere are left at zero by the deltas
+            boolean hasEmptyRows = actual.size() != stored.size();
+            if (!drifted && !hasEmptyRows) {
+                return false;
+            }
+
+            if (drifted && !stored.isEmpty()) {
+                logger.warn("Cost ledger for project {} drifted from time logs ({} stored phases, {} expected); rebuilding",
+                        projectId, actual.size(), expected.size());
+            }
+            ledgerRepository.deleteAllInBatch(stored);
+            ledgerRepository.saveAll(expected.values());
+            ledgerRepository.flush();
+            ledgerRepository.refreshProjectActualCost(projectId);
+            if (drifted) {
+                Long organizationId = !expected.isEmpty()
+                        ? expected.values().iterator().next().getOrganizationId()
+                        : stored.get(0).getOrganizationId();
+                eventPublisher.publishEvent(new FinancialDataChangedEvent(organizationId));
+            }
+            return drifted;
+        });
+        return Boolean.TRUE.equals(corrected);
+    }
+
+    private void applyDeltas(Map<LedgerKey, CostEntry> deltas) {
+        Set<Long> projectIds = new LinkedHashSet<>();
+        Set<Long> organizationIds = new LinkedHashSet<>();
+        for (CostEntry delta : deltas.values()) {
+            if (delta.hours().signum() == 0 && delta.cost().signum() == 0) {
+                continue;
+            }
+            ledgerRepository.applyDelta(delta.organizationId(), delta.projectId(), delta.phaseId(), delta.hours(), delta.cost());
+            projectIds.add(delta.projectId());
+            organizationIds.add(delta.organizationId());
+        }
+        projectIds.forEach(ledgerRepository::refreshProjectActualCost);
+        organizationIds.forEach(organizationId -> eventPublisher.publishEvent(new FinancialDataChangedEvent(organizationId)));
+    }
+
+    private void accumulate(Map<LedgerKey, CostEntry> deltas, CostEntry entry) {
+        deltas.merge(new LedgerKey(entry.projectId(), entry.phaseId()), entry, (a, b) -> new CostEntry(
+                a.organizationId(), a.projectId(), a.phaseId(), a.hours().add(b.hours()), a.cost().add(b.cost())));
+    }
+
+    private List<CostEntry> toEntries(List<Object[]> rows) {
+        return rows.stream()
+                .map(row -> {
+                    BigDecimal hours = toBigDecimal(row[7]);
+                    BigDecimal rate = costRate(toBigDecimalOrNull(row[4]), (Integer) row[5], toBigDecimalOrNull(row[6]));
+                    return new CostEntry((Long) row[0], (Long) row[1],
+                            row[2] != null ? (Long) row[2] : ProjectCostLedger.NO_PHASE,
+                            hours, hours.multiply(rate));
+                })
+                .toList();
+    }
+
+    private boolean sameTotals(Map<Long, ProjectCostLedger> expected, Map<Long, ProjectCostLedger> actual) {
+        if (expected.size() != actual.size()) {
+            return false;
+        }
+        for (Map.Entry<Long, ProjectCostLedger> entry : expected.entrySet()) {
+            ProjectCostLedger a = actual.get(entry.getKey());
+            ProjectCostLedger e = entry.getValue();
+            if (a == null
+                    || a.getHoursLogged().compareTo(e.getHoursLogged()) != 0
+                    || a.getCost().compareTo(e.getCost()) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private ProjectCostLedger newRow(CostEntry entry) {
+        ProjectCostLedger row = new ProjectCostLedger();
+        row.setOrganizationId(entry.organizationId());
+        row.setProjectId(entry.projectId());
+        row.setPhaseId(entry.phaseId());
+        return row;
+    }
+
+    private BigDecimal toBigDecimal(Object value) {
+        BigDecimal result = toBigDecimalOrNull(value);
+        return result != null ? result : BigDecimal.ZERO;
+    }
+
+    private BigDecimal toBigDecimalOrNull(Object value) {
+        if (value == null) {
+            return null;
+        }
+        if (value instanceof BigDecimal) {
+            return (BigDecimal) value;
+        }
+        return new BigDecimal(value.toString());
+    }
+
+    private record LedgerKey(Long projectId, Long phaseId) {}
+}
@@ -0,0 +1,11 @@
+package org.example.service;
+
+/**
+ * Published when a project is deleted.
+ * ProjectActivityService drops the organization's cached activity feed on every node, so the deleted
+ * project no longer shows up in the organization timeline.
+ *
+ * @param organizationId The organization the project belonged to
+ * @param projectId      The deleted project
+ */
+public record ProjectDeletedEvent(Long organizationId, Long projectId) {}
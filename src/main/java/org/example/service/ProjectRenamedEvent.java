@@ -0,0 +1,11 @@
+package org.example.service;
+
+/**
+ * Published when a project is renamed.
+ * ProjectActivityService drops the organization's cached activity feed, which shows project names in
+ * the organization timeline.
+ *
+ * @param organizationId The organization the project belongs to
+ * @param projectId      The renamed project
+ */
+public record ProjectRenamedEvent(Long organizationId, Long projectId) {}
@@ -4,6 +4,7 @@ package org.example.service;
 import org.example.dto.ProjectCreateDto;
 import org.example.dto.ProjectUpdateDto;
 import org.example.models.Project;
+import org.example.models.ResourceAssignment;
 import org.example.models.User;
 import org.example.repository.ProjectRepository;
 import org.example.repository.TaskRepository; // Import TaskRepository
@@ -13,18 +14,17 @@ import org.example.models.Client;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.ArrayList;
@@ -52,9 +52,15 @@ public class ProjectService {
     private final PhaseService phaseService;
     private final org.example.repository.ProjectAttachmentRepository projectAttachmentRepository;
     private final FileStorageService fileStorageService;
+    private final FinancialRollupService financialRollupService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CurrentUserService currentUserService;
+    private final SequenceService sequenceService;
+    private final org.example.repository.ResourceAssignmentRepository resourceAssignmentRepository;
+    private final ProjectCostLedgerService costLedgerService;
 
     @Autowired
-    public ProjectService(ProjectRepository projectRepository, UserRepository userRepository, TaskRepository taskRepository, ClientRepository clientRepository, AuditService auditService, PhaseService phaseService, FileStorageService fileStorageService, org.example.repository.ProjectAttachmentRepository projectAttachmentRepository) {
+    public ProjectService(ProjectRepository projectRepository, UserRepository userRepository, TaskRepository taskRepository, ClientRepository clientRepository, AuditService auditService, PhaseService phaseService, FileStorageService fileStorageService, org.example.repository.ProjectAttachmentRepository projectAttachmentRepository, FinancialRollupService financialRollupService, ApplicationEventPublisher eventPublisher, CurrentUserService currentUserService, SequenceService sequenceService, org.example.repository.ResourceAssignmentRepository resourceAssignmentRepository, ProjectCostLedgerService costLedgerService) {
         this.projectRepository = projectRepository;
         this.userRepository = userRepository;
         this.taskRepository = taskRepository;
@@ -63,24 +69,17 @@ public class ProjectService {
         this.phaseService = phaseService;
         this.fileStorageService = fileStorageService;
         this.projectAttachmentRepository = projectAttachmentRepository;
+        this.financialRollupService = financialRollupService;
+        this.eventPublisher = eventPublisher;
+        this.currentUserService = currentUserService;
+        this.sequenceService = sequenceService;
+        this.resourceAssignmentRepository = resourceAssignmentRepository;
+        this.costLedgerService = costLedgerService;
     }
 
+    // Entity reference for audit entries; organization checks use currentUserService.get() directly
     private User getCurrentAuthenticatedUser() {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        if (authentication == null || !authentication.isAuthenticated() || authentication.getPrincipal().equals("anonymousUser")) {
-            // Return null or throw exception. Since createProject passes username, this might be used in updateProject.
-            // For updates, we expect authentication.
-            throw new IllegalStateException("No authenticated user found.");
-        }
-        String username;
-        Object principal = authentication.getPrincipal();
-        if (principal instanceof UserDetails) {
-            username = ((UserDetails) principal).getUsername();
-        } else {
-            username = principal.toString();
-        }
-        return userRepository.findByUsername(username)
-                .orElseThrow(() -> new IllegalStateException("Authenticated user '" + username + "' not found in database."));
+        return currentUserService.userReference();
     }
 
     /**
@@ -93,25 +92,31 @@ public class ProjectService {
         int year = LocalDate.now().getYear();
         String prefix = orgCode + "-" + year + "-PRJ-";
         
-        Optional<Project> latestProject = projectRepository
-                .findTopByOrganization_IdAndProjectNumberStartingWithOrderByProjectNumberDesc(organization.getId(), prefix);
-        
-        int nextNumber = 1;
-        if (latestProject.isPresent()) {
-            String lastProjectNumber = latestProject.get().getProjectNumber();
-            String lastNumberStr = lastProjectNumber.substring(prefix.length());
-            try {
-                nextNumber = Integer.parseInt(lastNumberStr) + 1;
-            } catch (NumberFormatException e) {
-                logger.warn("Could not parse project number: {}. Starting from 1.", lastProjectNumber);
-                nextNumber = 1;
-            }
-        }
+        long nextNumber = sequenceService.next(SequenceService.PROJECT, organization.getId() + ":" + prefix,
+                () -> findHighestProjectNumber(organization.getId(), prefix));
         
         String generatedNumber = String.format("%s%04d", prefix, nextNumber);
         logger.info("Generated project number: {} for organization: {}", generatedNumber, organization.getName());
         return generatedNumber;
     }
+
+    /**
+     * Highest sequence already used with the prefix; seeds the project sequence the first time it is used.
+     */
+    private long findHighestProjectNumber(Long organizationId, String prefix) {
+        Optional<Project> latestProject = projectRepository
+                .findTopByOrganization_IdAndProjectNumberStartingWithOrderByProjectNumberDesc(organizationId, prefix);
+        if (latestProject.isEmpty()) {
+            return 0;
+        }
+        String lastProjectNumber = latestProject.get().getProjectNumber();
+        try {
+            return Integer.parseInt(lastProjectNumber.substring(prefix.length()));
+        } catch (NumberFormatException e) {
+            logger.warn("Could not parse project number: {}. Starting from 1.", lastProjectNumber);
+            return 0;
+        }
+    }
     
     /**
      * Generate organization code from name (4 characters, uppercase)
@@ -143,7 +148,7 @@ public class ProjectService {
         Optional<Project> project = projectRepository.findById(projectId);
         if (project.isPresent()) {
             try {
-                User currentUser = getCurrentAuthenticatedUser();
+                CurrentUser currentUser = currentUserService.get();
                 validateProjectAccess(project.get(), currentUser);
             } catch (Exception e) {
                 // Return empty if access is denied or user not found (e.g. valid ID but wrong org)
@@ -157,7 +162,7 @@ public class ProjectService {
         Optional<Project> project = projectRepository.findByIdWithClient(projectId);
         if (project.isPresent()) {
             try {
-                 User currentUser = getCurrentAuthenticatedUser();
+                 CurrentUser currentUser = currentUserService.get();
                  validateProjectAccess(project.get(), currentUser);
             } catch (Exception e) {
                  return Optional.empty();
@@ -183,22 +188,69 @@ public class ProjectService {
             return List.of(); // Return empty list
         }
         
-        // This would require adding a method to ProjectRepository
-        // For now, let's filter from all projects (not optimal for large datasets)
-        List<Project> projects = projectRepository.findAll().stream()
-                .filter(project -> Objects.equals(project.getOrganization(), user.getOrganization()))
-                .collect(Collectors.toList());
-        
-        // Initialize client relationship to avoid lazy loading issues during JSON serialization
-        projects.forEach(project -> {
-            if (project.getClient() != null) {
-                project.getClient().getId(); // Trigger lazy load
-            }
-        });
+        // Org-scoped query with the client fetch-joined, so no per-row lazy loads are needed
+        List<Project> projects = projectRepository.findByOrganizationIdWithClient(user.getOrganization().getId());
         
         return projects;
     }
 
+    /**
+     * Retrieves one page of the user's organization projects using keyset (seek) pagination
+     * ordered by (updatedAt DESC, id DESC). The cost of a page depends only on the page size,
+     * not on how deep into the list the caller has scrolled.
+     *
+     * @param username The username of the user
+     * @param cursorUpdatedAt updatedAt of the last project on the previous page, or null for the first page
+     * @param cursorId id of the last project on the previous page, or null for the first page
+     * @param size The number of projects per page
+     * @return A map containing the projects and the cursor for the next page
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Object> findProjectsByOrganizationKeyset(String username, LocalDateTime cursorUpdatedAt,
+                                                                Long cursorId, int size) {
+        if (size < 1 || size > 200) {
+            throw new IllegalArgumentException("Page size must be between 1 and 200.");
+        }
+        if ((cursorUpdatedAt == null) != (cursorId == null)) {
+            throw new IllegalArgumentException("cursorUpdatedAt and cursorId must be provided together.");
+        }
+
+        User user = userRepository.findByUsername(username)
+                .orElseThrow(() -> new UsernameNotFoundException("User not found: " + username));
+
+        Map<String, Object> response = new HashMap<>();
+        if (user.getOrganization() == null) {
+            logger.warn("User {} does not belong to any organization. Returning empty project list.", username);
+            response.put("projects", List.of());
+            response.put("hasNext", false);
+            return response;
+        }
+
+        Long organizationId = user.getOrganization().getId();
+        // Fetch one extra row to know whether another page exists without a COUNT query
+        Pageable limit = PageRequest.of(0, size + 1);
+        List<Project> projects = cursorId == null
+                ? projectRepository.findFirstKeysetPageByOrganization(organizationId, limit)
+                : projectRepository.findKeysetPageByOrganizationAfter(organizationId, cursorUpdatedAt, cursorId, limit);
+
+        boolean hasNext = projects.size() > size;
+        if (hasNext) {
+            projects = new ArrayList<>(projects.subList(0, size));
+        }
+
+        response.put("projects", projects);
+        response.put("hasNext", hasNext);
+        if (hasNext) {
+            Project last = projects.get(projects.size() - 1);
+            response.put("nextCursorUpdatedAt", last.getUpdatedAt());
+            response.put("nextCursorId", last.getId());
+        }
+
+        logger.info("Retrieved {} projects for user {} via keyset pagination (hasNext: {})",
+                   projects.size(), username, hasNext);
+        return response;
+    }
+
     /**
      * Counts projects by organization.
      *
@@ -332,6 +384,7 @@ public class ProjectService {
             // Don't fail the project creation if phase creation fails
         }
 
+        eventPublisher.publishEvent(new FinancialDataChangedEvent(savedProject.getOrganization().getId()));
         return savedProject;
     }
 
@@ -350,7 +403,9 @@ public class ProjectService {
 
         User currentUser = getCurrentAuthenticatedUser();
         Project projectToUpdate = projectOptional.get();
+        FinancialRollupService.ProjectDimensions rollupDimensionsBefore = financialRollupService.dimensionsOf(projectToUpdate);
         boolean updated = false;
+        boolean renamed = false;
 
         if (projectUpdateDto.getName() != null) {
             String newName = projectUpdateDto.getName().trim();
@@ -369,6 +424,7 @@ public class ProjectService {
                 auditService.logChange(currentUser, "PROJECT", projectId, "UPDATE", "name", projectToUpdate.getName(), newName);
                 projectToUpdate.setName(newName);
                 updated = true;
+                renamed = true;
             }
         }
 
@@ -488,6 +544,13 @@ public class ProjectService {
 
         if (updated) {
             Project savedProject = projectRepository.save(projectToUpdate);
+            // Charge type, stage and status decide which financial rollup group the project's invoices count towards
+            financialRollupService.applyProjectChange(savedProject.getOrganization().getId(), projectId,
+                    rollupDimensionsBefore, financialRollupService.dimensionsOf(savedProject));
+            eventPublisher.publishEvent(new FinancialDataChangedEvent(savedProject.getOrganization().getId()));
+            if (renamed) {
+                eventPublisher.publishEvent(new ProjectRenamedEvent(savedProject.getOrganization().getId(), projectId));
+            }
             logger.info("Project ID {} updated. New name: {}", savedProject.getId(), savedProject.getName());
             return Optional.of(savedProject);
         }
@@ -506,7 +569,7 @@ public class ProjectService {
         }
 
         // Security Check: Verify project belongs to user's organization
-        User currentUser = getCurrentAuthenticatedUser();
+        CurrentUser currentUser = currentUserService.get();
         validateProjectAccess(project, currentUser);
 
         // Check if there are any tasks associated with this project
@@ -527,8 +590,17 @@ public class ProjectService {
         // Save the project to persist the cleared associations before deletion
         projectRepository.save(project);
 
+        // Resource assignments of the project's phases go with them; take them out of the capacity index after commit
+        for (ResourceAssignment assignment : resourceAssignmentRepository.findByProjectId(projectId)) {
+            eventPublisher.publishEvent(new ResourceAssignmentChangedEvent(project.getOrganization().getId(),
+                    ResourceCapacityService.allocationOf(assignment), null));
+        }
+
+        costLedgerService.applyProjectRemoval(projectId);
         projectRepository.deleteById(projectId);
-        logger.info("Project with ID: {} deleted successfully by user: {}", projectId, currentUser.getUsername());
+        eventPublisher.publishEvent(new FinancialDataChangedEvent(project.getOrganization().getId()));
+        eventPublisher.publishEvent(new ProjectDeletedEvent(project.getOrganization().getId(), projectId));
+        logger.info("Project with ID: {} deleted successfully by user: {}", projectId, currentUser.username());
         return true;
     }
 
@@ -541,9 +613,9 @@ public class ProjectService {
      * Validates that the current user has permission to access the project.
      * Throws AccessDeniedException if the user belongs to a different organization.
      */
-    private void validateProjectAccess(Project project, User currentUser) {
-        if (currentUser.getOrganization() == null) {
-             throw new IllegalStateException("User " + currentUser.getUsername() + " is not associated with any organization.");
+    private void validateProjectAccess(Project project, CurrentUser currentUser) {
+        if (!currentUser.hasOrganization()) {
+             throw new IllegalStateException("User " + currentUser.username() + " is not associated with any organization.");
         }
         if (project.getOrganization() == null) {
              // In rare cases where project has no org, we might allow or deny. 
@@ -551,9 +623,9 @@ public class ProjectService {
              throw new IllegalStateException("Project " + project.getId() + " is not associated with any organization.");
         }
         
-        if (!project.getOrganization().getId().equals(currentUser.getOrganization().getId())) {
+        if (!project.getOrganization().getId().equals(currentUser.organizationId())) {
             logger.warn("Security Alert: User {} (Org {}) attempted to access Project {} (Org {})", 
-                    currentUser.getUsername(), currentUser.getOrganization().getId(), 
+                    currentUser.username(), currentUser.organizationId(), 
                     project.getId(), project.getOrganization().getId());
             throw new org.springframework.security.access.AccessDeniedException("Access Denied: You do not have permission to access this project.");
         }
@@ -659,6 +731,7 @@ public class ProjectService {
                 .orElseThrow(() -> new IllegalArgumentException("Project not found with ID: " + projectId));
 
         org.example.models.enums.ProjectStage currentStage = project.getProjectStage();
+        FinancialRollupService.ProjectDimensions rollupDimensionsBefore = financialRollupService.dimensionsOf(project);
 
         // Validation: Prevent backward jumps unless overridden
         if (!allowBackward && currentStage != null && newStage.ordinal() < currentStage.ordinal()) {
@@ -690,7 +763,11 @@ public class ProjectService {
         User currentUser = getCurrentAuthenticatedUser();
         auditService.logChange(currentUser, "PROJECT", projectId, "UPDATE", "stage", String.valueOf(currentStage), String.valueOf(newStage));
 
-        return projectRepository.save(project);
+        Project savedProject = projectRepository.save(project);
+        financialRollupService.applyProjectChange(savedProject.getOrganization().getId(), projectId,
+                rollupDimensionsBefore, financialRollupService.dimensionsOf(savedProject));
+        eventPublisher.publishEvent(new FinancialDataChangedEvent(savedProject.getOrganization().getId()));
+        return savedProject;
     }
 
     /**
@@ -803,8 +880,8 @@ public class ProjectService {
         Project project = projectRepository.findById(projectId)
              .orElseThrow(() -> new IllegalArgumentException("Project not found"));
         
-        User currentUser = getCurrentAuthenticatedUser();
-        if (!project.getOrganization().getId().equals(currentUser.getOrganization().getId())) {
+        CurrentUser currentUser = currentUserService.get();
+        if (!project.getOrganization().getId().equals(currentUser.organizationId())) {
              throw new org.springframework.security.access.AccessDeniedException("Access denied");
         }
 
@@ -866,8 +943,8 @@ public class ProjectService {
              throw new IllegalArgumentException("Attachment does not belong to this project");
         }
 
-        User currentUser = getCurrentAuthenticatedUser(); 
-        if (!attachment.getProject().getOrganization().getId().equals(currentUser.getOrganization().getId())) {
+        CurrentUser currentUser = currentUserService.get();
+        if (!attachment.getProject().getOrganization().getId().equals(currentUser.organizationId())) {
              throw new org.springframework.security.access.AccessDeniedException("Access denied");
         }
 
@@ -888,8 +965,8 @@ public class ProjectService {
         }
          
          // Verify user access (current user)
-         User currentUser = getCurrentAuthenticatedUser(); 
-         if (!attachment.getProject().getOrganization().getId().equals(currentUser.getOrganization().getId())) {
+         CurrentUser currentUser = currentUserService.get();
+         if (!attachment.getProject().getOrganization().getId().equals(currentUser.organizationId())) {
               throw new org.springframework.security.access.AccessDeniedException("Access denied");
          }
 
@@ -0,0 +1,38 @@
+package org.example.service;
+
+/**
+ * Interface for the counter store behind RateLimitingFilter.
+ * Implementations:
+ * - InMemoryRateLimitStore (default): per-node token buckets
+ * - JdbcRateLimitStore (app.rate-limit.store=jdbc): sliding-window counters shared through the
+ *   application database, so limits hold across all nodes behind the load balancer
+ */
+public interface RateLimitStore {
+
+    /**
+     * Record to hold the limit for one endpoint.
+     *
+     * @param burst Requests a client may make in quick succession (per minute for windowed stores)
+     * @param perHour Sustained requests per hour
+     */
+    record Rule(int burst, int perHour) {
+        public static final int MAX_BURST = 16_000;
+
+        public Rule {
+            if (burst < 1 || burst > MAX_BURST || perHour < 1) {
+                throw new IllegalArgumentException("Rate limit burst must be 1-" + MAX_BURST
+                        + " and per-hour at least 1");
+            }
+        }
+    }
+
+    /**
+     * Counts one request against a key if the rule allows it.
+     *
+     * @param key The client key, typically endpoint and client IP
+     * @param rule The limit that applies to the key
+     * @param nowMillis The current time in epoch milliseconds
+     * @return 0 if the request is allowed, otherwise the milliseconds until the client may retry
+     */
+    long tryAcquire(String key, Rule rule, long nowMillis);
+}
@@ -0,0 +1,11 @@
+package org.example.service;
+
+/**
+ * Published when a resource assignment is created, updated or deleted.
+ * ResourceCapacityService applies it to the organization's capacity index after commit.
+ *
+ * @param organizationId The organization the assignment belongs to
+ * @param before         The assignment before the change; null when it was created
+ * @param after          The assignment after the change; null when it was deleted
+ */
+public record ResourceAssignmentChangedEvent(Long organizationId, CapacityIndex.Allocation before, CapacityIndex.Allocation after) {}
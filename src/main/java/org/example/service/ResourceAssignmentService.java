@@ -5,13 +5,12 @@ import org.example.models.ResourceAssignment;
 import org.example.models.User;
 import org.example.repository.ResourceAssignmentRepository;
 import org.example.repository.PhaseRepository;
+import org.example.repository.ProjectRepository;
 import org.example.repository.UserRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -29,37 +28,47 @@ public class ResourceAssignmentService {
 
     private static final Logger logger = LoggerFactory.getLogger(ResourceAssignmentService.class);
 
+    public static final int MAX_HEATMAP_WEEKS = 104;
+
     private final ResourceAssignmentRepository resourceAssignmentRepository;
     private final PhaseRepository phaseRepository;
     private final UserRepository userRepository;
     private final AuditService auditService;
+    private final CurrentUserService currentUserService;
+    private final ProjectRepository projectRepository;
+    private final ProjectCostLedgerService costLedgerService;
+    private final ResourceCapacityService resourceCapacityService;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Autowired
     public ResourceAssignmentService(
             ResourceAssignmentRepository resourceAssignmentRepository,
             PhaseRepository phaseRepository,
             UserRepository userRepository,
-            AuditService auditService) {
+            AuditService auditService,
+            CurrentUserService currentUserService,
+            ProjectRepository projectRepository,
+            ProjectCostLedgerService costLedgerService,
+            ResourceCapacityService resourceCapacityService,
+            ApplicationEventPublisher eventPublisher) {
         this.resourceAssignmentRepository = resourceAssignmentRepository;
         this.phaseRepository = phaseRepository;
         this.userRepository = userRepository;
         this.auditService = auditService;
+        this.currentUserService = currentUserService;
+        this.projectRepository = projectRepository;
+        this.costLedgerService = costLedgerService;
+        this.resourceCapacityService = resourceCapacityService;
+        this.eventPublisher = eventPublisher;
     }
 
+    /**
+     * Helper method to get the currently authenticated user as an entity reference (see CurrentUserService).
+     * @return A lazy reference to the authenticated User.
+     * @throws IllegalStateException if no user is authenticated.
+     */
     private User getCurrentAuthenticatedUser() {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        if (authentication == null || !authentication.isAuthenticated() || authentication.getPrincipal().equals("anonymousUser")) {
-            throw new IllegalStateException("No authenticated user found.");
-        }
-        String username;
-        Object principal = authentication.getPrincipal();
-        if (principal instanceof UserDetails) {
-            username = ((UserDetails) principal).getUsername();
-        } else {
-            username = principal.toString();
-        }
-        return userRepository.findByUsername(username)
-                .orElseThrow(() -> new IllegalStateException("Authenticated user '" + username + "' not found in database."));
+        return currentUserService.userReference();
     }
 
     /**
@@ -119,6 +128,8 @@ public class ResourceAssignmentService {
         assignment.setEndDate(endDate);
         
         ResourceAssignment saved = resourceAssignmentRepository.save(assignment);
+        eventPublisher.publishEvent(new ResourceAssignmentChangedEvent(
+                phase.getProject().getOrganization().getId(), null, ResourceCapacityService.allocationOf(saved)));
         
         User currentUser = getCurrentAuthenticatedUser();
         auditService.logChange(currentUser, "RESOURCE_ASSIGNMENT", saved.getId(), "CREATE", 
@@ -146,6 +157,7 @@ public class ResourceAssignmentService {
         
         ResourceAssignment assignment = resourceAssignmentRepository.findById(assignmentId)
                 .orElseThrow(() -> new IllegalArgumentException("Resource assignment not found with ID: " + assignmentId));
+        CapacityIndex.Allocation before = ResourceCapacityService.allocationOf(assignment);
         
         if (roleOnPhase != null) {
             assignment.setRoleOnPhase(roleOnPhase);
@@ -180,6 +192,8 @@ public class ResourceAssignmentService {
         }
         
         ResourceAssignment saved = resourceAssignmentRepository.save(assignment);
+        eventPublisher.publishEvent(new ResourceAssignmentChangedEvent(
+                saved.getPhase().getProject().getOrganization().getId(), before, ResourceCapacityService.allocationOf(saved)));
         
         User currentUser = getCurrentAuthenticatedUser();
         auditService.logChange(currentUser, "RESOURCE_ASSIGNMENT", saved.getId(), "UPDATE", 
@@ -200,7 +214,10 @@ public class ResourceAssignmentService {
         auditService.logChange(currentUser, "RESOURCE_ASSIGNMENT", assignmentId, "DELETE", 
                 null, null, "Resource assignment deleted");
         
+        CapacityIndex.Allocation before = ResourceCapacityService.allocationOf(assignment);
+        Long organizationId = assignment.getPhase().getProject().getOrganization().getId();
         resourceAssignmentRepository.delete(assignment);
+        eventPublisher.publishEvent(new ResourceAssignmentChangedEvent(organizationId, before, null));
         logger.info("Resource assignment deleted: ID {}", assignmentId);
     }
 
@@ -266,17 +283,10 @@ public class ResourceAssignmentService {
         // 2. Calculate Phase Budget & Remaining
         BigDecimal totalBudget = phase.getContractAmount() != null ? phase.getContractAmount() : BigDecimal.ZERO;
         
-        List<ResourceAssignment> phaseAssignments = resourceAssignmentRepository.findByPhase_Id(phaseId);
-        BigDecimal currentBurn = BigDecimal.ZERO;
-        
-        for (ResourceAssignment assignment : phaseAssignments) {
-            // Skip if we are checking for an existing assignment (to avoid double counting if needed, but here we want total used)
-            // Actually, if we are editing, we might want to exclude the current assignment, but this is a general check.
-            // Let's calculate total USED budget.
-            BigDecimal rate = assignment.getBillingRate() != null ? assignment.getBillingRate() : BigDecimal.ZERO;
-            BigDecimal hours = assignment.getPlannedHours() != null ? new BigDecimal(assignment.getPlannedHours()) : BigDecimal.ZERO;
-            currentBurn = currentBurn.add(rate.multiply(hours));
-        }
+        // Planned burn and project hours come from the organization's in-memory capacity index
+        CapacityIndex capacity = resourceCapacityService.index(phase.getProject().getOrganization().getId());
+        // Total USED budget of the phase, including the assignment being edited if there is one
+        BigDecimal currentBurn = capacity.plannedBurn(phaseId);
         
         BigDecimal remainingBudget = totalBudget.subtract(currentBurn);
         
@@ -287,13 +297,7 @@ public class ResourceAssignmentService {
         }
         
         // 4. Total Hours assigned to User in this Project
-        List<ResourceAssignment> projectAssignments = resourceAssignmentRepository.findByProjectId(phase.getProject().getId());
-        Integer totalProjectHours = 0;
-        for (ResourceAssignment assignment : projectAssignments) {
-            if (assignment.getUser().getId().equals(userId)) {
-                totalProjectHours += (assignment.getPlannedHours() != null ? assignment.getPlannedHours() : 0);
-            }
-        }
+        Integer totalProjectHours = capacity.plannedHours(phase.getProject().getId(), userId);
 
         return java.util.Map.of(
             "burnRate", burnRate,
@@ -314,65 +318,54 @@ public class ResourceAssignmentService {
      * 
      * Formula: Production_Budget = Total_Fee - (Total_Fee * Profit_Margin)
      * Burn = Sum of (plannedHours * burnRate) for all assignments
+     * Actual hours and cost come from the project cost ledger (one row per phase).
      */
     @Transactional(readOnly = true)
     public org.example.dto.BurnRateDto calculateProjectBurnRate(Long projectId) {
-        org.example.models.Project project = phaseRepository.findById(projectId)
-                .map(Phase::getProject)
-                .orElseGet(() -> {
-                    // If not found by phase, try to get project directly
-                    return resourceAssignmentRepository.findByProjectId(projectId).stream()
-                            .findFirst()
-                            .map(a -> a.getPhase().getProject())
-                            .orElse(null);
-                });
-        
-        // Get project directly from repository
-        org.example.models.Project directProject = null;
-        List<Phase> projectPhases = phaseRepository.findByProjectId(projectId);
-        if (!projectPhases.isEmpty()) {
-            directProject = projectPhases.get(0).getProject();
-        }
-        
-        if (directProject == null) {
-            throw new IllegalArgumentException("Project not found with ID: " + projectId);
-        }
+        org.example.models.Project project = projectRepository.findById(projectId)
+                .orElseThrow(() -> new IllegalArgumentException("Project not found with ID: " + projectId));
         
         // Use totalFee if available, otherwise fall back to budget
-        BigDecimal totalFee = directProject.getTotalFee() != null ? directProject.getTotalFee() : 
-                (directProject.getBudget() != null ? directProject.getBudget() : BigDecimal.ZERO);
-        BigDecimal profitMargin = directProject.getTargetProfitMargin() != null ? 
-                directProject.getTargetProfitMargin() : new BigDecimal("0.20");
-        BigDecimal productionBudget = directProject.getProductionBudget();
-        
-        // Calculate current burn from all resource assignments
-        List<ResourceAssignment> assignments = resourceAssignmentRepository.findByProjectId(projectId);
+        BigDecimal totalFee = project.getTotalFee() != null ? project.getTotalFee() : 
+                (project.getBudget() != null ? project.getBudget() : BigDecimal.ZERO);
+        BigDecimal profitMargin = project.getTargetProfitMargin() != null ? 
+                project.getTargetProfitMargin() : new BigDecimal("0.20");
+        BigDecimal productionBudget = project.getProductionBudget();
+        
+        // Planned burn per phase, summed by the database
         BigDecimal currentBurn = BigDecimal.ZERO;
         java.util.Map<Long, BigDecimal> phaseBurnMap = new java.util.HashMap<>();
+        for (Object[] row : resourceAssignmentRepository.sumPlannedBurnByPhase(projectId)) {
+            BigDecimal phaseBurn = row[1] != null ? new BigDecimal(row[1].toString()) : BigDecimal.ZERO;
+            phaseBurnMap.put((Long) row[0], phaseBurn);
+            currentBurn = currentBurn.add(phaseBurn);
+        }
         
-        for (ResourceAssignment assignment : assignments) {
-            BigDecimal burnRate = assignment.getBillingRate() != null ? 
-                    assignment.getBillingRate() : BigDecimal.ZERO;
-            Integer hours = assignment.getPlannedHours() != null ? assignment.getPlannedHours() : 0;
-            BigDecimal assignmentCost = burnRate.multiply(new BigDecimal(hours));
-            currentBurn = currentBurn.add(assignmentCost);
-            
-            // Track per-phase burn
-            Long phaseId = assignment.getPhase().getId();
-            phaseBurnMap.merge(phaseId, assignmentCost, BigDecimal::add);
+        java.util.Map<Long, org.example.models.ProjectCostLedger> ledger = costLedgerService.getLedger(projectId);
+        BigDecimal actualHours = BigDecimal.ZERO;
+        BigDecimal actualCost = BigDecimal.ZERO;
+        for (org.example.models.ProjectCostLedger row : ledger.values()) {
+            actualHours = actualHours.add(row.getHoursLogged());
+            actualCost = actualCost.add(row.getCost());
         }
         
         // Build phase breakdown
         java.util.List<org.example.dto.BurnRateDto.PhaseBurnDto> phaseBreakdown = new java.util.ArrayList<>();
-        for (Phase phase : projectPhases) {
+        for (Phase phase : phaseRepository.findByProjectId(projectId)) {
             BigDecimal phaseBurn = phaseBurnMap.getOrDefault(phase.getId(), BigDecimal.ZERO);
             BigDecimal phaseBudget = phase.getContractAmount() != null ? phase.getContractAmount() : BigDecimal.ZERO;
-            phaseBreakdown.add(new org.example.dto.BurnRateDto.PhaseBurnDto(
-                    phase.getId(), phase.getName(), phaseBudget, phaseBurn));
+            org.example.dto.BurnRateDto.PhaseBurnDto phaseDto = new org.example.dto.BurnRateDto.PhaseBurnDto(
+                    phase.getId(), phase.getName(), phaseBudget, phaseBurn);
+            org.example.models.ProjectCostLedger phaseLedger = ledger.get(phase.getId());
+            phaseDto.setActualHours(phaseLedger != null ? phaseLedger.getHoursLogged() : BigDecimal.ZERO);
+            phaseDto.setActualCost(phaseLedger != null ? money(phaseLedger.getCost()) : BigDecimal.ZERO);
+            phaseBreakdown.add(phaseDto);
         }
         
         org.example.dto.BurnRateDto result = new org.example.dto.BurnRateDto(
                 totalFee, profitMargin, productionBudget, currentBurn);
+        result.setActualHours(actualHours);
+        result.setActualCost(money(actualCost));
         result.setPhaseBreakdown(phaseBreakdown);
         
         logger.info("Project {} burn rate: {} / {} ({}%)", projectId, currentBurn, productionBudget, result.getBurnPercentage());
@@ -380,6 +373,10 @@ public class ResourceAssignmentService {
         return result;
     }
 
+    private BigDecimal money(BigDecimal value) {
+        return value.setScale(2, java.math.RoundingMode.HALF_UP);
+    }
+
     /**
      * Check if a user is over-utilized (>40 hrs/week across all projects).
      * Returns utilization data with project breakdown.
@@ -391,8 +388,8 @@ public class ResourceAssignmentService {
         
         LocalDate weekEnd = weekStart.plusDays(6);
         
-        // Get all assignments for this user that overlap with the given week
-        List<ResourceAssignment> userAssignments = resourceAssignmentRepository.findByUser_Id(userId);
+        // Get the assignments for this user that overlap with the given week
+        List<ResourceAssignment> userAssignments = resourceAssignmentRepository.findByUserOverlapping(userId, weekStart, weekEnd);
         
         int totalHours = 0;
         java.util.List<org.example.dto.UtilizationDto.ProjectAllocationDto> projectAllocations = new java.util.ArrayList<>();
@@ -400,23 +397,11 @@ public class ResourceAssignmentService {
         java.util.Map<Long, String> projectNameMap = new java.util.HashMap<>();
         
         for (ResourceAssignment assignment : userAssignments) {
-            // Check if assignment dates overlap with the week
-            boolean overlaps = true;
-            if (assignment.getStartDate() != null && assignment.getEndDate() != null) {
-                overlaps = !(assignment.getEndDate().isBefore(weekStart) || assignment.getStartDate().isAfter(weekEnd));
-            }
-            
-            if (overlaps && assignment.getPlannedHours() != null) {
+            if (assignment.getPlannedHours() != null) {
                 Long projectId = assignment.getPhase().getProject().getId();
                 String projectName = assignment.getPhase().getProject().getName();
                 
-                // Estimate weekly hours (total planned hours / weeks in assignment period)
-                int assignmentHours = assignment.getPlannedHours();
-                if (assignment.getStartDate() != null && assignment.getEndDate() != null) {
-                    long totalDays = java.time.temporal.ChronoUnit.DAYS.between(assignment.getStartDate(), assignment.getEndDate()) + 1;
-                    long weeks = Math.max(1, totalDays / 7);
-                    assignmentHours = (int) (assignment.getPlannedHours() / weeks);
-                }
+                int assignmentHours = weeklyPlannedHours(assignment.getPlannedHours(), assignment.getStartDate(), assignment.getEndDate());
                 
                 totalHours += assignmentHours;
                 projectHoursMap.merge(projectId, assignmentHours, Integer::sum);
@@ -443,4 +428,108 @@ public class ResourceAssignmentService {
         
         return result;
     }
+
+    /**
+     * Planned hours per user and week for the current user's organization (utilization heatmap).
+     *
+     * Reads the overlapping assignments with one date-bounded query and spreads each assignment's weekly
+     * hours over its weeks with a difference array (+hours in its first week, -hours after its last),
+     * so one prefix-sum pass per user yields every week's total. Weekly hours are estimated the same way
+     * as in checkUserUtilization.
+     *
+     * @param from First day of the range; rounded down to its Monday.
+     * @param to   Last day of the range; rounded down to its Monday (that week is included).
+     * @return Map with weekStarts, maxHoursPerWeek and users (userId, name, hours per week, peakHours, overUtilizedWeeks).
+     */
+    @Transactional(readOnly = true)
+    public java.util.Map<String, Object> getUtilizationHeatmap(LocalDate from, LocalDate to) {
+        if (from == null || to == null || to.isBefore(from)) {
+            throw new IllegalArgumentException("A valid date range (from <= to) is required.");
+        }
+        CurrentUser currentUser = currentUserService.get();
+        if (!currentUser.hasOrganization()) {
+            throw new IllegalArgumentException("You must belong to an organization to view utilization.");
+        }
+
+        LocalDate firstWeek = from.with(java.time.temporal.TemporalAdjusters.previousOrSame(java.time.DayOfWeek.MONDAY));
+        LocalDate lastWeek = to.with(java.time.temporal.TemporalAdjusters.previousOrSame(java.time.DayOfWeek.MONDAY));
+        int weeks = (int) (java.time.temporal.ChronoUnit.DAYS.between(firstWeek, lastWeek) / 7) + 1;
+        if (weeks > MAX_HEATMAP_WEEKS) {
+            throw new IllegalArgumentException("The utilization heatmap covers at most " + MAX_HEATMAP_WEEKS + " weeks.");
+        }
+
+        List<Object[]> users = userRepository.findEnabledNamesByOrganization(currentUser.organizationId());
+        java.util.Map<Long, Integer> userIndex = new java.util.HashMap<>();
+        for (int i = 0; i < users.size(); i++) {
+            userIndex.put((Long) users.get(i)[0], i);
+        }
+
+        // One row of weeks + 1 slots per user; the extra slot takes the -hours of assignments ending in the last week
+        int stride = weeks + 1;
+        int[] deltas = new int[users.size() * stride];
+        for (Object[] row : resourceAssignmentRepository.findPlannedIntervalsInOrganization(
+                currentUser.organizationId(), firstWeek, lastWeek.plusDays(6))) {
+            Integer index = userIndex.get((Long) row[0]);
+            if (index == null) {
+                continue; // disabled user
+            }
+            LocalDate startDate = (LocalDate) row[1];
+            LocalDate endDate = (LocalDate) row[2];
+            int hours = weeklyPlannedHours((Integer) row[3], startDate, endDate);
+            int first = startDate != null ? Math.max(0, weekIndex(firstWeek, startDate)) : 0;
+            int last = endDate != null ? Math.min(weeks - 1, weekIndex(firstWeek, endDate)) : weeks - 1;
+            if (hours == 0 || first > last) {
+                continue;
+            }
+            deltas[index * stride + first] += hours;
+            deltas[index * stride + last + 1] -= hours;
+        }
+
+        List<java.util.Map<String, Object>> rows = new java.util.ArrayList<>(users.size());
+        for (int u = 0; u < users.size(); u++) {
+            int[] weeklyHours = new int[weeks];
+            int running = 0;
+            int peak = 0;
+            int overUtilized = 0;
+            for (int w = 0; w < weeks; w++) {
+                running += deltas[u * stride + w];
+                weeklyHours[w] = running;
+                peak = Math.max(peak, running);
+                if (running > org.example.dto.UtilizationDto.MAX_HOURS_PER_WEEK) {
+                    overUtilized++;
+                }
+            }
+            Object[] user = users.get(u);
+            java.util.Map<String, Object> userRow = new java.util.LinkedHashMap<>();
+            userRow.put("userId", user[0]);
+            userRow.put("name", user[1] != null ? user[1] : user[2]);
+            userRow.put("hours", weeklyHours);
+            userRow.put("peakHours", peak);
+            userRow.put("overUtilizedWeeks", overUtilized);
+            rows.add(userRow);
+        }
+
+        java.util.Map<String, Object> heatmap = new java.util.LinkedHashMap<>();
+        heatmap.put("weekStarts", firstWeek.datesUntil(lastWeek.plusDays(1), java.time.Period.ofWeeks(1)).toList());
+        heatmap.put("maxHoursPerWeek", org.example.dto.UtilizationDto.MAX_HOURS_PER_WEEK);
+        heatmap.put("users", rows);
+        return heatmap;
+    }
+
+    /**
+     * Estimated weekly hours of an assignment: total planned hours / weeks in the assignment period,
+     * or all planned hours every week when the assignment has no start or end date.
+     */
+    private static int weeklyPlannedHours(int plannedHours, LocalDate startDate, LocalDate endDate) {
+        if (startDate == null || endDate == null) {
+            return plannedHours;
+        }
+        long totalDays = java.time.temporal.ChronoUnit.DAYS.between(startDate, endDate) + 1;
+        long weeks = Math.max(1, totalDays / 7);
+        return (int) (plannedHours / weeks);
+    }
+
+    private static int weekIndex(LocalDate firstWeek, LocalDate date) {
+        return (int) Math.floorDiv(java.time.temporal.ChronoUnit.DAYS.between(firstWeek, date), 7);
+    }
 }
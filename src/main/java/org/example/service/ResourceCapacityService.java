@@ -0,0 +1,199 @@
+package org.example.service;
+
+import org.example.config.CacheConfig;
+import org.example.models.ResourceAssignment;
+import org.example.repository.ResourceAssignmentRepository;
+import org.example.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Answers capacity questions for the planning board (availability, allocation conflicts, who is free)
+ * from an in-memory CapacityIndex per organization instead of scanning assignments in the database.
+ *
+ * An organization's index is built with two queries on first use and cached in capacityIndex
+ * (see CacheConfig). ResourceAssignmentService publishes every assignment change; PhaseService and
+ * ProjectService publish the removal of the assignments their deletes take with them. Each change bumps
+ * the organization's capacityIndex version with the changing transaction (see CacheVersionService), and
+ * every read checks that version first, so other nodes rebuild their index on the next request. On
+ * this node the change is applied to the cached index after commit. A change that arrives while the
+ * index is being built evicts it instead, since the build may have read the rows before the change was
+ * committed. The cache TTL (app.cache.capacity-index.ttl) bounds how long new or disabled members of
+ * the organization, and renamed users, take to show up.
+ */
+@Service
+public class ResourceCapacityService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ResourceCapacityService.class);
+
+    private final ResourceAssignmentRepository resourceAssignmentRepository;
+    private final UserRepository userRepository;
+    private final CurrentUserService currentUserService;
+    private final CacheManager cacheManager;
+    private final CacheVersionService cacheVersions;
+
+    public ResourceCapacityService(ResourceAssignmentRepository resourceAssignmentRepository,
+                                   UserRepository userRepository,
+                                   CurrentUserService currentUserService,
+                                   CacheManager cacheManager,
+                                   CacheVersionService cacheVersions) {
+        this.resourceAssignmentRepository = resourceAssignmentRepository;
+        this.userRepository = userRepository;
+        this.currentUserService = currentUserService;
+        this.cacheManager = cacheManager;
+        this.cacheVersions = cacheVersions;
+    }
+
+    public static CapacityIndex.Allocation allocationOf(ResourceAssignment assignment) {
+        return CapacityIndex.Allocation.of(
+                assignment.getId(),
+                assignment.getUser().getId(),
+                assignment.getPhase().getId(),
+                assignment.getPhase().getProject().getId(),
+                assignment.getStartDate(),
+                assignment.getEndDate(),
+                assignment.getAllocatedPercentage(),
+                assignment.getPlannedHours(),
+                assignment.getBillingRate());
+    }
+
+    /**
+     * The organization's capacity index, built on first use and rebuilt after changes made on other nodes.
+     */
+    public CapacityIndex index(Long organizationId) {
+        Cache cache = capacityCache();
+        cacheVersions.evictIfStale(cache, organizationId);
+        return cache.get(organizationId, () -> load(organizationId));
+    }
+
+    /**
+     * Allocations of a user that overlap [from, to] and whether the user can take on another
+     * percentage of allocation throughout that range.
+     *
+     * @param excludeAssignmentId an assignment to leave out (the one being edited), or null
+     */
+    public Map<String, Object> findConflicts(Long userId, LocalDate from, LocalDate to,
+                                             BigDecimal percentage, Long excludeAssignmentId) {
+        validateRange(from, to);
+        CapacityIndex index = currentIndex();
+        if (!index.isMember(userId)) {
+            throw new IllegalArgumentException("User not found in your organization: " + userId);
+        }
+
+        List<Map<String, Object>> overlapping = new ArrayList<>();
+        for (CapacityIndex.Allocation allocation : index.overlapping(userId, from, to)) {
+            if (allocation.assignmentId().equals(excludeAssignmentId)) {
+                continue;
+            }
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("assignmentId", allocation.assignmentId());
+            item.put("projectId", allocation.projectId());
+            item.put("phaseId", allocation.phaseId());
+            item.put("startDate", allocation.startDate());
+            item.put("endDate", allocation.endDate());
+            item.put("allocatedPercentage", allocation.percentage());
+            overlapping.add(item);
+        }
+        BigDecimal free = index.freePercentage(userId, from, to, excludeAssignmentId);
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("userId", userId);
+        result.put("from", from);
+        result.put("to", to);
+        result.put("peakPercentage", index.peakPercentage(userId, from, to, excludeAssignmentId));
+        result.put("freePercentage", free);
+        result.put("available", percentage == null || free.compareTo(percentage) >= 0);
+        result.put("overlapping", overlapping);
+        return result;
+    }
+
+    /**
+     * Members of the current user's organization who have at least the given percentage unallocated
+     * on every day in [from, to], most available first.
+     */
+    public List<Map<String, Object>> findFreeUsers(LocalDate from, LocalDate to, BigDecimal percentage) {
+        validateRange(from, to);
+        if (percentage == null || percentage.signum() < 0 || percentage.compareTo(new BigDecimal("100")) > 0) {
+            throw new IllegalArgumentException("Percentage must be between 0 and 100.");
+        }
+        CapacityIndex index = currentIndex();
+
+        List<Map<String, Object>> free = new ArrayList<>();
+        for (CapacityIndex.Member member : index.members()) {
+            BigDecimal freePercentage = index.freePercentage(member.userId(), from, to, null);
+            if (freePercentage.compareTo(percentage) >= 0) {
+                Map<String, Object> item = new LinkedHashMap<>();
+                item.put("userId", member.userId());
+                item.put("name", member.name());
+                item.put("freePercentage", freePercentage);
+                free.add(item);
+            }
+        }
+        free.sort((a, b) -> ((BigDecimal) b.get("freePercentage")).compareTo((BigDecimal) a.get("freePercentage")));
+        return free;
+    }
+
+    // Runs in the publishing transaction, so the version bump commits with the change
+    @EventListener
+    public void onAssignmentChanged(ResourceAssignmentChangedEvent event) {
+        Cache cache = capacityCache();
+        cacheVersions.bump(cache, event.organizationId(), () -> {
+            Cache.ValueWrapper cached = cache.get(event.organizationId());
+            if (cached != null && cached.get() instanceof CapacityIndex index) {
+                index.apply(event.before(), event.after());
+            } else {
+                // Not cached, or still loading: evicting waits for a load in progress and drops its result
+                cache.evict(event.organizationId());
+            }
+        });
+    }
+
+    private CapacityIndex load(Long organizationId) {
+        long start = System.currentTimeMillis();
+        List<CapacityIndex.Member> members = new ArrayList<>();
+        for (Object[] row : userRepository.findEnabledNamesByOrganization(organizationId)) {
+            members.add(new CapacityIndex.Member((Long) row[0], row[1] != null ? (String) row[1] : (String) row[2]));
+        }
+        List<CapacityIndex.Allocation> allocations = new ArrayList<>();
+        for (Object[] row : resourceAssignmentRepository.findCapacityRowsByOrganization(organizationId)) {
+            allocations.add(CapacityIndex.Allocation.of((Long) row[0], (Long) row[1], (Long) row[2], (Long) row[3],
+                    (LocalDate) row[4], (LocalDate) row[5], (BigDecimal) row[6], (Integer) row[7], (BigDecimal) row[8]));
+        }
+        logger.debug("Built capacity index for organization {} ({} members, {} allocations) in {} ms",
+                organizationId, members.size(), allocations.size(), System.currentTimeMillis() - start);
+        return new CapacityIndex(members, allocations);
+    }
+
+    private CapacityIndex currentIndex() {
+        CurrentUser currentUser = currentUserService.get();
+        if (!currentUser.hasOrganization()) {
+            throw new IllegalArgumentException("You must belong to an organization to plan resources.");
+        }
+        return index(currentUser.organizationId());
+    }
+
+    private void validateRange(LocalDate from, LocalDate to) {
+        if (from == null || to == null || to.isBefore(from)) {
+            throw new IllegalArgumentException("A valid date range (from <= to) is required.");
+        }
+    }
+
+    private Cache capacityCache() {
+        Cache cache = cacheManager.getCache(CacheConfig.CAPACITY_INDEX);
+        if (cache == null) {
+            throw new IllegalStateException("Cache " + CacheConfig.CAPACITY_INDEX + " is not configured");
+        }
+        return cache;
+    }
+}
@@ -0,0 +1,162 @@
+package org.example.service;
+
+import org.example.models.Permission;
+import org.example.models.Role;
+import org.example.repository.RoleRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Precomputed role -> permission lookup used by PermissionService and UserDetailsServiceImpl.
+ *
+ * Every permission name gets a dense ordinal and every role a BitSet over those ordinals, built
+ * from one scalar query. A permission check is then a bit test per role the user holds instead
+ * of streaming each role's Permission entities.
+ *
+ * The index is versioned: invalidate() bumps the version (again after commit when called inside
+ * a transaction) and the next lookup rebuilds it. A build that was overtaken by an invalidation
+ * is used once but never installed. Roles the index does not know yet (created since the last
+ * build) fall back to their own permission collection.
+ */
+@Component
+public class RolePermissionIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(RolePermissionIndex.class);
+
+    private final RoleRepository roleRepository;
+    private final AtomicLong version = new AtomicLong();
+    private volatile Snapshot snapshot;
+
+    public RolePermissionIndex(RoleRepository roleRepository) {
+        this.roleRepository = roleRepository;
+    }
+
+    private record Snapshot(long version, Map<String, Integer> ordinals, String[] names, Map<String, BitSet> roles) {}
+
+    /**
+     * Whether any of the roles grants the permission.
+     */
+    public boolean grants(Collection<Role> roles, String permissionName) {
+        if (roles == null || roles.isEmpty()) {
+            return false;
+        }
+        Snapshot current = current();
+        Integer ordinal = current.ordinals().get(permissionName);
+        for (Role role : roles) {
+            BitSet bits = current.roles().get(role.getName());
+            if (bits == null) {
+                if (hasPermissionEntity(role, permissionName)) {
+                    return true;
+                }
+            } else if (ordinal != null && bits.get(ordinal)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Names of all permissions granted by the roles, in a stable order.
+     */
+    public Set<String> permissionNames(Collection<Role> roles) {
+        Set<String> names = new LinkedHashSet<>();
+        if (roles == null || roles.isEmpty()) {
+            return names;
+        }
+        Snapshot current = current();
+        BitSet combined = new BitSet(current.names().length);
+        for (Role role : roles) {
+            BitSet bits = current.roles().get(role.getName());
+            if (bits != null) {
+                combined.or(bits);
+            } else if (role.getPermissions() != null) {
+                role.getPermissions().forEach(permission -> names.add(permission.getName()));
+            }
+        }
+        for (int i = combined.nextSetBit(0); i >= 0; i = combined.nextSetBit(i + 1)) {
+            names.add(current.names()[i]);
+        }
+        return names;
+    }
+
+    /**
+     * Drops the index after roles or their permissions change.
+     */
+    public void invalidate() {
+        version.incrementAndGet();
+        // Bump again once the change is visible, so a rebuild that ran against uncommitted data is not kept
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    version.incrementAndGet();
+                }
+            });
+        }
+    }
+
+    private Snapshot current() {
+        Snapshot current = snapshot;
+        long expectedVersion = version.get();
+        if (current != null && current.version() == expectedVersion) {
+            return current;
+        }
+        Snapshot built = build(expectedVersion);
+        if (version.get() == expectedVersion) {
+            snapshot = built;
+        }
+        return built;
+    }
+
+    private Snapshot build(long buildVersion) {
+        List<Object[]> rows = roleRepository.findRolePermissionNames();
+
+        TreeSet<String> permissionNames = new TreeSet<>();
+        for (Object[] row : rows) {
+            if (row[1] != null) {
+                permissionNames.add((String) row[1]);
+            }
+        }
+        String[] names = permissionNames.toArray(new String[0]);
+        Map<String, Integer> ordinals = new HashMap<>();
+        for (int i = 0; i < names.length; i++) {
+            ordinals.put(names[i], i);
+        }
+
+        Map<String, BitSet> roles = new HashMap<>();
+        for (Object[] row : rows) {
+            BitSet bits = roles.computeIfAbsent((String) row[0], k -> new BitSet(names.length));
+            if (row[1] != null) {
+                bits.set(ordinals.get((String) row[1]));
+            }
+        }
+
+        logger.debug("Built role permission index v{}: {} roles, {} permissions", buildVersion, roles.size(), names.length);
+        return new Snapshot(buildVersion, Map.copyOf(ordinals), names, Map.copyOf(roles));
+    }
+
+    private boolean hasPermissionEntity(Role role, String permissionName) {
+        if (role.getPermissions() == null) {
+            return false;
+        }
+        for (Permission permission : role.getPermissions()) {
+            if (permission.getName().equals(permissionName)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -7,11 +7,13 @@ import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Primary;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
+import software.amazon.awssdk.core.ResponseInputStream;
 import software.amazon.awssdk.core.sync.RequestBody;
 import software.amazon.awssdk.regions.Region;
 import software.amazon.awssdk.services.s3.S3Client;
 import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
 import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
 import software.amazon.awssdk.services.s3.model.HeadBucketRequest;
 import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
 import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
@@ -29,6 +31,7 @@ import java.time.Duration;
 
 import jakarta.annotation.PostConstruct;
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.Arrays;
 import java.util.UUID;
 
@@ -146,6 +149,26 @@ public class S3FileStorageService implements FileStorageService {
         }
     }
 
+    @Override
+    public String storeContent(InputStream content, long contentLength, String storagePath, String contentType) throws FileStorageException {
+        try {
+            PutObjectRequest putRequest = PutObjectRequest.builder()
+                    .bucket(bucketName)
+                    .key(storagePath)
+                    .contentType(contentType != null ? contentType : "application/octet-stream")
+                    .contentLength(contentLength)
+                    .build();
+
+            s3Client.putObject(putRequest, RequestBody.fromInputStream(content, contentLength));
+
+            logger.info("Stored file in S3: s3://{}/{} ({} bytes)", bucketName, storagePath, contentLength);
+            return "/api/files/" + storagePath;
+
+        } catch (S3Exception e) {
+            throw new FileStorageException("S3 error storing file: " + e.awsErrorDetails().errorMessage(), e);
+        }
+    }
+
     @Override
     public boolean deleteFile(String fileUrl) throws FileStorageException {
         try {
@@ -233,6 +256,61 @@ public class S3FileStorageService implements FileStorageService {
         }
     }
 
+    @Override
+    public FileMetadata getFileMetadata(String fileUrl) throws FileStorageException {
+        try {
+            String s3Key = extractS3Key(fileUrl);
+            if (s3Key == null) {
+                throw new StoredFileNotFoundException("Invalid file URL: " + fileUrl);
+            }
+
+            HeadObjectResponse response = s3Client.headObject(HeadObjectRequest.builder()
+                    .bucket(bucketName)
+                    .key(s3Key)
+                    .build());
+
+            String contentType = response.contentType() != null ? response.contentType() : getContentTypeFromExtension(fileUrl);
+            return new FileMetadata(response.contentLength(), contentType, response.eTag(), response.lastModified());
+
+        } catch (NoSuchKeyException e) {
+            throw new StoredFileNotFoundException("File not found in S3: " + fileUrl);
+        } catch (S3Exception e) {
+            if (e.statusCode() == 404) {
+                throw new StoredFileNotFoundException("File not found in S3: " + fileUrl);
+            }
+            throw new FileStorageException("S3 error reading file metadata: " + e.awsErrorDetails().errorMessage(), e);
+        }
+    }
+
+    /**
+     * Streams the requested range straight from the S3 response body; nothing is buffered
+     * beyond the SDK's socket buffer. Closing the stream releases the HTTP connection.
+     */
+    @Override
+    public InputStream openStream(String fileUrl, long offset, long length) throws FileStorageException {
+        try {
+            String s3Key = extractS3Key(fileUrl);
+            if (s3Key == null) {
+                throw new StoredFileNotFoundException("Invalid file URL: " + fileUrl);
+            }
+
+            GetObjectRequest.Builder getRequest = GetObjectRequest.builder()
+                    .bucket(bucketName)
+                    .key(s3Key);
+            if (length > 0) {
+                getRequest.range("bytes=" + offset + "-" + (offset + length - 1));
+            }
+
+            ResponseInputStream<GetObjectResponse> stream = s3Client.getObject(getRequest.build());
+            return stream;
+
+        } catch (NoSuchKeyException e) {
+            throw new StoredFileNotFoundException("File not found in S3: " + fileUrl);
+        } catch (S3Exception e) {
+            throw new FileStorageException("S3 error reading file: " + e.awsErrorDetails().errorMessage(), e);
+        }
+    }
+
     @Override
     public String getContentType(String fileUrl) {
         try {
@@ -333,7 +411,7 @@ public class S3FileStorageService implements FileStorageService {
         try {
             String s3Key = extractS3Key(fileUrl);
             if (s3Key == null) {
-                throw new FileStorageException("Invalid file URL: " + fileUrl);
+                throw new StoredFileNotFoundException("Invalid file URL: " + fileUrl);
             }
 
             GetObjectRequest getObjectRequest = GetObjectRequest.builder()
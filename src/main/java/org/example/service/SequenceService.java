@@ -0,0 +1,110 @@
+package org.example.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Allocates per-scope sequence numbers (task, invoice and project numbers) from counter rows in
+ * number_sequences, so generating a number no longer scans the existing rows with MAX/LIKE.
+ *
+ * A scope is the sequence name plus the owner and prefix, e.g. "invoice:12:ACME-2025-". Allocation is a single
+ * UPDATE ... SET next_value = next_value + n on the scope's row, which serializes concurrent
+ * allocations on the row lock, so two creates can never get the same number. The first allocation for
+ * a scope seeds its row from the highest number already in use (supplied by the caller). Despite its
+ * name, next_value holds the last number reserved for the scope, which is what the rows written so far
+ * contain.
+ *
+ * Block size 1 runs the increment in the caller's transaction: the row stays locked until the caller
+ * commits and a rolled-back create gives its number back, so numbering stays gap-free. Larger blocks
+ * are hi-lo allocation: the increment commits on its own, the block is handed out from memory, and
+ * numbers left in a block at shutdown (or allocated by a failed create) are skipped. Block sizes are
+ * configured per sequence with app.sequences.{task,invoice,project}-block-size (default 1).
+ *
+ * The table is created by V4__create_number_sequences.sql.
+ */
+@Service
+public class SequenceService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SequenceService.class);
+
+    public static final String TASK = "task";
+    public static final String INVOICE = "invoice";
+    public static final String PROJECT = "project";
+
+    private static final String INCREMENT = "UPDATE number_sequences SET next_value = next_value + ? WHERE scope = ?";
+    private static final String SELECT_NEXT = "SELECT next_value FROM number_sequences WHERE scope = ?";
+    // A concurrent seed of the same scope waits on the key and is then ignored
+    private static final String SEED = "INSERT IGNORE INTO number_sequences (scope, next_value) VALUES (?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate joinTransaction;
+    private final TransactionTemplate newTransaction;
+    private final Map<String, Integer> blockSizes;
+    private final Map<String, Block> blocks = new ConcurrentHashMap<>();
+
+    public SequenceService(JdbcTemplate jdbcTemplate,
+                           PlatformTransactionManager transactionManager,
+                           @Value("${app.sequences.task-block-size:1}") int taskBlockSize,
+                           @Value("${app.sequences.invoice-block-size:1}") int invoiceBlockSize,
+                           @Value("${app.sequences.project-block-size:1}") int projectBlockSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.blockSizes = Map.of(TASK, taskBlockSize, INVOICE, invoiceBlockSize, PROJECT, projectBlockSize);
+        this.joinTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Returns the next number of a sequence.
+     *
+     * @param sequence    TASK, INVOICE or PROJECT (selects the block size)
+     * @param key         owner id and prefix; the numbering restarts whenever the key changes (e.g. a new year)
+     * @param currentMax  highest number already used for the key; only called the first time a key is seen
+     */
+    public long next(String sequence, String key, LongSupplier currentMax) {
+        String scope = sequence + ":" + key;
+        int blockSize = blockSizes.getOrDefault(sequence, 1);
+        if (blockSize <= 1) {
+            return joinTransaction.execute(status -> allocate(scope, 1, currentMax));
+        }
+        Block block = blocks.computeIfAbsent(scope, k -> new Block());
+        synchronized (block) {
+            if (block.next >= block.limit) {
+                long first = newTransaction.execute(status -> allocate(scope, blockSize, currentMax));
+                block.next = first;
+                block.limit = first + blockSize;
+            }
+            return block.next++;
+        }
+    }
+
+    /**
+     * Reserves count numbers and returns the first of them.
+     */
+    private long allocate(String scope, int count, LongSupplier currentMax) {
+        if (jdbcTemplate.update(INCREMENT, count, scope) == 0) {
+            long seed = currentMax.getAsLong();
+            jdbcTemplate.update(SEED, scope, seed);
+            logger.info("Seeded number sequence {} at {}", scope, seed);
+            jdbcTemplate.update(INCREMENT, count, scope);
+        }
+        // Same transaction as the increment and still holding its row lock, so this reads our own value:
+        // the last of the count numbers just reserved
+        return jdbcTemplate.queryForObject(SELECT_NEXT, Long.class, scope) - count + 1;
+    }
+
+    private static final class Block {
+        private long next;
+        private long limit;
+    }
+}
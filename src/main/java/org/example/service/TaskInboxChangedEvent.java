@@ -0,0 +1,12 @@
+package org.example.service;
+
+import java.util.Set;
+
+/**
+ * Published by TaskService when tasks are created, changed or deleted, naming every user whose
+ * task inbox (assigned, reported, to-check) may have changed: the assignee, reporter and checker
+ * before and after the change. TaskSummaryService evicts their cached summaries after commit.
+ *
+ * @param userIds The affected users
+ */
+public record TaskInboxChangedEvent(Set<Long> userIds) {}
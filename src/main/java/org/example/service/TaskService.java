@@ -8,6 +8,8 @@ import org.example.models.enums.TaskPriority;
 import org.example.models.User;
 import org.example.repository.ProjectRepository;
 import org.example.repository.TaskRepository;
+import org.example.repository.TaskSpecifications;
+import org.example.dto.TaskListRow;
 import org.example.repository.UserRepository;
 // import org.example.repository.TimeLogRepository; // Keep for when you implement TimeLog deletion logic
 import org.example.models.Phase;
@@ -15,22 +17,27 @@ import org.example.repository.PhaseRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
 public class TaskService {
@@ -42,6 +49,11 @@ public class TaskService {
     private final PhaseRepository phaseRepository;
     private final UserRepository userRepository;
     private final AuditService auditService;
+    private final CurrentUserService currentUserService;
+    private final SequenceService sequenceService;
+    private final TaskSummaryService taskSummaryService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ProjectCostLedgerService costLedgerService;
     // private final TimeLogRepository timeLogRepository; // For handling related time entries
 
     @Autowired
@@ -49,37 +61,26 @@ public class TaskService {
                        ProjectRepository projectRepository,
                        PhaseRepository phaseRepository,
                        UserRepository userRepository,
-                       AuditService auditService
+                       AuditService auditService,
+                       CurrentUserService currentUserService,
+                       SequenceService sequenceService,
+                       TaskSummaryService taskSummaryService,
+                       ApplicationEventPublisher eventPublisher,
+                       ProjectCostLedgerService costLedgerService
             /*, TimeLogRepository timeLogRepository */) {
         this.taskRepository = taskRepository;
         this.projectRepository = projectRepository;
         this.phaseRepository = phaseRepository;
         this.userRepository = userRepository;
         this.auditService = auditService;
+        this.currentUserService = currentUserService;
+        this.sequenceService = sequenceService;
+        this.taskSummaryService = taskSummaryService;
+        this.eventPublisher = eventPublisher;
+        this.costLedgerService = costLedgerService;
         // this.timeLogRepository = timeLogRepository;
     }
 
-    /**
-     * Helper method to get the currently authenticated user.
-     * @return The authenticated User entity.
-     * @throws IllegalStateException if the authenticated user cannot be found in the database.
-     */
-    private User getCurrentAuthenticatedUser() {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        if (authentication == null || !authentication.isAuthenticated() || authentication.getPrincipal().equals("anonymousUser")) {
-            throw new IllegalStateException("No authenticated user found.");
-        }
-        String username;
-        Object principal = authentication.getPrincipal();
-        if (principal instanceof UserDetails) {
-            username = ((UserDetails) principal).getUsername();
-        } else {
-            username = principal.toString();
-        }
-        return userRepository.findByUsername(username)
-                .orElseThrow(() -> new IllegalStateException("Authenticated user '" + username + "' not found in database."));
-    }
-
     @Transactional
     public Task createTask(String name, String description, ProjectStage projectStage, Long phaseId, Optional<Long> assigneeIdOpt, Optional<Long> checkedByIdOpt) {
         if (name == null || name.trim().isEmpty()) {
@@ -99,7 +100,7 @@ public class TaskService {
              throw new IllegalArgumentException("Phase ID is required to create a task.");
         }
 
-        User reporter = getCurrentAuthenticatedUser();
+        User reporter = currentUserService.loadUser();
         User assignee = null;
         if (assigneeIdOpt.isPresent()) {
             assignee = userRepository.findById(assigneeIdOpt.get())
@@ -130,6 +131,7 @@ public class TaskService {
 
         Task savedTask = taskRepository.save(newTask);
         auditService.logChange(reporter, "TASK", savedTask.getId(), "CREATE", null, null, "Task created");
+        publishInboxChange(inboxUsers(savedTask));
         
         return savedTask;
     }
@@ -159,7 +161,7 @@ public class TaskService {
             }
         }
 
-        User reporter = getCurrentAuthenticatedUser();
+        User reporter = currentUserService.loadUser();
         User assignee = null;
         if (assigneeIdOpt.isPresent() && assigneeIdOpt.get() != null) {
             assignee = userRepository.findById(assigneeIdOpt.get())
@@ -191,13 +193,14 @@ public class TaskService {
         
         // createdAt and updatedAt are handled by @PrePersist in Task entity
         auditService.logChange(reporter, "TASK", savedTask.getId(), "CREATE", null, null, "Task created");
+        publishInboxChange(inboxUsers(savedTask));
         
         return savedTask;
     }
 
     /**
      * Generates task number in format: {PROJECT_NUMBER}-TASK-{SEQ}
-     * Uses sequence per project (similar to invoice numbering)
+     * Uses sequence per project (similar to invoice numbering), allocated by SequenceService
      */
     private String generateTaskNumber(Project project) {
         if (project.getProjectNumber() == null) {
@@ -206,8 +209,10 @@ public class TaskService {
         
         String prefix = project.getProjectNumber() + "-TASK-";
         
-        Integer maxSequence = taskRepository.findMaxTaskSequenceByProjectAndPrefix(project, prefix);
-        int nextSequence = (maxSequence != null ? maxSequence : 0) + 1;
+        long nextSequence = sequenceService.next(SequenceService.TASK, project.getId() + ":" + prefix, () -> {
+            Integer maxSequence = taskRepository.findMaxTaskSequenceByProjectAndPrefix(project, prefix);
+            return maxSequence != null ? maxSequence : 0;
+        });
         
         String taskNumber = prefix + String.format("%04d", nextSequence);
         logger.info("Generated task number: {} for project: {}", taskNumber, project.getProjectNumber());
@@ -218,7 +223,7 @@ public class TaskService {
         Optional<Task> task = taskRepository.findByIdWithDetails(taskId);
         if (task.isPresent()) {
             try {
-                User currentUser = getCurrentAuthenticatedUser();
+                CurrentUser currentUser = currentUserService.get();
                 validateTaskOrganizationAccess(task.get(), currentUser);
             } catch (Exception e) {
                 return Optional.empty();
@@ -239,10 +244,10 @@ public class TaskService {
      * @return A map containing paginated tasks and metadata
      */
     public Map<String, Object> getAllTasksPaginated(int page, int size) {
-        User currentUser = getCurrentAuthenticatedUser();
+        CurrentUser currentUser = currentUserService.get();
         
-        if (currentUser.getOrganization() == null) {
-            logger.warn("User {} does not belong to any organization. Returning empty task list.", currentUser.getUsername());
+        if (!currentUser.hasOrganization()) {
+            logger.warn("User {} does not belong to any organization. Returning empty task list.", currentUser.username());
             Map<String, Object> emptyResponse = new HashMap<>();
             emptyResponse.put("tasks", List.of());
             emptyResponse.put("currentPage", 0);
@@ -254,7 +259,7 @@ public class TaskService {
         }
         
         Pageable pageable = PageRequest.of(page, size, Sort.by("updatedAt").descending());
-        Page<Task> taskPage = taskRepository.findByProject_Organization_Id(currentUser.getOrganization().getId(), pageable);
+        Page<Task> taskPage = taskRepository.findByProject_Organization_Id(currentUser.organizationId(), pageable);
         return buildPaginatedTaskResponse(taskPage);
     }
 
@@ -280,15 +285,16 @@ public class TaskService {
              .orElseThrow(() -> new IllegalArgumentException("Project with ID " + projectId + " not found."));
              
         // Security check
-        User currentUser = getCurrentAuthenticatedUser();
-        if (currentUser.getOrganization() == null || project.getOrganization() == null || 
-            !project.getOrganization().getId().equals(currentUser.getOrganization().getId())) {
+        CurrentUser currentUser = currentUserService.get();
+        if (!currentUser.hasOrganization() || project.getOrganization() == null || 
+            !project.getOrganization().getId().equals(currentUser.organizationId())) {
              throw new org.springframework.security.access.AccessDeniedException("Access denied: You cannot view tasks for a project in another organization.");
         }
         
         return taskRepository.findByProjectId(projectId);
     }
 
+    @Transactional(readOnly = true)
     public Map<String, Object> getTasksByProjectIdPaginated(Long projectId, int page, int size) {
         if (projectId == null) {
             throw new IllegalArgumentException("Project ID cannot be null.");
@@ -304,30 +310,21 @@ public class TaskService {
              .orElseThrow(() -> new IllegalArgumentException("Project with ID " + projectId + " not found."));
 
         // Security check
-        User currentUser = getCurrentAuthenticatedUser();
-        if (currentUser.getOrganization() == null || project.getOrganization() == null || 
-            !project.getOrganization().getId().equals(currentUser.getOrganization().getId())) {
+        CurrentUser currentUser = currentUserService.get();
+        if (!currentUser.hasOrganization() || project.getOrganization() == null || 
+            !project.getOrganization().getId().equals(currentUser.organizationId())) {
              throw new org.springframework.security.access.AccessDeniedException("Access denied: You cannot view tasks for a project in another organization.");
         }
 
-        // Use eager fetch query to load all related entities and avoid LazyInitializationException
-        List<Task> allTasks = taskRepository.findByProjectIdWithDetails(projectId);
-        
-        // Sort by updatedAt descending
-        allTasks.sort((t1, t2) -> {
-            if (t1.getUpdatedAt() == null && t2.getUpdatedAt() == null) return 0;
-            if (t1.getUpdatedAt() == null) return 1;
-            if (t2.getUpdatedAt() == null) return -1;
-            return t2.getUpdatedAt().compareTo(t1.getUpdatedAt());
-        });
-        
-        // Manual pagination
-        int totalItems = allTasks.size();
-        int totalPages = (int) Math.ceil((double) totalItems / size);
-        int fromIndex = page * size;
-        int toIndex = Math.min(fromIndex + size, totalItems);
-        
-        List<Task> pagedTasks = (fromIndex < totalItems) ? allTasks.subList(fromIndex, toIndex) : List.of();
+        // Phase 1: page the IDs in SQL, ordered by updatedAt descending, with a count query
+        Page<Long> idPage = taskRepository.findIdsByProjectIdOrderByUpdatedAtDesc(projectId, PageRequest.of(page, size));
+        List<Long> pageIds = idPage.getContent();
+
+        // Phase 2: fetch-join the details for only this page's IDs, then restore the SQL ordering
+        List<Task> pagedTasks = findDetailsInOrder(pageIds);
+
+        long totalItems = idPage.getTotalElements();
+        int totalPages = idPage.getTotalPages();
 
         Map<String, Object> response = new HashMap<>();
         response.put("tasks", pagedTasks);
@@ -347,13 +344,13 @@ public class TaskService {
     }
 
     public List<Task> getTasksAssignedToCurrentUser() {
-        User currentUser = getCurrentAuthenticatedUser();
+        User currentUser = currentUserService.userReference();
         return taskRepository.findByAssigneeAndStatusNotIn(currentUser, Arrays.asList(TaskStatus.DONE, TaskStatus.CHECKED));
     }
 
     public Map<String, Object> getTasksAssignedToCurrentUserPaginated(int page, int size) {
         validatePaginationInputs(page, size);
-        User currentUser = getCurrentAuthenticatedUser();
+        User currentUser = currentUserService.userReference();
         Pageable pageable = PageRequest.of(page, size, Sort.by("updatedAt").descending());
         Page<Task> taskPage = taskRepository.findByAssigneeAndStatusNotIn(
                 currentUser,
@@ -364,37 +361,37 @@ public class TaskService {
     }
 
     public List<Task> getTasksReportedByCurrentUser() {
-        User currentUser = getCurrentAuthenticatedUser();
+        User currentUser = currentUserService.userReference();
         return taskRepository.findByReporterAndStatusNotIn(currentUser, Arrays.asList(TaskStatus.DONE, TaskStatus.CHECKED));
     }
 
+    /**
+     * Open tasks reported by the current user, as TaskListRow read-model rows.
+     */
+    @Transactional(readOnly = true)
     public Map<String, Object> getTasksReportedByCurrentUserPaginated(int page, int size) {
         validatePaginationInputs(page, size);
-        User currentUser = getCurrentAuthenticatedUser();
-        Pageable pageable = PageRequest.of(page, size, Sort.by("updatedAt").descending());
-        Page<Task> taskPage = taskRepository.findByReporterAndStatusNotIn(
-                currentUser,
-                Arrays.asList(TaskStatus.DONE, TaskStatus.CHECKED),
-                pageable
-        );
-        return buildPaginatedTaskResponse(taskPage);
+        Long currentUserId = currentUserService.get().userId();
+        return findTaskListPage(Specification.allOf(
+                TaskSpecifications.reportedBy(currentUserId),
+                TaskSpecifications.statusNotIn(Arrays.asList(TaskStatus.DONE, TaskStatus.CHECKED))), page, size);
     }
 
     public List<Task> getTasksToCheckByCurrentUser() {
-        User currentUser = getCurrentAuthenticatedUser();
+        User currentUser = currentUserService.userReference();
         return taskRepository.findByCheckedByAndStatus(currentUser, TaskStatus.DONE);
     }
 
+    /**
+     * Tasks waiting for the current user's check, as TaskListRow read-model rows.
+     */
+    @Transactional(readOnly = true)
     public Map<String, Object> getTasksToCheckByCurrentUserPaginated(int page, int size) {
         validatePaginationInputs(page, size);
-        User currentUser = getCurrentAuthenticatedUser();
-        Pageable pageable = PageRequest.of(page, size, Sort.by("updatedAt").descending());
-        Page<Task> taskPage = taskRepository.findByCheckedByAndStatusIn(
-                currentUser,
-                Arrays.asList(TaskStatus.DONE, TaskStatus.IN_REVIEW),
-                pageable
-        );
-        return buildPaginatedTaskResponse(taskPage);
+        Long currentUserId = currentUserService.get().userId();
+        return findTaskListPage(Specification.allOf(
+                TaskSpecifications.checkedBy(currentUserId),
+                TaskSpecifications.statusIn(Arrays.asList(TaskStatus.DONE, TaskStatus.IN_REVIEW))), page, size);
     }
 
     /**
@@ -405,8 +402,9 @@ public class TaskService {
      * @param projectId Optional project ID to filter by
      * @param page Page number (0-indexed)
      * @param size Page size
-     * @return Map containing paginated tasks and metadata
+     * @return Map containing paginated tasks (TaskListRow) and metadata
      */
+    @Transactional(readOnly = true)
     public Map<String, Object> getTasksWithFilters(
             String filterType,
             Long assigneeIdParam,
@@ -416,14 +414,14 @@ public class TaskService {
             int page,
             int size) {
         validatePaginationInputs(page, size);
-        User currentUser = getCurrentAuthenticatedUser();
+        CurrentUser currentUser = currentUserService.get();
         
-        if (currentUser.getOrganization() == null) {
-            logger.warn("User {} does not belong to any organization. Returning empty task list.", currentUser.getUsername());
+        if (!currentUser.hasOrganization()) {
+            logger.warn("User {} does not belong to any organization. Returning empty task list.", currentUser.username());
             return buildEmptyPaginatedResponse();
         }
         
-        Long organizationId = currentUser.getOrganization().getId();
+        Long organizationId = currentUser.organizationId();
         Long assigneeId = null;
         Long reporterId = null;
         Long checkedById = null;
@@ -434,11 +432,11 @@ public class TaskService {
         } else {
             // Otherwise, determine filter type and set user IDs accordingly
             if ("assigned".equalsIgnoreCase(filterType)) {
-                assigneeId = currentUser.getId();
+                assigneeId = currentUser.userId();
             } else if ("reported".equalsIgnoreCase(filterType)) {
-                reporterId = currentUser.getId();
+                reporterId = currentUser.userId();
             } else if ("to-check".equalsIgnoreCase(filterType)) {
-                checkedById = currentUser.getId();
+                checkedById = currentUser.userId();
             } else if ("all".equalsIgnoreCase(filterType) || filterType == null || filterType.isEmpty()) {
                 // "all" means no user filter - show all tasks in organization
                 // Leave assigneeId, reporterId, checkedById as null
@@ -477,19 +475,57 @@ public class TaskService {
         List<TaskStatus> finalStatusList = (statusEnums != null && !statusEnums.isEmpty()) ? statusEnums : null;
         List<TaskPriority> finalPriorityList = (priorityEnums != null && !priorityEnums.isEmpty()) ? priorityEnums : null;
         
-        Pageable pageable = PageRequest.of(page, size, Sort.by("updatedAt").descending());
-        Page<Task> taskPage = taskRepository.findTasksWithFilters(
-                organizationId,
-                assigneeId,
-                reporterId,
-                checkedById,
-                finalStatusList,
-                finalPriorityList,
-                projectId,
-                pageable
-        );
-        
-        return buildPaginatedTaskResponse(taskPage);
+        return findTaskListPage(
+                TaskSpecifications.withFilters(
+                        organizationId,
+                        assigneeId,
+                        reporterId,
+                        checkedById,
+                        finalStatusList,
+                        finalPriorityList,
+                        projectId),
+                page,
+                size);
+    }
+
+    /**
+     * Two-phase pagination for the task list views: page only the IDs matching the specification
+     * (newest first), then select the list columns of that page as TaskListRow projections.
+     * Runs inside the caller's read-only transaction; no Task entity is loaded.
+     */
+    private Map<String, Object> findTaskListPage(Specification<Task> specification, int page, int size) {
+        Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Order.desc("updatedAt"), Sort.Order.desc("id")));
+        Page<Long> idPage = taskRepository.findIds(specification, pageable);
+
+        List<TaskListRow> rows = List.of();
+        if (idPage.hasContent()) {
+            Map<Long, TaskListRow> rowsById = new HashMap<>();
+            for (TaskListRow row : taskRepository.findListRowsByIdIn(idPage.getContent())) {
+                rowsById.put(row.id(), row);
+            }
+            rows = idPage.getContent().stream()
+                    .map(rowsById::get)
+                    .filter(java.util.Objects::nonNull)
+                    .toList();
+        }
+        return buildPaginatedTaskResponse(new PageImpl<>(rows, pageable, idPage.getTotalElements()));
+    }
+
+    /**
+     * Loads tasks with their associations fetch-joined, keeping the order of the given IDs.
+     */
+    private List<Task> findDetailsInOrder(List<Long> taskIds) {
+        if (taskIds.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Task> tasksById = new HashMap<>();
+        for (Task task : taskRepository.findByIdInWithDetails(taskIds)) {
+            tasksById.put(task.getId(), task);
+        }
+        return taskIds.stream()
+                .map(tasksById::get)
+                .filter(java.util.Objects::nonNull)
+                .toList();
     }
     
     private Map<String, Object> buildEmptyPaginatedResponse() {
@@ -517,6 +553,7 @@ public class TaskService {
 
         Task taskToUpdate = taskRepository.findById(taskId)
                 .orElseThrow(() -> new IllegalArgumentException("Task with ID " + taskId + " not found."));
+        Set<Long> affectedUsers = inboxUsers(taskToUpdate);
 
         boolean updated = false;
 
@@ -537,6 +574,7 @@ public class TaskService {
         if (newPhaseIdOpt.isPresent()) {
             Phase phase = phaseRepository.findById(newPhaseIdOpt.get())
                     .orElseThrow(() -> new IllegalArgumentException("Phase with ID " + newPhaseIdOpt.get() + " not found for task update."));
+            moveLoggedCost(taskToUpdate, phase);
             taskToUpdate.setPhase(phase);
             taskToUpdate.setProject(phase.getProject());
             updated = true;
@@ -590,7 +628,10 @@ public class TaskService {
 
         if (updated) {
             // updatedAt is handled by @PreUpdate in Task entity
-            return Optional.of(taskRepository.save(taskToUpdate));
+            Task savedTask = taskRepository.save(taskToUpdate);
+            affectedUsers.addAll(inboxUsers(savedTask));
+            publishInboxChange(affectedUsers);
+            return Optional.of(savedTask);
         }
         // Return the task even if no fields were changed, or Optional.empty() if you prefer
         return Optional.of(taskToUpdate);
@@ -611,7 +652,7 @@ public class TaskService {
         Task taskToUpdate = taskRepository.findById(taskId)
                 .orElseThrow(() -> new IllegalArgumentException("Task with ID " + taskId + " not found."));
 
-        User currentUser = getCurrentAuthenticatedUser();
+        User currentUser = currentUserService.userReference();
 
         String oldName = taskToUpdate.getName();
         String oldDescription = taskToUpdate.getDescription();
@@ -653,6 +694,7 @@ public class TaskService {
         }
         if (oldStatus != savedTask.getStatus()) {
             auditService.logChange(currentUser, "TASK", savedTask.getId(), "UPDATE", "status", oldStatus.name(), savedTask.getStatus().name());
+            publishInboxChange(inboxUsers(savedTask));
         }
 
         return savedTask;
@@ -667,7 +709,7 @@ public class TaskService {
         }
     }
 
-    private Map<String, Object> buildPaginatedTaskResponse(Page<Task> taskPage) {
+    private Map<String, Object> buildPaginatedTaskResponse(Page<?> taskPage) {
         Map<String, Object> response = new HashMap<>();
         response.put("tasks", taskPage.getContent());
         response.put("currentPage", taskPage.getNumber());
@@ -696,8 +738,9 @@ public class TaskService {
                 .orElseThrow(() -> new IllegalArgumentException("Task with ID " + taskId + " not found."));
 
         // Authorization check: User can only edit tasks they are assigned to, created, or assigned as checker
-        User currentUser = getCurrentAuthenticatedUser();
+        CurrentUser currentUser = currentUserService.get();
         validateTaskEditPermission(taskToUpdate, currentUser);
+        Set<Long> affectedUsers = inboxUsers(taskToUpdate);
 
         // Parse enums
         ProjectStage projectStageEnum;
@@ -761,12 +804,16 @@ public class TaskService {
         if (phaseId != null) {
             Phase phase = phaseRepository.findById(phaseId)
                     .orElseThrow(() -> new IllegalArgumentException("Phase with ID " + phaseId + " not found."));
+            moveLoggedCost(taskToUpdate, phase);
             taskToUpdate.setPhase(phase);
             taskToUpdate.setProject(phase.getProject());
         }
 
         // updatedAt is handled by @PreUpdate in Task entity
-        return taskRepository.save(taskToUpdate);
+        Task savedTask = taskRepository.save(taskToUpdate);
+        affectedUsers.addAll(inboxUsers(savedTask));
+        publishInboxChange(affectedUsers);
+        return savedTask;
     }
 
     @Transactional
@@ -779,8 +826,8 @@ public class TaskService {
         }
 
         // Authorization check: User can update status of tasks within their organization
-        User currentUser = getCurrentAuthenticatedUser();
-        validateTaskOrganizationAccess(taskToUpdate, currentUser);
+        User currentUser = currentUserService.userReference();
+        validateTaskOrganizationAccess(taskToUpdate, currentUserService.get());
 
         TaskStatus oldStatus = taskToUpdate.getStatus();
         if (oldStatus != newStatus) {
@@ -788,6 +835,7 @@ public class TaskService {
             // updatedAt is handled by @PreUpdate in Task entity
             Task savedTask = taskRepository.save(taskToUpdate);
             auditService.logChange(currentUser, "TASK", savedTask.getId(), "UPDATE", "status", oldStatus.name(), newStatus.name());
+            publishInboxChange(inboxUsers(savedTask));
             return Optional.of(savedTask);
         }
         return Optional.of(taskToUpdate);
@@ -816,7 +864,240 @@ public class TaskService {
         taskToUpdate.setStatus(TaskStatus.CHECKED);
         
         // updatedAt is handled by @PreUpdate in Task entity
-        return Optional.of(taskRepository.save(taskToUpdate));
+        Task savedTask = taskRepository.save(taskToUpdate);
+        publishInboxChange(inboxUsers(savedTask));
+        return Optional.of(savedTask);
+    }
+
+    // --- Bulk task mutations ---
+    // Ownership is checked for all tasks with one query, changes are applied with set-based
+    // UPDATE ... WHERE id IN (...) in chunks of BULK_UPDATE_CHUNK_SIZE and audited with one JDBC batch.
+    // Tasks that already have the target value are skipped. All-or-nothing: one foreign or missing ID
+    // rejects the whole request.
+
+    public static final int MAX_BULK_TASKS = 1000;
+    private static final int BULK_UPDATE_CHUNK_SIZE = 500;
+
+    /**
+     * Current values of a task targeted by a bulk mutation (see TaskRepository.findBulkTargets).
+     */
+    private record BulkTarget(Long id, TaskStatus status, Long assigneeId, Long phaseId, Long checkedById, Long reporterId) {}
+
+    /**
+     * Sets the status of many tasks.
+     * @return the number of tasks whose status changed
+     */
+    @Transactional
+    public int bulkUpdateStatus(List<Long> taskIds, TaskStatus newStatus) {
+        if (newStatus == null) {
+            throw new IllegalArgumentException("New status cannot be null.");
+        }
+        CurrentUser currentUser = currentUserService.get();
+        List<BulkTarget> changed = loadBulkTargets(taskIds, currentUser).stream()
+                .filter(target -> target.status() != newStatus)
+                .toList();
+
+        LocalDateTime now = LocalDateTime.now();
+        forEachChunk(idsOf(changed), ids -> taskRepository.bulkUpdateStatus(ids, newStatus, now));
+        auditBulkChange(currentUser, changed, "status", target -> target.status().name(), newStatus.name());
+        publishInboxChange(inboxUsers(changed));
+        return changed.size();
+    }
+
+    /**
+     * Assigns many tasks to one user, or unassigns them when assigneeId is null.
+     * @return the number of tasks whose assignee changed
+     */
+    @Transactional
+    public int bulkReassign(List<Long> taskIds, Long assigneeId) {
+        CurrentUser currentUser = currentUserService.get();
+        User assignee = null;
+        if (assigneeId != null) {
+            assignee = userRepository.findById(assigneeId)
+                    .orElseThrow(() -> new IllegalArgumentException("Assignee user with ID " + assigneeId + " not found."));
+            if (assignee.getOrganization() == null || !assignee.getOrganization().getId().equals(currentUser.organizationId())) {
+                throw new IllegalArgumentException("Tasks can only be assigned to users within your organization.");
+            }
+        }
+        List<BulkTarget> changed = loadBulkTargets(taskIds, currentUser).stream()
+                .filter(target -> !Objects.equals(target.assigneeId(), assigneeId))
+                .toList();
+
+        User newAssignee = assignee;
+        LocalDateTime now = LocalDateTime.now();
+        forEachChunk(idsOf(changed), ids -> taskRepository.bulkUpdateAssignee(ids, newAssignee, now));
+        auditBulkChange(currentUser, changed, "assignee", target -> idToString(target.assigneeId()), idToString(assigneeId));
+        Set<Long> affectedUsers = inboxUsers(changed);
+        if (assigneeId != null && !changed.isEmpty()) {
+            affectedUsers.add(assigneeId);
+        }
+        publishInboxChange(affectedUsers);
+        return changed.size();
+    }
+
+    /**
+     * Moves many tasks into a phase (and that phase's project), like updateTask does for one task.
+     * @return the number of tasks that moved
+     */
+    @Transactional
+    public int bulkMovePhase(List<Long> taskIds, Long phaseId) {
+        if (phaseId == null) {
+            throw new IllegalArgumentException("Phase ID cannot be null.");
+        }
+        CurrentUser currentUser = currentUserService.get();
+        Phase phase = phaseRepository.findById(phaseId)
+                .orElseThrow(() -> new IllegalArgumentException("Phase with ID " + phaseId + " not found."));
+        Project project = phase.getProject();
+        if (project == null || project.getOrganization() == null
+                || !project.getOrganization().getId().equals(currentUser.organizationId())) {
+            throw new IllegalArgumentException("Tasks can only be moved to phases within your organization.");
+        }
+        List<BulkTarget> changed = loadBulkTargets(taskIds, currentUser).stream()
+                .filter(target -> !phaseId.equals(target.phaseId()))
+                .toList();
+
+        LocalDateTime now = LocalDateTime.now();
+        costLedgerService.applyTaskMove(idsOf(changed), project.getOrganization().getId(), project.getId(), phaseId);
+        forEachChunk(idsOf(changed), ids -> taskRepository.bulkUpdatePhase(ids, phase, project, now));
+        auditBulkChange(currentUser, changed, "phase", target -> idToString(target.phaseId()), idToString(phaseId));
+        return changed.size();
+    }
+
+    /**
+     * Marks many DONE tasks as CHECKED. Same rules as markTaskAsCompletedAndChecked: the current user
+     * must be the checker of every task and every task must be DONE.
+     * @return the number of tasks marked as checked
+     */
+    @Transactional
+    public int bulkMarkChecked(List<Long> taskIds) {
+        CurrentUser currentUser = currentUserService.get();
+        List<BulkTarget> targets = loadBulkTargets(taskIds, currentUser);
+
+        List<Long> notChecker = targets.stream()
+                .filter(target -> !currentUser.userId().equals(target.checkedById()))
+                .map(BulkTarget::id)
+                .toList();
+        if (!notChecker.isEmpty()) {
+            throw new IllegalStateException("You are not the assigned checker of tasks " + notChecker + ".");
+        }
+        List<Long> notDone = targets.stream()
+                .filter(target -> target.status() != TaskStatus.DONE)
+                .map(BulkTarget::id)
+                .toList();
+        if (!notDone.isEmpty()) {
+            throw new IllegalStateException("Tasks must be in DONE status before they can be marked as checked: " + notDone + ".");
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        forEachChunk(idsOf(targets), ids -> taskRepository.bulkUpdateStatus(ids, TaskStatus.CHECKED, now));
+        auditBulkChange(currentUser, targets, "status", target -> target.status().name(), TaskStatus.CHECKED.name());
+        publishInboxChange(inboxUsers(targets));
+        return targets.size();
+    }
+
+    /**
+     * Loads the current values of the requested tasks, rejecting the request if any ID is missing
+     * or belongs to another organization.
+     */
+    private List<BulkTarget> loadBulkTargets(List<Long> taskIds, CurrentUser currentUser) {
+        if (!currentUser.hasOrganization()) {
+            throw new IllegalArgumentException("You must belong to an organization to access tasks.");
+        }
+        if (taskIds == null || taskIds.isEmpty()) {
+            throw new IllegalArgumentException("At least one task ID is required.");
+        }
+        List<Long> distinctIds = taskIds.stream().filter(Objects::nonNull).distinct().toList();
+        if (distinctIds.size() > MAX_BULK_TASKS) {
+            throw new IllegalArgumentException("A bulk update can change at most " + MAX_BULK_TASKS + " tasks.");
+        }
+
+        List<BulkTarget> targets = new ArrayList<>(distinctIds.size());
+        forEachChunk(distinctIds, ids -> {
+            for (Object[] row : taskRepository.findBulkTargets(ids, currentUser.organizationId())) {
+                targets.add(new BulkTarget((Long) row[0], (TaskStatus) row[1], (Long) row[2], (Long) row[3], (Long) row[4], (Long) row[5]));
+            }
+        });
+        if (targets.size() != distinctIds.size()) {
+            Set<Long> found = new HashSet<>();
+            targets.forEach(target -> found.add(target.id()));
+            List<Long> missing = distinctIds.stream().filter(id -> !found.contains(id)).toList();
+            throw new IllegalArgumentException("Tasks not found or not within your organization: " + missing);
+        }
+        return targets;
+    }
+
+    private static void forEachChunk(List<Long> ids, java.util.function.Consumer<List<Long>> action) {
+        for (int from = 0; from < ids.size(); from += BULK_UPDATE_CHUNK_SIZE) {
+            action.accept(ids.subList(from, Math.min(from + BULK_UPDATE_CHUNK_SIZE, ids.size())));
+        }
+    }
+
+    private static List<Long> idsOf(List<BulkTarget> targets) {
+        return targets.stream().map(BulkTarget::id).toList();
+    }
+
+    private void auditBulkChange(CurrentUser currentUser, List<BulkTarget> changed, String field,
+                                 java.util.function.Function<BulkTarget, String> oldValue, String newValue) {
+        List<AuditService.AuditEntry> entries = changed.stream()
+                .map(target -> new AuditService.AuditEntry("TASK", target.id(), "UPDATE", field, oldValue.apply(target), newValue))
+                .toList();
+        auditService.logChanges(currentUser.userId(), currentUser.organizationId(), entries);
+    }
+
+    private static String idToString(Long id) {
+        return id != null ? id.toString() : null;
+    }
+
+    // --- Task inbox summary ---
+
+    /**
+     * Per-status task counts for the current user's assigned, reported and to-check inboxes
+     * (cached per user, see TaskSummaryService).
+     */
+    public TaskSummaryService.TaskSummary getTaskSummaryForCurrentUser() {
+        return taskSummaryService.getSummary(currentUserService.get().userId());
+    }
+
+    // Users whose inbox counters include the task (reading ids does not initialize the lazy users)
+    private static Set<Long> inboxUsers(Task task) {
+        Set<Long> userIds = new HashSet<>();
+        if (task.getAssignee() != null) {
+            userIds.add(task.getAssignee().getId());
+        }
+        if (task.getReporter() != null) {
+            userIds.add(task.getReporter().getId());
+        }
+        if (task.getCheckedBy() != null) {
+            userIds.add(task.getCheckedBy().getId());
+        }
+        return userIds;
+    }
+
+    private static Set<Long> inboxUsers(List<BulkTarget> targets) {
+        Set<Long> userIds = new HashSet<>();
+        for (BulkTarget target : targets) {
+            for (Long userId : new Long[] {target.assigneeId(), target.reporterId(), target.checkedById()}) {
+                if (userId != null) {
+                    userIds.add(userId);
+                }
+            }
+        }
+        return userIds;
+    }
+
+    private void publishInboxChange(Set<Long> userIds) {
+        if (!userIds.isEmpty()) {
+            eventPublisher.publishEvent(new TaskInboxChangedEvent(Set.copyOf(userIds)));
+        }
+    }
+
+    // Moves the task's logged cost in the ledger; must run before the task's phase is changed
+    private void moveLoggedCost(Task task, Phase newPhase) {
+        if (task.getPhase() != null && task.getPhase().getId().equals(newPhase.getId())) {
+            return;
+        }
+        Project project = newPhase.getProject();
+        costLedgerService.applyTaskMove(List.of(task.getId()), project.getOrganization().getId(), project.getId(), newPhase.getId());
     }
 
     @Transactional
@@ -829,14 +1110,17 @@ public class TaskService {
         }
         
         // Security Check
-        User currentUser = getCurrentAuthenticatedUser();
+        CurrentUser currentUser = currentUserService.get();
         validateTaskOrganizationAccess(task, currentUser);
 
         // Allow deletion if user has permission (Manager/Admin check handled by PreAuthorize, but double check ownership logic if needed)
         // Here we just ensure Org boundary is respected.
 
+        Set<Long> affectedUsers = inboxUsers(task);
+        costLedgerService.applyTaskRemoval(List.of(taskId));
         taskRepository.deleteById(taskId);
-        logger.info("Task with ID: {} deleted successfully by user: {}", taskId, currentUser.getUsername());
+        publishInboxChange(affectedUsers);
+        logger.info("Task with ID: {} deleted successfully by user: {}", taskId, currentUser.username());
         return true;
     }
 
@@ -855,21 +1139,21 @@ public class TaskService {
      * @param currentUser The current authenticated user
      * @throws IllegalArgumentException if the user doesn't have permission
      */
-    private void validateTaskEditPermission(Task task, User currentUser) {
+    private void validateTaskEditPermission(Task task, CurrentUser currentUser) {
         boolean canEdit = false;
         
         // Check if user is assigned to the task
-        if (task.getAssignee() != null && task.getAssignee().getId().equals(currentUser.getId())) {
+        if (task.getAssignee() != null && task.getAssignee().getId().equals(currentUser.userId())) {
             canEdit = true;
         }
         
         // Check if user is the creator/reporter of the task
-        if (task.getReporter() != null && task.getReporter().getId().equals(currentUser.getId())) {
+        if (task.getReporter() != null && task.getReporter().getId().equals(currentUser.userId())) {
             canEdit = true;
         }
         
         // Check if user is assigned as checker of the task
-        if (task.getCheckedBy() != null && task.getCheckedBy().getId().equals(currentUser.getId())) {
+        if (task.getCheckedBy() != null && task.getCheckedBy().getId().equals(currentUser.userId())) {
             canEdit = true;
         }
         
@@ -886,8 +1170,8 @@ public class TaskService {
      * @param currentUser The current authenticated user
      * @throws IllegalArgumentException if the user doesn't have permission
      */
-    private void validateTaskOrganizationAccess(Task task, User currentUser) {
-        if (currentUser.getOrganization() == null) {
+    private void validateTaskOrganizationAccess(Task task, CurrentUser currentUser) {
+        if (!currentUser.hasOrganization()) {
             throw new IllegalArgumentException("You must belong to an organization to access tasks.");
         }
         
@@ -895,20 +1179,20 @@ public class TaskService {
             throw new IllegalArgumentException("Task must belong to a project within an organization.");
         }
         
-        if (!task.getProject().getOrganization().getId().equals(currentUser.getOrganization().getId())) {
+        if (!task.getProject().getOrganization().getId().equals(currentUser.organizationId())) {
             throw new IllegalArgumentException("You can only access tasks within your organization.");
         }
     }
 
     // Get enabled users for task assignment from the same organization as current user
     public List<User> getAllUsersForTaskAssignment() {
-        User currentUser = getCurrentAuthenticatedUser();
+        CurrentUser currentUser = currentUserService.get();
         
-        if (currentUser.getOrganization() == null) {
+        if (!currentUser.hasOrganization()) {
             throw new IllegalStateException("Current user must belong to an organization to view users for task assignment");
         }
         
         // Only return enabled users (enabled = true)
-        return userRepository.findByOrganization_IdAndEnabled(currentUser.getOrganization().getId(), true);
+        return userRepository.findByOrganization_IdAndEnabled(currentUser.organizationId(), true);
     }
 }
@@ -0,0 +1,106 @@
+package org.example.service;
+
+import org.example.config.CacheConfig;
+import org.example.models.enums.TaskStatus;
+import org.example.repository.TaskRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Task inbox counters for the home screen badges: tasks per status that the user is assigned to,
+ * reported, and has to check, computed with one grouped query (TaskRepository.countInboxByStatus).
+ *
+ * Summaries are cached per user for a short time (app.cache.task-summary.ttl) and evicted after
+ * commit whenever TaskService changes a task the user is involved in (TaskInboxChangedEvent).
+ */
+@Service
+public class TaskSummaryService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TaskSummaryService.class);
+
+    // Same status rules as the /assigned-to-me, /reported-by-me and /to-check lists
+    private static final Set<TaskStatus> CLOSED_STATUSES = Set.of(TaskStatus.DONE, TaskStatus.CHECKED);
+    private static final Set<TaskStatus> TO_CHECK_STATUSES = Set.of(TaskStatus.DONE, TaskStatus.IN_REVIEW);
+
+    /**
+     * Record to hold a user's task counts per status for each inbox.
+     */
+    public record TaskSummary(Map<TaskStatus, Long> assigned, Map<TaskStatus, Long> reported, Map<TaskStatus, Long> toCheck) {
+
+        public long openAssigned() {
+            return sum(assigned, status -> !CLOSED_STATUSES.contains(status));
+        }
+
+        public long openReported() {
+            return sum(reported, status -> !CLOSED_STATUSES.contains(status));
+        }
+
+        public long pendingChecks() {
+            return sum(toCheck, TO_CHECK_STATUSES::contains);
+        }
+
+        private static long sum(Map<TaskStatus, Long> counts, java.util.function.Predicate<TaskStatus> included) {
+            return counts.entrySet().stream()
+                    .filter(entry -> included.test(entry.getKey()))
+                    .mapToLong(Map.Entry::getValue)
+                    .sum();
+        }
+    }
+
+    private final TaskRepository taskRepository;
+    private final CacheManager cacheManager;
+
+    public TaskSummaryService(TaskRepository taskRepository, CacheManager cacheManager) {
+        this.taskRepository = taskRepository;
+        this.cacheManager = cacheManager;
+    }
+
+    @Cacheable(cacheNames = CacheConfig.TASK_SUMMARY, key = "#userId")
+    @Transactional(readOnly = true)
+    public TaskSummary getSummary(Long userId) {
+        Map<TaskStatus, Long> assigned = new EnumMap<>(TaskStatus.class);
+        Map<TaskStatus, Long> reported = new EnumMap<>(TaskStatus.class);
+        Map<TaskStatus, Long> toCheck = new EnumMap<>(TaskStatus.class);
+
+        List<Object[]> rows = taskRepository.countInboxByStatus(userId);
+        for (Object[] row : rows) {
+            TaskStatus status = (TaskStatus) row[0];
+            putIfPositive(assigned, status, row[1]);
+            putIfPositive(reported, status, row[2]);
+            putIfPositive(toCheck, status, row[3]);
+        }
+        return new TaskSummary(Collections.unmodifiableMap(assigned),
+                Collections.unmodifiableMap(reported),
+                Collections.unmodifiableMap(toCheck));
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onTaskInboxChanged(TaskInboxChangedEvent event) {
+        Cache cache = cacheManager.getCache(CacheConfig.TASK_SUMMARY);
+        if (cache == null) {
+            return;
+        }
+        event.userIds().forEach(cache::evict);
+        logger.debug("Evicted task summaries for users {}", event.userIds());
+    }
+
+    private static void putIfPositive(Map<TaskStatus, Long> counts, TaskStatus status, Object count) {
+        long value = count != null ? ((Number) count).longValue() : 0;
+        if (value > 0) {
+            counts.put(status, value);
+        }
+    }
+}
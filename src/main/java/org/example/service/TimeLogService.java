@@ -10,16 +10,26 @@ import org.example.repository.UserRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.DayOfWeek;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
 
 @Service
 public class TimeLogService {
@@ -29,35 +39,36 @@ public class TimeLogService {
     private final TimeLogRepository timeLogRepository;
     private final TaskRepository taskRepository;
     private final UserRepository userRepository;
+    private final CurrentUserService currentUserService;
+    private final JdbcTemplate jdbcTemplate;
+    private final ProjectCostLedgerService costLedgerService;
+
+    public static final int MAX_BATCH_ENTRIES = 200;
+    private static final String INSERT_TIME_LOG = "INSERT INTO time_logs " +
+            "(task_id, user_id, date_logged, hours_logged, work_description, created_at) VALUES (?, ?, ?, ?, ?, ?)";
 
     @Autowired
     public TimeLogService(TimeLogRepository timeLogRepository,
                           TaskRepository taskRepository,
-                          UserRepository userRepository) {
+                          UserRepository userRepository,
+                          CurrentUserService currentUserService,
+                          JdbcTemplate jdbcTemplate,
+                          ProjectCostLedgerService costLedgerService) {
         this.timeLogRepository = timeLogRepository;
         this.taskRepository = taskRepository;
         this.userRepository = userRepository;
+        this.currentUserService = currentUserService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.costLedgerService = costLedgerService;
     }
 
     /**
-     * Helper method to get the currently authenticated user.
-     * @return The authenticated User entity.
-     * @throws IllegalStateException if the authenticated user cannot be found in the database or is not authenticated.
+     * Helper method to get the currently authenticated user as an entity reference (see CurrentUserService).
+     * @return A lazy reference to the authenticated User.
+     * @throws IllegalStateException if no user is authenticated.
      */
     private User getCurrentAuthenticatedUser() {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        if (authentication == null || !authentication.isAuthenticated() || "anonymousUser".equals(authentication.getPrincipal())) {
-            throw new IllegalStateException("No authenticated user found or user is anonymous.");
-        }
-        String username;
-        Object principal = authentication.getPrincipal();
-        if (principal instanceof UserDetails) {
-            username = ((UserDetails) principal).getUsername();
-        } else {
-            username = principal.toString();
-        }
-        return userRepository.findByUsername(username)
-                .orElseThrow(() -> new IllegalStateException("Authenticated user '" + username + "' not found in database."));
+        return currentUserService.userReference();
     }
 
     /**
@@ -70,22 +81,7 @@ public class TimeLogService {
      */
     @Transactional
     public TimeLog logTime(TimeLogDto timeLogDto) {
-        if (timeLogDto == null) {
-            throw new IllegalArgumentException("Time log data cannot be null.");
-        }
-        if (timeLogDto.getTaskId() == null) {
-            throw new IllegalArgumentException("Task ID cannot be null for logging time.");
-        }
-        if (timeLogDto.getHoursLogged() == null || timeLogDto.getHoursLogged().compareTo(BigDecimal.ZERO) <= 0) {
-            throw new IllegalArgumentException("Hours logged must be a positive value.");
-        }
-        if (timeLogDto.getDateLogged() == null) {
-            throw new IllegalArgumentException("Date logged cannot be null.");
-        }
-        if (timeLogDto.getWorkDescription() == null || timeLogDto.getWorkDescription().trim().isEmpty()) {
-            throw new IllegalArgumentException("Work description cannot be empty.");
-        }
-
+        validateTimeLog(timeLogDto);
 
         User currentUser = getCurrentAuthenticatedUser();
         Task task = taskRepository.findById(timeLogDto.getTaskId())
@@ -103,8 +99,9 @@ public class TimeLogService {
         // createdAt is handled by @PrePersist in TimeLog entity
 
         TimeLog savedTimeLog = timeLogRepository.save(newTimeLog);
+        costLedgerService.applyTimeLogChange(null, costLedgerService.snapshot(savedTimeLog));
         logger.info("User '{}' logged {} hours for task '{}' (ID: {}) on {}",
-                currentUser.getUsername(),
+                currentUserService.get().username(),
                 savedTimeLog.getHoursLogged(),
                 task.getName(),
                 task.getId(),
@@ -112,6 +109,150 @@ public class TimeLogService {
         return savedTimeLog;
     }
 
+    private void validateTimeLog(TimeLogDto timeLogDto) {
+        if (timeLogDto == null) {
+            throw new IllegalArgumentException("Time log data cannot be null.");
+        }
+        if (timeLogDto.getTaskId() == null) {
+            throw new IllegalArgumentException("Task ID cannot be null for logging time.");
+        }
+        if (timeLogDto.getHoursLogged() == null || timeLogDto.getHoursLogged().compareTo(BigDecimal.ZERO) <= 0) {
+            throw new IllegalArgumentException("Hours logged must be a positive value.");
+        }
+        if (timeLogDto.getDateLogged() == null) {
+            throw new IllegalArgumentException("Date logged cannot be null.");
+        }
+        if (timeLogDto.getWorkDescription() == null || timeLogDto.getWorkDescription().trim().isEmpty()) {
+            throw new IllegalArgumentException("Work description cannot be empty.");
+        }
+    }
+
+    /**
+     * Logs a batch of time entries for the current user (e.g. a whole weekly timesheet) in one transaction.
+     * All task IDs are checked against the user's organization with one query and the rows are inserted
+     * with one JDBC batch. Any invalid entry rejects the whole batch.
+     *
+     * @param entries The entries to log, at most MAX_BATCH_ENTRIES.
+     * @return The number of time logs created.
+     * @throws IllegalArgumentException if an entry is invalid or a task is not found in the user's organization.
+     */
+    @Transactional
+    public int logTimeBatch(List<TimeLogDto> entries) {
+        if (entries == null || entries.isEmpty()) {
+            throw new IllegalArgumentException("At least one time log entry is required.");
+        }
+        if (entries.size() > MAX_BATCH_ENTRIES) {
+            throw new IllegalArgumentException("At most " + MAX_BATCH_ENTRIES + " time log entries can be submitted at once.");
+        }
+        for (int i = 0; i < entries.size(); i++) {
+            try {
+                validateTimeLog(entries.get(i));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Entry " + (i + 1) + ": " + e.getMessage());
+            }
+        }
+
+        CurrentUser currentUser = currentUserService.get();
+        if (!currentUser.hasOrganization()) {
+            throw new IllegalArgumentException("You must belong to an organization to log time.");
+        }
+        Set<Long> taskIds = new HashSet<>();
+        entries.forEach(entry -> taskIds.add(entry.getTaskId()));
+        Map<Long, Object[]> taskLocations = new HashMap<>();
+        for (Object[] row : taskRepository.findLocationsInOrganization(taskIds, currentUser.organizationId())) {
+            taskLocations.put((Long) row[0], row);
+        }
+        if (taskLocations.size() != taskIds.size()) {
+            taskIds.removeAll(taskLocations.keySet());
+            throw new IllegalArgumentException("Tasks not found in your organization: " + taskIds);
+        }
+
+        Timestamp createdAt = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(INSERT_TIME_LOG, entries, entries.size(), (ps, entry) -> {
+            ps.setLong(1, entry.getTaskId());
+            ps.setLong(2, currentUser.userId());
+            ps.setDate(3, Date.valueOf(entry.getDateLogged()));
+            ps.setBigDecimal(4, entry.getHoursLogged());
+            ps.setString(5, entry.getWorkDescription().trim());
+            ps.setTimestamp(6, createdAt);
+        });
+
+        User user = currentUserService.loadUser();
+        List<ProjectCostLedgerService.CostEntry> costEntries = new ArrayList<>(entries.size());
+        for (TimeLogDto entry : entries) {
+            Object[] location = taskLocations.get(entry.getTaskId());
+            costEntries.add(costLedgerService.entry(currentUser.organizationId(), (Long) location[1], (Long) location[2],
+                    entry.getHoursLogged(), user));
+        }
+        costLedgerService.applyTimeLogs(costEntries);
+        logger.info("User '{}' logged {} time entries across {} tasks", currentUser.username(), entries.size(), taskIds.size());
+        return entries.size();
+    }
+
+    /**
+     * Weekly timesheet: hours per task and day (Monday to Sunday) from one grouped query.
+     *
+     * @param userId  The user whose timesheet to read; null for the current user. Other users' timesheets
+     *                are only available to admins of the same organization.
+     * @param weekOf  Any day of the week to read; null for the current week.
+     * @return Map with weekStart, weekEnd, days, rows (one per task, hours keyed by date), dailyTotals and totalHours.
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Object> getWeeklyTimesheet(Long userId, LocalDate weekOf) {
+        CurrentUser currentUser = currentUserService.get();
+        Long timesheetUserId = userId != null ? userId : currentUser.userId();
+        if (!timesheetUserId.equals(currentUser.userId())) {
+            List<Object[]> identity = userRepository.findIdentityById(timesheetUserId);
+            if (!currentUserService.hasRole("ROLE_ADMIN") || identity.isEmpty() || identity.get(0)[1] == null
+                    || !identity.get(0)[1].equals(currentUser.organizationId())) {
+                throw new IllegalStateException("You are not authorized to view this timesheet.");
+            }
+        }
+
+        LocalDate weekStart = (weekOf != null ? weekOf : LocalDate.now()).with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+        LocalDate weekEnd = weekStart.plusDays(6);
+        List<LocalDate> days = weekStart.datesUntil(weekEnd.plusDays(1)).toList();
+
+        Map<Long, Map<String, Object>> rowsByTask = new LinkedHashMap<>();
+        Map<LocalDate, BigDecimal> dailyTotals = new TreeMap<>();
+        days.forEach(day -> dailyTotals.put(day, BigDecimal.ZERO));
+        BigDecimal totalHours = BigDecimal.ZERO;
+
+        for (Object[] row : timeLogRepository.sumHoursByTaskAndDay(timesheetUserId, weekStart, weekEnd)) {
+            Long taskId = (Long) row[0];
+            LocalDate day = (LocalDate) row[5];
+            BigDecimal hours = (BigDecimal) row[6];
+
+            Map<String, Object> taskRow = rowsByTask.computeIfAbsent(taskId, id -> {
+                Map<String, Object> newRow = new LinkedHashMap<>();
+                newRow.put("taskId", id);
+                newRow.put("taskNumber", row[1]);
+                newRow.put("taskName", row[2]);
+                newRow.put("projectId", row[3]);
+                newRow.put("projectName", row[4]);
+                newRow.put("hours", new TreeMap<LocalDate, BigDecimal>());
+                newRow.put("totalHours", BigDecimal.ZERO);
+                return newRow;
+            });
+            @SuppressWarnings("unchecked")
+            Map<LocalDate, BigDecimal> taskHours = (Map<LocalDate, BigDecimal>) taskRow.get("hours");
+            taskHours.put(day, hours);
+            taskRow.put("totalHours", ((BigDecimal) taskRow.get("totalHours")).add(hours));
+            dailyTotals.merge(day, hours, BigDecimal::add);
+            totalHours = totalHours.add(hours);
+        }
+
+        Map<String, Object> timesheet = new LinkedHashMap<>();
+        timesheet.put("userId", timesheetUserId);
+        timesheet.put("weekStart", weekStart);
+        timesheet.put("weekEnd", weekEnd);
+        timesheet.put("days", days);
+        timesheet.put("rows", new ArrayList<>(rowsByTask.values()));
+        timesheet.put("dailyTotals", dailyTotals);
+        timesheet.put("totalHours", totalHours);
+        return timesheet;
+    }
+
     public Optional<TimeLog> findTimeLogById(Long timeLogId) {
         return timeLogRepository.findById(timeLogId);
     }
@@ -126,8 +267,8 @@ public class TimeLogService {
     }
 
     public List<TimeLog> getTimeLogsForCurrentUser() {
-        User currentUser = getCurrentAuthenticatedUser();
-        return timeLogRepository.findByUser_Id(currentUser.getId());
+        CurrentUser currentUser = currentUserService.get();
+        return timeLogRepository.findByUser_Id(currentUser.userId());
     }
 
     public List<TimeLog> getTimeLogsForUser(Long userId) {
@@ -160,13 +301,14 @@ public class TimeLogService {
                     return new IllegalArgumentException("Time log with ID " + timeLogId + " not found.");
                 });
 
-        User currentUser = getCurrentAuthenticatedUser();
-        if (!existingTimeLog.getUser().getId().equals(currentUser.getId())) {
+        CurrentUser currentUser = currentUserService.get();
+        if (!existingTimeLog.getUser().getId().equals(currentUser.userId())) {
             logger.warn("User '{}' (ID: {}) attempted to update time log ID: {} owned by user ID: {}",
-                    currentUser.getUsername(), currentUser.getId(), timeLogId, existingTimeLog.getUser().getId());
+                    currentUser.username(), currentUser.userId(), timeLogId, existingTimeLog.getUser().getId());
             throw new IllegalStateException("You are not authorized to update this time log.");
         }
 
+        ProjectCostLedgerService.CostEntry costBefore = costLedgerService.snapshot(existingTimeLog);
         boolean updated = false;
 
         if (timeLogDto.getDateLogged() != null && !timeLogDto.getDateLogged().equals(existingTimeLog.getDateLogged())) {
@@ -188,7 +330,8 @@ public class TimeLogService {
 
         if (updated) {
             TimeLog savedTimeLog = timeLogRepository.save(existingTimeLog);
-            logger.info("Time log ID: {} updated by user '{}'", savedTimeLog.getId(), currentUser.getUsername());
+            costLedgerService.applyTimeLogChange(costBefore, costLedgerService.snapshot(savedTimeLog));
+            logger.info("Time log ID: {} updated by user '{}'", savedTimeLog.getId(), currentUser.username());
             return savedTimeLog;
         }
         return existingTimeLog; // Return existing if no changes were made
@@ -210,14 +353,15 @@ public class TimeLogService {
                     return new IllegalArgumentException("Time log with ID " + timeLogId + " not found.");
                 });
 
-        User currentUser = getCurrentAuthenticatedUser();
-        if (!timeLogToDelete.getUser().getId().equals(currentUser.getId())) {
+        CurrentUser currentUser = currentUserService.get();
+        if (!timeLogToDelete.getUser().getId().equals(currentUser.userId())) {
             logger.warn("User '{}' (ID: {}) attempted to delete time log ID: {} owned by user ID: {}",
-                    currentUser.getUsername(), currentUser.getId(), timeLogId, timeLogToDelete.getUser().getId());
+                    currentUser.username(), currentUser.userId(), timeLogId, timeLogToDelete.getUser().getId());
             throw new IllegalStateException("You are not authorized to delete this time log.");
         }
 
+        costLedgerService.applyTimeLogChange(costLedgerService.snapshot(timeLogToDelete), null);
         timeLogRepository.delete(timeLogToDelete);
-        logger.info("Time log ID: {} deleted by user '{}'", timeLogId, currentUser.getUsername());
+        logger.info("Time log ID: {} deleted by user '{}'", timeLogId, currentUser.username());
     }
 }
\ No newline at end of file
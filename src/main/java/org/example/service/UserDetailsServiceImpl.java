@@ -23,10 +23,12 @@ public class UserDetailsServiceImpl implements UserDetailsService {
     private static final Logger logger = LoggerFactory.getLogger(UserDetailsServiceImpl.class); // Add logger
 
     private final UserRepository userRepository;
+    private final RolePermissionIndex rolePermissionIndex;
 
     @Autowired
-    public UserDetailsServiceImpl(UserRepository userRepository) {
+    public UserDetailsServiceImpl(UserRepository userRepository, RolePermissionIndex rolePermissionIndex) {
         this.userRepository = userRepository;
+        this.rolePermissionIndex = rolePermissionIndex;
     }
 
     @Override
@@ -62,16 +64,12 @@ public class UserDetailsServiceImpl implements UserDetailsService {
         user.getRoles().forEach(role -> {
             logger.debug("Mapping role: {} for user: {}", role.getName(), username);
             authorities.add(new SimpleGrantedAuthority(role.getName()));
-            
-            // Map permissions associated with this role
-            if (role.getPermissions() != null) {
-                role.getPermissions().forEach(permission -> {
-                     logger.debug("Mapping permission: {} for role: {}", permission.getName(), role.getName());
-                     authorities.add(new SimpleGrantedAuthority(permission.getName()));
-                });
-            }
         });
 
+        // Map permissions granted by those roles (resolved from the precomputed role permission index)
+        rolePermissionIndex.permissionNames(user.getRoles())
+                .forEach(permissionName -> authorities.add(new SimpleGrantedAuthority(permissionName)));
+
         if (authorities.isEmpty()) {
             logger.warn("User {} has no roles assigned. This might be intended or an issue depending on security configuration.", username);
             // Depending on your security rules, this might be an issue,
@@ -82,13 +80,13 @@ public class UserDetailsServiceImpl implements UserDetailsService {
         }
 
 
-        return new org.springframework.security.core.userdetails.User(
+        // Ids travel with the session principal so CurrentUserService does not have to look the user up again
+        return new AuthenticatedUser(
+                user.getId(),
+                user.getOrganization() != null ? user.getOrganization().getId() : null,
                 user.getUsername(),
                 user.getPassword(), // This MUST be the encoded password from your database
                 user.isEnabled(),
-                true, // accountNonExpired
-                true, // credentialsNonExpired
-                true, // accountNonLocked
                 authorities);
     }
 }
\ No newline at end of file
@@ -324,9 +324,27 @@ public class UserService {
                 .orElseThrow(() -> new IllegalArgumentException("User not found with ID: " + userId));
 
         user.setPassword(passwordEncoder.encode(newPassword.trim()));
+        user.revokeTokens();
         return userRepository.save(user);
     }
 
+    /**
+     * The user's current refresh token version; tokens carrying another version are revoked.
+     */
+    @Transactional(readOnly = true)
+    public int getTokenVersion(Long userId) {
+        return userRepository.findTokenVersionById(userId)
+                .orElseThrow(() -> new UsernameNotFoundException("User not found with ID: " + userId));
+    }
+
+    /**
+     * Revokes every refresh token issued to the user so far.
+     */
+    @Transactional
+    public void revokeTokens(Long userId) {
+        userRepository.findById(userId).ifPresent(User::revokeTokens);
+    }
+
     /**
      * Toggles a user's enabled status (admin only method)
      *
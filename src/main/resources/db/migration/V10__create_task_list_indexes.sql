@@ -0,0 +1,15 @@
+-- Indexes for the filtered task lists (see TaskSpecifications); tasks has no organization column,
+-- the organization is checked through the project join
+CREATE INDEX idx_task_assignee_status ON tasks (assignee_id, status, updated_at);
+CREATE INDEX idx_task_checked_by_status ON tasks (checked_by_id, status, updated_at);
+CREATE INDEX idx_task_project_status ON tasks (project_id, status, updated_at);
+
+-- Per-user task summary counters (see TaskSummaryService)
+CREATE INDEX idx_task_reporter_status ON tasks (reporter_id, status);
+
+-- Weekly timesheet reads by user and date range
+CREATE INDEX idx_timelog_user_date ON time_logs (user_id, date_logged);
+
+-- Replaced by the indexes above, which lead with the same column (and still cover the foreign keys)
+DROP INDEX idx_task_assignee_id ON tasks;
+DROP INDEX idx_timelog_user_id ON time_logs;
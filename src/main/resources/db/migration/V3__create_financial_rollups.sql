@@ -0,0 +1,16 @@
+-- Create financial_rollups table (pre-aggregated invoice totals for the financial health dashboard)
+-- Rows are populated on startup and verified nightly by FinancialRollupService
+CREATE TABLE IF NOT EXISTS financial_rollups (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    organization_id BIGINT NOT NULL,
+    charge_type VARCHAR(50) NOT NULL DEFAULT '', -- '' for invoices without a project
+    project_stage VARCHAR(50) NOT NULL DEFAULT '', -- '' for invoices without a project
+    invoice_status VARCHAR(50) NOT NULL,
+    has_project BIT NOT NULL,
+    project_active BIT NOT NULL,
+    invoice_count BIGINT NOT NULL DEFAULT 0,
+    total_amount DECIMAL(15, 2) NOT NULL DEFAULT 0,
+    paid_amount DECIMAL(15, 2) NOT NULL DEFAULT 0,
+    balance_amount DECIMAL(15, 2) NOT NULL DEFAULT 0,
+    CONSTRAINT uk_financial_rollup_group UNIQUE (organization_id, charge_type, project_stage, invoice_status, has_project, project_active)
+);
@@ -0,0 +1,7 @@
+-- Create number_sequences table (counters for task, invoice and project numbers)
+-- One row per sequence scope, e.g. 'invoice:12:ACME-2025-'; rows are seeded from the highest
+-- existing number on first use by SequenceService
+CREATE TABLE IF NOT EXISTS number_sequences (
+    scope VARCHAR(191) NOT NULL PRIMARY KEY,
+    next_value BIGINT NOT NULL
+);
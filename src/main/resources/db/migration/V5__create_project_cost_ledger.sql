@@ -0,0 +1,11 @@
+-- Create project_cost_ledger table (logged hours and cost per project phase)
+-- Rows are populated on startup and verified nightly by ProjectCostLedgerService
+CREATE TABLE IF NOT EXISTS project_cost_ledger (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    organization_id BIGINT NOT NULL,
+    project_id BIGINT NOT NULL,
+    phase_id BIGINT NOT NULL DEFAULT 0, -- 0 for time logged on tasks without a phase
+    hours_logged DECIMAL(12, 2) NOT NULL DEFAULT 0,
+    cost DECIMAL(21, 6) NOT NULL DEFAULT 0,
+    CONSTRAINT uk_project_cost_ledger_phase UNIQUE (project_id, phase_id)
+);
@@ -0,0 +1,14 @@
+-- Seek index for the paginated organization audit log and the monthly archive job
+CREATE INDEX idx_audit_logs_org_timestamp ON audit_logs (organization_id, timestamp, id);
+
+-- Compressed monthly archives of audit rows older than the retention window (see AuditArchiveService)
+CREATE TABLE IF NOT EXISTS audit_log_archives (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    organization_id BIGINT NOT NULL,
+    archive_month DATE NOT NULL, -- first day of the archived month
+    file_url VARCHAR(500) NOT NULL,
+    row_count INT NOT NULL,
+    compressed_size BIGINT NOT NULL,
+    created_at DATETIME(6) NOT NULL,
+    INDEX idx_audit_log_archives_org_month (organization_id, archive_month)
+);
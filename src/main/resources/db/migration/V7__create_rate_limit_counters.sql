@@ -0,0 +1,10 @@
+-- Create rate_limit_counters table (sliding-window hit counts shared by all nodes, see JdbcRateLimitStore)
+-- One row per counter key ("<endpoint>|<client>|m" or "|h") and fixed window; expired rows are deleted periodically
+CREATE TABLE IF NOT EXISTS rate_limit_counters (
+    counter_key VARCHAR(255) NOT NULL,
+    window_start BIGINT NOT NULL, -- epoch millis
+    hits INT NOT NULL,
+    expires_at BIGINT NOT NULL, -- epoch millis
+    PRIMARY KEY (counter_key, window_start),
+    INDEX idx_rate_limit_expires_at (expires_at)
+);
@@ -0,0 +1,8 @@
+-- Create cache_versions table (per-organization change counters that invalidate cached data on every node)
+-- Bumped in the changing transaction and compared on read by CacheVersionService
+CREATE TABLE IF NOT EXISTS cache_versions (
+    cache_name VARCHAR(64) NOT NULL,
+    organization_id BIGINT NOT NULL,
+    version BIGINT NOT NULL,
+    PRIMARY KEY (cache_name, organization_id)
+);
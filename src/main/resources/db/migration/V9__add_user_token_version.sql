@@ -0,0 +1,2 @@
+-- Refresh token version per user (see JwtTokenService); bumped on password change, reset and logout
+ALTER TABLE users ADD COLUMN token_version INT NOT NULL DEFAULT 0;
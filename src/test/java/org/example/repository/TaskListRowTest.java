@@ -0,0 +1,178 @@
+package org.example.repository;
+
+import jakarta.persistence.EntityManager;
+import org.example.dto.TaskListRow;
+import org.example.models.Client;
+import org.example.models.Organization;
+import org.example.models.Phase;
+import org.example.models.Project;
+import org.example.models.Task;
+import org.example.models.User;
+import org.example.models.enums.ProjectChargeType;
+import org.example.models.enums.ProjectStage;
+import org.example.models.enums.ProjectStatus;
+import org.example.models.enums.TaskPriority;
+import org.example.models.enums.TaskStatus;
+import org.hibernate.Session;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The task list views build their payload from TaskListRow (findListRowsByIdIn) instead of Task
+ * entities with fetch-joined associations (findByIdInWithDetails). The payload fields map one to one,
+ * so the rows must carry exactly what the entity graph does, including missing associations.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+class TaskListRowTest {
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private List<Long> taskIds;
+
+    @BeforeEach
+    void setUp() {
+        Organization organization = new Organization("Studio", null, "studio@example.com");
+        entityManager.persist(organization);
+        Client client = new Client("Harbour Trust", "HT", organization);
+        entityManager.persist(client);
+        User alice = user("alice", "Alice Architect", organization);
+        User bob = user("bob", null, organization);
+        User carol = user("carol", "Carol Checker", organization);
+
+        Project project = new Project();
+        project.setProjectNumber("PRJ-1");
+        project.setName("Harbour Pavilion");
+        project.setClient(client);
+        project.setOrganization(organization);
+        project.setStartDate(LocalDate.of(2025, 1, 6));
+        project.setLocation("Pier 4");
+        project.setChargeType(ProjectChargeType.REGULAR);
+        project.setStatus(ProjectStatus.ACTIVE);
+        project.setProjectStage(ProjectStage.CONCEPT);
+        entityManager.persist(project);
+
+        Phase phase = new Phase();
+        phase.setPhaseNumber("01");
+        phase.setName("Concept");
+        phase.setProject(project);
+        entityManager.persist(phase);
+
+        Task complete = task("T-1", "Site plan", bob);
+        complete.setDescription("Massing options");
+        complete.setPhase(phase);
+        complete.setAssignee(alice);
+        complete.setCheckedBy(carol);
+        complete.setPriority(TaskPriority.HIGH);
+        complete.setDueDate(LocalDate.of(2025, 2, 14));
+        entityManager.persist(complete);
+
+        Task projectOnly = task("T-2", "Client call", alice);
+        projectOnly.setProject(project);
+        projectOnly.setAssignee(bob);
+        entityManager.persist(projectOnly);
+
+        Task bare = task("T-3", "Read brief", carol);
+        entityManager.persist(bare);
+
+        entityManager.flush();
+        entityManager.clear();
+        taskIds = List.of(complete.getId(), projectOnly.getId(), bare.getId());
+    }
+
+    private User user(String username, String name, Organization organization) {
+        User user = new User(username, "{noop}secret", username + "@example.com");
+        user.setName(name);
+        user.setOrganization(organization);
+        entityManager.persist(user);
+        return user;
+    }
+
+    private static Task task(String number, String name, User reporter) {
+        Task task = new Task();
+        task.setTaskNumber(number);
+        task.setName(name);
+        task.setStatus(TaskStatus.TO_DO);
+        task.setProjectStage(ProjectStage.CONCEPT);
+        task.setReporter(reporter);
+        return task;
+    }
+
+    // What the list payload used to be built from
+    private static TaskListRow fromEntity(Task task) {
+        Project project = task.getProject();
+        User assignee = task.getAssignee();
+        User reporter = task.getReporter();
+        User checkedBy = task.getCheckedBy();
+        Phase phase = task.getPhase();
+        return new TaskListRow(
+                task.getId(), task.getName(), task.getDescription(), task.getStatus(), task.getProjectStage(),
+                task.getPriority(), task.getDueDate(), task.getCreatedAt(), task.getUpdatedAt(),
+                project != null ? project.getId() : null,
+                project != null ? project.getName() : null,
+                project != null ? project.getClient().getName() : null,
+                assignee != null ? assignee.getId() : null,
+                assignee != null ? assignee.getUsername() : null,
+                assignee != null ? assignee.getName() : null,
+                assignee != null ? assignee.getEmail() : null,
+                reporter != null ? reporter.getId() : null,
+                reporter != null ? reporter.getUsername() : null,
+                reporter != null ? reporter.getName() : null,
+                reporter != null ? reporter.getEmail() : null,
+                checkedBy != null ? checkedBy.getId() : null,
+                checkedBy != null ? checkedBy.getUsername() : null,
+                checkedBy != null ? checkedBy.getName() : null,
+                checkedBy != null ? checkedBy.getEmail() : null,
+                phase != null ? phase.getId() : null,
+                phase != null ? phase.getName() : null,
+                phase != null ? phase.getPhaseNumber() : null);
+    }
+
+    private long managedEntities() {
+        return entityManager.unwrap(Session.class).getStatistics().getEntityCount();
+    }
+
+    @Test
+    void projectionMatchesTheEntityGraph() {
+        Map<Long, TaskListRow> expected = new HashMap<>();
+        for (Task task : taskRepository.findByIdInWithDetails(taskIds)) {
+            expected.put(task.getId(), fromEntity(task));
+        }
+        entityManager.clear();
+
+        List<TaskListRow> rows = taskRepository.findListRowsByIdIn(taskIds);
+
+        assertEquals(taskIds.size(), rows.size());
+        for (TaskListRow row : rows) {
+            assertEquals(expected.get(row.id()), row);
+        }
+    }
+
+    @Test
+    void projectionLoadsNoEntities() {
+        taskRepository.findByIdInWithDetails(taskIds);
+        long withEntities = managedEntities();
+        entityManager.clear();
+
+        taskRepository.findListRowsByIdIn(taskIds);
+
+        // Three tasks plus their users, project, client and phase are managed (and snapshotted) on the old path
+        assertTrue(withEntities >= 3 + 3 + 3, "Expected the entity graph to be managed, was " + withEntities);
+        assertEquals(0, managedEntities());
+    }
+}
@@ -0,0 +1,131 @@
+package org.example.repository;
+
+import org.example.models.Task;
+import org.example.models.enums.TaskPriority;
+import org.example.models.enums.TaskStatus;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the SQL generated for the filtered task list: one predicate per supplied filter, plain
+ * equality or IN on the indexed foreign key columns, and no join besides the one to projects.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "org.example.repository.TaskSpecificationsTest$CapturedSql")
+@ActiveProfiles("test")
+class TaskSpecificationsTest {
+
+    private static final Long ORGANIZATION_ID = 7L;
+
+    /**
+     * Records every statement Hibernate prepares.
+     */
+    public static class CapturedSql implements StatementInspector {
+        static final List<String> statements = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            statements.add(sql);
+            return sql;
+        }
+    }
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @BeforeEach
+    void setUp() {
+        CapturedSql.statements.clear();
+    }
+
+    // The ID query of the first page, lower case with whitespace collapsed
+    private String idQuery(Specification<Task> specification) {
+        taskRepository.findIds(specification, PageRequest.of(0, 50,
+                Sort.by(Sort.Order.desc("updatedAt"), Sort.Order.desc("id"))));
+        // An empty first page needs no count query
+        assertEquals(1, CapturedSql.statements.size(), () -> "Statements: " + CapturedSql.statements);
+        return CapturedSql.statements.get(0).toLowerCase().replaceAll("\\s+", " ");
+    }
+
+    private static String where(String sql) {
+        Matcher matcher = Pattern.compile(" where (.*) order by ").matcher(sql);
+        assertTrue(matcher.find(), () -> "No WHERE clause in " + sql);
+        // Table aliases are generated and nested conjunctions may be bracketed; compare column names only
+        return matcher.group(1).replaceAll("\\w+\\.(\\w+)", "$1").replaceAll("[()]", "");
+    }
+
+    private static void assertOnlyProjectJoin(String sql) {
+        assertEquals(1, sql.split(" join ", -1).length - 1, () -> "Expected a single join: " + sql);
+        assertTrue(sql.contains(" join projects "), () -> "Expected the projects join: " + sql);
+        assertFalse(sql.contains("distinct"), sql);
+        assertFalse(sql.contains(" is null"), sql);
+    }
+
+    @Test
+    void organizationOnly() {
+        String sql = idQuery(TaskSpecifications.withFilters(ORGANIZATION_ID, null, null, null, null, null, null));
+
+        assertEquals("organization_id=?", where(sql));
+        assertOnlyProjectJoin(sql);
+    }
+
+    @Test
+    void assigneeAndStatus() {
+        String sql = idQuery(TaskSpecifications.withFilters(ORGANIZATION_ID, 3L, null, null,
+                List.of(TaskStatus.IN_PROGRESS), null, null));
+
+        assertEquals("organization_id=? and assignee_id=? and status=?", where(sql));
+        assertOnlyProjectJoin(sql);
+    }
+
+    @Test
+    void checkerAndSeveralStatuses() {
+        String sql = idQuery(TaskSpecifications.withFilters(ORGANIZATION_ID, null, null, 3L,
+                List.of(TaskStatus.DONE, TaskStatus.IN_REVIEW), null, null));
+
+        assertEquals("organization_id=? and checked_by_id=? and status in ?,?", where(sql));
+        assertOnlyProjectJoin(sql);
+    }
+
+    @Test
+    void projectAndStatus() {
+        String sql = idQuery(TaskSpecifications.withFilters(ORGANIZATION_ID, null, null, null,
+                List.of(TaskStatus.TO_DO), null, 11L));
+
+        assertEquals("organization_id=? and status=? and project_id=?", where(sql));
+        assertOnlyProjectJoin(sql);
+    }
+
+    @Test
+    void everyFilter() {
+        String sql = idQuery(TaskSpecifications.withFilters(ORGANIZATION_ID, 3L, 4L, 5L,
+                List.of(TaskStatus.TO_DO, TaskStatus.IN_PROGRESS), List.of(TaskPriority.HIGH), 11L));
+
+        assertEquals("organization_id=? and assignee_id=? and reporter_id=? and checked_by_id=? "
+                + "and status in ?,? and priority=? and project_id=?", where(sql));
+        assertOnlyProjectJoin(sql);
+    }
+
+    @Test
+    void emptyListsAddNoPredicate() {
+        String sql = idQuery(TaskSpecifications.withFilters(ORGANIZATION_ID, null, null, null, List.of(), List.of(), null));
+
+        assertEquals("organization_id=?", where(sql));
+    }
+}
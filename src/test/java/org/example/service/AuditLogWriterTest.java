@@ -0,0 +1,116 @@
+package org.example.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+class AuditLogWriterTest {
+
+    @TempDir
+    Path dir;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private DriverManagerDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:audit-" + UUID.randomUUID() + ";MODE=MySQL;DB_CLOSE_DELAY=-1");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("""
+                CREATE TABLE audit_logs (
+                    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+                    entity_type VARCHAR(255) NOT NULL,
+                    entity_id BIGINT NOT NULL,
+                    action VARCHAR(255) NOT NULL,
+                    field_changed VARCHAR(255),
+                    old_value VARCHAR(2000),
+                    new_value VARCHAR(2000),
+                    user_id BIGINT,
+                    organization_id BIGINT,
+                    timestamp DATETIME NOT NULL
+                )
+                """);
+    }
+
+    private AuditLogWriter writer(int batchSize) {
+        return new AuditLogWriter(jdbcTemplate, new DataSourceTransactionManager(dataSource), objectMapper,
+                meterRegistry, 100, batchSize, Duration.ofSeconds(1), Duration.ofSeconds(5),
+                dir.resolve("fallback.jsonl").toString(), dir.resolve("dead-letter.jsonl").toString());
+    }
+
+    private static AuditLogWriter.AuditRecord record(long entityId, String action) {
+        return new AuditLogWriter.AuditRecord("TASK", entityId, action, "status", "TO_DO", "DONE", 1L, 1L,
+                LocalDateTime.of(2025, 3, 1, 12, 0));
+    }
+
+    private void writeFallback(List<AuditLogWriter.AuditRecord> records) throws Exception {
+        List<String> lines = new ArrayList<>();
+        for (AuditLogWriter.AuditRecord record : records) {
+            lines.add(objectMapper.writeValueAsString(record));
+        }
+        Files.write(dir.resolve("fallback.jsonl"), lines, StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void rejectedRowGoesToDeadLetterAndTheRestOfItsBatchIsWritten() throws Exception {
+        AuditLogWriter writer = writer(10);
+        writer.start();
+        writer.enqueue(List.of(record(1, "UPDATE"), record(2, null), record(3, "UPDATE")));
+        writer.stop();
+
+        assertEquals(2, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM audit_logs", Integer.class));
+        assertEquals(1, Files.readAllLines(dir.resolve("dead-letter.jsonl")).size());
+        assertFalse(Files.exists(dir.resolve("fallback.jsonl")));
+        assertEquals(1.0, meterRegistry.get("audit.deadletter.records").functionCounter().count());
+    }
+
+    @Test
+    void replayKeepsGoingAfterABatchFails() throws Exception {
+        // Batches of two: the bad record fails the first batch, the later batches must still be written
+        writeFallback(List.of(record(1, null), record(2, "UPDATE"), record(3, "UPDATE"),
+                record(4, "UPDATE"), record(5, "UPDATE")));
+
+        writer(2).replayFallbackFile();
+
+        assertEquals(4, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM audit_logs", Integer.class));
+        assertEquals(1, Files.readAllLines(dir.resolve("dead-letter.jsonl")).size());
+        assertFalse(Files.exists(dir.resolve("fallback.jsonl")));
+        assertFalse(Files.exists(dir.resolve("fallback.jsonl.replaying")));
+    }
+
+    @Test
+    void recordsAreKeptForReplayWhileTheDatabaseIsUnavailable() throws Exception {
+        writeFallback(List.of(record(1, "UPDATE"), record(2, "UPDATE")));
+        AuditLogWriter writer = new AuditLogWriter(
+                new JdbcTemplate(new DriverManagerDataSource("jdbc:h2:tcp://localhost:1/unavailable")),
+                new DataSourceTransactionManager(new DriverManagerDataSource("jdbc:h2:tcp://localhost:1/unavailable")),
+                objectMapper, meterRegistry, 100, 10, Duration.ofSeconds(1), Duration.ofSeconds(5),
+                dir.resolve("fallback.jsonl").toString(), dir.resolve("dead-letter.jsonl").toString());
+
+        writer.replayFallbackFile();
+
+        assertEquals(2, Files.readAllLines(dir.resolve("fallback.jsonl")).size());
+        assertFalse(Files.exists(dir.resolve("dead-letter.jsonl")));
+    }
+}
@@ -0,0 +1,102 @@
+package org.example.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Two services on one database stand in for two nodes, each with its own cache.
+ */
+class CacheVersionServiceTest {
+
+    private static final Long ORG = 7L;
+
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:cache-versions-" + UUID.randomUUID() + ";MODE=MySQL;DB_CLOSE_DELAY=-1");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        // Same table as V8__create_cache_versions.sql
+        jdbcTemplate.execute("CREATE TABLE cache_versions (cache_name VARCHAR(64) NOT NULL, "
+                + "organization_id BIGINT NOT NULL, version BIGINT NOT NULL, PRIMARY KEY (cache_name, organization_id))");
+    }
+
+    /**
+     * Reads the organization's entry the way the caching services do: check the version, then load on a miss.
+     */
+    private static String read(CacheVersionService versions, Cache cache, String loaded) {
+        versions.evictIfStale(cache, ORG);
+        return cache.get(ORG, () -> loaded);
+    }
+
+    @Test
+    void changeOnOneNodeEvictsTheEntryOnTheOther() {
+        CacheVersionService nodeA = new CacheVersionService(jdbcTemplate);
+        CacheVersionService nodeB = new CacheVersionService(jdbcTemplate);
+        Cache cacheA = new ConcurrentMapCache("feed");
+        Cache cacheB = new ConcurrentMapCache("feed");
+
+        assertEquals("v0", read(nodeA, cacheA, "v0"));
+        assertEquals("v0", read(nodeB, cacheB, "v0"));
+
+        AtomicInteger updatedInPlace = new AtomicInteger();
+        transactionTemplate.executeWithoutResult(status ->
+                nodeA.bump(cacheA, ORG, () -> {
+                    updatedInPlace.incrementAndGet();
+                    cacheA.put(ORG, "v1");
+                }));
+
+        // A was exactly one version behind, so it updated its entry instead of rebuilding it
+        assertEquals(1, updatedInPlace.get());
+        assertEquals("v1", read(nodeA, cacheA, "rebuilt"));
+        // B still had the old version and rebuilds
+        assertEquals("v1", read(nodeB, cacheB, "v1"));
+    }
+
+    @Test
+    void rolledBackChangeKeepsTheVersion() {
+        CacheVersionService node = new CacheVersionService(jdbcTemplate);
+        Cache cache = new ConcurrentMapCache("feed");
+        assertEquals("v0", read(node, cache, "v0"));
+
+        transactionTemplate.executeWithoutResult(status -> {
+            node.bump(cache, ORG, () -> cache.put(ORG, "never"));
+            status.setRollbackOnly();
+        });
+
+        assertEquals("v0", read(node, cache, "rebuilt"));
+    }
+
+    @Test
+    void updateInPlaceIsSkippedWhenAnotherNodesChangeIsMissing() {
+        CacheVersionService nodeA = new CacheVersionService(jdbcTemplate);
+        CacheVersionService nodeB = new CacheVersionService(jdbcTemplate);
+        Cache cacheA = new ConcurrentMapCache("feed");
+        Cache cacheB = new ConcurrentMapCache("feed");
+        assertEquals("v0", read(nodeA, cacheA, "v0"));
+
+        // B's change is not in A's entry; A's own change cannot be applied on top of it
+        nodeB.bump(cacheB, ORG, () -> {});
+        nodeA.bump(cacheA, ORG, () -> cacheA.put(ORG, "partial"));
+
+        assertNull(cacheA.get(ORG));
+        assertEquals("v2", read(nodeA, cacheA, "v2"));
+        assertNotNull(cacheA.get(ORG));
+    }
+}
@@ -0,0 +1,147 @@
+package org.example.service;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.example.models.Organization;
+import org.example.models.Role;
+import org.example.models.User;
+import org.example.repository.UserRepository;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Counts the statements needed to resolve the current user, against the findByUsername lookup every
+ * service used to repeat (which also loads the user's EAGER roles).
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@Import(CurrentUserService.class)
+class CurrentUserServiceTest {
+
+    @Autowired
+    private CurrentUserService currentUserService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        Organization organization = new Organization("Studio", null, "studio@example.com");
+        entityManager.persist(organization);
+        Role admin = new Role("ROLE_ADMIN");
+        entityManager.persist(admin);
+        user = new User("alice", "{noop}secret", "alice@example.com");
+        user.setOrganization(organization);
+        user.setRoles(new HashSet<>(Set.of(admin)));
+        entityManager.persist(user);
+        entityManager.flush();
+        entityManager.clear();
+
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    private void signIn(Object principal) {
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                principal, null, List.of(new SimpleGrantedAuthority("ROLE_ADMIN"))));
+    }
+
+    private long statements(Runnable work) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        work.run();
+        return statistics.getPrepareStatementCount();
+    }
+
+    @Test
+    void sessionPrincipalNeedsNoQueries() {
+        signIn(new AuthenticatedUser(user.getId(), user.getOrganization().getId(), "alice", "secret", true,
+                List.of(new SimpleGrantedAuthority("ROLE_ADMIN"))));
+
+        // What a /api/projects/{id}/details request used to do: one lookup per service involved
+        long before = statements(() -> {
+            for (int i = 0; i < 3; i++) {
+                entityManager.clear();
+                userRepository.findByUsername("alice").orElseThrow().getRoles().size();
+            }
+        });
+        entityManager.clear();
+        long after = statements(() -> {
+            for (int i = 0; i < 3; i++) {
+                CurrentUser currentUser = currentUserService.get();
+                assertEquals(user.getId(), currentUser.userId());
+                assertEquals(user.getOrganization().getId(), currentUser.organizationId());
+                // An association reference for audit rows and queries is not loaded
+                currentUserService.userReference();
+            }
+        });
+
+        assertTrue(before >= 3, "findByUsername should issue at least one statement per call, was " + before);
+        assertEquals(0, after);
+    }
+
+    @Test
+    void olderSessionsAreResolvedOncePerRequest() {
+        signIn(new org.springframework.security.core.userdetails.User("alice", "secret",
+                List.of(new SimpleGrantedAuthority("ROLE_ADMIN"))));
+
+        long count = statements(() -> {
+            for (int i = 0; i < 3; i++) {
+                assertEquals(user.getId(), currentUserService.get().userId());
+            }
+        });
+
+        assertEquals(1, count);
+    }
+
+    @Test
+    void roleCheckSeesRevocationDuringTheSession() {
+        signIn(new AuthenticatedUser(user.getId(), user.getOrganization().getId(), "alice", "secret", true,
+                List.of(new SimpleGrantedAuthority("ROLE_ADMIN"))));
+        assertTrue(currentUserService.hasRole("ROLE_ADMIN"));
+
+        User stored = userRepository.findById(user.getId()).orElseThrow();
+        stored.getRoles().clear();
+        entityManager.flush();
+        entityManager.clear();
+
+        // The login snapshot still says admin; the live check does not
+        assertTrue(currentUserService.get().isAdmin());
+        assertFalse(currentUserService.hasRole("ROLE_ADMIN"));
+        assertEquals(1, statements(() -> currentUserService.hasRole("ROLE_ADMIN")));
+    }
+}
@@ -0,0 +1,125 @@
+package org.example.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.time.Duration;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Two stores on one database stand in for two nodes behind the load balancer.
+ */
+class JdbcRateLimitStoreTest {
+
+    private static final String KEY = "/api/auth/forgot-password|203.0.113.7";
+    private static final RateLimitStore.Rule RULE = new RateLimitStore.Rule(3, 100);
+
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() throws InterruptedException {
+        jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource(
+                "jdbc:h2:mem:rate-limit-" + UUID.randomUUID() + ";MODE=MySQL;DB_CLOSE_DELAY=-1"));
+        // Same table as V7__create_rate_limit_counters.sql
+        jdbcTemplate.execute("CREATE TABLE rate_limit_counters (counter_key VARCHAR(255) NOT NULL, "
+                + "window_start BIGINT NOT NULL, hits INT NOT NULL, expires_at BIGINT NOT NULL, "
+                + "PRIMARY KEY (counter_key, window_start))");
+        // Keep the test inside one minute window; the previous window would otherwise count with a weight
+        long leftInMinute = 60_000 - System.currentTimeMillis() % 60_000;
+        if (leftInMinute < 5_000) {
+            Thread.sleep(leftInMinute + 100);
+        }
+    }
+
+    private JdbcRateLimitStore node() {
+        return new JdbcRateLimitStore(jdbcTemplate, 1000, 1000, Duration.ofHours(1));
+    }
+
+    private int minuteHitsInDatabase() {
+        Integer hits = jdbcTemplate.queryForObject(
+                "SELECT SUM(hits) FROM rate_limit_counters WHERE counter_key = ?", Integer.class, KEY + "|m");
+        return hits != null ? hits : 0;
+    }
+
+    @Test
+    void limitHoldsAcrossNodesSharingOneTable() {
+        JdbcRateLimitStore nodeA = node();
+        JdbcRateLimitStore nodeB = node();
+
+        assertEquals(0, nodeA.tryAcquire(KEY, RULE, System.currentTimeMillis()));
+        assertEquals(0, nodeA.tryAcquire(KEY, RULE, System.currentTimeMillis()));
+        nodeA.flush();
+        assertEquals(2, minuteHitsInDatabase());
+
+        // B sees the client for the first time and loads A's hits
+        assertEquals(0, nodeB.tryAcquire(KEY, RULE, System.currentTimeMillis()));
+        assertTrue(nodeB.tryAcquire(KEY, RULE, System.currentTimeMillis()) > 0);
+        nodeB.flush();
+        assertEquals(3, minuteHitsInDatabase());
+
+        // A has not read B's hit yet, so it lets one more through (limits hold to within one flush interval)
+        assertEquals(0, nodeA.tryAcquire(KEY, RULE, System.currentTimeMillis()));
+        nodeA.flush();
+        assertEquals(4, minuteHitsInDatabase());
+        // and after flushing it has the merged total
+        assertTrue(nodeA.tryAcquire(KEY, RULE, System.currentTimeMillis()) > 0);
+        assertTrue(nodeB.tryAcquire(KEY, RULE, System.currentTimeMillis()) > 0);
+    }
+
+    @Test
+    void keysCheckedWithoutLocalHitsAreRefreshed() {
+        JdbcRateLimitStore nodeA = node();
+        JdbcRateLimitStore nodeB = node();
+
+        assertEquals(0, nodeA.tryAcquire(KEY, new RateLimitStore.Rule(1, 100), System.currentTimeMillis()));
+        nodeA.flush();
+        // Rejected on A, so A takes no hit for this key
+        assertTrue(nodeA.tryAcquire(KEY, new RateLimitStore.Rule(1, 100), System.currentTimeMillis()) > 0);
+
+        RateLimitStore.Rule generous = new RateLimitStore.Rule(100, 1000);
+        assertEquals(0, nodeB.tryAcquire(KEY, generous, System.currentTimeMillis()));
+        assertEquals(0, nodeB.tryAcquire(KEY, generous, System.currentTimeMillis()));
+        nodeB.flush();
+        assertEquals(3, minuteHitsInDatabase());
+
+        // A has nothing to write but still reads B's hits back
+        nodeA.flush();
+        assertTrue(nodeA.tryAcquire(KEY, RULE, System.currentTimeMillis()) > 0);
+    }
+
+    @Test
+    void hitsFromSeveralUnflushedWindowsAreAllWritten() {
+        JdbcRateLimitStore nodeA = node();
+        RateLimitStore.Rule generous = new RateLimitStore.Rule(100, 1000);
+        long hourStart = System.currentTimeMillis() / 3_600_000 * 3_600_000;
+
+        // Three minute windows pass without a flush in between
+        assertEquals(0, nodeA.tryAcquire(KEY, generous, hourStart));
+        assertEquals(0, nodeA.tryAcquire(KEY, generous, hourStart + 60_000));
+        assertEquals(0, nodeA.tryAcquire(KEY, generous, hourStart + 120_000));
+        nodeA.flush();
+
+        assertEquals(3, minuteHitsInDatabase());
+    }
+
+    @Test
+    void concurrentFlushesAddUp() {
+        JdbcRateLimitStore nodeA = node();
+        JdbcRateLimitStore nodeB = node();
+        RateLimitStore.Rule generous = new RateLimitStore.Rule(100, 1000);
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, nodeA.tryAcquire(KEY, generous, System.currentTimeMillis()));
+            assertEquals(0, nodeB.tryAcquire(KEY, generous, System.currentTimeMillis()));
+        }
+        nodeA.flush();
+        nodeB.flush();
+
+        assertEquals(10, minuteHitsInDatabase());
+    }
+}
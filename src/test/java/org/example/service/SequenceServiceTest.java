@@ -0,0 +1,65 @@
+package org.example.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SequenceServiceTest {
+
+    private static final String KEY = "12:ACME-2025-";
+
+    private DriverManagerDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:sequences-" + UUID.randomUUID() + ";MODE=MySQL;DB_CLOSE_DELAY=-1");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        // Same table as V4__create_number_sequences.sql
+        jdbcTemplate.execute("CREATE TABLE number_sequences (scope VARCHAR(191) NOT NULL PRIMARY KEY, next_value BIGINT NOT NULL)");
+    }
+
+    private SequenceService service(int blockSize) {
+        return new SequenceService(jdbcTemplate, new DataSourceTransactionManager(dataSource),
+                blockSize, blockSize, blockSize);
+    }
+
+    @Test
+    void seedsFromExistingMaxAndContinuesInBlockMode() {
+        SequenceService single = service(1);
+        assertEquals(41, single.next(SequenceService.INVOICE, KEY, () -> 40));
+        assertEquals(42, single.next(SequenceService.INVOICE, KEY, () -> { throw new AssertionError("already seeded"); }));
+
+        // An operator raises the block size: numbering continues without reusing 42
+        SequenceService block = service(5);
+        assertEquals(43, block.next(SequenceService.INVOICE, KEY, () -> 40));
+        assertEquals(44, block.next(SequenceService.INVOICE, KEY, () -> 40));
+
+        // Back to single allocation after the block of 43..47 was reserved
+        assertEquals(48, single.next(SequenceService.INVOICE, KEY, () -> 40));
+    }
+
+    @Test
+    void keysAreNumberedIndependently() {
+        SequenceService single = service(1);
+        assertEquals(1, single.next(SequenceService.TASK, "1:", () -> 0));
+        assertEquals(8, single.next(SequenceService.TASK, "2:", () -> 7));
+        assertEquals(2, single.next(SequenceService.TASK, "1:", () -> 0));
+    }
+
+    @Test
+    void continuesExistingRowsAfterTheLastReservedNumber() {
+        jdbcTemplate.update("INSERT INTO number_sequences (scope, next_value) VALUES (?, ?)", "project:3:PRJ-", 17);
+
+        SequenceService single = service(1);
+        assertEquals(18, single.next(SequenceService.PROJECT, "3:PRJ-", () -> 17));
+        assertEquals(19, single.next(SequenceService.PROJECT, "3:PRJ-", () -> 17));
+    }
+}